@@ -3,41 +3,26 @@ package com.foxdeli;
 import com.foxdeli.exception.FoxdeliApiException;
 import com.foxdeli.exception.FoxdeliAuthenticationException;
 import com.foxdeli.exception.FoxdeliException;
-import com.foxdeli.helper.AuthHelper;
-import com.foxdeli.interceptor.AuthInterceptor;
-import com.foxdeli.interceptor.ErrorHandlingInterceptor;
-import com.foxdeli.interceptor.FoxdeliAuthenticator;
-import com.foxdeli.mapper.OrderMapper;
-import com.foxdeli.mapper.ParcelMapper;
 import com.foxdeli.model.request.OrderRequest;
 import com.foxdeli.model.request.ParcelRequest;
+import com.foxdeli.model.request.ParcelStateChange;
 import com.foxdeli.model.response.Order;
 import com.foxdeli.model.response.Parcel;
-import com.foxdeli.orders.ApiClient;
-import com.foxdeli.orders.ApiException;
-import com.foxdeli.orders.api.OrderV1Api;
-import com.foxdeli.orders.api.ParcelV1Api;
+import com.foxdeli.model.response.ParcelStateResult;
 import com.foxdeli.orders.api.model.DeliveryState;
-import com.foxdeli.orders.api.model.OrderRegistration;
-import com.foxdeli.orders.api.model.OrderUpdate;
-import com.foxdeli.orders.api.model.ParcelRegistration;
-import com.foxdeli.orders.api.model.ParcelStateUpdate;
-import com.foxdeli.orders.api.model.ParcelUpdate;
-import lombok.extern.slf4j.Slf4j;
-import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
-import org.mapstruct.factory.Mappers;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
-import static com.foxdeli.constant.Constant.STAGE_PATH_TRACKING;
-
 /**
  * The `Foxdeli` class provides a set of static methods to interact with the Foxdeli API for managing orders and parcels.
  * It offers methods for initializing the API, creating, updating, and canceling orders, and managing parcels.
  * Before using any of the API methods, the `init` method must be called to set up the necessary authentication and API client.
+ * <p>
+ * All methods delegate to a default `FoxdeliClient` created by `init`. Applications working with several accounts
+ * should create their own `FoxdeliClient` instances instead.
  */
-@Slf4j
 public class Foxdeli {
 
     /**
@@ -49,10 +34,7 @@ public class Foxdeli {
 
     private static UUID eshopId;
     private static UUID marketId;
-    private static OrderV1Api ordersApi;
-    private static ParcelV1Api parcelsApi;
-    private static final OrderMapper orderMapper = Mappers.getMapper(OrderMapper.class);
-    private static final ParcelMapper parcelMapper = Mappers.getMapper(ParcelMapper.class);
+    private static volatile FoxdeliClient client;
 
     /**
      * Initializes the `Foxdeli` class with the given username and password.
@@ -75,12 +57,14 @@ public class Foxdeli {
      * @param stage If true, SDK will connect to `stage` env. If false, SDK will connect to `prod` env.
      * @throws FoxdeliAuthenticationException If the API call to get access token fails.
      */
-    public static void init(String username, String password, boolean stage) {
-        AuthHelper.setUsername(username);
-        AuthHelper.setPassword(password);
-        AuthHelper.initTokenApi(stage);
-        AuthHelper.authorize();
-        initApi(stage);
+    public static synchronized void init(String username, String password, boolean stage) {
+        client = FoxdeliClient.builder()
+                .username(username)
+                .password(password)
+                .eshopId(eshopId)
+                .marketId(marketId)
+                .stage(stage)
+                .build();
     }
 
     /**
@@ -108,7 +92,7 @@ public class Foxdeli {
      * @param stage If true, SDK will connect to `stage` env. If false, SDK will connect to `prod` env.
      * @throws FoxdeliAuthenticationException If the API call to get access token fails.
      */
-    public static void init(String username, String password, UUID eshopId, UUID marketId, boolean stage) {
+    public static synchronized void init(String username, String password, UUID eshopId, UUID marketId, boolean stage) {
         setEshopId(eshopId);
         setMarketId(marketId);
         init(username, password, stage);
@@ -120,11 +104,14 @@ public class Foxdeli {
      * @param eshopId The unique identifier for the eshop.
      * @throws FoxdeliException If the provided eshopId is null.
      */
-    public static void setEshopId(UUID eshopId) {
+    public static synchronized void setEshopId(UUID eshopId) {
         if (eshopId == null) {
             throw new FoxdeliException("EshopId cannot be null");
         }
         Foxdeli.eshopId = eshopId;
+        if (client != null) {
+            client = client.withEshopId(eshopId);
+        }
     }
 
     /**
@@ -133,11 +120,28 @@ public class Foxdeli {
      * @param marketId The unique identifier for the market.
      * @throws FoxdeliException If the provided marketId is null.
      */
-    public static void setMarketId(UUID marketId) {
+    public static synchronized void setMarketId(UUID marketId) {
         if (marketId == null) {
             throw new FoxdeliException("MarketId cannot be null");
         }
         Foxdeli.marketId = marketId;
+        if (client != null) {
+            client = client.withMarketId(marketId);
+        }
+    }
+
+    /**
+     * Returns the default `FoxdeliClient` created by `init`.
+     *
+     * @return The default `FoxdeliClient`.
+     * @throws FoxdeliException If the `Foxdeli` class has not been initialized yet.
+     */
+    public static FoxdeliClient getClient() {
+        FoxdeliClient current = client;
+        if (current == null) {
+            throw new FoxdeliException("Foxdeli is not initialized. Please call 'Foxdeli.init()' first.");
+        }
+        return current;
     }
 
     /**
@@ -151,25 +155,7 @@ public class Foxdeli {
      * @throws FoxdeliApiException If the API call to create the order fails.
      */
     public static Order createOrder(OrderRequest request, UUID marketId, UUID eshopId) {
-        OrderRegistration orderRegistration = orderMapper.map(request, marketId, eshopId);
-        try {
-            com.foxdeli.orders.api.model.Order order = ordersApi.createOrder(orderRegistration);
-            Order result = orderMapper.map(order);
-            if (request.parcels() == null || request.parcels().isEmpty()) {
-                return result;
-            } else {
-                request.parcels().forEach(parcel -> {
-                    try {
-                        Foxdeli.createParcel(result.orderId(), parcel);
-                    } catch (FoxdeliApiException e) {
-                        log.error(e.getMessage(), e);
-                    }
-                });
-                return Foxdeli.getOrder(result.orderId());
-            }
-        } catch (ApiException e) {
-            throw new FoxdeliApiException("Foxdeli 'create order' API call failed.", e);
-        }
+        return getClient().createOrder(request, marketId, eshopId);
     }
 
     /**
@@ -181,7 +167,7 @@ public class Foxdeli {
      * @throws FoxdeliApiException If the API call to create the order fails.
      */
     public static Order createOrder(OrderRequest request, UUID marketId) {
-        return createOrder(request, marketId, Foxdeli.eshopId);
+        return getClient().createOrder(request, marketId);
     }
 
     /**
@@ -192,7 +178,7 @@ public class Foxdeli {
      * @throws FoxdeliApiException If the API call to create the order fails.
      */
     public static Order createOrder(OrderRequest request) {
-        return createOrder(request, Foxdeli.marketId, Foxdeli.eshopId);
+        return getClient().createOrder(request);
     }
 
     /**
@@ -203,12 +189,7 @@ public class Foxdeli {
      * @throws FoxdeliApiException If the API call to retrieve the order fails.
      */
     public static Order getOrder(UUID orderId) {
-        try {
-            com.foxdeli.orders.api.model.Order order = ordersApi.findOrderById(orderId.toString());
-            return orderMapper.map(order);
-        } catch (ApiException e) {
-            throw new FoxdeliApiException("Foxdeli 'get order' API call failed.", e);
-        }
+        return getClient().getOrder(orderId);
     }
 
     /**
@@ -220,13 +201,7 @@ public class Foxdeli {
      * @throws FoxdeliApiException If the API call to update the order fails.
      */
     public static Order updateOrder(OrderRequest request, UUID orderId) {
-        OrderUpdate orderUpdate = orderMapper.map(request);
-        try {
-            com.foxdeli.orders.api.model.Order order = ordersApi.updateOrder(orderId.toString(), orderUpdate);
-            return orderMapper.map(order);
-        } catch (ApiException e) {
-            throw new FoxdeliApiException("Foxdeli 'update order' API call failed.", e);
-        }
+        return getClient().updateOrder(request, orderId);
     }
 
     /**
@@ -237,12 +212,7 @@ public class Foxdeli {
      * @throws FoxdeliApiException If the API call to cancel the order fails.
      */
     public static Order cancelOrder(UUID orderId) {
-        try {
-            com.foxdeli.orders.api.model.Order order = ordersApi.cancelOrder(orderId.toString());
-            return orderMapper.map(order);
-        } catch (ApiException e) {
-            throw new FoxdeliApiException("Foxdeli 'cancel order' API call failed.", e);
-        }
+        return getClient().cancelOrder(orderId);
     }
 
     /**
@@ -254,13 +224,7 @@ public class Foxdeli {
      * @throws FoxdeliApiException If the API call to create the parcel fails.
      */
     public static Parcel createParcel(UUID orderId, ParcelRequest request) {
-        ParcelRegistration parcelRegistration = parcelMapper.mapToCreate(request);
-        try {
-            com.foxdeli.orders.api.model.Parcel parcel = parcelsApi.createParcel(orderId.toString(), parcelRegistration);
-            return parcelMapper.map(parcel);
-        } catch (ApiException e) {
-            throw new FoxdeliApiException("Foxdeli 'create parcel' API call failed.", e);
-        }
+        return getClient().createParcel(orderId, request);
     }
 
     /**
@@ -271,11 +235,7 @@ public class Foxdeli {
      * @throws FoxdeliApiException If the API call to delete the parcel fails.
      */
     public static void deleteParcel(UUID orderId, UUID parcelId) {
-        try {
-            parcelsApi.deleteParcel(orderId.toString(), parcelId.toString());
-        } catch (ApiException e) {
-            throw new FoxdeliApiException("Foxdeli 'delete parcel' API call failed.", e);
-        }
+        getClient().deleteParcel(orderId, parcelId);
     }
 
     /**
@@ -287,12 +247,7 @@ public class Foxdeli {
      * @throws FoxdeliApiException If the API call to retrieve the parcel fails.
      */
     public static Parcel getParcel(UUID orderId, UUID parcelId) {
-        try {
-            com.foxdeli.orders.api.model.Parcel parcel = parcelsApi.findParcelById(orderId.toString(), parcelId.toString());
-            return parcelMapper.map(parcel);
-        } catch (ApiException e) {
-            throw new FoxdeliApiException("Foxdeli 'get parcel' API call failed.", e);
-        }
+        return getClient().getParcel(orderId, parcelId);
     }
 
     /**
@@ -305,13 +260,7 @@ public class Foxdeli {
      * @throws FoxdeliApiException If the API call to update the parcel fails.
      */
     public static Parcel updateParcel(UUID orderId, UUID parcelId, ParcelRequest request) {
-        ParcelUpdate parcelUpdate = parcelMapper.mapToUpdate(request);
-        try {
-            com.foxdeli.orders.api.model.Parcel parcel = parcelsApi.updateParcel(orderId.toString(), parcelId.toString(), parcelUpdate);
-            return parcelMapper.map(parcel);
-        } catch (ApiException e) {
-            throw new FoxdeliApiException("Foxdeli 'update parcel' API call failed.", e);
-        }
+        return getClient().updateParcel(orderId, parcelId, request);
     }
 
     /**
@@ -324,31 +273,17 @@ public class Foxdeli {
      * @throws FoxdeliApiException If the API call to update the parcel state fails.
      */
     public static Parcel updateParcelState(UUID orderId, UUID parcelId, DeliveryState deliveryState) {
-        ParcelStateUpdate parcelStateUpdate = parcelMapper.map(deliveryState);
-        try {
-            com.foxdeli.orders.api.model.Parcel parcel = parcelsApi.updateParcelState(orderId.toString(), parcelId.toString(), parcelStateUpdate);
-            return parcelMapper.map(parcel);
-        } catch (ApiException e) {
-            throw new FoxdeliApiException("Foxdeli 'update parcel state' API call failed.", e);
-        }
+        return getClient().updateParcelState(orderId, parcelId, deliveryState);
     }
 
     /**
-     * Initializes the Foxdeli API client with the provided username and password, and sets up the required interceptors.
-     * This method should be called internally during initialization.
+     * Updates the delivery states of many parcels and reports the outcome of every change.
+     * Changes of the same parcel are merged first, so only the last change of every parcel is sent.
+     *
+     * @param changes The changes of the delivery states.
+     * @return The outcome of every change, in the order of the given changes.
      */
-    private static void initApi(boolean stage) {
-        OkHttpClient okHttpClient = new OkHttpClient.Builder()
-                .addInterceptor(new AuthInterceptor())
-                .addInterceptor(new ErrorHandlingInterceptor())
-                .addInterceptor(new HttpLoggingInterceptor())
-                .authenticator(new FoxdeliAuthenticator())
-                .build();
-        ApiClient apiClient = new ApiClient(okHttpClient);
-        if (stage) {
-            apiClient.setBasePath(STAGE_PATH_TRACKING);
-        }
-        ordersApi = new OrderV1Api(apiClient);
-        parcelsApi = new ParcelV1Api(apiClient);
+    public static List<ParcelStateResult> updateParcelStates(Collection<ParcelStateChange> changes) {
+        return getClient().updateParcelStates(changes);
     }
 }
@@ -0,0 +1,1270 @@
+package com.foxdeli;
+
+import com.foxdeli.cache.CacheConfig;
+import com.foxdeli.cache.CacheSnapshot;
+import com.foxdeli.cache.EntityTagStore;
+import com.foxdeli.cache.FoxdeliCache;
+import com.foxdeli.config.HttpClientConfig;
+import com.foxdeli.config.HttpLoggingConfig;
+import com.foxdeli.exception.FoxdeliApiException;
+import com.foxdeli.exception.FoxdeliAuthenticationException;
+import com.foxdeli.exception.FoxdeliException;
+import com.foxdeli.helper.ApiCallbackFuture;
+import com.foxdeli.helper.JsonResponseCall;
+import com.foxdeli.helper.SingleFlight;
+import com.foxdeli.helper.TokenManager;
+import com.foxdeli.helper.TokenRenewer;
+import com.foxdeli.helper.Tokens;
+import com.foxdeli.interceptor.AuthInterceptor;
+import com.foxdeli.interceptor.ConditionalRequestInterceptor;
+import com.foxdeli.interceptor.ErrorHandlingInterceptor;
+import com.foxdeli.interceptor.FoxdeliAuthenticator;
+import com.foxdeli.interceptor.LoggingInterceptor;
+import com.foxdeli.interceptor.RateLimitInterceptor;
+import com.foxdeli.interceptor.RetryInterceptor;
+import com.foxdeli.mapper.JsonResponseReader;
+import com.foxdeli.mapper.OrderMapper;
+import com.foxdeli.mapper.ParcelMapper;
+import com.foxdeli.metrics.FoxdeliMetrics;
+import com.foxdeli.metrics.MetricsEventListener;
+import com.foxdeli.model.request.OrderRequest;
+import com.foxdeli.model.request.ParcelRequest;
+import com.foxdeli.model.request.ParcelStateChange;
+import com.foxdeli.model.response.Order;
+import com.foxdeli.model.response.OrderCreation;
+import com.foxdeli.model.response.Parcel;
+import com.foxdeli.model.response.ParcelCreation;
+import com.foxdeli.model.response.ParcelStateResult;
+import com.foxdeli.orders.ApiCallback;
+import com.foxdeli.orders.ApiClient;
+import com.foxdeli.orders.ApiException;
+import com.foxdeli.orders.ApiResponse;
+import com.foxdeli.orders.api.OrderV1Api;
+import com.foxdeli.orders.api.ParcelV1Api;
+import com.foxdeli.orders.api.model.DeliveryState;
+import com.foxdeli.orders.api.model.OrderRegistration;
+import com.foxdeli.orders.api.model.OrderUpdate;
+import com.foxdeli.orders.api.model.ParcelRegistration;
+import com.foxdeli.orders.api.model.ParcelStateUpdate;
+import com.foxdeli.orders.api.model.ParcelUpdate;
+import com.foxdeli.ratelimit.RateLimiter;
+import com.foxdeli.retry.RetryMetrics;
+import com.foxdeli.retry.RetryPolicy;
+import com.foxdeli.store.ParcelIndex;
+import com.foxdeli.tracing.FoxdeliTracing;
+import com.foxdeli.tracing.TraceSpan;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.EventListener;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import org.mapstruct.factory.Mappers;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import static com.foxdeli.constant.Constant.STAGE_PATH_TRACKING;
+
+/**
+ * The `FoxdeliClient` class is an immutable, thread-safe client for the Foxdeli API for managing orders and parcels.
+ * Every instance owns its own HTTP client, token state and default market and eshop, so any number of clients for
+ * different accounts can be used side by side and concurrently. Instances are created with `FoxdeliClient.builder()`;
+ * building a client authorizes it against the Foxdeli API.
+ * <p>
+ * The static `Foxdeli` class is a thin wrapper over a default instance of this class.
+ * <p>
+ * Every operation is also available as an asynchronous `*Async` method returning a `CompletableFuture`. Asynchronous
+ * calls are executed by OkHttp's dispatcher and do not block the calling thread.
+ * <p>
+ * A client configured with a `cache` serves `getOrder` and `getParcel` from an in-process cache. Orders and parcels
+ * returned by the client's own updates are written to the cache, and entries they make stale are invalidated.
+ * Changes made through other clients or the Foxdeli app become visible once the cached entry expires.
+ * <p>
+ * A client configured with a `tokenRenewalSkew` renews its tokens in the background and should be closed when it is
+ * no longer needed.
+ */
+@Slf4j
+public class FoxdeliClient implements AutoCloseable {
+
+    private static final int DEFAULT_PARCEL_PARALLELISM = 4;
+    private static final OrderMapper orderMapper = Mappers.getMapper(OrderMapper.class);
+    private static final ParcelMapper parcelMapper = Mappers.getMapper(ParcelMapper.class);
+
+    /**
+     * The default eshopId used when no eshopId is passed to `createOrder`.
+     */
+    @Getter
+    private final UUID eshopId;
+
+    /**
+     * The default marketId used when no marketId is passed to `createOrder`.
+     */
+    @Getter
+    private final UUID marketId;
+
+    private final TokenManager tokenManager;
+    private final TokenRenewer tokenRenewer;
+    private final OrderV1Api ordersApi;
+    private final ParcelV1Api parcelsApi;
+    private final OrderV1Api asyncOrdersApi;
+    private final ParcelV1Api asyncParcelsApi;
+    private final int parcelParallelism;
+    private final RetryInterceptor retryInterceptor;
+    private final FoxdeliCache<UUID, Order> orderCache;
+    private final FoxdeliCache<UUID, Parcel> parcelCache;
+    private final ParcelIndex parcelIndex;
+    private final EntityTagStore entityTags;
+    private final SingleFlight<UUID, Order> orderRetrievals;
+    private final SingleFlight<UUID, Parcel> parcelRetrievals;
+    private final boolean streamingJson;
+    private final FoxdeliMetrics metrics;
+    private final FoxdeliTracing tracing;
+
+    /**
+     * Creates and authorizes a new `FoxdeliClient`. Use `FoxdeliClient.builder()` to create instances.
+     *
+     * @param username The username to authenticate with the Foxdeli API.
+     * @param password The password to authenticate with the Foxdeli API.
+     * @param eshopId  The default eshopId, may be null.
+     * @param marketId The default marketId, may be null.
+     * @param stage    If true, the client connects to `stage` env. If false, the client connects to `prod` env.
+     * @param tokens   If set and its refresh token has not expired, the client continues with this token pair, e.g.
+     *                 read with `TokenSnapshot.read()`, instead of authorizing.
+     * @param tokenRenewalSkew If set, tokens are renewed in the background this long before the access token expires.
+     *                         If null, tokens are only renewed when the API rejects a request.
+     * @param parcelParallelism The maximum number of parcels of one order created concurrently, and of parcel states
+     *                          updated concurrently by `updateParcelStates`. Defaults to 4.
+     * @param rateLimiter      If set, limits the rate of API calls of this client, e.g. a `TokenBucketRateLimiter`.
+     * @param retryPolicy      If set, idempotent API calls failing with transient errors are retried with this policy.
+     * @param httpConfig       The configuration of the HTTP client, e.g. pool size and timeouts. Defaults to
+     *                         `HttpClientConfig.defaults()`.
+     * @param logging          The configuration of HTTP call logging. Defaults to no logging.
+     * @param cache            If set, orders and parcels are cached with this configuration. Defaults to no caching.
+     * @param parcelIndex      If set, every parcel mapped from an API response is added to this index, and parcels
+     *                         deleted or changed without reading them back are removed from it.
+     * @param coalesceRetrievals If true, concurrent retrievals of the same order or parcel share a single API call.
+     *                           Defaults to true.
+     * @param streamingJson    If true, retrieved orders and parcels are read from the response with a streaming
+     *                         JSON reader straight into the SDK records, skipping the generated model and the mappers.
+     * @param metrics          If set, operations, HTTP calls and token renewals are measured and reported to these
+     *                         metrics, e.g. `MicrometerMetrics`. Defaults to no metrics.
+     * @param tracing          If set, operations, HTTP attempts, retries and token renewals are traced, e.g. with
+     *                         `OpenTelemetryTracing`. Defaults to no tracing.
+     * @throws FoxdeliAuthenticationException If the credentials are missing or the API call to get access token fails.
+     */
+    @Builder
+    private FoxdeliClient(String username, String password, UUID eshopId, UUID marketId, boolean stage,
+                          Tokens tokens, Duration tokenRenewalSkew, Integer parcelParallelism, RateLimiter rateLimiter,
+                          RetryPolicy retryPolicy, HttpClientConfig httpConfig,
+                          HttpLoggingConfig logging, CacheConfig cache, ParcelIndex parcelIndex,
+                          Boolean coalesceRetrievals,
+                          boolean streamingJson, FoxdeliMetrics metrics, FoxdeliTracing tracing) {
+        if (parcelParallelism != null && parcelParallelism < 1) {
+            throw new FoxdeliException("ParcelParallelism must be at least 1");
+        }
+        this.eshopId = eshopId;
+        this.marketId = marketId;
+        this.parcelParallelism = parcelParallelism == null ? DEFAULT_PARCEL_PARALLELISM : parcelParallelism;
+        this.orderCache = cache == null ? null : cache.createOrderCache();
+        this.parcelCache = cache == null ? null : cache.createParcelCache();
+        this.parcelIndex = parcelIndex;
+        this.entityTags = cache != null && cache.revalidate() ? cache.createEntityTagStore() : null;
+        boolean coalesce = coalesceRetrievals == null || coalesceRetrievals;
+        this.orderRetrievals = coalesce ? new SingleFlight<>() : null;
+        this.parcelRetrievals = coalesce ? new SingleFlight<>() : null;
+        this.streamingJson = streamingJson;
+        this.metrics = metrics == null ? FoxdeliMetrics.NOOP : metrics;
+        this.tracing = tracing == null ? FoxdeliTracing.NOOP : tracing;
+        // The token API and the tracking API share one connection pool and dispatcher.
+        OkHttpClient baseHttpClient = (httpConfig == null ? HttpClientConfig.defaults() : httpConfig).createHttpClient();
+        this.tokenManager = new TokenManager(username, password, stage, Clock.systemUTC(), baseHttpClient, this.metrics);
+        if (!this.tokenManager.restore(tokens)) {
+            this.tokenManager.authorize();
+        }
+
+        OkHttpClient.Builder okHttpClientBuilder = baseHttpClient.newBuilder();
+        EventListener.Factory eventListeners = this.metrics == FoxdeliMetrics.NOOP
+                ? baseHttpClient.eventListenerFactory()
+                : MetricsEventListener.factory(this.metrics, baseHttpClient.eventListenerFactory());
+        okHttpClientBuilder.eventListenerFactory(this.tracing.eventListenerFactory(eventListeners));
+        // The trace context of a call is restored before any other interceptor runs.
+        Interceptor callTracing = this.tracing.callInterceptor();
+        if (callTracing != null) {
+            okHttpClientBuilder.addInterceptor(callTracing);
+        }
+        Interceptor attemptTracing = this.tracing.attemptInterceptor();
+        if (attemptTracing != null) {
+            okHttpClientBuilder.addNetworkInterceptor(attemptTracing);
+        }
+        okHttpClientBuilder
+                .addInterceptor(new AuthInterceptor(tokenManager))
+                .addInterceptor(new ErrorHandlingInterceptor());
+        if (entityTags != null) {
+            okHttpClientBuilder.addInterceptor(new ConditionalRequestInterceptor(entityTags));
+        }
+        // Retries run inside the error handling, so only the final failure is reported, and every attempt
+        // passes the rate limiter on its own.
+        this.retryInterceptor = retryPolicy == null ? null : new RetryInterceptor(retryPolicy, this.tracing);
+        if (retryInterceptor != null) {
+            okHttpClientBuilder.addInterceptor(retryInterceptor);
+        }
+        if (rateLimiter != null) {
+            okHttpClientBuilder.addInterceptor(new RateLimitInterceptor(rateLimiter));
+        }
+        OkHttpClient okHttpClient = okHttpClientBuilder
+                .addInterceptor(new LoggingInterceptor(logging == null ? HttpLoggingConfig.defaults() : logging))
+                .authenticator(new FoxdeliAuthenticator(tokenManager, this.tracing))
+                .build();
+        ApiClient apiClient = new ApiClient(okHttpClient);
+        // Asynchronous calls share the connection pool and dispatcher, but translate I/O errors in the callback:
+        // an exception thrown by an interceptor would otherwise escape on the dispatcher thread.
+        OkHttpClient.Builder asyncOkHttpClient = okHttpClient.newBuilder();
+        asyncOkHttpClient.interceptors().removeIf(ErrorHandlingInterceptor.class::isInstance);
+        ApiClient asyncApiClient = new ApiClient(asyncOkHttpClient.build());
+        if (stage) {
+            apiClient.setBasePath(STAGE_PATH_TRACKING);
+            asyncApiClient.setBasePath(STAGE_PATH_TRACKING);
+        }
+        this.ordersApi = new OrderV1Api(apiClient);
+        this.parcelsApi = new ParcelV1Api(apiClient);
+        this.asyncOrdersApi = new OrderV1Api(asyncApiClient);
+        this.asyncParcelsApi = new ParcelV1Api(asyncApiClient);
+
+        if (tokenRenewalSkew != null) {
+            this.tokenRenewer = new TokenRenewer(tokenManager, tokenRenewalSkew);
+            this.tokenRenewer.start();
+        } else {
+            this.tokenRenewer = null;
+        }
+    }
+
+    /**
+     * Creates a copy of the given client with different defaults. The copy shares the HTTP client and token state.
+     */
+    private FoxdeliClient(FoxdeliClient source, UUID eshopId, UUID marketId) {
+        this.eshopId = eshopId;
+        this.marketId = marketId;
+        this.parcelParallelism = source.parcelParallelism;
+        this.retryInterceptor = source.retryInterceptor;
+        this.orderCache = source.orderCache;
+        this.parcelCache = source.parcelCache;
+        this.parcelIndex = source.parcelIndex;
+        this.entityTags = source.entityTags;
+        this.orderRetrievals = source.orderRetrievals;
+        this.parcelRetrievals = source.parcelRetrievals;
+        this.streamingJson = source.streamingJson;
+        this.metrics = source.metrics;
+        this.tracing = source.tracing;
+        this.tokenManager = source.tokenManager;
+        this.tokenRenewer = source.tokenRenewer;
+        this.ordersApi = source.ordersApi;
+        this.parcelsApi = source.parcelsApi;
+        this.asyncOrdersApi = source.asyncOrdersApi;
+        this.asyncParcelsApi = source.asyncParcelsApi;
+    }
+
+    /**
+     * Returns a copy of this client with the given default eshopId.
+     * The copy shares the HTTP client and token state with this client.
+     *
+     * @param eshopId The unique identifier for the eshop.
+     * @return The client with the new default eshopId.
+     * @throws FoxdeliException If the provided eshopId is null.
+     */
+    public FoxdeliClient withEshopId(UUID eshopId) {
+        if (eshopId == null) {
+            throw new FoxdeliException("EshopId cannot be null");
+        }
+        return new FoxdeliClient(this, eshopId, marketId);
+    }
+
+    /**
+     * Returns a copy of this client with the given default marketId.
+     * The copy shares the HTTP client and token state with this client.
+     *
+     * @param marketId The unique identifier for the market.
+     * @return The client with the new default marketId.
+     * @throws FoxdeliException If the provided marketId is null.
+     */
+    public FoxdeliClient withMarketId(UUID marketId) {
+        if (marketId == null) {
+            throw new FoxdeliException("MarketId cannot be null");
+        }
+        return new FoxdeliClient(this, eshopId, marketId);
+    }
+
+    /**
+     * Returns the retry counters of this client.
+     *
+     * @return The retry counters, or `null` if the client has no `retryPolicy`.
+     */
+    public RetryMetrics getRetryMetrics() {
+        return retryInterceptor == null ? null : retryInterceptor.getMetrics();
+    }
+
+    /**
+     * Returns the order cache of this client, e.g. to read its statistics or invalidate entries.
+     * Copies created by `withEshopId` and `withMarketId` share the cache.
+     *
+     * @return The order cache keyed by orderId, or `null` if the client has no `cache` configured.
+     */
+    public FoxdeliCache<UUID, Order> getOrderCache() {
+        return orderCache;
+    }
+
+    /**
+     * Returns the parcel cache of this client, e.g. to read its statistics or invalidate entries.
+     * Copies created by `withEshopId` and `withMarketId` share the cache.
+     *
+     * @return The parcel cache keyed by parcelId, or `null` if the client has no `cache` configured.
+     */
+    public FoxdeliCache<UUID, Parcel> getParcelCache() {
+        return parcelCache;
+    }
+
+    /**
+     * Returns the current token pair of this client, e.g. to save it with `TokenSnapshot.save()` and pass it to the
+     * `tokens` of the client created after a restart. Copies created by `withEshopId` and `withMarketId` share it.
+     *
+     * @return The current token pair.
+     */
+    public Tokens getTokens() {
+        return tokenManager.getTokens();
+    }
+
+    /**
+     * Saves the cached orders and parcels that have not expired, so a restarted client can restore them with
+     * `restoreCacheSnapshot` instead of retrieving them again.
+     *
+     * @param file The snapshot file, replaced if it exists.
+     * @return The number of orders and parcels saved.
+     * @throws FoxdeliException If the client has no `cache` configured, or the snapshot cannot be written.
+     * @see CacheSnapshot
+     */
+    public int saveCacheSnapshot(Path file) {
+        if (orderCache == null) {
+            throw new FoxdeliException("The client has no cache configured");
+        }
+        return CacheSnapshot.save(file, orderCache, parcelCache);
+    }
+
+    /**
+     * Restores the orders and parcels saved by `saveCacheSnapshot` that have not expired yet. Restored parcels,
+     * including the parcels of restored orders, are added to the `parcelIndex`.
+     *
+     * @param file The snapshot file.
+     * @return The number of orders and parcels restored, 0 if the file does not exist.
+     * @throws FoxdeliException If the client has no `cache` configured, or the snapshot cannot be read.
+     */
+    public int restoreCacheSnapshot(Path file) {
+        if (orderCache == null) {
+            throw new FoxdeliException("The client has no cache configured");
+        }
+        int restored = CacheSnapshot.restore(file, orderCache, parcelCache);
+        if (parcelIndex != null && restored > 0) {
+            orderCache.forEach((orderId, order, expiresAt) -> index(order));
+            parcelCache.forEach((parcelId, parcel, expiresAt) -> index(parcel));
+        }
+        return restored;
+    }
+
+    /**
+     * Returns the parcel index of this client. Copies created by `withEshopId` and `withMarketId` share the index.
+     *
+     * @return The parcel index, or `null` if the client has no `parcelIndex` configured.
+     */
+    public ParcelIndex getParcelIndex() {
+        return parcelIndex;
+    }
+
+    /**
+     * Stops the background token renewal, if enabled. Copies created by `withEshopId` and `withMarketId` share
+     * the renewal, so closing any of them stops it for all of them.
+     */
+    @Override
+    public void close() {
+        if (tokenRenewer != null) {
+            tokenRenewer.close();
+        }
+    }
+
+    /**
+     * Creates an order using the provided `OrderRequest`.
+     * If the request also contains parcels, method creates parcels and returns the final Order object with created Parcels.
+     *
+     * @param request  The `OrderRequest` object representing the details of the order.
+     * @param marketId The unique identifier for the market to associate the order with.
+     * @param eshopId  The unique identifier for the eshop to associate the order with.
+     * @return The created `Order` object.
+     * @throws FoxdeliApiException If the API call to create the order fails.
+     */
+    public Order createOrder(OrderRequest request, UUID marketId, UUID eshopId) {
+        OrderCreation creation = createOrderWithParcels(request, marketId, eshopId, true);
+        logFailedParcels(creation);
+        return creation.order();
+    }
+
+    /**
+     * Creates an order using the provided `OrderRequest` and reports the outcome of every parcel in the request.
+     * Parcels are created concurrently, at most `parcelParallelism` at a time. A failed parcel does not fail the
+     * whole operation; its error is reported in the returned `OrderCreation`.
+     *
+     * @param request  The `OrderRequest` object representing the details of the order.
+     * @param marketId The unique identifier for the market to associate the order with.
+     * @param eshopId  The unique identifier for the eshop to associate the order with.
+     * @param refetch  If true, the order is retrieved again after the parcels are created. If false, the created
+     *                 parcels are added to the created order locally, saving one API call.
+     * @return The created `Order` object with the outcome of every parcel.
+     * @throws FoxdeliApiException If the API call to create the order fails.
+     */
+    public OrderCreation createOrderWithParcels(OrderRequest request, UUID marketId, UUID eshopId, boolean refetch) {
+        return timed("createOrder", () -> ApiCallbackFuture.await(startOrderCreation(request, marketId, eshopId, refetch)));
+    }
+
+    /**
+     * Creates an order using the provided `OrderRequest` and the default eshopId of this client.
+     *
+     * @param request  The `OrderRequest` object representing the details of the order.
+     * @param marketId The unique identifier for the market to associate the order with.
+     * @return The created `Order` object.
+     * @throws FoxdeliApiException If the API call to create the order fails.
+     */
+    public Order createOrder(OrderRequest request, UUID marketId) {
+        return createOrder(request, marketId, eshopId);
+    }
+
+    /**
+     * Creates an order using the provided `OrderRequest` and the default eshopId and marketId of this client.
+     *
+     * @param request The `OrderRequest` object representing the details of the order.
+     * @return The created `Order` object.
+     * @throws FoxdeliApiException If the API call to create the order fails.
+     */
+    public Order createOrder(OrderRequest request) {
+        return createOrder(request, marketId, eshopId);
+    }
+
+    /**
+     * Retrieves an order with the given orderId.
+     *
+     * @param orderId The unique identifier for the order to retrieve.
+     * @return The retrieved `Order` object.
+     * @throws FoxdeliApiException If the API call to retrieve the order fails.
+     */
+    public Order getOrder(UUID orderId) {
+        return timed("getOrder", () -> orderCache == null ? retrieveOrder(orderId) : orderCache.get(orderId, this::retrieveOrder));
+    }
+
+    /**
+     * Updates an existing order with the provided `OrderRequest` and orderId.
+     *
+     * @param request The `OrderRequest` object representing the updated details of the order.
+     * @param orderId The unique identifier for the order to update.
+     * @return The updated `Order` object.
+     * @throws FoxdeliApiException If the API call to update the order fails.
+     */
+    public Order updateOrder(OrderRequest request, UUID orderId) {
+        return timed("updateOrder", () -> {
+            OrderUpdate orderUpdate = orderMapper.map(request);
+            try {
+                com.foxdeli.orders.api.model.Order order = ordersApi.updateOrder(orderId.toString(), orderUpdate);
+                return cacheOrder(orderMapper.map(order));
+            } catch (ApiException e) {
+                throw new FoxdeliApiException("Foxdeli 'update order' API call failed.", e);
+            }
+        });
+    }
+
+    /**
+     * Cancels an order with the given orderId.
+     *
+     * @param orderId The unique identifier for the order to cancel.
+     * @return The canceled `Order` object.
+     * @throws FoxdeliApiException If the API call to cancel the order fails.
+     */
+    public Order cancelOrder(UUID orderId) {
+        return timed("cancelOrder", () -> {
+            try {
+                com.foxdeli.orders.api.model.Order order = ordersApi.cancelOrder(orderId.toString());
+                return cacheOrder(orderMapper.map(order));
+            } catch (ApiException e) {
+                throw new FoxdeliApiException("Foxdeli 'cancel order' API call failed.", e);
+            }
+        });
+    }
+
+    /**
+     * Creates a parcel for the specified orderId using the provided `ParcelRequest`.
+     *
+     * @param orderId The unique identifier for the order to associate the parcel with.
+     * @param request The `ParcelRequest` object representing the details of the parcel.
+     * @return The created `Parcel` object.
+     * @throws FoxdeliApiException If the API call to create the parcel fails.
+     */
+    public Parcel createParcel(UUID orderId, ParcelRequest request) {
+        return timed("createParcel", () -> {
+            ParcelRegistration parcelRegistration = parcelMapper.mapToCreate(request);
+            try {
+                com.foxdeli.orders.api.model.Parcel parcel = parcelsApi.createParcel(orderId.toString(), parcelRegistration);
+                return cacheParcel(parcelMapper.map(parcel));
+            } catch (ApiException e) {
+                throw new FoxdeliApiException("Foxdeli 'create parcel' API call failed.", e);
+            }
+        });
+    }
+
+    /**
+     * Deletes a parcel with the given parcelId associated with the orderId.
+     *
+     * @param orderId  The unique identifier for the order containing the parcel to delete.
+     * @param parcelId The unique identifier for the parcel to delete.
+     * @throws FoxdeliApiException If the API call to delete the parcel fails.
+     */
+    public void deleteParcel(UUID orderId, UUID parcelId) {
+        timed("deleteParcel", () -> {
+            try {
+                parcelsApi.deleteParcel(orderId.toString(), parcelId.toString());
+                invalidateParcel(orderId, parcelId);
+                return null;
+            } catch (ApiException e) {
+                throw new FoxdeliApiException("Foxdeli 'delete parcel' API call failed.", e);
+            }
+        });
+    }
+
+    /**
+     * Retrieves a parcel with the given parcelId associated with the orderId.
+     *
+     * @param orderId  The unique identifier for the order containing the parcel to retrieve.
+     * @param parcelId The unique identifier for the parcel to retrieve.
+     * @return The retrieved `Parcel` object.
+     * @throws FoxdeliApiException If the API call to retrieve the parcel fails.
+     */
+    public Parcel getParcel(UUID orderId, UUID parcelId) {
+        return timed("getParcel", () -> parcelCache == null
+                ? retrieveParcel(orderId, parcelId)
+                : parcelCache.get(parcelId, id -> retrieveParcel(orderId, id)));
+    }
+
+    /**
+     * Updates an existing parcel with the provided `ParcelRequest` and parcelId associated with the orderId.
+     *
+     * @param orderId  The unique identifier for the order containing the parcel to update.
+     * @param parcelId The unique identifier for the parcel to update.
+     * @param request  The `ParcelRequest` object representing the updated details of the parcel.
+     * @return The updated `Parcel` object.
+     * @throws FoxdeliApiException If the API call to update the parcel fails.
+     */
+    public Parcel updateParcel(UUID orderId, UUID parcelId, ParcelRequest request) {
+        return timed("updateParcel", () -> {
+            ParcelUpdate parcelUpdate = parcelMapper.mapToUpdate(request);
+            try {
+                com.foxdeli.orders.api.model.Parcel parcel = parcelsApi.updateParcel(orderId.toString(), parcelId.toString(), parcelUpdate);
+                return cacheParcel(parcelMapper.map(parcel));
+            } catch (ApiException e) {
+                throw new FoxdeliApiException("Foxdeli 'update parcel' API call failed.", e);
+            }
+        });
+    }
+
+    /**
+     * Updates the delivery state of a parcel with the provided parcelId and orderId.
+     *
+     * @param orderId       The unique identifier for the order containing the parcel to update.
+     * @param parcelId      The unique identifier for the parcel to update.
+     * @param deliveryState The new delivery state of the parcel.
+     * @return The updated `Parcel` object.
+     * @throws FoxdeliApiException If the API call to update the parcel state fails.
+     */
+    public Parcel updateParcelState(UUID orderId, UUID parcelId, DeliveryState deliveryState) {
+        return timed("updateParcelState", () -> {
+            ParcelStateUpdate parcelStateUpdate = parcelMapper.map(deliveryState);
+            try {
+                com.foxdeli.orders.api.model.Parcel parcel = parcelsApi.updateParcelState(orderId.toString(), parcelId.toString(), parcelStateUpdate);
+                return cacheParcel(parcelMapper.map(parcel));
+            } catch (ApiException e) {
+                throw new FoxdeliApiException("Foxdeli 'update parcel state' API call failed.", e);
+            }
+        });
+    }
+
+    /**
+     * Updates the delivery states of many parcels and reports the outcome of every change.
+     * Equivalent to `updateParcelStates(changes, true)`.
+     *
+     * @param changes The changes of the delivery states.
+     * @return The outcome of every change, in the order of the given changes.
+     */
+    public List<ParcelStateResult> updateParcelStates(Collection<ParcelStateChange> changes) {
+        return updateParcelStates(changes, true);
+    }
+
+    /**
+     * Updates the delivery states of many parcels and reports the outcome of every change.
+     * Changes of the same parcel are merged first, so only the last change of every parcel is sent. The updates are
+     * sent concurrently, at most `parcelParallelism` at a time. A failed update does not fail the other updates;
+     * its error is reported in its result.
+     *
+     * @param changes    The changes of the delivery states.
+     * @param mapParcels If true, the updated parcels are mapped and returned in the results. If false, the responses
+     *                   are discarded without mapping them, and the updated parcels are removed from the cache instead.
+     * @return The outcome of every change, in the order of the given changes.
+     */
+    public List<ParcelStateResult> updateParcelStates(Collection<ParcelStateChange> changes, boolean mapParcels) {
+        return timed("updateParcelStates", () -> ApiCallbackFuture.await(startParcelStateUpdates(changes, mapParcels)));
+    }
+
+    /**
+     * Asynchronously creates an order using the provided `OrderRequest`.
+     * If the request also contains parcels, method creates parcels and completes with the final Order object with created Parcels.
+     *
+     * @param request  The `OrderRequest` object representing the details of the order.
+     * @param marketId The unique identifier for the market to associate the order with.
+     * @param eshopId  The unique identifier for the eshop to associate the order with.
+     * @return A future completed with the created `Order` object, or with `FoxdeliApiException` if the API call fails.
+     */
+    public CompletableFuture<Order> createOrderAsync(OrderRequest request, UUID marketId, UUID eshopId) {
+        return createOrderWithParcelsAsync(request, marketId, eshopId, true).thenApply(creation -> {
+            logFailedParcels(creation);
+            return creation.order();
+        });
+    }
+
+    /**
+     * Asynchronously creates an order using the provided `OrderRequest` and reports the outcome of every parcel in the request.
+     * Parcels are created concurrently, at most `parcelParallelism` at a time. A failed parcel does not fail the
+     * whole operation; its error is reported in the resulting `OrderCreation`.
+     *
+     * @param request  The `OrderRequest` object representing the details of the order.
+     * @param marketId The unique identifier for the market to associate the order with.
+     * @param eshopId  The unique identifier for the eshop to associate the order with.
+     * @param refetch  If true, the order is retrieved again after the parcels are created. If false, the created
+     *                 parcels are added to the created order locally, saving one API call.
+     * @return A future completed with the created `Order` object and the outcome of every parcel, or with
+     * `FoxdeliApiException` if the API call to create the order fails.
+     */
+    public CompletableFuture<OrderCreation> createOrderWithParcelsAsync(OrderRequest request, UUID marketId, UUID eshopId,
+                                                                        boolean refetch) {
+        return timedAsync("createOrder", () -> startOrderCreation(request, marketId, eshopId, refetch));
+    }
+
+    /**
+     * Starts the creation of an order and its parcels. Shared by the synchronous and asynchronous variants, which are
+     * measured separately.
+     */
+    private CompletableFuture<OrderCreation> startOrderCreation(OrderRequest request, UUID marketId, UUID eshopId,
+                                                                boolean refetch) {
+        OrderRegistration orderRegistration = orderMapper.map(request, marketId, eshopId);
+        List<ParcelRequest> parcels = request.parcels() == null ? List.of() : request.parcels();
+        return this.<com.foxdeli.orders.api.model.Order>async("create order",
+                        callback -> asyncOrdersApi.createOrderAsync(orderRegistration, callback))
+                .thenApply(orderMapper::map)
+                .thenCompose(order -> createParcels(order, parcels, refetch))
+                .thenApply(creation -> {
+                    cacheOrder(creation.order());
+                    return creation;
+                });
+    }
+
+    /**
+     * Asynchronously creates an order using the provided `OrderRequest` and the default eshopId of this client.
+     *
+     * @param request  The `OrderRequest` object representing the details of the order.
+     * @param marketId The unique identifier for the market to associate the order with.
+     * @return A future completed with the created `Order` object, or with `FoxdeliApiException` if the API call fails.
+     */
+    public CompletableFuture<Order> createOrderAsync(OrderRequest request, UUID marketId) {
+        return createOrderAsync(request, marketId, eshopId);
+    }
+
+    /**
+     * Asynchronously creates an order using the provided `OrderRequest` and the default eshopId and marketId of this client.
+     *
+     * @param request The `OrderRequest` object representing the details of the order.
+     * @return A future completed with the created `Order` object, or with `FoxdeliApiException` if the API call fails.
+     */
+    public CompletableFuture<Order> createOrderAsync(OrderRequest request) {
+        return createOrderAsync(request, marketId, eshopId);
+    }
+
+    /**
+     * Asynchronously retrieves an order with the given orderId.
+     *
+     * @param orderId The unique identifier for the order to retrieve.
+     * @return A future completed with the retrieved `Order` object, or with `FoxdeliApiException` if the API call fails.
+     */
+    public CompletableFuture<Order> getOrderAsync(UUID orderId) {
+        return timedAsync("getOrder", () -> orderCache == null
+                ? retrieveOrderAsync(orderId)
+                : orderCache.getAsync(orderId, this::retrieveOrderAsync));
+    }
+
+    /**
+     * Asynchronously updates an existing order with the provided `OrderRequest` and orderId.
+     *
+     * @param request The `OrderRequest` object representing the updated details of the order.
+     * @param orderId The unique identifier for the order to update.
+     * @return A future completed with the updated `Order` object, or with `FoxdeliApiException` if the API call fails.
+     */
+    public CompletableFuture<Order> updateOrderAsync(OrderRequest request, UUID orderId) {
+        return timedAsync("updateOrder", () -> {
+            OrderUpdate orderUpdate = orderMapper.map(request);
+            return this.<com.foxdeli.orders.api.model.Order>async("update order",
+                    callback -> asyncOrdersApi.updateOrderAsync(orderId.toString(), orderUpdate, callback))
+                    .thenApply(order -> cacheOrder(orderMapper.map(order)));
+        });
+    }
+
+    /**
+     * Asynchronously cancels an order with the given orderId.
+     *
+     * @param orderId The unique identifier for the order to cancel.
+     * @return A future completed with the canceled `Order` object, or with `FoxdeliApiException` if the API call fails.
+     */
+    public CompletableFuture<Order> cancelOrderAsync(UUID orderId) {
+        return timedAsync("cancelOrder", () -> this.<com.foxdeli.orders.api.model.Order>async("cancel order",
+                        callback -> asyncOrdersApi.cancelOrderAsync(orderId.toString(), callback))
+                .thenApply(order -> cacheOrder(orderMapper.map(order))));
+    }
+
+    /**
+     * Asynchronously creates a parcel for the specified orderId using the provided `ParcelRequest`.
+     *
+     * @param orderId The unique identifier for the order to associate the parcel with.
+     * @param request The `ParcelRequest` object representing the details of the parcel.
+     * @return A future completed with the created `Parcel` object, or with `FoxdeliApiException` if the API call fails.
+     */
+    public CompletableFuture<Parcel> createParcelAsync(UUID orderId, ParcelRequest request) {
+        return timedAsync("createParcel", () -> {
+            ParcelRegistration parcelRegistration = parcelMapper.mapToCreate(request);
+            return this.<com.foxdeli.orders.api.model.Parcel>async("create parcel",
+                    callback -> asyncParcelsApi.createParcelAsync(orderId.toString(), parcelRegistration, callback))
+                    .thenApply(parcel -> cacheParcel(parcelMapper.map(parcel)));
+        });
+    }
+
+    /**
+     * Asynchronously deletes a parcel with the given parcelId associated with the orderId.
+     *
+     * @param orderId  The unique identifier for the order containing the parcel to delete.
+     * @param parcelId The unique identifier for the parcel to delete.
+     * @return A future completed when the parcel is deleted, or with `FoxdeliApiException` if the API call fails.
+     */
+    public CompletableFuture<Void> deleteParcelAsync(UUID orderId, UUID parcelId) {
+        return timedAsync("deleteParcel", () -> this.<Void>async("delete parcel",
+                        callback -> asyncParcelsApi.deleteParcelAsync(orderId.toString(), parcelId.toString(), callback))
+                .thenRun(() -> invalidateParcel(orderId, parcelId)));
+    }
+
+    /**
+     * Asynchronously retrieves a parcel with the given parcelId associated with the orderId.
+     *
+     * @param orderId  The unique identifier for the order containing the parcel to retrieve.
+     * @param parcelId The unique identifier for the parcel to retrieve.
+     * @return A future completed with the retrieved `Parcel` object, or with `FoxdeliApiException` if the API call fails.
+     */
+    public CompletableFuture<Parcel> getParcelAsync(UUID orderId, UUID parcelId) {
+        return timedAsync("getParcel", () -> parcelCache == null
+                ? retrieveParcelAsync(orderId, parcelId)
+                : parcelCache.getAsync(parcelId, id -> retrieveParcelAsync(orderId, id)));
+    }
+
+    /**
+     * Asynchronously updates an existing parcel with the provided `ParcelRequest` and parcelId associated with the orderId.
+     *
+     * @param orderId  The unique identifier for the order containing the parcel to update.
+     * @param parcelId The unique identifier for the parcel to update.
+     * @param request  The `ParcelRequest` object representing the updated details of the parcel.
+     * @return A future completed with the updated `Parcel` object, or with `FoxdeliApiException` if the API call fails.
+     */
+    public CompletableFuture<Parcel> updateParcelAsync(UUID orderId, UUID parcelId, ParcelRequest request) {
+        return timedAsync("updateParcel", () -> {
+            ParcelUpdate parcelUpdate = parcelMapper.mapToUpdate(request);
+            return this.<com.foxdeli.orders.api.model.Parcel>async("update parcel",
+                    callback -> asyncParcelsApi.updateParcelAsync(orderId.toString(), parcelId.toString(), parcelUpdate, callback))
+                    .thenApply(parcel -> cacheParcel(parcelMapper.map(parcel)));
+        });
+    }
+
+    /**
+     * Asynchronously updates the delivery state of a parcel with the provided parcelId and orderId.
+     *
+     * @param orderId       The unique identifier for the order containing the parcel to update.
+     * @param parcelId      The unique identifier for the parcel to update.
+     * @param deliveryState The new delivery state of the parcel.
+     * @return A future completed with the updated `Parcel` object, or with `FoxdeliApiException` if the API call fails.
+     */
+    public CompletableFuture<Parcel> updateParcelStateAsync(UUID orderId, UUID parcelId, DeliveryState deliveryState) {
+        return timedAsync("updateParcelState", () -> {
+            ParcelStateUpdate parcelStateUpdate = parcelMapper.map(deliveryState);
+            return this.<com.foxdeli.orders.api.model.Parcel>async("update parcel state",
+                    callback -> asyncParcelsApi.updateParcelStateAsync(orderId.toString(), parcelId.toString(), parcelStateUpdate, callback))
+                    .thenApply(parcel -> cacheParcel(parcelMapper.map(parcel)));
+        });
+    }
+
+    /**
+     * Asynchronously updates the delivery states of many parcels and reports the outcome of every change.
+     * Changes of the same parcel are merged first, so only the last change of every parcel is sent. The updates are
+     * sent concurrently, at most `parcelParallelism` at a time. A failed update does not fail the other updates;
+     * its error is reported in its result.
+     *
+     * @param changes    The changes of the delivery states.
+     * @param mapParcels If true, the updated parcels are mapped and returned in the results. If false, the responses
+     *                   are discarded without mapping them, and the updated parcels are removed from the cache instead.
+     * @return A future completed with the outcome of every change, in the order of the given changes.
+     */
+    public CompletableFuture<List<ParcelStateResult>> updateParcelStatesAsync(Collection<ParcelStateChange> changes,
+                                                                             boolean mapParcels) {
+        return timedAsync("updateParcelStates", () -> startParcelStateUpdates(changes, mapParcels));
+    }
+
+    /**
+     * Merges the changes by parcel and sends the last change of every parcel in `parcelParallelism` lanes.
+     */
+    private CompletableFuture<List<ParcelStateResult>> startParcelStateUpdates(Collection<ParcelStateChange> changes,
+                                                                              boolean mapParcels) {
+        List<ParcelStateChange> requested = List.copyOf(changes);
+        Map<UUID, ParcelStateChange> latest = new LinkedHashMap<>();
+        for (ParcelStateChange change : requested) {
+            latest.put(change.parcelId(), change);
+        }
+        List<ParcelStateChange> sent = List.copyOf(latest.values());
+        Map<UUID, ParcelStateResult> outcomes = new ConcurrentHashMap<>();
+        return inLanes(sent, (index, change) -> sendParcelState(change, mapParcels)
+                .handle((parcel, e) -> {
+                    outcomes.put(change.parcelId(), new ParcelStateResult(change, false, parcel, e == null ? null : ApiCallbackFuture.unwrap(e)));
+                    return null;
+                }))
+                .thenApply(ignored -> requested.stream()
+                        .map(change -> {
+                            ParcelStateResult outcome = outcomes.get(change.parcelId());
+                            return outcome.change() == change
+                                    ? outcome
+                                    : new ParcelStateResult(change, true, outcome.parcel(), outcome.error());
+                        })
+                        .toList());
+    }
+
+    private CompletableFuture<Parcel> sendParcelState(ParcelStateChange change, boolean mapParcel) {
+        String orderId = change.orderId().toString();
+        String parcelId = change.parcelId().toString();
+        ParcelStateUpdate parcelStateUpdate = parcelMapper.map(change.deliveryState());
+        try {
+            if (mapParcel) {
+                return this.<com.foxdeli.orders.api.model.Parcel>async("update parcel state",
+                                callback -> asyncParcelsApi.updateParcelStateAsync(orderId, parcelId, parcelStateUpdate, callback))
+                        .thenApply(parcel -> cacheParcel(parcelMapper.map(parcel)));
+            }
+            return enqueueJson("update parcel state",
+                    () -> asyncParcelsApi.updateParcelStateCall(orderId, parcelId, parcelStateUpdate, null),
+                    in -> {
+                        in.skipValue();
+                        return null;
+                    })
+                    .thenApply(response -> {
+                        invalidateParcel(change.orderId(), change.parcelId());
+                        return null;
+                    });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Retrieves an order from the API, joining a retrieval of the same order already in flight.
+     * Nothing is kept after the retrieval completes.
+     */
+    private Order retrieveOrder(UUID orderId) {
+        return orderRetrievals == null ? findOrder(orderId) : orderRetrievals.execute(orderId, () -> findOrder(orderId));
+    }
+
+    private CompletableFuture<Order> retrieveOrderAsync(UUID orderId) {
+        return orderRetrievals == null
+                ? findOrderAsync(orderId)
+                : orderRetrievals.executeAsync(orderId, () -> findOrderAsync(orderId));
+    }
+
+    /**
+     * Retrieves a parcel from the API, joining a retrieval of the same parcel already in flight.
+     * Nothing is kept after the retrieval completes.
+     */
+    private Parcel retrieveParcel(UUID orderId, UUID parcelId) {
+        return parcelRetrievals == null
+                ? findParcel(orderId, parcelId)
+                : parcelRetrievals.execute(parcelId, () -> findParcel(orderId, parcelId));
+    }
+
+    private CompletableFuture<Parcel> retrieveParcelAsync(UUID orderId, UUID parcelId) {
+        return parcelRetrievals == null
+                ? findParcelAsync(orderId, parcelId)
+                : parcelRetrievals.executeAsync(parcelId, () -> findParcelAsync(orderId, parcelId));
+    }
+
+    private Order findOrder(UUID orderId) {
+        return find("get order", orderId, Order.class, () -> readOrder(orderId));
+    }
+
+    private CompletableFuture<Order> findOrderAsync(UUID orderId) {
+        return findAsync(orderId, Order.class, () -> readOrderAsync(orderId));
+    }
+
+    private Parcel findParcel(UUID orderId, UUID parcelId) {
+        return find("get parcel", parcelId, Parcel.class, () -> readParcel(orderId, parcelId));
+    }
+
+    private CompletableFuture<Parcel> findParcelAsync(UUID orderId, UUID parcelId) {
+        return findAsync(parcelId, Parcel.class, () -> readParcelAsync(orderId, parcelId));
+    }
+
+    private ApiResponse<Order> readOrder(UUID orderId) throws ApiException {
+        if (streamingJson) {
+            return JsonResponseCall.execute(ordersApi.findOrderByIdCall(orderId.toString(), null), JsonResponseReader::readOrder);
+        }
+        ApiResponse<com.foxdeli.orders.api.model.Order> response = ordersApi.findOrderByIdWithHttpInfo(orderId.toString());
+        return new ApiResponse<>(response.getStatusCode(), response.getHeaders(), orderMapper.map(response.getData()));
+    }
+
+    private CompletableFuture<ApiResponse<Order>> readOrderAsync(UUID orderId) {
+        if (streamingJson) {
+            return enqueueJson("get order", () -> asyncOrdersApi.findOrderByIdCall(orderId.toString(), null), JsonResponseReader::readOrder);
+        }
+        return this.<com.foxdeli.orders.api.model.Order>enqueue("get order",
+                        callback -> asyncOrdersApi.findOrderByIdAsync(orderId.toString(), callback))
+                .response()
+                .thenApply(response -> new ApiResponse<>(response.getStatusCode(), response.getHeaders(), orderMapper.map(response.getData())));
+    }
+
+    private ApiResponse<Parcel> readParcel(UUID orderId, UUID parcelId) throws ApiException {
+        if (streamingJson) {
+            return JsonResponseCall.execute(parcelsApi.findParcelByIdCall(orderId.toString(), parcelId.toString(), null), JsonResponseReader::readParcel);
+        }
+        ApiResponse<com.foxdeli.orders.api.model.Parcel> response = parcelsApi.findParcelByIdWithHttpInfo(orderId.toString(), parcelId.toString());
+        return new ApiResponse<>(response.getStatusCode(), response.getHeaders(), parcelMapper.map(response.getData()));
+    }
+
+    private CompletableFuture<ApiResponse<Parcel>> readParcelAsync(UUID orderId, UUID parcelId) {
+        if (streamingJson) {
+            return enqueueJson("get parcel", () -> asyncParcelsApi.findParcelByIdCall(orderId.toString(), parcelId.toString(), null), JsonResponseReader::readParcel);
+        }
+        return this.<com.foxdeli.orders.api.model.Parcel>enqueue("get parcel",
+                        callback -> asyncParcelsApi.findParcelByIdAsync(orderId.toString(), parcelId.toString(), callback))
+                .response()
+                .thenApply(response -> new ApiResponse<>(response.getStatusCode(), response.getHeaders(), parcelMapper.map(response.getData())));
+    }
+
+    /**
+     * Retrieves an order or parcel, reusing the version kept for revalidation if the API reports it as not modified.
+     */
+    private <T> T find(String operation, UUID id, Class<T> type, ApiRead<T> read) {
+        try {
+            return keep(id, read.read());
+        } catch (ApiException e) {
+            if (e.getCode() != 304 || entityTags == null) {
+                throw new FoxdeliApiException("Foxdeli '" + operation + "' API call failed.", e);
+            }
+            T kept = entityTags.resolve(id, EntityTagStore.entityTag(e.getResponseHeaders()), type);
+            if (kept != null) {
+                return kept;
+            }
+            // The kept version was evicted or replaced while revalidating; retrieve it unconditionally.
+            entityTags.invalidate(id);
+            try {
+                return keep(id, read.read());
+            } catch (ApiException retry) {
+                throw new FoxdeliApiException("Foxdeli '" + operation + "' API call failed.", retry);
+            }
+        }
+    }
+
+    private <T> CompletableFuture<T> findAsync(UUID id, Class<T> type, Supplier<CompletableFuture<ApiResponse<T>>> read) {
+        return read.get()
+                .thenApply(response -> keep(id, response))
+                .exceptionallyCompose(e -> {
+                    ApiException notModified = notModified(e);
+                    if (notModified == null || entityTags == null) {
+                        return CompletableFuture.failedFuture(ApiCallbackFuture.unwrap(e));
+                    }
+                    T kept = entityTags.resolve(id, EntityTagStore.entityTag(notModified.getResponseHeaders()), type);
+                    if (kept != null) {
+                        return CompletableFuture.completedFuture(kept);
+                    }
+                    entityTags.invalidate(id);
+                    return read.get().thenApply(response -> keep(id, response));
+                });
+    }
+
+    /**
+     * Keeps a retrieved order or parcel for revalidation, if enabled, indexes its parcels and returns it.
+     */
+    private <T> T keep(UUID id, ApiResponse<T> response) {
+        T data = response.getData();
+        if (entityTags != null) {
+            entityTags.put(id, EntityTagStore.entityTag(response.getHeaders()), data);
+        }
+        if (data instanceof Order order) {
+            index(order);
+        } else if (data instanceof Parcel parcel) {
+            index(parcel);
+        }
+        return data;
+    }
+
+    /**
+     * Writes the order returned by an update to the cache, replacing any stale copy.
+     */
+    private Order cacheOrder(Order order) {
+        if (orderCache != null && order != null && order.orderId() != null) {
+            orderCache.put(order.orderId(), order);
+        }
+        index(order);
+        return order;
+    }
+
+    /**
+     * Writes the parcel returned by an update to the cache. The cached order containing the parcel is stale now,
+     * so it is invalidated.
+     */
+    private Parcel cacheParcel(Parcel parcel) {
+        if (parcel != null) {
+            if (parcelCache != null && parcel.parcelId() != null) {
+                parcelCache.put(parcel.parcelId(), parcel);
+            }
+            if (orderCache != null && parcel.orderId() != null) {
+                orderCache.invalidate(parcel.orderId());
+            }
+            index(parcel);
+        }
+        return parcel;
+    }
+
+    private void invalidateParcel(UUID orderId, UUID parcelId) {
+        if (parcelCache != null) {
+            parcelCache.invalidate(parcelId);
+        }
+        if (orderCache != null) {
+            orderCache.invalidate(orderId);
+        }
+        // The indexed parcel was deleted or has a state the index does not know.
+        if (parcelIndex != null) {
+            parcelIndex.remove(parcelId);
+        }
+    }
+
+    private void index(Order order) {
+        if (parcelIndex != null && order != null && order.parcels() != null) {
+            for (Parcel parcel : order.parcels()) {
+                index(parcel);
+            }
+        }
+    }
+
+    private void index(Parcel parcel) {
+        if (parcelIndex != null && parcel != null && parcel.parcelId() != null) {
+            parcelIndex.put(parcel);
+        }
+    }
+
+    /**
+     * Creates the given parcels of a newly created order in `parcelParallelism` lanes. Each lane creates its parcels
+     * one after another, so no more than `parcelParallelism` calls are in flight and no thread is blocked.
+     */
+    private CompletableFuture<OrderCreation> createParcels(Order order, List<ParcelRequest> requests, boolean refetch) {
+        if (requests.isEmpty()) {
+            return CompletableFuture.completedFuture(new OrderCreation(order, List.of()));
+        }
+        ParcelCreation[] results = new ParcelCreation[requests.size()];
+        return inLanes(requests, (index, request) -> createParcelSafely(order.orderId(), request)
+                .handle((parcel, e) -> {
+                    results[index] = new ParcelCreation(request, parcel, e == null ? null : ApiCallbackFuture.unwrap(e));
+                    return null;
+                })).thenCompose(ignored -> {
+            List<ParcelCreation> parcels = Arrays.asList(results);
+            Order merged = withParcels(order, parcels);
+            if (!refetch) {
+                return CompletableFuture.completedFuture(new OrderCreation(merged, parcels));
+            }
+            return getOrderAsync(order.orderId())
+                    .exceptionally(e -> {
+                        log.warn("Failed to retrieve created order {}, returning locally merged order: {}",
+                                order.orderId(), ApiCallbackFuture.unwrap(e).getMessage());
+                        return merged;
+                    })
+                    .thenApply(refetched -> new OrderCreation(refetched, parcels));
+        });
+    }
+
+    /**
+     * Runs the task for every item in `parcelParallelism` lanes. Each lane runs its tasks one after another, so no more
+     * than `parcelParallelism` tasks are in flight and no thread is blocked. The tasks must not fail.
+     */
+    private <R> CompletableFuture<Void> inLanes(List<R> items, BiFunction<Integer, R, CompletableFuture<Void>> task) {
+        int lanes = Math.min(parcelParallelism, items.size());
+        CompletableFuture<?>[] laneFutures = new CompletableFuture[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+            for (int i = lane; i < items.size(); i += lanes) {
+                int index = i;
+                R item = items.get(i);
+                chain = chain.thenCompose(ignored -> task.apply(index, item));
+            }
+            laneFutures[lane] = chain;
+        }
+        return CompletableFuture.allOf(laneFutures);
+    }
+
+    private CompletableFuture<Parcel> createParcelSafely(UUID orderId, ParcelRequest request) {
+        try {
+            return createParcelAsync(orderId, request);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static Order withParcels(Order order, List<ParcelCreation> parcels) {
+        List<Parcel> merged = new ArrayList<>();
+        if (order.parcels() != null) {
+            merged.addAll(order.parcels());
+        }
+        parcels.stream()
+                .filter(ParcelCreation::isSuccessful)
+                .map(ParcelCreation::parcel)
+                .forEach(merged::add);
+        return order.toBuilder().parcels(merged).build();
+    }
+
+    private static void logFailedParcels(OrderCreation creation) {
+        creation.parcels().stream()
+                .filter(parcel -> !parcel.isSuccessful())
+                .forEach(parcel -> log.error(parcel.error().getMessage(), parcel.error()));
+    }
+
+    /**
+     * Runs an operation in its own span and reports its duration and outcome to the metrics, if enabled.
+     */
+    private <T> T timed(String operation, Supplier<T> action) {
+        if (metrics == FoxdeliMetrics.NOOP && tracing == FoxdeliTracing.NOOP) {
+            return action.get();
+        }
+        metrics.operationStarted(operation);
+        TraceSpan span = tracing.startSpan("foxdeli." + operation);
+        long started = System.nanoTime();
+        try (TraceSpan.Scope ignored = span.makeCurrent()) {
+            T result = action.get();
+            completed(operation, started, span, null);
+            return result;
+        } catch (RuntimeException e) {
+            completed(operation, started, span, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Starts an asynchronous operation in its own span and reports its duration and outcome to the metrics once it
+     * completes. Calls created while starting the operation are traced as children of its span.
+     */
+    private <T> CompletableFuture<T> timedAsync(String operation, Supplier<CompletableFuture<T>> action) {
+        if (metrics == FoxdeliMetrics.NOOP && tracing == FoxdeliTracing.NOOP) {
+            return action.get();
+        }
+        metrics.operationStarted(operation);
+        TraceSpan span = tracing.startSpan("foxdeli." + operation);
+        long started = System.nanoTime();
+        CompletableFuture<T> future;
+        try (TraceSpan.Scope ignored = span.makeCurrent()) {
+            future = action.get();
+        } catch (RuntimeException e) {
+            completed(operation, started, span, e);
+            throw e;
+        }
+        return future.whenComplete((result, e) -> completed(operation, started, span, e == null ? null : ApiCallbackFuture.unwrap(e)));
+    }
+
+    private void completed(String operation, long started, TraceSpan span, Throwable error) {
+        int status = error instanceof FoxdeliApiException api ? api.getCode() : 0;
+        metrics.recordOperation(operation, System.nanoTime() - started, status, error);
+        if (error != null) {
+            if (status != 0) {
+                span.setAttribute("http.response.status_code", status);
+            }
+            span.recordError(error);
+        }
+        span.end();
+    }
+
+    /**
+     * Enqueues an asynchronous call of the generated API and returns a future of its result.
+     */
+    private <T> CompletableFuture<T> async(String operation, AsyncCall<T> call) {
+        return enqueue(operation, call).future();
+    }
+
+    private <T> ApiCallbackFuture<T> enqueue(String operation, AsyncCall<T> call) {
+        ApiCallbackFuture<T> callback = new ApiCallbackFuture<>(operation);
+        try {
+            call.enqueue(callback);
+        } catch (ApiException e) {
+            callback.onFailure(e, e.getCode(), e.getResponseHeaders());
+        }
+        return callback;
+    }
+
+    /**
+     * Returns the 304 Not Modified response an asynchronous retrieval failed with, or `null` for any other failure.
+     */
+    private static ApiException notModified(Throwable throwable) {
+        if (ApiCallbackFuture.unwrap(throwable).getCause() instanceof ApiException e && e.getCode() == 304) {
+            return e;
+        }
+        return null;
+    }
+
+    /**
+     * Enqueues a call built by the generated API and reads its response with a streaming `JsonReader`.
+     */
+    private static <T> CompletableFuture<ApiResponse<T>> enqueueJson(String operation, CallFactory call,
+                                                                    JsonResponseCall.ResponseReader<T> reader) {
+        try {
+            return JsonResponseCall.enqueue(operation, call.build(), reader);
+        } catch (ApiException e) {
+            return CompletableFuture.failedFuture(ApiCallbackFuture.translate(operation, e));
+        }
+    }
+
+    /**
+     * A synchronous call of the generated API returning its response.
+     */
+    @FunctionalInterface
+    private interface ApiRead<T> {
+        ApiResponse<T> read() throws ApiException;
+    }
+
+    /**
+     * Builds a call of the generated API without executing it.
+     */
+    @FunctionalInterface
+    private interface CallFactory {
+        okhttp3.Call build() throws ApiException;
+    }
+
+    /**
+     * An asynchronous call of the generated API reporting its result to the given callback.
+     */
+    @FunctionalInterface
+    private interface AsyncCall<T> {
+        void enqueue(ApiCallback<T> callback) throws ApiException;
+    }
+}
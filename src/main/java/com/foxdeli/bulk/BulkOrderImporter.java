@@ -0,0 +1,226 @@
+package com.foxdeli.bulk;
+
+import com.foxdeli.FoxdeliClient;
+import com.foxdeli.exception.FoxdeliException;
+import com.foxdeli.helper.ApiCallbackFuture;
+import com.foxdeli.model.request.OrderRequest;
+import com.foxdeli.model.response.OrderCreation;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * The `BulkOrderImporter` class creates large numbers of orders with a bounded number of API calls in flight.
+ * Orders are pulled from the source only when there is capacity for them, so the source is never read ahead
+ * further than the configured concurrency. Every result is handed to a sink as soon as it is known instead of being
+ * collected in memory, and a summary with throughput and error counts is returned at the end.
+ * <p>
+ * The sink is never called concurrently, so it does not need to be thread-safe. It should return quickly,
+ * as it runs on the HTTP client's threads.
+ */
+@Slf4j
+public class BulkOrderImporter {
+
+    private static final int DEFAULT_CONCURRENCY = 16;
+
+    private final FoxdeliClient client;
+    private final int concurrency;
+    private final UUID marketId;
+    private final UUID eshopId;
+    private final boolean refetch;
+
+    /**
+     * Creates a new `BulkOrderImporter`. Use `BulkOrderImporter.builder()` to create instances.
+     *
+     * @param client      The client used to create the orders.
+     * @param concurrency The maximum number of orders created concurrently. Defaults to 16.
+     * @param marketId    The marketId of the imported orders. Defaults to the client's marketId.
+     * @param eshopId     The eshopId of the imported orders. Defaults to the client's eshopId.
+     * @param refetch     If true, every order is retrieved again after its parcels are created.
+     * @throws FoxdeliException If the client is missing or the concurrency is not positive.
+     */
+    @Builder
+    private BulkOrderImporter(FoxdeliClient client, Integer concurrency, UUID marketId, UUID eshopId, boolean refetch) {
+        if (client == null) {
+            throw new FoxdeliException("Client cannot be null");
+        }
+        if (concurrency != null && concurrency < 1) {
+            throw new FoxdeliException("Concurrency must be at least 1");
+        }
+        this.client = client;
+        this.concurrency = concurrency == null ? DEFAULT_CONCURRENCY : concurrency;
+        this.marketId = marketId == null ? client.getMarketId() : marketId;
+        this.eshopId = eshopId == null ? client.getEshopId() : eshopId;
+        this.refetch = refetch;
+    }
+
+    /**
+     * Imports all orders of the given stream. The calling thread is blocked until all orders are processed.
+     *
+     * @param source The orders to import. The stream is consumed lazily.
+     * @param sink   Receives the result of every order as soon as it is known.
+     * @return The summary of the import.
+     */
+    public ImportSummary importOrders(Stream<OrderRequest> source, Consumer<OrderImportResult> sink) {
+        return importOrders(source.iterator(), sink);
+    }
+
+    /**
+     * Imports all orders of the given iterator. The calling thread is blocked until all orders are processed.
+     * The next order is taken from the iterator only once fewer than `concurrency` orders are in flight.
+     *
+     * @param source The orders to import.
+     * @param sink   Receives the result of every order as soon as it is known.
+     * @return The summary of the import.
+     */
+    public ImportSummary importOrders(Iterator<OrderRequest> source, Consumer<OrderImportResult> sink) {
+        Run run = new Run(sink);
+        Semaphore permits = new Semaphore(concurrency);
+        long index = 0;
+        try {
+            while (source.hasNext()) {
+                permits.acquire();
+                OrderRequest request = source.next();
+                run.submit(index++, request).whenComplete((result, e) -> permits.release());
+            }
+            // Wait for the orders still in flight.
+            permits.acquire(concurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FoxdeliException("Bulk order import was interrupted after " + index + " orders");
+        }
+        return run.summary();
+    }
+
+    /**
+     * Imports all orders published by the given publisher. No more than `concurrency` orders are requested from the
+     * publisher ahead of their completion.
+     *
+     * @param source The publisher of the orders to import.
+     * @param sink   Receives the result of every order as soon as it is known.
+     * @return A future completed with the summary of the import once the publisher completes and all its orders are
+     * processed, or completed exceptionally if the publisher fails.
+     */
+    public CompletableFuture<ImportSummary> importOrders(Flow.Publisher<OrderRequest> source, Consumer<OrderImportResult> sink) {
+        CompletableFuture<ImportSummary> summary = new CompletableFuture<>();
+        source.subscribe(new ImportSubscriber(new Run(sink), summary));
+        return summary;
+    }
+
+    /**
+     * Subscriber requesting a new order from the publisher whenever an order in flight completes.
+     */
+    private class ImportSubscriber implements Flow.Subscriber<OrderRequest> {
+
+        private final Run run;
+        private final CompletableFuture<ImportSummary> summary;
+        private final AtomicLong inFlight = new AtomicLong();
+        private final AtomicBoolean sourceCompleted = new AtomicBoolean();
+        private Flow.Subscription subscription;
+        private long index;
+
+        private ImportSubscriber(Run run, CompletableFuture<ImportSummary> summary) {
+            this.run = run;
+            this.summary = summary;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(concurrency);
+        }
+
+        @Override
+        public void onNext(OrderRequest request) {
+            inFlight.incrementAndGet();
+            run.submit(index++, request).whenComplete((result, e) -> {
+                if (inFlight.decrementAndGet() == 0 && sourceCompleted.get()) {
+                    summary.complete(run.summary());
+                } else {
+                    subscription.request(1);
+                }
+            });
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            summary.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            sourceCompleted.set(true);
+            if (inFlight.get() == 0) {
+                summary.complete(run.summary());
+            }
+        }
+    }
+
+    /**
+     * State of a single import run.
+     */
+    private class Run {
+
+        private final Consumer<OrderImportResult> sink;
+        private final ReentrantLock sinkLock = new ReentrantLock();
+        private final LongAdder orders = new LongAdder();
+        private final LongAdder failedOrders = new LongAdder();
+        private final LongAdder failedParcels = new LongAdder();
+        private final long started = System.nanoTime();
+
+        private Run(Consumer<OrderImportResult> sink) {
+            this.sink = sink;
+        }
+
+        /**
+         * Starts the creation of the given order. The returned future always completes normally.
+         */
+        private CompletableFuture<OrderImportResult> submit(long index, OrderRequest request) {
+            orders.increment();
+            CompletableFuture<OrderCreation> creation;
+            try {
+                creation = client.createOrderWithParcelsAsync(request, marketId, eshopId, refetch);
+            } catch (RuntimeException e) {
+                creation = CompletableFuture.failedFuture(e);
+            }
+            return creation.handle((created, e) -> {
+                OrderImportResult result = new OrderImportResult(index, request, created, e == null ? null : ApiCallbackFuture.unwrap(e));
+                record(result);
+                return result;
+            });
+        }
+
+        private void record(OrderImportResult result) {
+            if (result.isSuccessful()) {
+                failedParcels.add(result.creation().failedParcels().size());
+            } else {
+                failedOrders.increment();
+            }
+            sinkLock.lock();
+            try {
+                sink.accept(result);
+            } catch (RuntimeException e) {
+                log.error("Bulk order import sink failed for order {}", result.index(), e);
+            } finally {
+                sinkLock.unlock();
+            }
+        }
+
+        private ImportSummary summary() {
+            return new ImportSummary(orders.sum(), failedOrders.sum(), failedParcels.sum(),
+                    Duration.ofNanos(System.nanoTime() - started));
+        }
+    }
+}
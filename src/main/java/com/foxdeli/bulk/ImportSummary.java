@@ -0,0 +1,38 @@
+package com.foxdeli.bulk;
+
+import java.time.Duration;
+
+/**
+ * Summary of a finished import run of the `BulkOrderImporter`.
+ *
+ * @param orders         The number of orders taken from the source.
+ * @param failedOrders   The number of orders that could not be created.
+ * @param failedParcels  The number of parcels that could not be created for successfully created orders.
+ * @param elapsed        The duration of the whole import.
+ */
+public record ImportSummary(
+        long orders,
+        long failedOrders,
+        long failedParcels,
+        Duration elapsed
+) {
+
+    /**
+     * Returns the number of orders that were created.
+     *
+     * @return The number of created orders.
+     */
+    public long createdOrders() {
+        return orders - failedOrders;
+    }
+
+    /**
+     * Returns the import throughput.
+     *
+     * @return The number of processed orders per second.
+     */
+    public double ordersPerSecond() {
+        long millis = elapsed.toMillis();
+        return millis == 0 ? orders : orders * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,29 @@
+package com.foxdeli.bulk;
+
+import com.foxdeli.model.request.OrderRequest;
+import com.foxdeli.model.response.OrderCreation;
+
+/**
+ * The outcome of importing a single order with the `BulkOrderImporter`.
+ *
+ * @param index    The zero-based position of the request in the source.
+ * @param request  The imported `OrderRequest`.
+ * @param creation The created order with the outcome of its parcels, or `null` if the order could not be created.
+ * @param error    The exception the order creation failed with, or `null` if the order was created.
+ */
+public record OrderImportResult(
+        long index,
+        OrderRequest request,
+        OrderCreation creation,
+        Throwable error
+) {
+
+    /**
+     * Checks if the order was created. Some of its parcels may still have failed, see `OrderCreation.isSuccessful()`.
+     *
+     * @return `true` if the order was created, `false` otherwise.
+     */
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.foxdeli.bulk;
+
+/**
+ * What a `ParcelStateUpdater` does with a state change of a new parcel while its queue is full.
+ * Changes of parcels already in the queue never overflow, as they replace the queued change.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The submitting thread waits until the queue has room.
+     */
+    BLOCK,
+
+    /**
+     * The change queued the longest is dropped to make room. Its result reports the drop as an error.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The submission fails with a `FoxdeliException`.
+     */
+    FAIL
+}
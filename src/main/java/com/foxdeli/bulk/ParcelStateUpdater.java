@@ -0,0 +1,436 @@
+package com.foxdeli.bulk;
+
+import com.foxdeli.FoxdeliClient;
+import com.foxdeli.exception.FoxdeliException;
+import com.foxdeli.helper.ApiCallbackFuture;
+import com.foxdeli.model.request.ParcelStateChange;
+import com.foxdeli.model.response.ParcelStateResult;
+import com.foxdeli.orders.api.model.DeliveryState;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The `ParcelStateUpdater` class sends parcel state changes in the background, trading a short delay for fewer API
+ * calls. Submitted changes are queued by parcel, and a change of a parcel already in the queue replaces the queued one,
+ * so a parcel passing through several states before the next flush is updated only once, with its latest state.
+ * <p>
+ * The queue is flushed in batches of `batchSize` as soon as that many parcels are queued, and completely every
+ * `flushInterval`. Batches are sent with `FoxdeliClient.updateParcelStatesAsync`, at most `workers` batches at a time.
+ * A batch is taken from the queue only once a worker is free, so changes submitted while all workers are busy still
+ * replace the queued ones. While all workers are busy the queue keeps filling up; once it holds `capacity` parcels, the
+ * `overflowPolicy` decides what happens to changes of further parcels.
+ * <p>
+ * Changes of a parcel are applied in the order they were submitted: while a change of a parcel is being sent, later
+ * changes of that parcel stay in the queue and are sent in a batch after it completes.
+ * <p>
+ * The updater runs a daemon thread and must be closed, which sends all queued changes.
+ */
+@Slf4j
+public class ParcelStateUpdater implements AutoCloseable {
+
+    private static final int DEFAULT_CAPACITY = 10_000;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(200);
+    private static final int DEFAULT_WORKERS = 4;
+
+    private final FoxdeliClient client;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final int workers;
+    private final OverflowPolicy overflowPolicy;
+    private final boolean mapParcels;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition flushRequested = lock.newCondition();
+
+    /**
+     * The queued changes by parcelId, in the order their parcels were queued. Guarded by `lock`.
+     */
+    private final LinkedHashMap<UUID, Queued> queue = new LinkedHashMap<>();
+
+    /**
+     * The parcels with a change being sent. Their queued changes are held back until it completes. Guarded by `lock`.
+     */
+    private final Set<UUID> sending = new HashSet<>();
+
+    /**
+     * When the queue is flushed completely next, in `System.nanoTime()`. Set when a change is queued into an empty
+     * queue. Guarded by `lock`.
+     */
+    private long nextFlush;
+    private boolean closed;
+
+    private final Semaphore inFlight;
+    private final Thread flusher;
+
+    /**
+     * Creates and starts a new `ParcelStateUpdater`. Use `ParcelStateUpdater.builder()` to create instances.
+     *
+     * @param client         The client used to send the changes.
+     * @param capacity       The maximum number of parcels queued. Defaults to 10 000.
+     * @param batchSize      The number of parcels sent in one batch. Defaults to 100.
+     * @param flushInterval  How long a change waits in the queue at most before it is sent. Defaults to 200 ms.
+     * @param workers        The maximum number of batches sent concurrently. Every batch sends up to the client's
+     *                       `parcelParallelism` updates at a time. Defaults to 4.
+     * @param overflowPolicy What happens to a change of a new parcel while the queue is full. Defaults to `BLOCK`.
+     * @param mapParcels     If true, the updated parcels are mapped and returned in the results.
+     * @throws FoxdeliException If the client is missing or a limit is not positive.
+     */
+    @Builder
+    private ParcelStateUpdater(FoxdeliClient client, Integer capacity, Integer batchSize, Duration flushInterval,
+                               Integer workers, OverflowPolicy overflowPolicy, boolean mapParcels) {
+        if (client == null) {
+            throw new FoxdeliException("Client cannot be null");
+        }
+        if ((capacity != null && capacity < 1) || (batchSize != null && batchSize < 1) || (workers != null && workers < 1)) {
+            throw new FoxdeliException("Capacity, batchSize and workers must be at least 1");
+        }
+        if (flushInterval != null && (flushInterval.isNegative() || flushInterval.isZero())) {
+            throw new FoxdeliException("FlushInterval must be positive");
+        }
+        this.client = client;
+        this.capacity = capacity == null ? DEFAULT_CAPACITY : capacity;
+        this.batchSize = batchSize == null ? DEFAULT_BATCH_SIZE : batchSize;
+        this.flushIntervalNanos = (flushInterval == null ? DEFAULT_FLUSH_INTERVAL : flushInterval).toNanos();
+        this.workers = workers == null ? DEFAULT_WORKERS : workers;
+        this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.BLOCK : overflowPolicy;
+        this.mapParcels = mapParcels;
+        this.inFlight = new Semaphore(this.workers);
+        this.flusher = new Thread(this::run, "foxdeli-parcel-state-updater");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues a change of the delivery state of a parcel.
+     *
+     * @param orderId       The unique identifier for the order containing the parcel.
+     * @param parcelId      The unique identifier for the parcel.
+     * @param deliveryState The new delivery state of the parcel.
+     * @return A future completed with the outcome of the change once it is sent or superseded.
+     * @throws FoxdeliException If the updater is closed, or the queue is full and the overflow policy is `FAIL`.
+     */
+    public CompletableFuture<ParcelStateResult> submit(UUID orderId, UUID parcelId, DeliveryState deliveryState) {
+        return submit(new ParcelStateChange(orderId, parcelId, deliveryState));
+    }
+
+    /**
+     * Queues a change of the delivery state of a parcel. If a change of the same parcel is already queued, it is
+     * replaced and its future is completed as superseded once this change is sent.
+     *
+     * @param change The change of the delivery state.
+     * @return A future completed with the outcome of the change once it is sent or superseded. The future never
+     * completes exceptionally; failures are reported in the result.
+     * @throws FoxdeliException If the updater is closed, or the queue is full and the overflow policy is `FAIL`.
+     */
+    public CompletableFuture<ParcelStateResult> submit(ParcelStateChange change) {
+        Submission submission = new Submission(change, new CompletableFuture<>());
+        Queued dropped = null;
+        lock.lock();
+        try {
+            Queued queued = queue.get(change.parcelId());
+            if (queued == null) {
+                dropped = awaitRoom(change.parcelId());
+                // Waiting for room releases the lock, so another change of the parcel may have been queued meanwhile.
+                queued = queue.get(change.parcelId());
+            }
+            if (queued == null) {
+                if (queue.isEmpty()) {
+                    nextFlush = System.nanoTime() + flushIntervalNanos;
+                    flushRequested.signal();
+                }
+                queued = new Queued();
+                queue.put(change.parcelId(), queued);
+            } else if (closed) {
+                throw new FoxdeliException("Parcel state updater is closed");
+            }
+            queued.submissions.add(submission);
+            if (queue.size() >= batchSize) {
+                flushRequested.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (dropped != null) {
+            dropped.fail(new FoxdeliException("Parcel state change dropped, the parcel state updater queue is full"));
+        }
+        return submission.result();
+    }
+
+    /**
+     * Sends all queued changes without waiting for the flush interval. Returns without waiting for them to be sent.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            nextFlush = System.nanoTime();
+            flushRequested.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of parcels with a queued change.
+     *
+     * @return The number of queued parcels.
+     */
+    public int queued() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting changes, sends all queued changes and waits until they are sent.
+     */
+    @Override
+    public void close() {
+        close(null);
+    }
+
+    /**
+     * Stops accepting changes, sends all queued changes and waits at most the given time until they are sent.
+     * Changes still queued when the time is up are reported as failed; batches already sent complete normally.
+     *
+     * @param timeout How long to wait, or `null` to wait until all changes are sent.
+     * @return `true` if all changes were sent in time, `false` otherwise.
+     */
+    public boolean close(Duration timeout) {
+        lock.lock();
+        try {
+            closed = true;
+            flushRequested.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            if (timeout == null) {
+                flusher.join();
+                inFlight.acquire(workers);
+            } else {
+                long deadline = System.nanoTime() + timeout.toNanos();
+                TimeUnit.NANOSECONDS.timedJoin(flusher, timeout.toNanos());
+                if (flusher.isAlive() || !inFlight.tryAcquire(workers, deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    flusher.interrupt();
+                    return false;
+                }
+            }
+            inFlight.release(workers);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            flusher.interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Waits until the queue has room for another parcel, or makes room as the overflow policy says. Returns without
+     * room once another change of the parcel was queued while waiting. Called with the lock held.
+     *
+     * @param parcelId The parcel to make room for.
+     * @return The queued change dropped to make room, or `null`.
+     */
+    private Queued awaitRoom(UUID parcelId) {
+        while (true) {
+            if (closed) {
+                throw new FoxdeliException("Parcel state updater is closed");
+            }
+            if (queue.size() < capacity || queue.containsKey(parcelId)) {
+                return null;
+            }
+            switch (overflowPolicy) {
+                case FAIL -> throw new FoxdeliException("Parcel state updater queue is full");
+                case DROP_OLDEST -> {
+                    Iterator<Queued> eldest = queue.values().iterator();
+                    Queued dropped = eldest.next();
+                    eldest.remove();
+                    return dropped;
+                }
+                case BLOCK -> {
+                    flushRequested.signal();
+                    notFull.awaitUninterruptibly();
+                }
+            }
+        }
+    }
+
+    /**
+     * The loop of the flusher thread: waits for a free worker, then takes a batch from the queue and sends it, until
+     * the updater is closed and the queue is empty.
+     */
+    private void run() {
+        try {
+            while (true) {
+                inFlight.acquire();
+                List<Queued> batch;
+                try {
+                    batch = nextBatch();
+                } catch (InterruptedException e) {
+                    inFlight.release();
+                    throw e;
+                }
+                if (batch == null) {
+                    inFlight.release();
+                    return;
+                }
+                send(batch);
+            }
+        } catch (InterruptedException e) {
+            log.warn("Parcel state updater was interrupted, failing queued changes");
+            failQueued(new FoxdeliException("Parcel state updater stopped before the change was sent"));
+        }
+    }
+
+    /**
+     * Waits until a batch is due and takes it from the queue. Parcels with a change being sent are skipped.
+     *
+     * @return The batch, or `null` if the updater is closed and the queue is empty.
+     */
+    private List<Queued> nextBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                if (queue.isEmpty()) {
+                    if (closed) {
+                        return null;
+                    }
+                    flushRequested.await();
+                    continue;
+                }
+                int ready = ready();
+                long wait = nextFlush - System.nanoTime();
+                if (ready > 0 && (ready >= batchSize || closed || wait <= 0)) {
+                    break;
+                }
+                if (ready == 0 || wait <= 0) {
+                    // Only parcels with a change being sent are queued; their completion signals the flusher.
+                    flushRequested.await();
+                } else {
+                    flushRequested.awaitNanos(wait);
+                }
+            }
+            List<Queued> batch = new ArrayList<>(batchSize);
+            Iterator<Queued> iterator = queue.values().iterator();
+            while (batch.size() < batchSize && iterator.hasNext()) {
+                Queued queued = iterator.next();
+                if (sending.add(queued.parcelId())) {
+                    batch.add(queued);
+                    iterator.remove();
+                }
+            }
+            notFull.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of queued parcels without a change being sent, up to `batchSize`. Called with the lock held.
+     */
+    private int ready() {
+        int ready = 0;
+        for (UUID parcelId : queue.keySet()) {
+            if (!sending.contains(parcelId) && ++ready == batchSize) {
+                break;
+            }
+        }
+        return ready;
+    }
+
+    private void send(List<Queued> batch) {
+        List<ParcelStateChange> changes = batch.stream().map(Queued::latest).toList();
+        CompletableFuture<List<ParcelStateResult>> results;
+        try {
+            results = client.updateParcelStatesAsync(changes, mapParcels);
+        } catch (RuntimeException e) {
+            results = CompletableFuture.failedFuture(e);
+        }
+        results.whenComplete((sent, e) -> {
+            lock.lock();
+            try {
+                batch.forEach(queued -> sending.remove(queued.parcelId()));
+                flushRequested.signal();
+            } finally {
+                lock.unlock();
+            }
+            inFlight.release();
+            for (int i = 0; i < batch.size(); i++) {
+                if (e == null) {
+                    batch.get(i).complete(sent.get(i));
+                } else {
+                    batch.get(i).fail(ApiCallbackFuture.unwrap(e));
+                }
+            }
+        });
+    }
+
+    private void failQueued(FoxdeliException error) {
+        List<Queued> remaining;
+        lock.lock();
+        try {
+            remaining = new ArrayList<>(queue.values());
+            queue.clear();
+            closed = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        remaining.forEach(queued -> queued.fail(error));
+    }
+
+    private record Submission(ParcelStateChange change, CompletableFuture<ParcelStateResult> result) {
+    }
+
+    /**
+     * The changes of one parcel submitted since its last flush. Only the latest one is sent.
+     */
+    private static final class Queued {
+
+        private final List<Submission> submissions = new ArrayList<>(1);
+
+        private UUID parcelId() {
+            return submissions.get(0).change().parcelId();
+        }
+
+        private ParcelStateChange latest() {
+            return submissions.get(submissions.size() - 1).change();
+        }
+
+        private void complete(ParcelStateResult sent) {
+            for (Submission submission : submissions) {
+                submission.result().complete(submission.change() == sent.change()
+                        ? sent
+                        : new ParcelStateResult(submission.change(), true, sent.parcel(), sent.error()));
+            }
+        }
+
+        private void fail(Throwable error) {
+            for (Submission submission : submissions) {
+                submission.result().complete(new ParcelStateResult(submission.change(), false, null, error));
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.foxdeli.cache;
+
+import com.foxdeli.exception.FoxdeliException;
+import com.foxdeli.model.common.ParcelTimeline;
+import com.foxdeli.model.response.Order;
+import com.foxdeli.model.response.Parcel;
+import lombok.Builder;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration of the order and parcel caches of a `FoxdeliClient`.
+ * <p>
+ * The size of each cache is bounded by weight rather than entry count, so a few orders with many parcels and long
+ * timelines take as much room as many small ones. The weight of an entry approximates the number of objects it
+ * retains: one for the order or parcel itself, plus one per parcel, product and timeline entry.
+ * <p>
+ * With `revalidate`, the client also keeps the last retrieved version of orders and parcels with their `ETag` beyond
+ * the TTL. Once a cached entry expires, the order or parcel is retrieved with a conditional request, and if the API
+ * answers 304 Not Modified, the kept version is reused without parsing and mapping the response again. Set the `ttl`
+ * to zero to revalidate on every retrieval.
+ *
+ * @param maxOrderWeight  The maximum total weight of cached orders. Defaults to 100 000.
+ * @param maxParcelWeight The maximum total weight of cached parcels. Defaults to 100 000.
+ * @param ttl             How long an entry is served from the cache after it was loaded or written. Defaults to 1 minute.
+ * @param revalidate      If true, expired orders and parcels are revalidated with `If-None-Match`.
+ * @param maxRevalidationWeight The maximum total weight of the orders and parcels kept for revalidation.
+ *                              Defaults to 100 000.
+ */
+@Builder
+public record CacheConfig(
+        Long maxOrderWeight,
+        Long maxParcelWeight,
+        Duration ttl,
+        boolean revalidate,
+        Long maxRevalidationWeight
+) {
+
+    public CacheConfig {
+        maxOrderWeight = maxOrderWeight == null ? 100_000 : maxOrderWeight;
+        maxParcelWeight = maxParcelWeight == null ? 100_000 : maxParcelWeight;
+        ttl = ttl == null ? Duration.ofMinutes(1) : ttl;
+        maxRevalidationWeight = maxRevalidationWeight == null ? 100_000 : maxRevalidationWeight;
+        if (maxOrderWeight <= 0 || maxParcelWeight <= 0 || maxRevalidationWeight <= 0) {
+            throw new FoxdeliException("Cache weight limits must be positive");
+        }
+        if (ttl.isNegative()) {
+            throw new FoxdeliException("Cache TTL cannot be negative");
+        }
+    }
+
+    /**
+     * Returns the configuration with all defaults.
+     *
+     * @return The default configuration.
+     */
+    public static CacheConfig defaults() {
+        return CacheConfig.builder().build();
+    }
+
+    /**
+     * Creates an empty order cache with this configuration.
+     *
+     * @param <K> The type of the keys.
+     * @return The order cache.
+     */
+    public <K> FoxdeliCache<K, Order> createOrderCache() {
+        return new FoxdeliCache<>(maxOrderWeight, ttl, CacheConfig::weigh);
+    }
+
+    /**
+     * Creates an empty parcel cache with this configuration.
+     *
+     * @param <K> The type of the keys.
+     * @return The parcel cache.
+     */
+    public <K> FoxdeliCache<K, Parcel> createParcelCache() {
+        return new FoxdeliCache<>(maxParcelWeight, ttl, CacheConfig::weigh);
+    }
+
+    /**
+     * Creates an empty store of orders and parcels kept for revalidation with this configuration.
+     *
+     * @return The store.
+     */
+    public EntityTagStore createEntityTagStore() {
+        return new EntityTagStore(maxRevalidationWeight, CacheConfig::weighAny);
+    }
+
+    private static int weighAny(Object value) {
+        if (value instanceof Order order) {
+            return weigh(order);
+        }
+        if (value instanceof Parcel parcel) {
+            return weigh(parcel);
+        }
+        return 1;
+    }
+
+    private static int weigh(Order order) {
+        int weight = 1 + size(order.products());
+        if (order.parcels() != null) {
+            for (Parcel parcel : order.parcels()) {
+                weight += weigh(parcel);
+            }
+        }
+        return weight;
+    }
+
+    private static int weigh(Parcel parcel) {
+        // Timelines still held as JSON text by the streaming reader report their size without being read.
+        List<ParcelTimeline> timeline = parcel.timeline();
+        return 1 + size(timeline);
+    }
+
+    private static int size(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+}
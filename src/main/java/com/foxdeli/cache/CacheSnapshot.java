@@ -0,0 +1,189 @@
+package com.foxdeli.cache;
+
+import com.foxdeli.exception.FoxdeliException;
+import com.foxdeli.mapper.JsonResponseReader;
+import com.foxdeli.mapper.JsonResponseWriter;
+import com.foxdeli.model.response.Order;
+import com.foxdeli.model.response.Parcel;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * The `CacheSnapshot` class saves the order and parcel caches of a `FoxdeliClient` to a file and restores them from
+ * it, so a restarted application starts with warm caches instead of retrieving every order and parcel again.
+ * <p>
+ * The file is a compact binary sequence of entries, each with its kind, key, expiry in epoch milliseconds and the
+ * order or parcel as API JSON. Restoring maps the file into memory and skips expired entries by their header, without
+ * reading their JSON. Restored entries keep their original expiry, so a snapshot never extends their TTL.
+ * <p>
+ * Snapshots are written to a temporary file first and then moved over the previous snapshot, so a crash while saving
+ * never leaves a truncated snapshot behind.
+ */
+@Slf4j
+public final class CacheSnapshot {
+
+    private static final int MAGIC = 0x46584353;
+    private static final short VERSION = 1;
+    private static final byte END = 0;
+    private static final byte ORDER = 1;
+    private static final byte PARCEL = 2;
+
+    private CacheSnapshot() {
+    }
+
+    /**
+     * Saves the entries of the caches that have not expired.
+     *
+     * @param file    The snapshot file, replaced if it exists.
+     * @param orders  The order cache, may be `null`.
+     * @param parcels The parcel cache, may be `null`.
+     * @return The number of entries saved.
+     * @throws FoxdeliException If the snapshot cannot be written.
+     */
+    public static int save(Path file, FoxdeliCache<UUID, Order> orders, FoxdeliCache<UUID, Parcel> parcels) {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            int saved;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                EntryWriter entries = new EntryWriter(out);
+                if (orders != null) {
+                    orders.forEach((id, order, expiresAt) -> entries.write(ORDER, id, expiresAt,
+                            json -> JsonResponseWriter.writeOrder(json, order)));
+                }
+                if (parcels != null) {
+                    parcels.forEach((id, parcel, expiresAt) -> entries.write(PARCEL, id, expiresAt,
+                            json -> JsonResponseWriter.writeParcel(json, parcel)));
+                }
+                out.writeByte(END);
+                saved = entries.count;
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return saved;
+        } catch (IOException | UncheckedIOException e) {
+            deleteQuietly(temporary);
+            throw new FoxdeliException("Failed to save cache snapshot " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Restores the entries of a snapshot that have not expired yet. Entries already cached with a later expiry are
+     * kept.
+     *
+     * @param file    The snapshot file.
+     * @param orders  The order cache, may be `null` to skip orders.
+     * @param parcels The parcel cache, may be `null` to skip parcels.
+     * @return The number of entries restored, 0 if the file does not exist.
+     * @throws FoxdeliException If the file is not a snapshot or cannot be read.
+     */
+    public static int restore(Path file, FoxdeliCache<UUID, Order> orders, FoxdeliCache<UUID, Parcel> parcels) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 6 || buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                throw new FoxdeliException("Not a cache snapshot: " + file);
+            }
+            long now = System.currentTimeMillis();
+            int count = 0;
+            for (byte kind = buffer.get(); kind != END; kind = buffer.get()) {
+                UUID id = new UUID(buffer.getLong(), buffer.getLong());
+                long expiresAt = buffer.getLong();
+                int length = buffer.getInt();
+                boolean wanted = kind == ORDER ? orders != null : kind == PARCEL && parcels != null;
+                if (!wanted || expiresAt <= now) {
+                    buffer.position(buffer.position() + length);
+                    continue;
+                }
+                byte[] json = new byte[length];
+                buffer.get(json);
+                try (JsonReader in = new JsonReader(reader(json))) {
+                    if (kind == ORDER) {
+                        orders.restore(id, JsonResponseReader.readOrder(in), expiresAt);
+                    } else {
+                        parcels.restore(id, JsonResponseReader.readParcel(in), expiresAt);
+                    }
+                }
+                count++;
+            }
+            return count;
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException | IllegalStateException e) {
+            throw new FoxdeliException("Failed to restore cache snapshot " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static Reader reader(byte[] json) {
+        return new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8);
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes entries while iterating a cache, reusing one buffer for the JSON of all entries.
+     */
+    private static final class EntryWriter {
+
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream json = new ByteArrayOutputStream();
+        private int count;
+
+        private EntryWriter(DataOutputStream out) {
+            this.out = out;
+        }
+
+        private void write(byte kind, UUID id, long expiresAt, JsonValueWriter value) {
+            try {
+                json.reset();
+                JsonWriter writer = new JsonWriter(new OutputStreamWriter(json, StandardCharsets.UTF_8));
+                value.write(writer);
+                writer.flush();
+                out.writeByte(kind);
+                out.writeLong(id.getMostSignificantBits());
+                out.writeLong(id.getLeastSignificantBits());
+                out.writeLong(expiresAt);
+                out.writeInt(json.size());
+                json.writeTo(out);
+                count++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface JsonValueWriter {
+        void write(JsonWriter out) throws IOException;
+    }
+}
@@ -0,0 +1,31 @@
+package com.foxdeli.cache;
+
+/**
+ * Snapshot of the statistics of a `FoxdeliCache`.
+ *
+ * @param hits      The number of lookups served from the cache.
+ * @param misses    The number of lookups not found in the cache, including expired entries.
+ * @param loads     The number of values loaded from the API on a miss. Coalesced misses share one load.
+ * @param evictions The number of entries evicted to stay within the weight limit, or because they expired.
+ * @param size      The current number of entries.
+ * @param weight    The current total weight of the entries.
+ */
+public record CacheStats(
+        long hits,
+        long misses,
+        long loads,
+        long evictions,
+        long size,
+        long weight
+) {
+
+    /**
+     * Returns the ratio of lookups served from the cache.
+     *
+     * @return The hit rate between 0 and 1, or 0 if there were no lookups.
+     */
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
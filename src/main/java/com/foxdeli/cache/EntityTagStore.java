@@ -0,0 +1,112 @@
+package com.foxdeli.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+/**
+ * The `EntityTagStore` class keeps the last retrieved version of orders and parcels together with the `ETag` the API
+ * returned for it. Retrievals of a stored order or parcel are sent as conditional requests with `If-None-Match`,
+ * and when the API answers 304 Not Modified the stored object is reused without parsing or mapping a response.
+ * <p>
+ * Entries do not expire, as the API validates them on every use. The store is bounded by weight and evicts the least
+ * recently used entries.
+ */
+public class EntityTagStore {
+
+    private final FoxdeliCache<String, Validated> entries;
+
+    /**
+     * Creates an empty store.
+     *
+     * @param maxWeight The maximum total weight of the stored objects.
+     * @param weigher   Computes the weight of a stored object; must return at least 1.
+     */
+    public EntityTagStore(long maxWeight, ToIntFunction<Object> weigher) {
+        this.entries = new FoxdeliCache<>(maxWeight, null, validated -> weigher.applyAsInt(validated.value()));
+    }
+
+    /**
+     * Returns the entity tag of the stored version of the order or parcel with the given ID.
+     *
+     * @param id The orderId or parcelId as it appears in the request path.
+     * @return The entity tag, or `null` if no version is stored.
+     */
+    public String entityTag(String id) {
+        Validated validated = entries.getIfPresent(id);
+        return validated == null ? null : validated.entityTag();
+    }
+
+    /**
+     * Stores the retrieved version of an order or parcel.
+     *
+     * @param id        The orderId or parcelId.
+     * @param entityTag The `ETag` of the response, or `null` if the response had none.
+     * @param value     The mapped order or parcel.
+     */
+    public void put(UUID id, String entityTag, Object value) {
+        if (entityTag == null || value == null) {
+            entries.invalidate(id.toString());
+        } else {
+            entries.put(id.toString(), new Validated(entityTag, value));
+        }
+    }
+
+    /**
+     * Returns the stored version of an order or parcel the API reported as not modified.
+     *
+     * @param id        The orderId or parcelId.
+     * @param entityTag The `ETag` of the 304 response, or `null` if the response had none.
+     * @param type      The expected type of the stored object.
+     * @param <T>       The expected type of the stored object.
+     * @return The stored object, or `null` if it is no longer stored or does not match the entity tag.
+     */
+    public <T> T resolve(UUID id, String entityTag, Class<T> type) {
+        Validated validated = entries.getIfPresent(id.toString());
+        if (validated == null || !type.isInstance(validated.value())
+                || (entityTag != null && !entityTag.equals(validated.entityTag()))) {
+            return null;
+        }
+        return type.cast(validated.value());
+    }
+
+    /**
+     * Removes the stored version of an order or parcel.
+     *
+     * @param id The orderId or parcelId.
+     */
+    public void invalidate(UUID id) {
+        entries.invalidate(id.toString());
+    }
+
+    /**
+     * Returns the current statistics of the store.
+     *
+     * @return The store statistics.
+     */
+    public CacheStats stats() {
+        return entries.stats();
+    }
+
+    /**
+     * Returns the `ETag` header of a response of the generated API client.
+     *
+     * @param headers The response headers.
+     * @return The value of the `ETag` header, or `null` if the response has none.
+     */
+    public static String entityTag(Map<String, List<String>> headers) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if ("ETag".equalsIgnoreCase(header.getKey()) && header.getValue() != null && !header.getValue().isEmpty()) {
+                return header.getValue().get(0);
+            }
+        }
+        return null;
+    }
+
+    private record Validated(String entityTag, Object value) {
+    }
+}
@@ -0,0 +1,399 @@
+package com.foxdeli.cache;
+
+import com.foxdeli.helper.SingleFlight;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * The `FoxdeliCache` class is a thread-safe, in-process read-through cache with time-to-live and weight-bounded
+ * least-recently-used eviction.
+ * <p>
+ * Entries are spread over independently locked segments, so lookups of different keys rarely contend. Concurrent
+ * misses for the same key are coalesced into a single load. A value written or invalidated while a load for the
+ * same key is in flight wins over the loaded value, so write-through updates are never overwritten by stale loads.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the cached values.
+ */
+public class FoxdeliCache<K, V> {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final long ttlMillis;
+    private final ToIntFunction<V> weigher;
+    private final SingleFlight<K, V> loads = new SingleFlight<>();
+
+    /**
+     * Loads in flight, mapped to a token identifying the load. Writes and invalidations remove the token,
+     * so the load completing afterwards does not cache its (possibly stale) value.
+     */
+    private final ConcurrentHashMap<K, Object> pendingLoads = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maxWeight The maximum total weight of the entries.
+     * @param ttl       How long an entry is served after it was written, or `null` if entries do not expire.
+     * @param weigher   Computes the weight of a value; must return at least 1.
+     */
+    @SuppressWarnings("unchecked")
+    public FoxdeliCache(long maxWeight, Duration ttl, ToIntFunction<V> weigher) {
+        this.ttlMillis = ttl == null ? Long.MAX_VALUE : ttl.toMillis();
+        this.weigher = weigher;
+        this.segments = new Segment[SEGMENTS];
+        long segmentWeight = Math.max(1, maxWeight / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(segmentWeight);
+        }
+    }
+
+    /**
+     * Returns the cached value for the key.
+     *
+     * @param key The key.
+     * @return The cached value, or `null` if the key is not cached or its entry expired.
+     */
+    public V getIfPresent(K key) {
+        V value = segment(key).get(key, System.currentTimeMillis(), evictions);
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Returns the cached value for the key, loading and caching it on a miss.
+     * Concurrent misses for the same key share a single load.
+     *
+     * @param key    The key.
+     * @param loader Loads the value for the key.
+     * @return The cached or loaded value.
+     */
+    public V get(K key, Function<K, V> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        return loads.execute(key, () -> {
+            Object token = new Object();
+            pendingLoads.put(key, token);
+            try {
+                loadCount.increment();
+                V loaded = loader.apply(key);
+                cacheLoaded(key, loaded, token);
+                return loaded;
+            } finally {
+                pendingLoads.remove(key, token);
+            }
+        });
+    }
+
+    /**
+     * Returns a future of the cached value for the key, loading and caching it on a miss.
+     * Concurrent misses for the same key share a single load.
+     *
+     * @param key    The key.
+     * @param loader Starts the asynchronous load of the value for the key.
+     * @return A future of the cached or loaded value.
+     */
+    public CompletableFuture<V> getAsync(K key, Function<K, CompletableFuture<V>> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return CompletableFuture.completedFuture(value);
+        }
+        return loads.executeAsync(key, () -> {
+            Object token = new Object();
+            pendingLoads.put(key, token);
+            loadCount.increment();
+            return loader.apply(key).whenComplete((loaded, e) -> {
+                if (e == null) {
+                    cacheLoaded(key, loaded, token);
+                }
+                pendingLoads.remove(key, token);
+            });
+        });
+    }
+
+    /**
+     * Caches the value for the key, replacing any previous value.
+     *
+     * @param key   The key.
+     * @param value The value, ignored if `null`.
+     */
+    public void put(K key, V value) {
+        pendingLoads.remove(key);
+        if (value != null) {
+            segment(key).put(key, new Entry<>(value, expiresAt(), weigher.applyAsInt(value)), evictions);
+        }
+    }
+
+    /**
+     * Caches the value for the key unless the key is already cached and its entry has not expired.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return The value already cached for the key, or `null` if the given value was cached.
+     */
+    public V putIfAbsent(K key, V value) {
+        V current = segment(key).putIfAbsent(key, new Entry<>(value, expiresAt(), weigher.applyAsInt(value)),
+                System.currentTimeMillis(), evictions);
+        if (current == null) {
+            pendingLoads.remove(key);
+        }
+        return current;
+    }
+
+    /**
+     * Caches the value for the key with the given expiry, unless the key is already cached with a later expiry.
+     * Used to restore entries written earlier, e.g. from a snapshot.
+     *
+     * @param key       The key.
+     * @param value     The value.
+     * @param expiresAt The expiry of the entry in epoch milliseconds.
+     */
+    public void restore(K key, V value, long expiresAt) {
+        if (value != null && expiresAt > System.currentTimeMillis()) {
+            segment(key).restore(key, new Entry<>(value, expiresAt, weigher.applyAsInt(value)), evictions);
+        }
+    }
+
+    /**
+     * Removes the value for the key.
+     *
+     * @param key The key.
+     */
+    public void invalidate(K key) {
+        pendingLoads.remove(key);
+        segment(key).remove(key);
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void invalidateAll() {
+        pendingLoads.clear();
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Calls the action for every entry that has not expired, with its value and expiry in epoch milliseconds.
+     * The iteration is weakly consistent: entries changed concurrently may or may not be visited.
+     *
+     * @param action Receives the key and the value of every entry, and its expiry.
+     */
+    public void forEach(EntryConsumer<K, V> action) {
+        long now = System.currentTimeMillis();
+        for (Segment<K, V> segment : segments) {
+            segment.forEach((key, entry) -> {
+                if (entry.expiresAt() > now) {
+                    action.accept(key, entry.value(), entry.expiresAt());
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the current statistics of the cache.
+     *
+     * @return The cache statistics.
+     */
+    public CacheStats stats() {
+        long size = 0;
+        long weight = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+            weight += segment.weight();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), loadCount.sum(), evictions.sum(), size, weight);
+    }
+
+    private void cacheLoaded(K key, V value, Object token) {
+        // Only cache the value if the key was not written or invalidated while loading.
+        if (value != null && pendingLoads.remove(key, token)) {
+            segment(key).put(key, new Entry<>(value, expiresAt(), weigher.applyAsInt(value)), evictions);
+        }
+    }
+
+    private long expiresAt() {
+        long now = System.currentTimeMillis();
+        return ttlMillis > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + ttlMillis;
+    }
+
+    private Segment<K, V> segment(K key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Receives a cache entry.
+     *
+     * @param <K> The type of the keys.
+     * @param <V> The type of the cached values.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<K, V> {
+        void accept(K key, V value, long expiresAt);
+    }
+
+    private record Entry<V>(V value, long expiresAt, int weight) {
+    }
+
+    /**
+     * A part of the cache with its own lock, kept in access order for LRU eviction.
+     */
+    private static final class Segment<K, V> {
+
+        private final long maxWeight;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long weight;
+
+        private Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        private V get(K key, long now, LongAdder evictions) {
+            lock.lock();
+            try {
+                Entry<V> entry = entries.get(key);
+                if (entry == null) {
+                    return null;
+                }
+                if (entry.expiresAt() <= now) {
+                    entries.remove(key);
+                    weight -= entry.weight();
+                    evictions.increment();
+                    return null;
+                }
+                return entry.value();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(K key, Entry<V> entry, LongAdder evictions) {
+            lock.lock();
+            try {
+                Entry<V> previous = entries.put(key, entry);
+                if (previous != null) {
+                    weight -= previous.weight();
+                }
+                weight += entry.weight();
+                evict(evictions);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private V putIfAbsent(K key, Entry<V> entry, long now, LongAdder evictions) {
+            lock.lock();
+            try {
+                V current = get(key, now, evictions);
+                if (current != null) {
+                    return current;
+                }
+                put(key, entry, evictions);
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void restore(K key, Entry<V> entry, LongAdder evictions) {
+            lock.lock();
+            try {
+                Entry<V> current = entries.get(key);
+                if (current == null || current.expiresAt() < entry.expiresAt()) {
+                    put(key, entry, evictions);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(K key) {
+            lock.lock();
+            try {
+                Entry<V> previous = entries.remove(key);
+                if (previous != null) {
+                    weight -= previous.weight();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void clear() {
+            lock.lock();
+            try {
+                entries.clear();
+                weight = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void forEach(BiConsumer<K, Entry<V>> action) {
+            Map<K, Entry<V>> copy;
+            lock.lock();
+            try {
+                copy = new LinkedHashMap<>(entries);
+            } finally {
+                lock.unlock();
+            }
+            copy.forEach(action);
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long weight() {
+            lock.lock();
+            try {
+                return weight;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Evicts least recently used entries until the segment fits its weight limit.
+         * The most recently written entry is kept even if it alone exceeds the limit.
+         */
+        private void evict(LongAdder evictions) {
+            Iterator<Entry<V>> iterator = entries.values().iterator();
+            while (weight > maxWeight && entries.size() > 1 && iterator.hasNext()) {
+                Entry<V> eldest = iterator.next();
+                iterator.remove();
+                weight -= eldest.weight();
+                evictions.increment();
+            }
+        }
+    }
+}
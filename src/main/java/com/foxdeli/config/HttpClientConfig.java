@@ -0,0 +1,111 @@
+package com.foxdeli.config;
+
+import com.foxdeli.exception.FoxdeliException;
+import lombok.Builder;
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of the HTTP client used by a `FoxdeliClient` for both the tracking API and the token API.
+ * Both APIs share one connection pool and dispatcher.
+ * <p>
+ * If an `okHttpClient` is given, it is used as the base client and all other settings are ignored. This way the SDK
+ * can share the connection pool and dispatcher with the rest of the application. The SDK adds its own interceptors
+ * to a derived client and never modifies the given one.
+ * <p>
+ * With a `cacheDirectory`, responses are cached on disk as allowed by their `Cache-Control` headers, and stale
+ * responses are revalidated with their `ETag` or `Last-Modified` headers. Unchanged responses are then served from
+ * disk instead of being downloaded again.
+ *
+ * @param maxIdleConnections The maximum number of idle connections kept in the pool. Defaults to 16.
+ * @param keepAlive          How long idle connections are kept in the pool. Defaults to 5 minutes.
+ * @param maxRequests        The maximum number of concurrent asynchronous calls. Defaults to 128.
+ * @param maxRequestsPerHost The maximum number of concurrent asynchronous calls to the Foxdeli API. Defaults to 64.
+ * @param connectTimeout     The connect timeout. Defaults to 10 seconds.
+ * @param readTimeout        The read timeout. Defaults to 30 seconds.
+ * @param writeTimeout       The write timeout. Defaults to 30 seconds.
+ * @param callTimeout        The timeout of a whole call including retries and redirects. Defaults to none.
+ * @param http2              If true, HTTP/2 is negotiated when the server supports it. If false, only HTTP/1.1 is used.
+ *                           Defaults to true.
+ * @param okHttpClient       The base client to derive the SDK clients from, or `null` to create a new one.
+ * @param cacheDirectory     The directory of the HTTP disk cache, or `null` for no disk cache. The directory must not
+ *                           be shared with another cache.
+ * @param cacheSize          The maximum size of the HTTP disk cache in bytes. Defaults to 50 MiB.
+ */
+@Builder
+public record HttpClientConfig(
+        Integer maxIdleConnections,
+        Duration keepAlive,
+        Integer maxRequests,
+        Integer maxRequestsPerHost,
+        Duration connectTimeout,
+        Duration readTimeout,
+        Duration writeTimeout,
+        Duration callTimeout,
+        Boolean http2,
+        OkHttpClient okHttpClient,
+        File cacheDirectory,
+        Long cacheSize
+) {
+
+    public HttpClientConfig {
+        maxIdleConnections = maxIdleConnections == null ? 16 : maxIdleConnections;
+        keepAlive = keepAlive == null ? Duration.ofMinutes(5) : keepAlive;
+        maxRequests = maxRequests == null ? 128 : maxRequests;
+        maxRequestsPerHost = maxRequestsPerHost == null ? 64 : maxRequestsPerHost;
+        connectTimeout = connectTimeout == null ? Duration.ofSeconds(10) : connectTimeout;
+        readTimeout = readTimeout == null ? Duration.ofSeconds(30) : readTimeout;
+        writeTimeout = writeTimeout == null ? Duration.ofSeconds(30) : writeTimeout;
+        callTimeout = callTimeout == null ? Duration.ZERO : callTimeout;
+        http2 = http2 == null || http2;
+        cacheSize = cacheSize == null ? 50L * 1024 * 1024 : cacheSize;
+        if (maxIdleConnections < 0 || maxRequests < 1 || maxRequestsPerHost < 1 || cacheSize < 1) {
+            throw new FoxdeliException("HTTP client limits must be positive");
+        }
+    }
+
+    /**
+     * Returns the configuration with all defaults.
+     *
+     * @return The default configuration.
+     */
+    public static HttpClientConfig defaults() {
+        return HttpClientConfig.builder().build();
+    }
+
+    /**
+     * Creates the base HTTP client shared by the tracking and token API clients.
+     *
+     * @return The given `okHttpClient`, or a new client with this configuration.
+     */
+    public OkHttpClient createHttpClient() {
+        if (okHttpClient != null) {
+            return okHttpClient;
+        }
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .writeTimeout(writeTimeout)
+                .callTimeout(callTimeout);
+        if (!http2) {
+            builder.protocols(List.of(Protocol.HTTP_1_1));
+        }
+        if (cacheDirectory != null) {
+            builder.cache(new Cache(cacheDirectory, cacheSize));
+        }
+        return builder.build();
+    }
+}
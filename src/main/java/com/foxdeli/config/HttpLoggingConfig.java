@@ -0,0 +1,62 @@
+package com.foxdeli.config;
+
+import com.foxdeli.exception.FoxdeliException;
+import lombok.Builder;
+
+/**
+ * Configuration of HTTP call logging. Calls are logged at DEBUG level of the `com.foxdeli.interceptor.LoggingInterceptor`
+ * logger, so nothing is logged or even formatted unless that level is enabled. The "Authorization" header is always
+ * redacted.
+ *
+ * @param level          What is logged for every call. Defaults to `Level.NONE`.
+ * @param bodySampleRate With `Level.BODY`, bodies are logged for one of every `bodySampleRate` calls; the other calls
+ *                       are logged with headers only. Defaults to 1, logging all bodies.
+ * @param maxBodyBytes   The maximum number of body bytes logged per call. Defaults to 4096.
+ */
+@Builder
+public record HttpLoggingConfig(
+        Level level,
+        Integer bodySampleRate,
+        Integer maxBodyBytes
+) {
+
+    public HttpLoggingConfig {
+        level = level == null ? Level.NONE : level;
+        bodySampleRate = bodySampleRate == null ? 1 : bodySampleRate;
+        maxBodyBytes = maxBodyBytes == null ? 4096 : maxBodyBytes;
+        if (bodySampleRate <= 0 || maxBodyBytes <= 0) {
+            throw new FoxdeliException("HTTP logging limits must be positive");
+        }
+    }
+
+    /**
+     * Returns the configuration with all defaults, which disables logging.
+     *
+     * @return The default configuration.
+     */
+    public static HttpLoggingConfig defaults() {
+        return HttpLoggingConfig.builder().build();
+    }
+
+    /**
+     * What is logged for every HTTP call.
+     */
+    public enum Level {
+        /**
+         * Nothing is logged.
+         */
+        NONE,
+        /**
+         * Method, URL, response code and duration are logged.
+         */
+        BASIC,
+        /**
+         * In addition to `BASIC`, request and response headers are logged.
+         */
+        HEADERS,
+        /**
+         * In addition to `HEADERS`, sampled request and response bodies are logged.
+         */
+        BODY
+    }
+}
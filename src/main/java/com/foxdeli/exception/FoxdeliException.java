@@ -5,4 +5,8 @@ public class FoxdeliException extends RuntimeException {
     public FoxdeliException(String message) {
         super(message);
     }
+
+    public FoxdeliException(String message, Throwable throwable) {
+        super(message, throwable);
+    }
 }
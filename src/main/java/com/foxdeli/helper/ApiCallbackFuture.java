@@ -0,0 +1,127 @@
+package com.foxdeli.helper;
+
+import com.foxdeli.exception.FoxdeliApiException;
+import com.foxdeli.interceptor.ErrorHandlingInterceptor;
+import com.foxdeli.orders.ApiCallback;
+import com.foxdeli.orders.ApiException;
+import com.foxdeli.orders.ApiResponse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * The `ApiCallbackFuture` class adapts the callback of the generated asynchronous API calls to a `CompletableFuture`.
+ * Failures complete the future exceptionally with the same exception types the synchronous calls throw:
+ * `FoxdeliConnectionException` if the request could not be sent or the response could not be read,
+ * and `FoxdeliApiException` otherwise.
+ *
+ * @param <T> The type of the API call result.
+ */
+public class ApiCallbackFuture<T> implements ApiCallback<T> {
+
+    private final String operation;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private volatile int statusCode;
+    private volatile Map<String, List<String>> responseHeaders;
+
+    /**
+     * Creates a new `ApiCallbackFuture` for the given operation.
+     *
+     * @param operation The name of the operation used in error messages, e.g. "get order".
+     */
+    public ApiCallbackFuture(String operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * Returns the future completed by this callback.
+     *
+     * @return The future of the API call result.
+     */
+    public CompletableFuture<T> future() {
+        return future;
+    }
+
+    /**
+     * Returns a future of the API call result together with the status code and headers of its response.
+     *
+     * @return The future of the API response.
+     */
+    public CompletableFuture<ApiResponse<T>> response() {
+        return future.thenApply(result -> new ApiResponse<>(statusCode, responseHeaders, result));
+    }
+
+    @Override
+    public void onFailure(ApiException e, int statusCode, Map<String, List<String>> responseHeaders) {
+        future.completeExceptionally(translate(operation, e));
+    }
+
+    @Override
+    public void onSuccess(T result, int statusCode, Map<String, List<String>> responseHeaders) {
+        this.statusCode = statusCode;
+        this.responseHeaders = responseHeaders;
+        future.complete(result);
+    }
+
+    @Override
+    public void onUploadProgress(long bytesWritten, long contentLength, boolean done) {
+    }
+
+    @Override
+    public void onDownloadProgress(long bytesRead, long contentLength, boolean done) {
+    }
+
+    /**
+     * Translates an `ApiException` of the given operation into the exception the synchronous API would throw.
+     *
+     * @param operation The name of the operation used in error messages, e.g. "get order".
+     * @param e         The exception reported by the generated API client.
+     * @return `FoxdeliConnectionException` for I/O failures, `FoxdeliApiException` otherwise.
+     */
+    public static RuntimeException translate(String operation, ApiException e) {
+        if (e.getCause() instanceof IOException cause) {
+            for (Throwable suppressed : cause.getSuppressed()) {
+                // OkHttp reports runtime exceptions thrown inside the call as suppressed by a cancellation.
+                if (suppressed instanceof RuntimeException runtimeException) {
+                    return runtimeException;
+                }
+            }
+            return ErrorHandlingInterceptor.translate(cause);
+        }
+        return new FoxdeliApiException("Foxdeli '" + operation + "' API call failed.", e);
+    }
+
+    /**
+     * Waits for the given future and returns its result, rethrowing the original exception if it failed.
+     *
+     * @param future The future to wait for.
+     * @param <T>    The type of the result.
+     * @return The result of the future.
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the original exception of a failed future stage, unwrapping `CompletionException`.
+     *
+     * @param throwable The exception a future stage completed with.
+     * @return The original exception.
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+}
@@ -1,27 +1,21 @@
 package com.foxdeli.helper;
 
-import com.auth0.jwt.JWT;
 import com.foxdeli.exception.FoxdeliAuthenticationException;
-import com.foxdeli.token.ApiClient;
-import com.foxdeli.token.ApiException;
-import com.foxdeli.token.api.TokenApi;
-import com.foxdeli.token.api.model.Authorization;
-import com.foxdeli.token.api.model.RefreshTokenCommand;
-import com.foxdeli.token.api.model.TokenPair;
-import lombok.Getter;
-import lombok.extern.slf4j.Slf4j;
+import com.foxdeli.exception.FoxdeliException;
 
-import java.util.Date;
-
-import static com.foxdeli.constant.Constant.STAGE_PATH_CUSTOMER;
+import javax.crypto.SecretKey;
+import java.nio.file.Path;
 
 /**
  * The `AuthHelper` class provides utility methods for handling authentication and authorization with the Foxdeli API.
  * It manages the authentication credentials, access token, and refresh token used for API calls.
  * The class offers methods to set the username and password, authorize the API client, and refresh tokens when needed.
  * It also includes methods to check if the access token and refresh token have expired.
+ *
+ * @deprecated The static state only supports a single account per JVM. Use `TokenManager` (or `FoxdeliClient`,
+ * which owns one) instead. This class is kept as a thin wrapper over a single `TokenManager`.
  */
-@Slf4j
+@Deprecated
 public class AuthHelper {
 
     /**
@@ -42,20 +36,14 @@ public class AuthHelper {
     private static String password;
 
     /**
-     * The current access token obtained after successful authorization.
-     */
-    @Getter
-    private static String accessToken;
-
-    /**
-     * The current refresh token obtained after successful authorization.
+     * Whether the token API client connects to `stage` env.
      */
-    private static String refreshToken;
+    private static boolean stage;
 
     /**
-     * The API client for handling token-related operations.
+     * The token manager for the current credentials, created lazily on the first authorization.
      */
-    private static TokenApi tokenApi;
+    private static volatile TokenManager tokenManager;
 
     /**
      * Sets the username for API authentication.
@@ -64,7 +52,7 @@ public class AuthHelper {
      * @param username The username to authenticate with the Foxdeli API.
      * @throws FoxdeliAuthenticationException If the provided username is null.
      */
-    public static void setUsername(String username) {
+    public static synchronized void setUsername(String username) {
         if (username == null) {
             throw new FoxdeliAuthenticationException("Username can not be null");
         } else {
@@ -82,7 +70,7 @@ public class AuthHelper {
      * @param password The password to authenticate with the Foxdeli API.
      * @throws FoxdeliAuthenticationException If the provided password is null.
      */
-    public static void setPassword(String password) {
+    public static synchronized void setPassword(String password) {
         if (password == null) {
             throw new FoxdeliAuthenticationException("Password can not be null");
         } else {
@@ -99,14 +87,9 @@ public class AuthHelper {
      *
      * @param stage decide whether to use stage env or not.
      */
-    public static void initTokenApi(boolean stage) {
-        if (stage) {
-            ApiClient client = new ApiClient();
-            client.setBasePath(STAGE_PATH_CUSTOMER);
-            tokenApi = new TokenApi(client);
-        } else {
-            tokenApi = new TokenApi();
-        }
+    public static synchronized void initTokenApi(boolean stage) {
+        AuthHelper.stage = stage;
+        invalidate();
     }
 
     /**
@@ -115,14 +98,7 @@ public class AuthHelper {
      * @throws FoxdeliAuthenticationException If the API call for authorization fails.
      */
     public static void authorize() {
-        final TokenPair tokenPair;
-        try {
-            tokenPair = tokenApi.authorize(new Authorization().email(username).password(password));
-        } catch (ApiException e) {
-            throw new FoxdeliAuthenticationException("Authorization failed with code " + e.getCode() + " and response body: " + e.getResponseBody());
-        }
-        accessToken = tokenPair.getToken();
-        refreshToken = tokenPair.getRefreshToken();
+        tokenManager().authorize();
     }
 
     /**
@@ -131,14 +107,17 @@ public class AuthHelper {
      * @throws FoxdeliAuthenticationException If the API call for refreshing the token fails.
      */
     public static void refreshToken() {
-        final TokenPair tokenPair;
-        try {
-            tokenPair = tokenApi.refresh(new RefreshTokenCommand().refreshToken(refreshToken));
-        } catch (ApiException e) {
-            throw new FoxdeliAuthenticationException("Refresh token failed with code " + e.getCode() + " and response body: " + e.getResponseBody());
-        }
-        accessToken = tokenPair.getToken();
-        refreshToken = tokenPair.getRefreshToken();
+        tokenManager().refreshToken();
+    }
+
+    /**
+     * Returns the current access token.
+     *
+     * @return The current access token, or `null` if not authorized yet.
+     */
+    public static String getAccessToken() {
+        TokenManager current = tokenManager;
+        return current == null ? null : current.getAccessToken();
     }
 
     /**
@@ -147,12 +126,8 @@ public class AuthHelper {
      * @return `true` if the access token has expired, `false` otherwise.
      */
     public static boolean isAccessTokenExpired() {
-        try {
-            return JWT.decode(accessToken).getExpiresAt().before(new Date());
-        } catch (Exception e) {
-            log.warn("Failed to parse accessToken: {}", e.getMessage());
-            return true;
-        }
+        TokenManager current = tokenManager;
+        return current == null || current.isAccessTokenExpired();
     }
 
     /**
@@ -161,12 +136,50 @@ public class AuthHelper {
      * @return `true` if the refresh token has expired, `false` otherwise.
      */
     public static boolean isRefreshTokenExpired() {
-        try {
-            return JWT.decode(refreshToken).getExpiresAt().before(new Date());
-        } catch (Exception e) {
-            log.warn("Failed to parse refreshToken: {}", e.getMessage());
-            return true;
+        TokenManager current = tokenManager;
+        return current == null || current.isRefreshTokenExpired();
+    }
+
+    /**
+     * Saves the current token pair, so a restarted application can continue with it using `restoreTokens`.
+     *
+     * @param file The snapshot file, replaced if it exists.
+     * @param key  The AES key to encrypt the tokens with, or `null` to store them in plain text.
+     * @throws FoxdeliException If the API client has not been authorized yet, or the snapshot cannot be written.
+     * @see TokenSnapshot
+     */
+    public static void saveTokens(Path file, SecretKey key) {
+        TokenManager current = tokenManager;
+        Tokens tokens = current == null ? null : current.getTokens();
+        if (tokens == null) {
+            throw new FoxdeliException("No tokens to save, authorize first");
+        }
+        TokenSnapshot.save(file, tokens, key);
+    }
+
+    /**
+     * Continues with the token pair saved by `saveTokens` instead of authorizing, unless the refresh token has
+     * expired. The username and password must be set first, as they are used once the tokens cannot be refreshed.
+     *
+     * @param file The snapshot file.
+     * @param key  The AES key the tokens were encrypted with, or `null` if they were stored in plain text.
+     * @return `true` if the tokens were restored, `false` if the file does not exist or the refresh token has expired
+     * and `authorize()` has to be called.
+     * @throws FoxdeliAuthenticationException If the username or password has not been set.
+     * @throws FoxdeliException If the snapshot cannot be read.
+     */
+    public static boolean restoreTokens(Path file, SecretKey key) {
+        return tokenManager().restore(TokenSnapshot.read(file, key));
+    }
+
+    /**
+     * Returns the token manager for the current credentials, creating it if the credentials have changed.
+     */
+    private static synchronized TokenManager tokenManager() {
+        if (tokenManager == null) {
+            tokenManager = new TokenManager(username, password, stage);
         }
+        return tokenManager;
     }
 
     /**
@@ -174,7 +187,6 @@ public class AuthHelper {
      * This method is called when the username or password is changed to ensure new tokens are obtained on the next authorization.
      */
     private static void invalidate() {
-        accessToken = null;
-        refreshToken = null;
+        tokenManager = null;
     }
 }
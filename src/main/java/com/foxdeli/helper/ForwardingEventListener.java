@@ -0,0 +1,183 @@
+package com.foxdeli.helper;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * The `ForwardingEventListener` class forwards every OkHttp event to another listener. Subclasses override the events
+ * they observe and call the super method, so a listener configured on the HTTP client keeps receiving all events.
+ */
+public class ForwardingEventListener extends EventListener {
+
+    private final EventListener delegate;
+
+    /**
+     * Creates a new `ForwardingEventListener`.
+     *
+     * @param delegate The listener to forward the events to.
+     */
+    public ForwardingEventListener(EventListener delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void callStart(@NotNull Call call) {
+        delegate.callStart(call);
+    }
+
+    @Override
+    public void proxySelectStart(@NotNull Call call, @NotNull HttpUrl url) {
+        delegate.proxySelectStart(call, url);
+    }
+
+    @Override
+    public void proxySelectEnd(@NotNull Call call, @NotNull HttpUrl url, @NotNull List<Proxy> proxies) {
+        delegate.proxySelectEnd(call, url, proxies);
+    }
+
+    @Override
+    public void dnsStart(@NotNull Call call, @NotNull String domainName) {
+        delegate.dnsStart(call, domainName);
+    }
+
+    @Override
+    public void dnsEnd(@NotNull Call call, @NotNull String domainName, @NotNull List<InetAddress> inetAddressList) {
+        delegate.dnsEnd(call, domainName, inetAddressList);
+    }
+
+    @Override
+    public void connectStart(@NotNull Call call, @NotNull InetSocketAddress inetSocketAddress, @NotNull Proxy proxy) {
+        delegate.connectStart(call, inetSocketAddress, proxy);
+    }
+
+    @Override
+    public void secureConnectStart(@NotNull Call call) {
+        delegate.secureConnectStart(call);
+    }
+
+    @Override
+    public void secureConnectEnd(@NotNull Call call, @Nullable Handshake handshake) {
+        delegate.secureConnectEnd(call, handshake);
+    }
+
+    @Override
+    public void connectEnd(@NotNull Call call, @NotNull InetSocketAddress inetSocketAddress, @NotNull Proxy proxy,
+                           @Nullable Protocol protocol) {
+        delegate.connectEnd(call, inetSocketAddress, proxy, protocol);
+    }
+
+    @Override
+    public void connectFailed(@NotNull Call call, @NotNull InetSocketAddress inetSocketAddress, @NotNull Proxy proxy,
+                              @Nullable Protocol protocol, @NotNull IOException ioe) {
+        delegate.connectFailed(call, inetSocketAddress, proxy, protocol, ioe);
+    }
+
+    @Override
+    public void connectionAcquired(@NotNull Call call, @NotNull Connection connection) {
+        delegate.connectionAcquired(call, connection);
+    }
+
+    @Override
+    public void connectionReleased(@NotNull Call call, @NotNull Connection connection) {
+        delegate.connectionReleased(call, connection);
+    }
+
+    @Override
+    public void requestHeadersStart(@NotNull Call call) {
+        delegate.requestHeadersStart(call);
+    }
+
+    @Override
+    public void requestHeadersEnd(@NotNull Call call, @NotNull Request request) {
+        delegate.requestHeadersEnd(call, request);
+    }
+
+    @Override
+    public void requestBodyStart(@NotNull Call call) {
+        delegate.requestBodyStart(call);
+    }
+
+    @Override
+    public void requestBodyEnd(@NotNull Call call, long byteCount) {
+        delegate.requestBodyEnd(call, byteCount);
+    }
+
+    @Override
+    public void requestFailed(@NotNull Call call, @NotNull IOException ioe) {
+        delegate.requestFailed(call, ioe);
+    }
+
+    @Override
+    public void responseHeadersStart(@NotNull Call call) {
+        delegate.responseHeadersStart(call);
+    }
+
+    @Override
+    public void responseHeadersEnd(@NotNull Call call, @NotNull Response response) {
+        delegate.responseHeadersEnd(call, response);
+    }
+
+    @Override
+    public void responseBodyStart(@NotNull Call call) {
+        delegate.responseBodyStart(call);
+    }
+
+    @Override
+    public void responseBodyEnd(@NotNull Call call, long byteCount) {
+        delegate.responseBodyEnd(call, byteCount);
+    }
+
+    @Override
+    public void responseFailed(@NotNull Call call, @NotNull IOException ioe) {
+        delegate.responseFailed(call, ioe);
+    }
+
+    @Override
+    public void callEnd(@NotNull Call call) {
+        delegate.callEnd(call);
+    }
+
+    @Override
+    public void callFailed(@NotNull Call call, @NotNull IOException ioe) {
+        delegate.callFailed(call, ioe);
+    }
+
+    @Override
+    public void canceled(@NotNull Call call) {
+        delegate.canceled(call);
+    }
+
+    @Override
+    public void satisfactionFailure(@NotNull Call call, @NotNull Response response) {
+        delegate.satisfactionFailure(call, response);
+    }
+
+    @Override
+    public void cacheHit(@NotNull Call call, @NotNull Response response) {
+        delegate.cacheHit(call, response);
+    }
+
+    @Override
+    public void cacheMiss(@NotNull Call call) {
+        delegate.cacheMiss(call);
+    }
+
+    @Override
+    public void cacheConditionalHit(@NotNull Call call, @NotNull Response cachedResponse) {
+        delegate.cacheConditionalHit(call, cachedResponse);
+    }
+}
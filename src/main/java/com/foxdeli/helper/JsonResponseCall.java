@@ -0,0 +1,106 @@
+package com.foxdeli.helper;
+
+import com.foxdeli.orders.ApiException;
+import com.foxdeli.orders.ApiResponse;
+import com.google.gson.stream.JsonReader;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The `JsonResponseCall` class executes calls built by the generated API client and reads their responses with a
+ * streaming `JsonReader` instead of the generated client's Gson deserialization. Failures are reported the same way
+ * the generated client reports them: unsuccessful responses as `ApiException` with the status code, headers and body
+ * of the response, and I/O and parse errors as `ApiException` with the error as its cause.
+ */
+public final class JsonResponseCall {
+
+    private JsonResponseCall() {
+    }
+
+    /**
+     * Executes the call and reads its response.
+     *
+     * @param call   The call built by the generated API client.
+     * @param reader Reads the response body.
+     * @param <T>    The type of the result.
+     * @return The response with the read result, or with `null` if the response has no body.
+     * @throws ApiException If the call fails, the response is unsuccessful or its body cannot be read.
+     */
+    public static <T> ApiResponse<T> execute(Call call, ResponseReader<T> reader) throws ApiException {
+        Response response;
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            throw new ApiException(e);
+        }
+        try (response) {
+            return read(response, reader);
+        } catch (IOException | RuntimeException e) {
+            throw new ApiException(e);
+        }
+    }
+
+    /**
+     * Enqueues the call and reads its response on the HTTP client's thread.
+     *
+     * @param operation The name of the operation used in error messages, e.g. "get order".
+     * @param call      The call built by the generated API client.
+     * @param reader    Reads the response body.
+     * @param <T>       The type of the result.
+     * @return A future completed with the response, or with the exception the synchronous call would throw,
+     * translated by `ApiCallbackFuture.translate`.
+     */
+    public static <T> CompletableFuture<ApiResponse<T>> enqueue(String operation, Call call, ResponseReader<T> reader) {
+        CompletableFuture<ApiResponse<T>> future = new CompletableFuture<>();
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                future.completeExceptionally(ApiCallbackFuture.translate(operation, new ApiException(e)));
+            }
+
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull Response response) {
+                try (response) {
+                    future.complete(read(response, reader));
+                } catch (ApiException e) {
+                    future.completeExceptionally(ApiCallbackFuture.translate(operation, e));
+                } catch (IOException | RuntimeException e) {
+                    future.completeExceptionally(ApiCallbackFuture.translate(operation, new ApiException(e)));
+                }
+            }
+        });
+        return future;
+    }
+
+    private static <T> ApiResponse<T> read(Response response, ResponseReader<T> reader) throws ApiException, IOException {
+        Map<String, List<String>> headers = response.headers().toMultimap();
+        ResponseBody body = response.body();
+        if (!response.isSuccessful()) {
+            throw new ApiException(response.message(), response.code(), headers, body == null ? null : body.string());
+        }
+        if (body == null || body.source().exhausted()) {
+            return new ApiResponse<>(response.code(), headers, null);
+        }
+        try (JsonReader in = new JsonReader(body.charStream())) {
+            return new ApiResponse<>(response.code(), headers, reader.read(in));
+        }
+    }
+
+    /**
+     * Reads the result of a call from its response body.
+     *
+     * @param <T> The type of the result.
+     */
+    @FunctionalInterface
+    public interface ResponseReader<T> {
+        T read(JsonReader in) throws IOException;
+    }
+}
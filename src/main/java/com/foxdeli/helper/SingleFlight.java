@@ -0,0 +1,84 @@
+package com.foxdeli.helper;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The `SingleFlight` class coalesces concurrent executions of the same operation. While an operation for a key is in
+ * flight, callers asking for the same key join it and share its result instead of starting another execution.
+ * Nothing is kept after the operation completes, so the next caller starts a new execution.
+ *
+ * @param <K> The type of the keys identifying operations.
+ * @param <V> The type of the operation results.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Executes the given operation for the key, or joins the execution already in flight for it.
+     * The calling thread is blocked until the result is available.
+     *
+     * @param key       The key identifying the operation.
+     * @param operation The operation to execute if none is in flight for the key.
+     * @return The result of the operation.
+     */
+    public V execute(K key, Supplier<V> operation) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            return ApiCallbackFuture.await(existing);
+        }
+        try {
+            V result = operation.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Starts the given asynchronous operation for the key, or joins the execution already in flight for it.
+     * Every caller gets its own future, so cancelling or completing it does not affect the other callers.
+     *
+     * @param key       The key identifying the operation.
+     * @param operation The operation to start if none is in flight for the key.
+     * @return A future of the result of the operation.
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> operation) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            return existing.copy();
+        }
+        CompletableFuture<V> started;
+        try {
+            started = operation.get();
+        } catch (RuntimeException e) {
+            started = CompletableFuture.failedFuture(e);
+        }
+        started.whenComplete((result, e) -> {
+            inFlight.remove(key, own);
+            if (e != null) {
+                own.completeExceptionally(ApiCallbackFuture.unwrap(e));
+            } else {
+                own.complete(result);
+            }
+        });
+        return own.copy();
+    }
+
+    /**
+     * Returns the number of operations currently in flight.
+     *
+     * @return The number of keys with an operation in flight.
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,357 @@
+package com.foxdeli.helper;
+
+import com.foxdeli.exception.FoxdeliAuthenticationException;
+import com.foxdeli.metrics.FoxdeliMetrics;
+import com.foxdeli.token.ApiClient;
+import com.foxdeli.token.ApiException;
+import com.foxdeli.token.api.TokenApi;
+import com.foxdeli.token.api.model.Authorization;
+import com.foxdeli.token.api.model.RefreshTokenCommand;
+import com.foxdeli.token.api.model.TokenPair;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+
+import java.time.Clock;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static com.foxdeli.constant.Constant.STAGE_PATH_CUSTOMER;
+
+/**
+ * The `TokenManager` class holds the credentials and the token pair of a single Foxdeli account.
+ * Unlike the static `AuthHelper`, every `TokenManager` instance is independent, so several accounts can be used
+ * side by side within one JVM. The access and refresh tokens are always published together as one immutable pair,
+ * so concurrent readers never observe an access token combined with a refresh token from a different authorization.
+ * The token expiry is decoded once per token pair, so checking it does not parse the tokens again.
+ * <p>
+ * Token renewals triggered by rejected requests are coalesced: while one renewal is in flight, every other thread
+ * waits for its result instead of calling the token endpoint itself.
+ */
+@Slf4j
+public class TokenManager {
+
+    /**
+     * The username used for API authentication.
+     */
+    private final String username;
+
+    /**
+     * The password used for API authentication.
+     */
+    private final String password;
+
+    /**
+     * The API client for handling token-related operations.
+     */
+    private final TokenApi tokenApi;
+
+    /**
+     * The clock used for token expiry checks.
+     */
+    private final Clock clock;
+
+    /**
+     * The metrics receiving token refresh and authorization counts.
+     */
+    private final FoxdeliMetrics metrics;
+
+    /**
+     * The current token pair obtained after successful authorization, or `null` before the first authorization.
+     */
+    private volatile Tokens tokens;
+
+    /**
+     * The renewal currently in flight, or `null` if no renewal is running.
+     */
+    private final AtomicReference<CompletableFuture<Tokens>> renewal = new AtomicReference<>();
+
+    /**
+     * Creates a new `TokenManager` for the given credentials. No API call is made until `authorize()` is called.
+     *
+     * @param username The username to authenticate with the Foxdeli API.
+     * @param password The password to authenticate with the Foxdeli API.
+     * @param stage    If true, tokens are obtained from `stage` env. If false, tokens are obtained from `prod` env.
+     * @throws FoxdeliAuthenticationException If the provided username or password is null.
+     */
+    public TokenManager(String username, String password, boolean stage) {
+        this(username, password, stage, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a new `TokenManager` for the given credentials using the given clock for token expiry checks.
+     * No API call is made until `authorize()` is called.
+     *
+     * @param username The username to authenticate with the Foxdeli API.
+     * @param password The password to authenticate with the Foxdeli API.
+     * @param stage    If true, tokens are obtained from `stage` env. If false, tokens are obtained from `prod` env.
+     * @param clock    The clock used for token expiry checks.
+     * @throws FoxdeliAuthenticationException If the provided username or password is null.
+     */
+    public TokenManager(String username, String password, boolean stage, Clock clock) {
+        this(username, password, stage, clock, null);
+    }
+
+    /**
+     * Creates a new `TokenManager` for the given credentials calling the token API with the given HTTP client.
+     * No API call is made until `authorize()` is called.
+     *
+     * @param username   The username to authenticate with the Foxdeli API.
+     * @param password   The password to authenticate with the Foxdeli API.
+     * @param stage      If true, tokens are obtained from `stage` env. If false, tokens are obtained from `prod` env.
+     * @param clock      The clock used for token expiry checks.
+     * @param httpClient The HTTP client for the token API, or `null` to create a new one.
+     * @throws FoxdeliAuthenticationException If the provided username or password is null.
+     */
+    public TokenManager(String username, String password, boolean stage, Clock clock, OkHttpClient httpClient) {
+        this(username, password, stage, clock, httpClient, FoxdeliMetrics.NOOP);
+    }
+
+    /**
+     * Creates a new `TokenManager` for the given credentials reporting token refreshes and authorizations to the
+     * given metrics. No API call is made until `authorize()` is called.
+     *
+     * @param username   The username to authenticate with the Foxdeli API.
+     * @param password   The password to authenticate with the Foxdeli API.
+     * @param stage      If true, tokens are obtained from `stage` env. If false, tokens are obtained from `prod` env.
+     * @param clock      The clock used for token expiry checks.
+     * @param httpClient The HTTP client for the token API, or `null` to create a new one.
+     * @param metrics    The metrics receiving token refresh and authorization counts.
+     * @throws FoxdeliAuthenticationException If the provided username or password is null.
+     */
+    public TokenManager(String username, String password, boolean stage, Clock clock, OkHttpClient httpClient,
+                        FoxdeliMetrics metrics) {
+        if (username == null) {
+            throw new FoxdeliAuthenticationException("Username can not be null");
+        }
+        if (password == null) {
+            throw new FoxdeliAuthenticationException("Password can not be null");
+        }
+        this.username = username;
+        this.password = password;
+        this.clock = clock;
+        this.metrics = metrics;
+        ApiClient client = httpClient == null ? new ApiClient() : new ApiClient(httpClient);
+        if (stage) {
+            client.setBasePath(STAGE_PATH_CUSTOMER);
+        }
+        this.tokenApi = new TokenApi(client);
+    }
+
+    /**
+     * Authorizes the API client by obtaining access and refresh tokens using the username and password.
+     *
+     * @throws FoxdeliAuthenticationException If the API call for authorization fails.
+     */
+    public void authorize() {
+        final TokenPair tokenPair;
+        try {
+            tokenPair = tokenApi.authorize(new Authorization().email(username).password(password));
+        } catch (ApiException e) {
+            FoxdeliAuthenticationException error = new FoxdeliAuthenticationException("Authorization failed with code " + e.getCode() + " and response body: " + e.getResponseBody());
+            metrics.recordAuthorization(error);
+            throw error;
+        }
+        metrics.recordAuthorization(null);
+        tokens = Tokens.of(tokenPair.getToken(), tokenPair.getRefreshToken());
+    }
+
+    /**
+     * Refreshes the access token using the current refresh token.
+     *
+     * @throws FoxdeliAuthenticationException If the API call for refreshing the token fails.
+     */
+    public void refreshToken() {
+        final TokenPair tokenPair;
+        try {
+            tokenPair = tokenApi.refresh(new RefreshTokenCommand().refreshToken(getRefreshToken()));
+        } catch (ApiException e) {
+            FoxdeliAuthenticationException error = new FoxdeliAuthenticationException("Refresh token failed with code " + e.getCode() + " and response body: " + e.getResponseBody());
+            metrics.recordTokenRefresh(error);
+            throw error;
+        }
+        metrics.recordTokenRefresh(null);
+        tokens = Tokens.of(tokenPair.getToken(), tokenPair.getRefreshToken());
+    }
+
+    /**
+     * Renews the tokens after the given access token has been rejected by the API and returns the access token
+     * the request should be retried with.
+     * If the tokens have already been renewed by another thread since the rejected token was issued, the current
+     * access token is returned without calling the token endpoint. Otherwise, only one thread performs the renewal
+     * and all concurrent callers share its result. The renewal refreshes the access token, or reauthorizes with
+     * username and password if the refresh token has expired.
+     *
+     * @param rejectedAccessToken The access token sent with the rejected request, may be null.
+     * @return The access token to retry the request with.
+     * @throws FoxdeliAuthenticationException If the renewal fails, or if the rejected token is the current one and has not expired.
+     */
+    public String renew(String rejectedAccessToken) {
+        return coalesce(rejectedAccessToken, () -> renewTokens(rejectedAccessToken)).accessToken();
+    }
+
+    /**
+     * Renews the tokens ahead of the access token expiry, so requests never have to wait for a renewal.
+     * The refresh token is used if it is still valid, otherwise (or if the refresh fails) the manager reauthorizes
+     * with username and password. The renewal is coalesced with any renewal triggered by rejected requests.
+     *
+     * @throws FoxdeliAuthenticationException If the tokens could not be renewed.
+     */
+    public void renewAhead() {
+        Tokens current = tokens;
+        coalesce(current == null ? null : current.accessToken(), this::refreshOrAuthorize);
+    }
+
+    /**
+     * Continues with a token pair obtained earlier, e.g. read with `TokenSnapshot.read()`, instead of authorizing.
+     * The pair is ignored if its refresh token has expired; an expired access token is refreshed on the first
+     * rejected request, like any other.
+     *
+     * @param restored The token pair, may be `null`.
+     * @return `true` if the manager continues with the pair, `false` if it still has to be authorized.
+     */
+    public boolean restore(Tokens restored) {
+        if (restored == null || restored.isRefreshTokenExpired(clock.millis())) {
+            return false;
+        }
+        tokens = restored;
+        return true;
+    }
+
+    /**
+     * Returns the current token pair.
+     *
+     * @return The current token pair, or `null` if the manager has not been authorized yet.
+     */
+    public Tokens getTokens() {
+        return tokens;
+    }
+
+    /**
+     * Returns the clock used for token expiry checks.
+     */
+    Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Runs the given renewal action unless the stale access token has already been replaced.
+     * Only one renewal runs at a time; concurrent callers wait for the in-flight renewal and share its result.
+     */
+    private Tokens coalesce(String staleAccessToken, Supplier<Tokens> action) {
+        while (true) {
+            Tokens current = tokens;
+            if (current != null && !current.accessToken().equals(staleAccessToken)) {
+                return current;
+            }
+            CompletableFuture<Tokens> inFlight = renewal.get();
+            if (inFlight == null) {
+                CompletableFuture<Tokens> own = new CompletableFuture<>();
+                if (!renewal.compareAndSet(null, own)) {
+                    continue;
+                }
+                try {
+                    // Another renewal may have completed between the check above and acquiring the renewal slot.
+                    current = tokens;
+                    if (current != null && !current.accessToken().equals(staleAccessToken)) {
+                        own.complete(current);
+                    } else {
+                        own.complete(action.get());
+                    }
+                } catch (RuntimeException e) {
+                    own.completeExceptionally(e);
+                } finally {
+                    renewal.compareAndSet(own, null);
+                }
+                inFlight = own;
+            } else {
+                log.trace("Token renewal already in flight, waiting for its result");
+            }
+            return await(inFlight);
+        }
+    }
+
+    private Tokens refreshOrAuthorize() {
+        if (isRefreshTokenExpired()) {
+            authorize();
+        } else {
+            try {
+                refreshToken();
+            } catch (FoxdeliAuthenticationException e) {
+                log.warn("Token refresh failed, authorizing with username + password: {}", e.getMessage());
+                authorize();
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Performs the actual renewal. Called by the single thread owning the in-flight renewal.
+     */
+    private Tokens renewTokens(String rejectedAccessToken) {
+        // Check if the refresh token has expired. If so, reauthorize with username and password.
+        if (isRefreshTokenExpired()) {
+            log.trace("Refresh token expired, authorizing with username + password");
+            authorize();
+        }
+        // If the access token has expired, refresh it.
+        else if (isAccessTokenExpired()) {
+            log.trace("Access token expired, refreshing token");
+            refreshToken();
+        }
+        // If the rejected request carried the current token, and neither token has expired,
+        // it indicates an issue with the current token.
+        else if (rejectedAccessToken != null) {
+            throw new FoxdeliAuthenticationException("Authentication failed with valid token. Please try 'Foxdeli.init()' again.");
+        }
+        return Objects.requireNonNull(tokens);
+    }
+
+    private static Tokens await(CompletableFuture<Tokens> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the current access token.
+     *
+     * @return The current access token, or `null` if the manager has not been authorized yet.
+     */
+    public String getAccessToken() {
+        Tokens current = tokens;
+        return current == null ? null : current.accessToken();
+    }
+
+    /**
+     * Checks if the current access token has expired.
+     *
+     * @return `true` if the access token has expired, `false` otherwise.
+     */
+    public boolean isAccessTokenExpired() {
+        Tokens current = tokens;
+        return current == null || current.isAccessTokenExpired(clock.millis());
+    }
+
+    /**
+     * Checks if the current refresh token has expired.
+     *
+     * @return `true` if the refresh token has expired, `false` otherwise.
+     */
+    public boolean isRefreshTokenExpired() {
+        Tokens current = tokens;
+        return current == null || current.isRefreshTokenExpired(clock.millis());
+    }
+
+    private String getRefreshToken() {
+        Tokens current = tokens;
+        return current == null ? null : current.refreshToken();
+    }
+}
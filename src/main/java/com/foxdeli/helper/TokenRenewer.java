@@ -0,0 +1,114 @@
+package com.foxdeli.helper;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The `TokenRenewer` class renews the tokens of a `TokenManager` in the background, a configurable skew before the
+ * access token expires. Requests therefore keep using a valid token and never wait for a renewal.
+ * Renewals run on a single daemon thread. If the token endpoint fails, the renewal is retried with a jittered
+ * exponential backoff, bounded by `MAX_BACKOFF`; meanwhile the regular renewal on 401 responses still applies.
+ * Renewals that yield no usable token, e.g. because the local clock runs ahead of the server and the new token looks
+ * expired, are backed off the same way, but never by less than `MIN_RENEWAL_INTERVAL`.
+ */
+@Slf4j
+public class TokenRenewer implements AutoCloseable {
+
+    private static final long MIN_BACKOFF_MILLIS = Duration.ofSeconds(1).toMillis();
+    private static final long MAX_BACKOFF_MILLIS = Duration.ofMinutes(1).toMillis();
+    private static final long MIN_RENEWAL_INTERVAL_MILLIS = Duration.ofSeconds(5).toMillis();
+
+    private final TokenManager tokenManager;
+    private final long skewMillis;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Number of consecutive failed or unproductive renewals. Only accessed from the scheduler thread.
+     */
+    private int failures;
+
+    /**
+     * Creates a new `TokenRenewer` for the given token manager. Call `start()` to schedule the first renewal.
+     *
+     * @param tokenManager The token manager whose tokens should be renewed.
+     * @param skew         How long before the access token expiry the renewal should happen.
+     */
+    public TokenRenewer(TokenManager tokenManager, Duration skew) {
+        this.tokenManager = tokenManager;
+        this.skewMillis = skew.toMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "foxdeli-token-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules the renewal of the current access token.
+     */
+    public void start() {
+        scheduler.execute(() -> scheduleNext(null));
+    }
+
+    /**
+     * Stops the background renewal. Tokens are still renewed on 401 responses afterwards.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Schedules the renewal of the current tokens.
+     *
+     * @param previous The tokens before the renewal that just completed, or `null` on start.
+     */
+    private void scheduleNext(Tokens previous) {
+        Tokens tokens = tokenManager.getTokens();
+        if (tokens == null || tokens.accessTokenExpiresAt() == Tokens.UNKNOWN_EXPIRY) {
+            log.warn("Unable to determine access token expiry, background token renewal is stopped");
+            return;
+        }
+        long untilExpiry = tokens.accessTokenExpiresAt() - tokenManager.getClock().millis();
+        // Tokens living shorter than the skew are renewed in the middle of their lifetime instead of immediately.
+        long delay = Math.max(untilExpiry - skewMillis, untilExpiry / 2);
+        if (previous != null && (delay <= 0 || tokens.equals(previous))) {
+            // Renewing right away would loop against the token endpoint without getting a usable token.
+            failures++;
+            delay = Math.max(MIN_RENEWAL_INTERVAL_MILLIS, backoff());
+            log.warn("Renewed access token expires in {} ms, renewing again in {} ms", untilExpiry, delay);
+        } else {
+            failures = 0;
+            delay = Math.max(0, delay);
+            log.trace("Next token renewal in {} ms", delay);
+        }
+        scheduler.schedule(this::renew, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void renew() {
+        Tokens previous = tokenManager.getTokens();
+        try {
+            tokenManager.renewAhead();
+        } catch (RuntimeException e) {
+            failures++;
+            long delay = backoff();
+            log.warn("Background token renewal failed ({} in a row), retrying in {} ms: {}", failures, delay, e.getMessage());
+            scheduler.schedule(this::renew, delay, TimeUnit.MILLISECONDS);
+            return;
+        }
+        scheduleNext(previous);
+    }
+
+    /**
+     * Returns the jittered exponential backoff after the current number of consecutive failures.
+     */
+    private long backoff() {
+        long backoff = Math.min(MAX_BACKOFF_MILLIS, MIN_BACKOFF_MILLIS << Math.min(failures - 1, 16));
+        return ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1);
+    }
+}
@@ -0,0 +1,137 @@
+package com.foxdeli.helper;
+
+import com.foxdeli.exception.FoxdeliException;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * The `TokenSnapshot` class saves a token pair to a file and reads it back, so a restarted application continues with
+ * its tokens instead of authorizing with username and password again.
+ * <p>
+ * With a key, the tokens are encrypted with AES-GCM, which also detects a modified file. Without a key, they are
+ * stored in plain text; in both cases the file is created readable by its owner only, where the file system supports
+ * it. Snapshots are written to a temporary file first and then moved over the previous snapshot.
+ */
+@Slf4j
+public final class TokenSnapshot {
+
+    private static final int MAGIC = 0x46585453;
+    private static final byte VERSION = 1;
+    private static final byte PLAIN = 0;
+    private static final byte ENCRYPTED = 1;
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+    private static final SecureRandom random = new SecureRandom();
+
+    private TokenSnapshot() {
+    }
+
+    /**
+     * Saves a token pair.
+     *
+     * @param file   The snapshot file, replaced if it exists.
+     * @param tokens The token pair.
+     * @param key    The AES key to encrypt the tokens with, or `null` to store them in plain text.
+     * @throws FoxdeliException If the snapshot cannot be written.
+     */
+    public static void save(Path file, Tokens tokens, SecretKey key) {
+        Path temporary = null;
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(payload);
+            out.writeUTF(tokens.accessToken());
+            out.writeUTF(tokens.refreshToken());
+            byte[] content = payload.toByteArray();
+            ByteBuffer snapshot;
+            if (key == null) {
+                snapshot = ByteBuffer.allocate(6 + content.length).putInt(MAGIC).put(VERSION).put(PLAIN).put(content);
+            } else {
+                byte[] iv = new byte[IV_LENGTH];
+                random.nextBytes(iv);
+                byte[] encrypted = cipher(Cipher.ENCRYPT_MODE, key, iv).doFinal(content);
+                snapshot = ByteBuffer.allocate(6 + IV_LENGTH + encrypted.length)
+                        .putInt(MAGIC).put(VERSION).put(ENCRYPTED).put(iv).put(encrypted);
+            }
+            Arrays.fill(content, (byte) 0);
+            // Temporary files are created readable by their owner only.
+            temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(temporary, snapshot.array());
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | GeneralSecurityException e) {
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException deleteFailure) {
+                    log.warn("Failed to delete {}: {}", temporary, deleteFailure.getMessage());
+                }
+            }
+            throw new FoxdeliException("Failed to save token snapshot " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads a token pair saved by `save`.
+     *
+     * @param file The snapshot file.
+     * @param key  The AES key the tokens were encrypted with, or `null` if they were stored in plain text.
+     * @return The token pair, or `null` if the file does not exist.
+     * @throws FoxdeliException If the file is not a token snapshot, the key does not match, or the file was modified.
+     */
+    public static Tokens read(Path file, SecretKey key) {
+        byte[] content = null;
+        try {
+            ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (snapshot.remaining() < 6 || snapshot.getInt() != MAGIC || snapshot.get() != VERSION) {
+                throw new FoxdeliException("Not a token snapshot: " + file);
+            }
+            byte mode = snapshot.get();
+            if (mode == ENCRYPTED) {
+                if (key == null) {
+                    throw new FoxdeliException("Token snapshot " + file + " is encrypted, but no key was given");
+                }
+                byte[] iv = new byte[IV_LENGTH];
+                snapshot.get(iv);
+                content = cipher(Cipher.DECRYPT_MODE, key, iv)
+                        .doFinal(snapshot.array(), snapshot.position(), snapshot.remaining());
+            } else if (mode == PLAIN) {
+                content = Arrays.copyOfRange(snapshot.array(), snapshot.position(), snapshot.limit());
+            } else {
+                throw new FoxdeliException("Unknown token snapshot mode " + mode + ": " + file);
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(content));
+            return Tokens.of(in.readUTF(), in.readUTF());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | GeneralSecurityException | BufferUnderflowException e) {
+            throw new FoxdeliException("Failed to read token snapshot " + file + ": " + e.getMessage());
+        } finally {
+            if (content != null) {
+                Arrays.fill(content, (byte) 0);
+            }
+        }
+    }
+
+    private static Cipher cipher(int mode, SecretKey key, byte[] iv) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(mode, key, new GCMParameterSpec(TAG_LENGTH, iv));
+        return cipher;
+    }
+}
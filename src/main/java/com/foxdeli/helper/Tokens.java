@@ -0,0 +1,84 @@
+package com.foxdeli.helper;
+
+import com.auth0.jwt.JWT;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Date;
+
+/**
+ * Immutable access and refresh token pair together with the expiry of both tokens.
+ * The `exp` claims are decoded once when the pair is created and kept as epoch milliseconds, so expiry checks are
+ * plain comparisons and do not allocate.
+ *
+ * @param accessToken           The access token.
+ * @param accessTokenExpiresAt  The expiry of the access token in epoch milliseconds, or `UNKNOWN_EXPIRY`.
+ * @param refreshToken          The refresh token.
+ * @param refreshTokenExpiresAt The expiry of the refresh token in epoch milliseconds, or `UNKNOWN_EXPIRY`.
+ */
+@Slf4j
+public record Tokens(
+        String accessToken,
+        long accessTokenExpiresAt,
+        String refreshToken,
+        long refreshTokenExpiresAt
+) {
+
+    /**
+     * Expiry used for tokens whose `exp` claim cannot be decoded. Such tokens are always considered expired.
+     */
+    public static final long UNKNOWN_EXPIRY = Long.MIN_VALUE;
+
+    /**
+     * Creates a token pair and decodes the expiry of both tokens.
+     *
+     * @param accessToken  The access token.
+     * @param refreshToken The refresh token.
+     * @return The token pair.
+     */
+    public static Tokens of(String accessToken, String refreshToken) {
+        return new Tokens(accessToken, expiresAt(accessToken, "accessToken"),
+                refreshToken, expiresAt(refreshToken, "refreshToken"));
+    }
+
+    /**
+     * Checks if the access token has expired.
+     *
+     * @param nowMillis The current time in epoch milliseconds.
+     * @return `true` if the access token has expired, `false` otherwise.
+     */
+    public boolean isAccessTokenExpired(long nowMillis) {
+        return accessTokenExpiresAt < nowMillis;
+    }
+
+    /**
+     * Checks if the refresh token has expired.
+     *
+     * @param nowMillis The current time in epoch milliseconds.
+     * @return `true` if the refresh token has expired, `false` otherwise.
+     */
+    public boolean isRefreshTokenExpired(long nowMillis) {
+        return refreshTokenExpiresAt < nowMillis;
+    }
+
+    /**
+     * Describes the token pair by the expiry of both tokens. The tokens themselves are redacted, so they never end up
+     * in logs or exception messages.
+     *
+     * @return The description.
+     */
+    @Override
+    public String toString() {
+        return "Tokens[accessToken=<redacted>, accessTokenExpiresAt=" + accessTokenExpiresAt
+                + ", refreshToken=<redacted>, refreshTokenExpiresAt=" + refreshTokenExpiresAt + "]";
+    }
+
+    private static long expiresAt(String token, String name) {
+        try {
+            Date expiresAt = JWT.decode(token).getExpiresAt();
+            return expiresAt.getTime();
+        } catch (Exception e) {
+            log.warn("Failed to parse {}: {}", name, e.getMessage());
+            return UNKNOWN_EXPIRY;
+        }
+    }
+}
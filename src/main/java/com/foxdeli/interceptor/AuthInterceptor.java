@@ -1,6 +1,6 @@
 package com.foxdeli.interceptor;
 
-import com.foxdeli.helper.AuthHelper;
+import com.foxdeli.helper.TokenManager;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.Interceptor;
 import okhttp3.Request;
@@ -11,13 +11,24 @@ import java.io.IOException;
 
 /**
  * The `AuthInterceptor` class implements the OkHttp Interceptor interface to handle API authentication.
- * It intercepts outgoing HTTP requests and adds the access token obtained from the `AuthHelper` class
+ * It intercepts outgoing HTTP requests and adds the access token obtained from the client's `TokenManager`
  * as the "Authorization" header in the request before proceeding with the request.
  * This ensures that the API requests are authenticated with the proper access token.
  */
 @Slf4j
 public class AuthInterceptor implements Interceptor {
 
+    private final TokenManager tokenManager;
+
+    /**
+     * Creates a new `AuthInterceptor` that authenticates requests with tokens from the given `TokenManager`.
+     *
+     * @param tokenManager The token manager holding the access token of the account.
+     */
+    public AuthInterceptor(TokenManager tokenManager) {
+        this.tokenManager = tokenManager;
+    }
+
     /**
      * Intercepts the outgoing HTTP request and adds the access token to the "Authorization" header.
      *
@@ -29,9 +40,9 @@ public class AuthInterceptor implements Interceptor {
     @Override
     public Response intercept(Chain chain) throws IOException {
         Request request = chain.request();
-        log.trace("Authenticating for request: " + request);
+        log.trace("Authenticating for request: {}", request);
         Request authorizedRequest = request.newBuilder()
-                .header("Authorization", AuthHelper.getAccessToken())
+                .header("Authorization", tokenManager.getAccessToken())
                 .build();
         return chain.proceed(authorizedRequest);
     }
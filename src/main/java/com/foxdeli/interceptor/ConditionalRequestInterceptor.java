@@ -0,0 +1,60 @@
+package com.foxdeli.interceptor;
+
+import com.foxdeli.cache.EntityTagStore;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The `ConditionalRequestInterceptor` class implements the OkHttp Interceptor interface to revalidate orders and
+ * parcels instead of downloading them again. GET requests for an order or parcel with a version in the
+ * `EntityTagStore` are sent with `If-None-Match`, so the API answers 304 Not Modified while the stored version
+ * is current.
+ */
+public class ConditionalRequestInterceptor implements Interceptor {
+
+    private static final String IF_NONE_MATCH = "If-None-Match";
+    private static final String ETAG = "ETag";
+
+    private final EntityTagStore entityTags;
+
+    /**
+     * Creates a new `ConditionalRequestInterceptor` using the given store.
+     *
+     * @param entityTags The store of the client's retrieved orders and parcels.
+     */
+    public ConditionalRequestInterceptor(EntityTagStore entityTags) {
+        this.entityTags = entityTags;
+    }
+
+    /**
+     * Adds `If-None-Match` to GET requests for stored orders and parcels, which are identified by the last path
+     * segment. A 304 response without an `ETag` header gets the entity tag the request was sent with.
+     *
+     * @param chain The interceptor chain to proceed with the original request.
+     * @return The response received from the API.
+     * @throws IOException If an I/O error occurs during the API call.
+     */
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!"GET".equals(request.method()) || request.header(IF_NONE_MATCH) != null) {
+            return chain.proceed(request);
+        }
+        List<String> segments = request.url().pathSegments();
+        String entityTag = entityTags.entityTag(segments.get(segments.size() - 1));
+        if (entityTag == null) {
+            return chain.proceed(request);
+        }
+        Response response = chain.proceed(request.newBuilder().header(IF_NONE_MATCH, entityTag).build());
+        if (response.code() == 304 && response.header(ETAG) == null) {
+            return response.newBuilder().header(ETAG, entityTag).build();
+        }
+        return response;
+    }
+}
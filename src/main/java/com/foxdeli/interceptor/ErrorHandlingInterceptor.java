@@ -1,6 +1,7 @@
 package com.foxdeli.interceptor;
 
 import com.foxdeli.exception.FoxdeliConnectionException;
+import com.foxdeli.metrics.MetricsEventListener;
 import okhttp3.Interceptor;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -16,6 +17,7 @@ import java.net.UnknownHostException;
  * It intercepts outgoing HTTP requests and catches potential exceptions that might occur during the API call.
  * If an exception is caught, it translates the exception into a more user-friendly error message and throws a
  * custom `FoxdeliConnectionException` with the appropriate error message.
+ * As OkHttp then no longer sees the call fail, the original exception is recorded for the metrics of the call.
  */
 public class ErrorHandlingInterceptor implements Interceptor {
 
@@ -35,19 +37,31 @@ public class ErrorHandlingInterceptor implements Interceptor {
         try {
             return chain.proceed(request);
         } catch (Exception e) {
-            final String message;
-            if (e instanceof SocketTimeoutException) {
-                message = "Timeout - Please check your internet connection";
-            } else if (e instanceof UnknownHostException) {
-                message = "Unable to make a connection. Please check your internet";
-            } else if (e instanceof ConnectionShutdownException) {
-                message = "Connection shutdown. Please check your internet";
-            } else if (e instanceof IOException) {
-                message = "Server is unreachable, please try again later.";
-            } else {
-                message = e.getMessage();
-            }
-            throw new FoxdeliConnectionException(message, e);
+            MetricsEventListener.recordFailure(chain.call(), e);
+            throw translate(e);
         }
     }
+
+    /**
+     * Translates an exception that occurred during an API call into a `FoxdeliConnectionException`
+     * with a more user-friendly error message.
+     *
+     * @param e The exception that occurred during the API call.
+     * @return The `FoxdeliConnectionException` wrapping the given exception.
+     */
+    public static FoxdeliConnectionException translate(Exception e) {
+        final String message;
+        if (e instanceof SocketTimeoutException) {
+            message = "Timeout - Please check your internet connection";
+        } else if (e instanceof UnknownHostException) {
+            message = "Unable to make a connection. Please check your internet";
+        } else if (e instanceof ConnectionShutdownException) {
+            message = "Connection shutdown. Please check your internet";
+        } else if (e instanceof IOException) {
+            message = "Server is unreachable, please try again later.";
+        } else {
+            message = e.getMessage();
+        }
+        return new FoxdeliConnectionException(message, e);
+    }
 }
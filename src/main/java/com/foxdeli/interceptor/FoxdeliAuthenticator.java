@@ -1,7 +1,9 @@
 package com.foxdeli.interceptor;
 
 import com.foxdeli.exception.FoxdeliAuthenticationException;
-import com.foxdeli.helper.AuthHelper;
+import com.foxdeli.helper.TokenManager;
+import com.foxdeli.tracing.FoxdeliTracing;
+import com.foxdeli.tracing.TraceSpan;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.Authenticator;
 import okhttp3.Request;
@@ -20,10 +22,35 @@ import org.jetbrains.annotations.Nullable;
 @Slf4j
 public class FoxdeliAuthenticator implements Authenticator {
 
+    private final TokenManager tokenManager;
+    private final FoxdeliTracing tracing;
+
+    /**
+     * Creates a new `FoxdeliAuthenticator` that renews tokens of the given `TokenManager`.
+     *
+     * @param tokenManager The token manager holding the tokens of the account.
+     */
+    public FoxdeliAuthenticator(TokenManager tokenManager) {
+        this(tokenManager, FoxdeliTracing.NOOP);
+    }
+
+    /**
+     * Creates a new `FoxdeliAuthenticator` that renews tokens of the given `TokenManager` and traces every renewal.
+     *
+     * @param tokenManager The token manager holding the tokens of the account.
+     * @param tracing      The tracing receiving a span for every renewal.
+     */
+    public FoxdeliAuthenticator(TokenManager tokenManager, FoxdeliTracing tracing) {
+        this.tokenManager = tokenManager;
+        this.tracing = tracing;
+    }
+
     /**
      * Authenticates API requests by intercepting HTTP responses with authentication challenges.
      * It automatically handles the reauthorization process by refreshing the access token or reauthorizing with the username and password
      * based on the validity of the access and refresh tokens.
+     * Concurrent challenges are coalesced by the `TokenManager`: only one thread renews the tokens, and requests
+     * rejected with a token that has meanwhile been renewed are simply retried with the new one.
      *
      * @param route    The route of the HTTP request, if available (not used in this implementation).
      * @param response The HTTP response received from the API server.
@@ -33,28 +60,30 @@ public class FoxdeliAuthenticator implements Authenticator {
     @Nullable
     @Override
     public Request authenticate(@Nullable Route route, @NotNull Response response) {
-        // Check if the refresh token has expired. If so, reauthorize with username and password.
-        if (AuthHelper.isRefreshTokenExpired()) {
-            log.trace("Refresh token expired, authorizing with username + password");
-            AuthHelper.authorize();
-        }
-        // If the access token has expired, refresh it.
-        else if (AuthHelper.isAccessTokenExpired()) {
-            log.trace("Access token expired, refreshing token");
-            AuthHelper.refreshToken();
-        }
-        // If the response already has an "Authorization" header, and access token and refresh token are not expired,
-        // it indicates an issue with the current token.
-        // Throw an exception to indicate that authentication failed with a valid token.
-        else if (response.request().header("Authorization") != null) {
-            throw new FoxdeliAuthenticationException("Authentication failed with valid token. Please try 'Foxdeli.init()' again.");
+        String accessToken = renew(response.request().header("Authorization"));
+        if (log.isTraceEnabled()) {
+            log.trace("Authenticating for response: {}", response);
+            log.trace("Challenges: {}", response.challenges());
         }
-        log.trace("Authenticating for response: " + response);
-        log.trace("Challenges: " + response.challenges());
 
         // Create a new request with the updated "Authorization" header and return it.
         return response.request().newBuilder()
-                .header("Authorization", AuthHelper.getAccessToken())
+                .header("Authorization", accessToken)
                 .build();
     }
+
+    private String renew(String rejectedAccessToken) {
+        if (tracing == FoxdeliTracing.NOOP) {
+            return tokenManager.renew(rejectedAccessToken);
+        }
+        TraceSpan span = tracing.startSpan("foxdeli.token.renewal");
+        try (TraceSpan.Scope ignored = span.makeCurrent()) {
+            return tokenManager.renew(rejectedAccessToken);
+        } catch (RuntimeException e) {
+            span.recordError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
 }
@@ -0,0 +1,108 @@
+package com.foxdeli.interceptor;
+
+import com.foxdeli.config.HttpLoggingConfig;
+import com.foxdeli.config.HttpLoggingConfig.Level;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The `LoggingInterceptor` class implements the OkHttp Interceptor interface to log HTTP calls as configured by
+ * `HttpLoggingConfig`. When logging is disabled, or DEBUG level is not enabled, the request proceeds without any
+ * formatting or allocation. The "Authorization" header is never logged.
+ */
+@Slf4j
+public class LoggingInterceptor implements Interceptor {
+
+    private static final String REDACTED = "<redacted>";
+
+    private final Level level;
+    private final int bodySampleRate;
+    private final int maxBodyBytes;
+    private final AtomicLong calls = new AtomicLong();
+
+    /**
+     * Creates a new `LoggingInterceptor` with the given configuration.
+     *
+     * @param config The logging configuration.
+     */
+    public LoggingInterceptor(HttpLoggingConfig config) {
+        this.level = config.level();
+        this.bodySampleRate = config.bodySampleRate();
+        this.maxBodyBytes = config.maxBodyBytes();
+    }
+
+    /**
+     * Logs the request and its response according to the configured level.
+     *
+     * @param chain The interceptor chain to proceed with the original request.
+     * @return The response received from the API.
+     * @throws IOException If an I/O error occurs during the API call.
+     */
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (level == Level.NONE || !log.isDebugEnabled()) {
+            return chain.proceed(request);
+        }
+        boolean headers = level.compareTo(Level.HEADERS) >= 0;
+        boolean body = level == Level.BODY && calls.getAndIncrement() % bodySampleRate == 0;
+
+        log.debug("--> {} {}", request.method(), request.url());
+        if (headers) {
+            logHeaders("-->", request.headers());
+        }
+        if (body) {
+            logRequestBody(request.body());
+        }
+
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            log.debug("<-- HTTP FAILED {} {}: {}", request.method(), request.url(), e.toString());
+            throw e;
+        }
+        long took = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        log.debug("<-- {} {} {} ({} ms)", response.code(), request.method(), request.url(), took);
+        if (headers) {
+            logHeaders("<--", response.headers());
+        }
+        if (body) {
+            log.debug("<-- body: {}", response.peekBody(maxBodyBytes).string());
+        }
+        return response;
+    }
+
+    private static void logHeaders(String direction, Headers headers) {
+        for (int i = 0; i < headers.size(); i++) {
+            String name = headers.name(i);
+            log.debug("{} {}: {}", direction, name, "Authorization".equalsIgnoreCase(name) ? REDACTED : headers.value(i));
+        }
+    }
+
+    private void logRequestBody(RequestBody body) throws IOException {
+        if (body == null) {
+            return;
+        }
+        if (body.isOneShot() || body.isDuplex()) {
+            log.debug("--> body omitted");
+            return;
+        }
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        log.debug("--> body: {}", buffer.readUtf8(Math.min(buffer.size(), maxBodyBytes)));
+    }
+}
@@ -0,0 +1,133 @@
+package com.foxdeli.interceptor;
+
+import com.foxdeli.ratelimit.RateLimitFeedback;
+import com.foxdeli.ratelimit.RateLimiter;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * The `RateLimitInterceptor` class implements the OkHttp Interceptor interface to keep API calls within the rate
+ * limits of the Foxdeli API. Every request waits for a permit of the configured `RateLimiter` before it is sent,
+ * and the `Retry-After` and rate limit headers of its response are passed back to the limiter.
+ */
+public class RateLimitInterceptor implements Interceptor {
+
+    private static final Duration EPOCH_RESET_TOLERANCE = Duration.ofDays(1);
+
+    private final RateLimiter rateLimiter;
+
+    /**
+     * Creates a new `RateLimitInterceptor` using the given rate limiter.
+     *
+     * @param rateLimiter The rate limiter of the client's account.
+     */
+    public RateLimitInterceptor(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Waits for a permit of the rate limiter, proceeds with the request and reports its response to the limiter.
+     *
+     * @param chain The interceptor chain to proceed with the original request.
+     * @return The response received from the API.
+     * @throws IOException If an I/O error occurs during the API call, or the thread is interrupted while waiting.
+     */
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a rate limit permit");
+        }
+        RateLimitFeedback feedback = null;
+        try {
+            Response response = chain.proceed(chain.request());
+            feedback = feedback(response);
+            return response;
+        } finally {
+            rateLimiter.release(feedback);
+        }
+    }
+
+    private static RateLimitFeedback feedback(Response response) {
+        return new RateLimitFeedback(
+                response.code(),
+                retryAfter(response.header("Retry-After")),
+                remaining(firstHeader(response, "RateLimit-Remaining", "X-RateLimit-Remaining")),
+                reset(firstHeader(response, "RateLimit-Reset", "X-RateLimit-Reset")));
+    }
+
+    private static String firstHeader(Response response, String name, String alternativeName) {
+        String value = response.header(name);
+        return value != null ? value : response.header(alternativeName);
+    }
+
+    /**
+     * Parses a `Retry-After` header given either in seconds or as an HTTP date.
+     */
+    private static Duration retryAfter(String value) {
+        if (value == null) {
+            return null;
+        }
+        Duration seconds = seconds(value);
+        if (seconds != null) {
+            return seconds;
+        }
+        try {
+            Duration until = Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME));
+            return until.isNegative() ? Duration.ZERO : until;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Duration seconds(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses a rate limit reset header. Most APIs send the seconds until the reset, some the epoch second of the reset.
+     * Values from a day before the current epoch second on are read as epoch seconds; a delay that long is never sent,
+     * and an epoch second slightly in the past, due to clock skew, is not read as a decades-long delay.
+     */
+    private static Duration reset(String value) {
+        Duration seconds = seconds(value);
+        if (seconds == null) {
+            return null;
+        }
+        long now = Instant.now().getEpochSecond();
+        if (seconds.getSeconds() > now - EPOCH_RESET_TOLERANCE.getSeconds()) {
+            return Duration.ofSeconds(Math.max(0, seconds.getSeconds() - now));
+        }
+        return seconds;
+    }
+
+    private static Long remaining(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.foxdeli.interceptor;
+
+import com.foxdeli.retry.RetryBudget;
+import com.foxdeli.retry.RetryMetrics;
+import com.foxdeli.retry.RetryPolicy;
+import com.foxdeli.tracing.FoxdeliTracing;
+import com.foxdeli.tracing.TraceSpan;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The `RetryInterceptor` class implements the OkHttp Interceptor interface to retry API calls failing with transient
+ * errors, as configured by a `RetryPolicy`. Only idempotent requests are retried: GET, PUT and DELETE, and POST and
+ * PATCH requests carrying an `Idempotency-Key` header, which the SDK itself never sets. Retries are drawn from a
+ * `RetryBudget` shared by all calls of the client, and counted in `RetryMetrics`.
+ */
+@Slf4j
+public class RetryInterceptor implements Interceptor {
+
+    /**
+     * The header marking a POST request as safe to retry.
+     */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final RetryPolicy policy;
+    private final RetryBudget budget;
+    private final FoxdeliTracing tracing;
+
+    /**
+     * The retry counters of the client.
+     */
+    @Getter
+    private final RetryMetrics metrics = new RetryMetrics();
+
+    /**
+     * Creates a new `RetryInterceptor` using the given retry policy.
+     *
+     * @param policy The retry policy of the client.
+     */
+    public RetryInterceptor(RetryPolicy policy) {
+        this(policy, FoxdeliTracing.NOOP);
+    }
+
+    /**
+     * Creates a new `RetryInterceptor` using the given retry policy and tracing every backoff before a retry.
+     *
+     * @param policy  The retry policy of the client.
+     * @param tracing The tracing receiving a span for every backoff.
+     */
+    public RetryInterceptor(RetryPolicy policy, FoxdeliTracing tracing) {
+        this.policy = policy;
+        this.budget = new RetryBudget(policy);
+        this.tracing = tracing;
+    }
+
+    /**
+     * Proceeds with the request and retries it while it fails with a transient error, the policy allows another
+     * attempt and the retry budget is not exhausted.
+     *
+     * @param chain The interceptor chain to proceed with the original request.
+     * @return The response of the last attempt.
+     * @throws IOException If the last attempt fails with an I/O error, or the thread is interrupted while waiting.
+     */
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        budget.deposit();
+        boolean retryable = isIdempotent(request);
+        long baseDelay = policy.baseDelay().toNanos();
+        long maxDelay = policy.maxDelay().toNanos();
+        long delay = baseDelay;
+        for (int attempt = 0; ; attempt++) {
+            Response response = null;
+            try {
+                response = chain.proceed(request);
+                if (!retryable || !isRetryable(response.code()) || !mayRetry(attempt)) {
+                    return response;
+                }
+            } catch (IOException e) {
+                if (!retryable || chain.call().isCanceled() || !mayRetry(attempt)) {
+                    throw e;
+                }
+                log.debug("Attempt {} of {} {} failed, retrying: {}", attempt + 1, request.method(), request.url().encodedPath(), e.toString());
+            }
+            // Decorrelated jitter: a random delay between the base delay and three times the previous delay.
+            delay = Math.min(maxDelay, ThreadLocalRandom.current().nextLong(baseDelay, Math.max(baseDelay, delay * 3) + 1));
+            if (response != null) {
+                delay = Math.max(delay, Math.min(maxDelay, retryAfter(response)));
+                log.debug("Attempt {} of {} {} returned {}, retrying", attempt + 1, request.method(), request.url().encodedPath(), response.code());
+                response.close();
+            }
+            metrics.recordRetry(delay);
+            backoff(attempt + 1, delay);
+        }
+    }
+
+    private void backoff(int retry, long delay) throws InterruptedIOException {
+        TraceSpan span = tracing.startSpan("foxdeli.retry");
+        span.setAttribute("foxdeli.retry.attempt", retry);
+        span.setAttribute("foxdeli.retry.delay_ms", TimeUnit.NANOSECONDS.toMillis(delay));
+        try {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException error = new InterruptedIOException("Interrupted while waiting to retry the request");
+            span.recordError(error);
+            throw error;
+        } finally {
+            span.end();
+        }
+    }
+
+    private boolean mayRetry(int attempt) {
+        if (attempt >= policy.maxRetries()) {
+            return false;
+        }
+        if (!budget.tryWithdraw()) {
+            metrics.recordExhaustedBudget();
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isIdempotent(Request request) {
+        return switch (request.method()) {
+            case "GET", "HEAD", "PUT", "DELETE", "OPTIONS" -> true;
+            case "POST", "PATCH" -> request.header(IDEMPOTENCY_KEY_HEADER) != null;
+            default -> false;
+        };
+    }
+
+    private static boolean isRetryable(int code) {
+        return code == 429 || code == 502 || code == 503 || code == 504;
+    }
+
+    /**
+     * Returns the delay requested by the `Retry-After` header in seconds, converted to nanoseconds, or 0.
+     */
+    private static long retryAfter(Response response) {
+        String value = response.header("Retry-After");
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toNanos(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,641 @@
+package com.foxdeli.mapper;
+
+import com.foxdeli.model.common.AdditionalCost;
+import com.foxdeli.model.common.Address;
+import com.foxdeli.model.common.Customer;
+import com.foxdeli.model.common.DeliveryWindow;
+import com.foxdeli.model.common.Destination;
+import com.foxdeli.model.common.Dimensions;
+import com.foxdeli.model.common.Money;
+import com.foxdeli.model.common.ParcelShopData;
+import com.foxdeli.model.common.ParcelState;
+import com.foxdeli.model.common.ParcelTimeline;
+import com.foxdeli.model.common.ParcelTracking;
+import com.foxdeli.model.common.PaymentInfo;
+import com.foxdeli.model.common.Product;
+import com.foxdeli.model.common.Snooze;
+import com.foxdeli.model.response.Order;
+import com.foxdeli.model.response.Parcel;
+import com.foxdeli.orders.api.model.AdditionalCostType;
+import com.foxdeli.orders.api.model.Carrier;
+import com.foxdeli.orders.api.model.CountryCode;
+import com.foxdeli.orders.api.model.DeliveryState;
+import com.foxdeli.orders.api.model.DestinationType;
+import com.foxdeli.orders.api.model.ImportantState;
+import com.foxdeli.orders.api.model.OrderState;
+import com.foxdeli.orders.api.model.PaymentMethod;
+import com.foxdeli.orders.api.model.PaymentService;
+import com.foxdeli.orders.api.model.ProductType;
+import com.foxdeli.orders.api.model.TimelineType;
+import com.foxdeli.orders.api.model.TrackingState;
+import com.foxdeli.orders.api.model.UrgentState;
+import com.google.gson.Gson;
+import com.google.gson.ToNumberPolicy;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * The `JsonResponseReader` class reads order and parcel responses of the Foxdeli API straight into the SDK records.
+ * It produces the same records as parsing the response into the generated model and mapping it with `OrderMapper`
+ * and `ParcelMapper`, but streams the JSON once, without the JSON tree and the generated model objects in between.
+ * Unknown fields are skipped. `JsonResponseReaderBenchmark` in the test sources compares both paths.
+ * <p>
+ * Parcel timelines and the additional parameters of timeline entries are materialized lazily: they are kept as
+ * compact JSON text and read into records on first access. Callers reading only the state and tracking of a parcel
+ * never pay for its timeline, and long-lived parcels retain a single string per timeline until it is used. The typed
+ * fields of timeline entries are still checked while streaming, so a malformed timeline fails the call reading it like
+ * any other malformed field, rather than the first access to the timeline.
+ */
+public final class JsonResponseReader {
+
+    private static final TypeAdapter<Object> ANY = new Gson().getAdapter(Object.class);
+
+    private JsonResponseReader() {
+    }
+
+    /**
+     * Reads an order.
+     *
+     * @param in The reader positioned at the order object.
+     * @return The order, or `null` if the value is JSON null.
+     * @throws IOException If the JSON cannot be read.
+     */
+    public static Order readOrder(JsonReader in) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        Order.OrderBuilder order = Order.builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id" -> order.orderId(uuid(in));
+                case "platform" -> order.platform(string(in));
+                case "orderNumber" -> order.orderNumber(string(in));
+                case "orderState" -> order.orderState(enumValue(in, OrderState::fromValue));
+                case "marketId" -> order.marketId(uuid(in));
+                case "eshopId" -> order.eshopId(uuid(in));
+                case "externalIdentifier" -> order.externalIdentifier(string(in));
+                case "destination" -> order.destination(readDestination(in));
+                case "price" -> order.price(readMoney(in));
+                case "additionalCosts" -> order.additionalCosts(list(in, JsonResponseReader::readAdditionalCost));
+                case "cashOnDelivery" -> order.cashOnDelivery(readMoney(in));
+                case "payment" -> order.payment(readPayment(in));
+                case "customer" -> order.customer(readCustomer(in));
+                case "parcels" -> order.parcels(list(in, JsonResponseReader::readParcel));
+                case "products" -> order.products(list(in, JsonResponseReader::readProduct));
+                case "cancelled" -> order.cancelled(instant(in));
+                case "inImportantState" -> order.inImportantState(bool(in));
+                case "inUrgentState" -> order.inUrgentState(bool(in));
+                case "snooze" -> order.snooze(readSnooze(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return order.build();
+    }
+
+    /**
+     * Reads a parcel.
+     *
+     * @param in The reader positioned at the parcel object.
+     * @return The parcel, or `null` if the value is JSON null.
+     * @throws IOException If the JSON cannot be read.
+     */
+    public static Parcel readParcel(JsonReader in) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        Parcel.ParcelBuilder parcel = Parcel.builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id" -> parcel.parcelId(uuid(in));
+                case "orderId" -> parcel.orderId(uuid(in));
+                case "dimensions" -> parcel.dimensions(readDimensions(in));
+                case "state" -> parcel.state(readParcelState(in));
+                case "trackingState" -> parcel.trackingState(enumValue(in, TrackingState::fromValue));
+                case "maxStoreDate" -> parcel.maxStoreDate(instant(in));
+                case "deliveryWindow" -> parcel.deliveryWindow(readDeliveryWindow(in));
+                case "activeTracking" -> parcel.activeTracking(readTracking(in));
+                case "timeline" -> parcel.timeline(readLazyTimeline(in));
+                case "products" -> parcel.products(list(in, JsonResponseReader::string));
+                case "carrierTrackingUrl" -> parcel.carrierTrackingUrl(string(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return parcel.build();
+    }
+
+    private static Destination readDestination(JsonReader in) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        Destination.DestinationBuilder destination = Destination.builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "type" -> destination.type(enumValue(in, DestinationType::fromValue));
+                case "address" -> destination.address(readAddress(in));
+                case "parcelShop" -> destination.parcelShop(readParcelShop(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return destination.build();
+    }
+
+    private static Address readAddress(JsonReader in) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        Address.AddressBuilder address = Address.builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "line1" -> address.line1(string(in));
+                case "line2" -> address.line2(string(in));
+                case "city" -> address.city(string(in));
+                case "postalCode" -> address.postalCode(string(in));
+                case "countryCode" -> address.countryCode(enumValue(in, CountryCode::fromValue));
+                case "state" -> address.state(string(in));
+                case "region" -> address.region(string(in));
+                case "longitude" -> address.longitude(decimalNumber(in));
+                case "latitude" -> address.latitude(decimalNumber(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return address.build();
+    }
+
+    private static ParcelShopData readParcelShop(JsonReader in) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        ParcelShopData.ParcelShopDataBuilder parcelShop = ParcelShopData.builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "carrier" -> parcelShop.carrier(enumValue(in, Carrier::fromValue));
+                case "countryCode" -> parcelShop.countryCode(enumValue(in, CountryCode::fromValue));
+                case "parcelShopId" -> parcelShop.parcelShopId(string(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return parcelShop.build();
+    }
+
+    private static Money readMoney(JsonReader in) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        Money.MoneyBuilder money = Money.builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "amount" -> money.amount(decimal(in));
+                case "currency" -> money.currency(string(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return money.build();
+    }
+
+    private static AdditionalCost readAdditionalCost(JsonReader in) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        AdditionalCost.AdditionalCostBuilder cost = AdditionalCost.builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "type" -> cost.type(enumValue(in, AdditionalCostType::fromValue));
+                case "price" -> cost.price(readMoney(in));
+                case "name" -> cost.name(string(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return cost.build();
+    }
+
+    private static PaymentInfo readPayment(JsonReader in) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        PaymentInfo.PaymentInfoBuilder payment = PaymentInfo.builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "method" -> payment.method(enumValue(in, PaymentMethod::fromValue));
+                case "service" -> payment.service(enumValue(in, PaymentService::fromValue));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return payment.build();
+    }
+
+    private static Customer readCustomer(JsonReader in) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        Customer.CustomerBuilder customer = Customer.builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "name" -> customer.name(string(in));
+                case "email" -> customer.email(string(in));
+                case "phone" -> customer.phone(string(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return customer.build();
+    }
+
+    private static Product readProduct(JsonReader in) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        Product.ProductBuilder product = Product.builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "type" -> product.type(enumValue(in, ProductType::fromValue));
+                case "sku" -> product.sku(string(in));
+                case "name" -> product.name(string(in));
+                case "description" -> product.description(string(in));
+                case "url" -> product.url(string(in));
+                case "image" -> product.image(string(in));
+                case "price" -> product.price(readMoney(in));
+                case "vat" -> product.vat(decimal(in));
+                case "quantity" -> product.quantity(integer(in));
+                case "referencedSku" -> product.referencedSku(string(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return product.build();
+    }
+
+    private static Snooze readSnooze(JsonReader in) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        Snooze.SnoozeBuilder snooze = Snooze.builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "until" -> snooze.until(instant(in));
+                case "author" -> snooze.author(string(in));
+                case "note" -> snooze.note(string(in));
+                case "snoozed" -> snooze.snoozed(bool(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return snooze.build();
+    }
+
+    private static Dimensions readDimensions(JsonReader in) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        Dimensions.DimensionsBuilder dimensions = Dimensions.builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "weight" -> dimensions.weight(decimalNumber(in));
+                case "height" -> dimensions.height(integer(in));
+                case "length" -> dimensions.length(integer(in));
+                case "width" -> dimensions.width(integer(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return dimensions.build();
+    }
+
+    private static ParcelState readParcelState(JsonReader in) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        ParcelState.ParcelStateBuilder state = ParcelState.builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "delivery" -> state.delivery(enumValue(in, DeliveryState::fromValue));
+                case "important" -> state.important(enumValue(in, ImportantState::fromValue));
+                case "urgent" -> state.urgent(enumValue(in, UrgentState::fromValue));
+                case "deliverToday" -> state.deliverToday(bool(in));
+                case "returning" -> state.returning(bool(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return state.build();
+    }
+
+    private static DeliveryWindow readDeliveryWindow(JsonReader in) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        DeliveryWindow.DeliveryWindowBuilder window = DeliveryWindow.builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "from" -> window.from(instant(in));
+                case "to" -> window.to(instant(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return window.build();
+    }
+
+    private static ParcelTracking readTracking(JsonReader in) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        ParcelTracking.ParcelTrackingBuilder tracking = ParcelTracking.builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "trackingId" -> tracking.trackingId(uuid(in));
+                case "carrier" -> tracking.carrier(enumValue(in, Carrier::fromValue));
+                case "number" -> tracking.number(string(in));
+                case "url" -> tracking.url(string(in));
+                case "referenceId" -> tracking.referenceId(string(in));
+                case "carrierConfigurationId" -> tracking.carrierConfigurationId(uuid(in));
+                case "courierPhone" -> tracking.courierPhone(string(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return tracking.build();
+    }
+
+    private static ParcelTimeline readTimeline(JsonReader in) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        ParcelTimeline.ParcelTimelineBuilder timeline = ParcelTimeline.builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "timelineId" -> timeline.timelineId(uuid(in));
+                case "type" -> timeline.type(enumValue(in, TimelineType::fromValue));
+                case "text" -> timeline.text(string(in));
+                case "created" -> timeline.created(instant(in));
+                case "author" -> timeline.author(string(in));
+                case "additionalParams" -> timeline.additionalParams(readLazyAdditionalParams(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return timeline.build();
+    }
+
+    private static List<ParcelTimeline> readLazyTimeline(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_ARRAY) {
+            return list(in, JsonResponseReader::readTimeline);
+        }
+        StringWriter json = new StringWriter();
+        JsonWriter out = new JsonWriter(json);
+        int size = 0;
+        in.beginArray();
+        out.beginArray();
+        while (in.hasNext()) {
+            copyTimeline(in, out);
+            size++;
+        }
+        in.endArray();
+        out.endArray();
+        out.flush();
+        if (size == 0) {
+            return new ArrayList<>();
+        }
+        return new LazyJsonList<>(json.toString(), size, timeline -> list(timeline, JsonResponseReader::readTimeline));
+    }
+
+    private static Map<String, Object> readLazyAdditionalParams(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            return readAdditionalParams(in);
+        }
+        StringWriter json = new StringWriter();
+        JsonWriter out = new JsonWriter(json);
+        int size = copy(in, out);
+        out.flush();
+        // An empty object is read as `null`, like the generated model leaves its additional properties unset.
+        return size == 0 ? null : new LazyJsonMap(json.toString(), JsonResponseReader::readAdditionalParams);
+    }
+
+    /**
+     * Copies a timeline entry to compact JSON text, parsing its typed fields the way `readTimeline` does, so that
+     * reading the copy later cannot fail. Unknown fields are dropped, as `readTimeline` skips them anyway.
+     */
+    private static void copyTimeline(JsonReader in, JsonWriter out) throws IOException {
+        if (nullValue(in)) {
+            out.nullValue();
+            return;
+        }
+        in.beginObject();
+        out.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            switch (name) {
+                case "timelineId" -> out.name(name).value(checked(in, UUID::fromString));
+                case "type" -> out.name(name).value(checked(in, TimelineType::fromValue));
+                case "created" -> out.name(name).value(checked(in, JsonResponseReader::parseInstant));
+                case "text", "author" -> out.name(name).value(string(in));
+                case "additionalParams" -> {
+                    JsonToken token = in.peek();
+                    if (token != JsonToken.BEGIN_OBJECT && token != JsonToken.NULL) {
+                        throw new IllegalStateException("Expected BEGIN_OBJECT but was " + token
+                                + " at " + in.getPath());
+                    }
+                    out.name(name);
+                    copy(in, out);
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        out.endObject();
+    }
+
+    /**
+     * Reads a string and checks that the parser accepts it.
+     */
+    private static String checked(JsonReader in, Function<String, ?> parser) throws IOException {
+        String value = string(in);
+        if (value != null) {
+            parser.apply(value);
+        }
+        return value;
+    }
+
+    /**
+     * Copies the next value of the reader to the writer, keeping numbers as written.
+     *
+     * @return The number of elements of the copied array, or of members of the copied object.
+     */
+    private static int copy(JsonReader in, JsonWriter out) throws IOException {
+        int depth = 0;
+        int elements = 0;
+        do {
+            JsonToken token = in.peek();
+            boolean end = token == JsonToken.END_ARRAY || token == JsonToken.END_OBJECT;
+            if (depth == 1 && token != JsonToken.NAME && !end) {
+                elements++;
+            }
+            switch (token) {
+                case BEGIN_ARRAY -> {
+                    in.beginArray();
+                    out.beginArray();
+                    depth++;
+                }
+                case END_ARRAY -> {
+                    in.endArray();
+                    out.endArray();
+                    depth--;
+                }
+                case BEGIN_OBJECT -> {
+                    in.beginObject();
+                    out.beginObject();
+                    depth++;
+                }
+                case END_OBJECT -> {
+                    in.endObject();
+                    out.endObject();
+                    depth--;
+                }
+                case NAME -> out.name(in.nextName());
+                case STRING -> out.value(in.nextString());
+                case NUMBER -> out.jsonValue(in.nextString());
+                case BOOLEAN -> out.value(in.nextBoolean());
+                case NULL -> {
+                    in.nextNull();
+                    out.nullValue();
+                }
+                default -> throw new IllegalStateException("Unexpected end of JSON at " + in.getPath());
+            }
+        } while (depth > 0);
+        return elements;
+    }
+
+    /**
+     * Reads free-form parameters into the same value types as the generated `TimelineAdditionalParams`:
+     * numbers as lazily parsed `Number`s, nested arrays as `List`s and nested objects as `HashMap`s.
+     * An object without parameters is read as `null`, like the generated model does.
+     */
+    private static Map<String, Object> readAdditionalParams(JsonReader in) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        Map<String, Object> params = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            Object value = switch (in.peek()) {
+                case STRING -> in.nextString();
+                case NUMBER -> ToNumberPolicy.LAZILY_PARSED_NUMBER.readNumber(in);
+                case BOOLEAN -> in.nextBoolean();
+                case BEGIN_OBJECT -> new HashMap<>((Map<?, ?>) ANY.read(in));
+                default -> ANY.read(in);
+            };
+            if (params == null) {
+                params = new HashMap<>();
+            }
+            params.put(name, value);
+        }
+        in.endObject();
+        return params;
+    }
+
+    private static <T> List<T> list(JsonReader in, ElementReader<T> element) throws IOException {
+        if (nullValue(in)) {
+            return null;
+        }
+        List<T> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(element.read(in));
+        }
+        in.endArray();
+        return list;
+    }
+
+    private static boolean nullValue(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    private static String string(JsonReader in) throws IOException {
+        return nullValue(in) ? null : in.nextString();
+    }
+
+    private static UUID uuid(JsonReader in) throws IOException {
+        return nullValue(in) ? null : UUID.fromString(in.nextString());
+    }
+
+    private static Boolean bool(JsonReader in) throws IOException {
+        return nullValue(in) ? null : in.nextBoolean();
+    }
+
+    private static Integer integer(JsonReader in) throws IOException {
+        return nullValue(in) ? null : in.nextInt();
+    }
+
+    private static Double decimalNumber(JsonReader in) throws IOException {
+        return nullValue(in) ? null : in.nextDouble();
+    }
+
+    private static BigDecimal decimal(JsonReader in) throws IOException {
+        return nullValue(in) ? null : new BigDecimal(in.nextString());
+    }
+
+    private static <E> E enumValue(JsonReader in, Function<String, E> fromValue) throws IOException {
+        return nullValue(in) ? null : fromValue.apply(in.nextString());
+    }
+
+    /**
+     * Reads a date-time the way the generated `JSON` class does, including its handling of a `+0000` offset.
+     */
+    private static Instant instant(JsonReader in) throws IOException {
+        return nullValue(in) ? null : parseInstant(in.nextString());
+    }
+
+    private static Instant parseInstant(String value) {
+        if (value.endsWith("+0000")) {
+            value = value.substring(0, value.length() - 5) + "Z";
+        }
+        return OffsetDateTime.parse(value).toInstant();
+    }
+
+    @FunctionalInterface
+    private interface ElementReader<T> {
+        T read(JsonReader in) throws IOException;
+    }
+}
@@ -0,0 +1,332 @@
+package com.foxdeli.mapper;
+
+import com.foxdeli.model.common.AdditionalCost;
+import com.foxdeli.model.common.Address;
+import com.foxdeli.model.common.Customer;
+import com.foxdeli.model.common.DeliveryWindow;
+import com.foxdeli.model.common.Destination;
+import com.foxdeli.model.common.Dimensions;
+import com.foxdeli.model.common.Money;
+import com.foxdeli.model.common.ParcelShopData;
+import com.foxdeli.model.common.ParcelState;
+import com.foxdeli.model.common.ParcelTimeline;
+import com.foxdeli.model.common.ParcelTracking;
+import com.foxdeli.model.common.PaymentInfo;
+import com.foxdeli.model.common.Product;
+import com.foxdeli.model.common.Snooze;
+import com.foxdeli.model.response.Order;
+import com.foxdeli.model.response.Parcel;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The `JsonResponseWriter` class writes the SDK records as order and parcel responses of the Foxdeli API, so
+ * `JsonResponseReader` reads them back into equal records. Null fields are omitted.
+ * <p>
+ * Timelines and additional parameters still held as JSON text by `JsonResponseReader` are copied as is, without
+ * materializing them.
+ */
+public final class JsonResponseWriter {
+
+    private static final TypeAdapter<Object> ANY = new Gson().getAdapter(Object.class);
+
+    private JsonResponseWriter() {
+    }
+
+    /**
+     * Writes an order.
+     *
+     * @param out   The writer.
+     * @param order The order, may be `null`.
+     * @throws IOException If the JSON cannot be written.
+     */
+    public static void writeOrder(JsonWriter out, Order order) throws IOException {
+        if (order == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        uuid(out, "id", order.orderId());
+        string(out, "platform", order.platform());
+        string(out, "orderNumber", order.orderNumber());
+        enumValue(out, "orderState", order.orderState());
+        uuid(out, "marketId", order.marketId());
+        uuid(out, "eshopId", order.eshopId());
+        string(out, "externalIdentifier", order.externalIdentifier());
+        if (order.destination() != null) {
+            writeDestination(out.name("destination"), order.destination());
+        }
+        money(out, "price", order.price());
+        list(out, "additionalCosts", order.additionalCosts(), JsonResponseWriter::writeAdditionalCost);
+        money(out, "cashOnDelivery", order.cashOnDelivery());
+        if (order.payment() != null) {
+            writePayment(out.name("payment"), order.payment());
+        }
+        if (order.customer() != null) {
+            writeCustomer(out.name("customer"), order.customer());
+        }
+        list(out, "parcels", order.parcels(), JsonResponseWriter::writeParcel);
+        list(out, "products", order.products(), JsonResponseWriter::writeProduct);
+        instant(out, "cancelled", order.cancelled());
+        bool(out, "inImportantState", order.inImportantState());
+        bool(out, "inUrgentState", order.inUrgentState());
+        if (order.snooze() != null) {
+            writeSnooze(out.name("snooze"), order.snooze());
+        }
+        out.endObject();
+    }
+
+    /**
+     * Writes a parcel.
+     *
+     * @param out    The writer.
+     * @param parcel The parcel, may be `null`.
+     * @throws IOException If the JSON cannot be written.
+     */
+    public static void writeParcel(JsonWriter out, Parcel parcel) throws IOException {
+        if (parcel == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        uuid(out, "id", parcel.parcelId());
+        uuid(out, "orderId", parcel.orderId());
+        if (parcel.dimensions() != null) {
+            writeDimensions(out.name("dimensions"), parcel.dimensions());
+        }
+        if (parcel.state() != null) {
+            writeParcelState(out.name("state"), parcel.state());
+        }
+        enumValue(out, "trackingState", parcel.trackingState());
+        instant(out, "maxStoreDate", parcel.maxStoreDate());
+        if (parcel.deliveryWindow() != null) {
+            writeDeliveryWindow(out.name("deliveryWindow"), parcel.deliveryWindow());
+        }
+        if (parcel.activeTracking() != null) {
+            writeTracking(out.name("activeTracking"), parcel.activeTracking());
+        }
+        String pendingTimeline = parcel.timeline() instanceof LazyJsonList<?> lazy ? lazy.pendingJson() : null;
+        if (pendingTimeline != null) {
+            out.name("timeline").jsonValue(pendingTimeline);
+        } else {
+            list(out, "timeline", parcel.timeline(), JsonResponseWriter::writeTimeline);
+        }
+        list(out, "products", parcel.products(), JsonWriter::value);
+        string(out, "carrierTrackingUrl", parcel.carrierTrackingUrl());
+        out.endObject();
+    }
+
+    private static void writeDestination(JsonWriter out, Destination destination) throws IOException {
+        out.beginObject();
+        enumValue(out, "type", destination.type());
+        Address address = destination.address();
+        if (address != null) {
+            out.name("address").beginObject();
+            string(out, "line1", address.line1());
+            string(out, "line2", address.line2());
+            string(out, "city", address.city());
+            string(out, "postalCode", address.postalCode());
+            enumValue(out, "countryCode", address.countryCode());
+            string(out, "state", address.state());
+            string(out, "region", address.region());
+            number(out, "longitude", address.longitude());
+            number(out, "latitude", address.latitude());
+            out.endObject();
+        }
+        ParcelShopData parcelShop = destination.parcelShop();
+        if (parcelShop != null) {
+            out.name("parcelShop").beginObject();
+            enumValue(out, "carrier", parcelShop.carrier());
+            enumValue(out, "countryCode", parcelShop.countryCode());
+            string(out, "parcelShopId", parcelShop.parcelShopId());
+            out.endObject();
+        }
+        out.endObject();
+    }
+
+    private static void writeMoney(JsonWriter out, Money money) throws IOException {
+        out.beginObject();
+        number(out, "amount", money.amount());
+        string(out, "currency", money.currency());
+        out.endObject();
+    }
+
+    private static void writeAdditionalCost(JsonWriter out, AdditionalCost cost) throws IOException {
+        out.beginObject();
+        enumValue(out, "type", cost.type());
+        money(out, "price", cost.price());
+        string(out, "name", cost.name());
+        out.endObject();
+    }
+
+    private static void writePayment(JsonWriter out, PaymentInfo payment) throws IOException {
+        out.beginObject();
+        enumValue(out, "method", payment.method());
+        enumValue(out, "service", payment.service());
+        out.endObject();
+    }
+
+    private static void writeCustomer(JsonWriter out, Customer customer) throws IOException {
+        out.beginObject();
+        string(out, "name", customer.name());
+        string(out, "email", customer.email());
+        string(out, "phone", customer.phone());
+        out.endObject();
+    }
+
+    private static void writeProduct(JsonWriter out, Product product) throws IOException {
+        out.beginObject();
+        enumValue(out, "type", product.type());
+        string(out, "sku", product.sku());
+        string(out, "name", product.name());
+        string(out, "description", product.description());
+        string(out, "url", product.url());
+        string(out, "image", product.image());
+        money(out, "price", product.price());
+        number(out, "vat", product.vat());
+        number(out, "quantity", product.quantity());
+        string(out, "referencedSku", product.referencedSku());
+        out.endObject();
+    }
+
+    private static void writeSnooze(JsonWriter out, Snooze snooze) throws IOException {
+        out.beginObject();
+        instant(out, "until", snooze.until());
+        string(out, "author", snooze.author());
+        string(out, "note", snooze.note());
+        bool(out, "snoozed", snooze.snoozed());
+        out.endObject();
+    }
+
+    private static void writeDimensions(JsonWriter out, Dimensions dimensions) throws IOException {
+        out.beginObject();
+        number(out, "weight", dimensions.weight());
+        number(out, "height", dimensions.height());
+        number(out, "length", dimensions.length());
+        number(out, "width", dimensions.width());
+        out.endObject();
+    }
+
+    private static void writeParcelState(JsonWriter out, ParcelState state) throws IOException {
+        out.beginObject();
+        enumValue(out, "delivery", state.delivery());
+        enumValue(out, "important", state.important());
+        enumValue(out, "urgent", state.urgent());
+        bool(out, "deliverToday", state.deliverToday());
+        bool(out, "returning", state.returning());
+        out.endObject();
+    }
+
+    private static void writeDeliveryWindow(JsonWriter out, DeliveryWindow window) throws IOException {
+        out.beginObject();
+        instant(out, "from", window.from());
+        instant(out, "to", window.to());
+        out.endObject();
+    }
+
+    private static void writeTracking(JsonWriter out, ParcelTracking tracking) throws IOException {
+        out.beginObject();
+        uuid(out, "trackingId", tracking.trackingId());
+        enumValue(out, "carrier", tracking.carrier());
+        string(out, "number", tracking.number());
+        string(out, "url", tracking.url());
+        string(out, "referenceId", tracking.referenceId());
+        uuid(out, "carrierConfigurationId", tracking.carrierConfigurationId());
+        string(out, "courierPhone", tracking.courierPhone());
+        out.endObject();
+    }
+
+    private static void writeTimeline(JsonWriter out, ParcelTimeline timeline) throws IOException {
+        out.beginObject();
+        uuid(out, "timelineId", timeline.timelineId());
+        enumValue(out, "type", timeline.type());
+        string(out, "text", timeline.text());
+        instant(out, "created", timeline.created());
+        string(out, "author", timeline.author());
+        Map<String, Object> params = timeline.additionalParams();
+        if (params != null) {
+            String pending = params instanceof LazyJsonMap lazy ? lazy.pendingJson() : null;
+            if (pending != null) {
+                out.name("additionalParams").jsonValue(pending);
+            } else {
+                // Copied into a plain map, so Gson writes it with its `HashMap` adapter rather than one for the lazy map.
+                ANY.write(out.name("additionalParams"), new HashMap<>(params));
+            }
+        }
+        out.endObject();
+    }
+
+    private static <T> void list(JsonWriter out, String name, List<T> list, ElementWriter<T> element)
+            throws IOException {
+        if (list == null) {
+            return;
+        }
+        out.name(name).beginArray();
+        for (T value : list) {
+            if (value == null) {
+                out.nullValue();
+            } else {
+                element.write(out, value);
+            }
+        }
+        out.endArray();
+    }
+
+    private static void money(JsonWriter out, String name, Money money) throws IOException {
+        if (money != null) {
+            writeMoney(out.name(name), money);
+        }
+    }
+
+    private static void string(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    private static void uuid(JsonWriter out, String name, UUID value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value.toString());
+        }
+    }
+
+    private static void bool(JsonWriter out, String name, Boolean value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    private static void number(JsonWriter out, String name, Number value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    /**
+     * Writes an enum constant of the generated model by its API value, which its `toString()` returns.
+     */
+    private static void enumValue(JsonWriter out, String name, Enum<?> value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value.toString());
+        }
+    }
+
+    private static void instant(JsonWriter out, String name, Instant value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value.toString());
+        }
+    }
+
+    @FunctionalInterface
+    private interface ElementWriter<T> {
+        void write(JsonWriter out, T value) throws IOException;
+    }
+}
@@ -0,0 +1,101 @@
+package com.foxdeli.mapper;
+
+import com.foxdeli.exception.FoxdeliException;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A list read from a JSON array on first access. Until then, only the compact JSON text is retained.
+ * Materialization is thread-safe and happens at most once, after which the JSON text is released.
+ * The size is known from the start, so weighing the list, e.g. by the caches, does not materialize it.
+ * Like the `ArrayList` the MapStruct path produces, the list is modifiable; modifications are not thread-safe.
+ *
+ * @param <T> The type of the elements.
+ */
+final class LazyJsonList<T> extends AbstractList<T> implements RandomAccess {
+
+    private final JsonValueReader<List<T>> reader;
+    private final int pendingSize;
+    private String json;
+    private volatile List<T> values;
+
+    LazyJsonList(String json, int size, JsonValueReader<List<T>> reader) {
+        this.json = json;
+        this.pendingSize = size;
+        this.reader = reader;
+    }
+
+    @Override
+    public T get(int index) {
+        return values().get(index);
+    }
+
+    @Override
+    public int size() {
+        List<T> result = values;
+        return result == null ? pendingSize : result.size();
+    }
+
+    @Override
+    public T set(int index, T element) {
+        return values().set(index, element);
+    }
+
+    @Override
+    public void add(int index, T element) {
+        values().add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public T remove(int index) {
+        T removed = values().remove(index);
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Returns the JSON text while the list has not been materialized, or `null` afterwards.
+     */
+    synchronized String pendingJson() {
+        return values == null ? json : null;
+    }
+
+    private List<T> values() {
+        List<T> result = values;
+        if (result == null) {
+            synchronized (this) {
+                result = values;
+                if (result == null) {
+                    result = read(json, reader);
+                    values = result;
+                    json = null;
+                }
+            }
+        }
+        return result;
+    }
+
+    static <V> V read(String json, JsonValueReader<V> reader) {
+        try (JsonReader in = new JsonReader(new StringReader(json))) {
+            return reader.read(in);
+        } catch (IOException | RuntimeException e) {
+            throw new FoxdeliException("Failed to read lazily parsed JSON: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a value from a JSON reader.
+     *
+     * @param <V> The type of the value.
+     */
+    @FunctionalInterface
+    interface JsonValueReader<V> {
+        V read(JsonReader in) throws IOException;
+    }
+}
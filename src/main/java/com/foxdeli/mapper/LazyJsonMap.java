@@ -0,0 +1,69 @@
+package com.foxdeli.mapper;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A map read from a JSON object on first access. Until then, only the compact JSON text is retained.
+ * Materialization is thread-safe and happens at most once, after which the JSON text is released.
+ * Like the `HashMap` of the generated model, the map is modifiable; modifications are not thread-safe.
+ */
+final class LazyJsonMap extends AbstractMap<String, Object> {
+
+    private final LazyJsonList.JsonValueReader<Map<String, Object>> reader;
+    private String json;
+    private volatile Map<String, Object> values;
+
+    LazyJsonMap(String json, LazyJsonList.JsonValueReader<Map<String, Object>> reader) {
+        this.json = json;
+        this.reader = reader;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return values().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return values().containsKey(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return values().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return values().remove(key);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return values().entrySet();
+    }
+
+    /**
+     * Returns the JSON text while the map has not been materialized, or `null` afterwards.
+     */
+    synchronized String pendingJson() {
+        return values == null ? json : null;
+    }
+
+    private Map<String, Object> values() {
+        Map<String, Object> result = values;
+        if (result == null) {
+            synchronized (this) {
+                result = values;
+                if (result == null) {
+                    result = LazyJsonList.read(json, reader);
+                    values = result;
+                    json = null;
+                }
+            }
+        }
+        return result;
+    }
+}
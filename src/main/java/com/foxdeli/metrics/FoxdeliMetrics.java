@@ -0,0 +1,70 @@
+package com.foxdeli.metrics;
+
+/**
+ * The `FoxdeliMetrics` interface receives measurements of a `FoxdeliClient`: the latency and outcome of every SDK
+ * operation, of every HTTP call, and of every token refresh and authorization. Implementations bind them to a metrics
+ * library, e.g. `MicrometerMetrics`. All methods have empty defaults, so implementations only override what they
+ * record, and `NOOP` records nothing.
+ * <p>
+ * Methods are called concurrently from the calling threads and the HTTP client's threads, and must return quickly.
+ */
+public interface FoxdeliMetrics {
+
+    /**
+     * Metrics recording nothing. Clients without metrics do not install any instrumentation.
+     */
+    FoxdeliMetrics NOOP = new FoxdeliMetrics() {
+    };
+
+    /**
+     * Called when an SDK operation starts.
+     *
+     * @param operation The name of the operation, e.g. `getOrder` or `updateParcelState`.
+     */
+    default void operationStarted(String operation) {
+    }
+
+    /**
+     * Called when an SDK operation completes, successfully or not.
+     *
+     * @param operation     The name of the operation, e.g. `getOrder` or `updateParcelState`.
+     * @param durationNanos The duration of the operation in nanoseconds.
+     * @param status        The HTTP status the operation failed with, or 0 if it succeeded or failed without a response.
+     * @param error         The exception the operation failed with, or `null` if it succeeded.
+     */
+    default void recordOperation(String operation, long durationNanos, int status, Throwable error) {
+    }
+
+    /**
+     * Called when an HTTP call to the Foxdeli API starts.
+     */
+    default void httpCallStarted() {
+    }
+
+    /**
+     * Called when an HTTP call to the Foxdeli API completes. A call covers all its retries and follow-up requests.
+     *
+     * @param method        The HTTP method.
+     * @param status        The status of the last response, or 0 if no response was received.
+     * @param durationNanos The duration of the call in nanoseconds.
+     * @param error         The I/O exception the call failed with, or `null` if a response was received.
+     */
+    default void recordHttpCall(String method, int status, long durationNanos, Throwable error) {
+    }
+
+    /**
+     * Called when the access token was refreshed with the refresh token, successfully or not.
+     *
+     * @param error The exception the refresh failed with, or `null` if it succeeded.
+     */
+    default void recordTokenRefresh(Throwable error) {
+    }
+
+    /**
+     * Called when the client authorized with username and password, successfully or not.
+     *
+     * @param error The exception the authorization failed with, or `null` if it succeeded.
+     */
+    default void recordAuthorization(Throwable error) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.foxdeli.metrics;
+
+import com.foxdeli.helper.ForwardingEventListener;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The `MetricsEventListener` class implements the OkHttp EventListener interface to report the latency and status of
+ * every HTTP call to `FoxdeliMetrics`. A new listener is created for every call by `MetricsEventListener.factory`.
+ * Every event is forwarded to the listener the HTTP client was configured with.
+ */
+public class MetricsEventListener extends ForwardingEventListener {
+
+    /**
+     * The listeners of the calls currently executing. Calls created but never executed are only weakly referenced.
+     */
+    private static final Map<Call, MetricsEventListener> listeners = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final FoxdeliMetrics metrics;
+    private long started;
+    private int status;
+    private volatile Throwable error;
+
+    private MetricsEventListener(FoxdeliMetrics metrics, EventListener delegate) {
+        super(delegate);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns a factory creating a listener for every call.
+     *
+     * @param metrics The metrics to report to.
+     * @return The listener factory.
+     */
+    public static EventListener.Factory factory(FoxdeliMetrics metrics) {
+        return factory(metrics, call -> EventListener.NONE);
+    }
+
+    /**
+     * Returns a factory creating a listener for every call, which forwards all events to a listener of the delegate.
+     *
+     * @param metrics  The metrics to report to.
+     * @param delegate The factory of the listeners to forward the events to.
+     * @return The listener factory.
+     */
+    public static EventListener.Factory factory(FoxdeliMetrics metrics, EventListener.Factory delegate) {
+        return call -> {
+            MetricsEventListener listener = new MetricsEventListener(metrics, delegate.create(call));
+            listeners.put(call, listener);
+            return listener;
+        };
+    }
+
+    /**
+     * Records the exception a call failed with when it never reaches OkHttp as an I/O exception, because an
+     * interceptor translated it, e.g. `ErrorHandlingInterceptor`. OkHttp then reports the end of the call instead of
+     * its failure, which would otherwise be counted as a call without a response, but without an error.
+     *
+     * @param call  The failed call.
+     * @param error The exception the call failed with.
+     */
+    public static void recordFailure(Call call, Throwable error) {
+        MetricsEventListener listener = listeners.get(call);
+        if (listener != null) {
+            listener.error = error;
+        }
+    }
+
+    @Override
+    public void callStart(@NotNull Call call) {
+        started = System.nanoTime();
+        metrics.httpCallStarted();
+        super.callStart(call);
+    }
+
+    @Override
+    public void requestHeadersEnd(@NotNull Call call, @NotNull Request request) {
+        // Only the status of the last attempt is reported.
+        status = 0;
+        super.requestHeadersEnd(call, request);
+    }
+
+    @Override
+    public void responseHeadersEnd(@NotNull Call call, @NotNull Response response) {
+        status = response.code();
+        super.responseHeadersEnd(call, response);
+    }
+
+    @Override
+    public void callEnd(@NotNull Call call) {
+        listeners.remove(call);
+        metrics.recordHttpCall(call.request().method(), status, System.nanoTime() - started, error);
+        super.callEnd(call);
+    }
+
+    @Override
+    public void callFailed(@NotNull Call call, @NotNull IOException ioe) {
+        listeners.remove(call);
+        metrics.recordHttpCall(call.request().method(), status, System.nanoTime() - started, ioe);
+        super.callFailed(call, ioe);
+    }
+}
@@ -0,0 +1,118 @@
+package com.foxdeli.metrics.micrometer;
+
+import com.foxdeli.metrics.FoxdeliMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The `MicrometerMetrics` class records the measurements of a `FoxdeliClient` in a Micrometer `MeterRegistry`.
+ * Micrometer is an optional dependency of the SDK; add `io.micrometer:micrometer-core` to use this class.
+ * <p>
+ * The following meters are registered:
+ * <ul>
+ *     <li>`foxdeli.operations` timer, tagged by `operation`, `status` and `exception`, with a percentile histogram</li>
+ *     <li>`foxdeli.operations.active` gauge of operations in flight, tagged by `operation`</li>
+ *     <li>`foxdeli.http.calls` timer, tagged by `method`, `status` and `exception`</li>
+ *     <li>`foxdeli.http.calls.active` gauge of HTTP calls in flight</li>
+ *     <li>`foxdeli.token.refreshes` and `foxdeli.token.authorizations` counters, tagged by `outcome`</li>
+ * </ul>
+ * The `status` tag is `none` if no response was received, and the `exception` tag is `none` on success.
+ */
+public class MicrometerMetrics implements FoxdeliMetrics {
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<String, AtomicInteger> activeOperations = new ConcurrentHashMap<>();
+    private final AtomicInteger activeHttpCalls = new AtomicInteger();
+
+    /**
+     * Creates a new `MicrometerMetrics` registering its meters in the given registry.
+     *
+     * @param registry The registry of the meters.
+     */
+    public MicrometerMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("foxdeli.http.calls.active", activeHttpCalls, AtomicInteger::get)
+                .description("HTTP calls to the Foxdeli API in flight")
+                .register(registry);
+    }
+
+    @Override
+    public void operationStarted(String operation) {
+        activeOperations(operation).incrementAndGet();
+    }
+
+    @Override
+    public void recordOperation(String operation, long durationNanos, int status, Throwable error) {
+        activeOperations(operation).decrementAndGet();
+        Timer.builder("foxdeli.operations")
+                .description("Foxdeli SDK operations")
+                .tag("operation", operation)
+                .tag("status", status(status))
+                .tag("exception", exception(error))
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void httpCallStarted() {
+        activeHttpCalls.incrementAndGet();
+    }
+
+    @Override
+    public void recordHttpCall(String method, int status, long durationNanos, Throwable error) {
+        activeHttpCalls.decrementAndGet();
+        Timer.builder("foxdeli.http.calls")
+                .description("HTTP calls to the Foxdeli API")
+                .tag("method", method)
+                .tag("status", status(status))
+                .tag("exception", exception(error))
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordTokenRefresh(Throwable error) {
+        Counter.builder("foxdeli.token.refreshes")
+                .description("Access token refreshes with the refresh token")
+                .tag("outcome", error == null ? "success" : "failure")
+                .register(registry)
+                .increment();
+    }
+
+    @Override
+    public void recordAuthorization(Throwable error) {
+        Counter.builder("foxdeli.token.authorizations")
+                .description("Authorizations with username and password")
+                .tag("outcome", error == null ? "success" : "failure")
+                .register(registry)
+                .increment();
+    }
+
+    private AtomicInteger activeOperations(String operation) {
+        return activeOperations.computeIfAbsent(operation, name -> {
+            AtomicInteger active = new AtomicInteger();
+            Gauge.builder("foxdeli.operations.active", active, AtomicInteger::get)
+                    .description("Foxdeli SDK operations in flight")
+                    .tag("operation", name)
+                    .register(registry);
+            return active;
+        });
+    }
+
+    private static String status(int status) {
+        return status == 0 ? NONE : Integer.toString(status);
+    }
+
+    private static String exception(Throwable error) {
+        return error == null ? NONE : error.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,19 @@
+package com.foxdeli.model.request;
+
+import com.foxdeli.orders.api.model.DeliveryState;
+
+import java.util.UUID;
+
+/**
+ * A change of the delivery state of a single parcel, sent with `updateParcelStates`.
+ *
+ * @param orderId       The unique identifier for the order containing the parcel.
+ * @param parcelId      The unique identifier for the parcel.
+ * @param deliveryState The new delivery state of the parcel.
+ */
+public record ParcelStateChange(
+        UUID orderId,
+        UUID parcelId,
+        DeliveryState deliveryState
+) {
+}
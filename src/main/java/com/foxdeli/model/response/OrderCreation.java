@@ -0,0 +1,39 @@
+package com.foxdeli.model.response;
+
+import com.foxdeli.model.request.ParcelRequest;
+
+import java.util.List;
+
+/**
+ * The result of creating an order together with its parcels.
+ * The order is created even if some of its parcels fail, so callers can retry just the failed parcels.
+ *
+ * @param order   The created `Order`, including the successfully created parcels.
+ * @param parcels The outcome of every parcel in the order of the `OrderRequest` parcels.
+ */
+public record OrderCreation(
+        Order order,
+        List<ParcelCreation> parcels
+) {
+
+    /**
+     * Checks if all parcels of the order were created.
+     *
+     * @return `true` if no parcel creation failed, `false` otherwise.
+     */
+    public boolean isSuccessful() {
+        return parcels.stream().allMatch(ParcelCreation::isSuccessful);
+    }
+
+    /**
+     * Returns the requests of the parcels whose creation failed.
+     *
+     * @return The `ParcelRequest` objects to retry with `createParcel`.
+     */
+    public List<ParcelRequest> failedParcels() {
+        return parcels.stream()
+                .filter(parcel -> !parcel.isSuccessful())
+                .map(ParcelCreation::request)
+                .toList();
+    }
+}
@@ -0,0 +1,26 @@
+package com.foxdeli.model.response;
+
+import com.foxdeli.model.request.ParcelRequest;
+
+/**
+ * The outcome of creating a single parcel as part of an order.
+ *
+ * @param request The `ParcelRequest` the parcel was created from.
+ * @param parcel  The created `Parcel`, or `null` if the creation failed.
+ * @param error   The exception the creation failed with, or `null` if the parcel was created.
+ */
+public record ParcelCreation(
+        ParcelRequest request,
+        Parcel parcel,
+        Throwable error
+) {
+
+    /**
+     * Checks if the parcel was created.
+     *
+     * @return `true` if the parcel was created, `false` if the creation failed.
+     */
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
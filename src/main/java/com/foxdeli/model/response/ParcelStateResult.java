@@ -0,0 +1,30 @@
+package com.foxdeli.model.response;
+
+import com.foxdeli.model.request.ParcelStateChange;
+
+/**
+ * The outcome of a single change sent with `updateParcelStates`.
+ * Changes of the same parcel are merged before sending, so only the last change of every parcel is sent. The changes
+ * it superseded share its outcome.
+ *
+ * @param change     The requested change.
+ * @param superseded `true` if a later change of the same parcel was sent instead of this one.
+ * @param parcel     The updated `Parcel`, or `null` if the update failed or its response was not mapped.
+ * @param error      The exception the update failed with, or `null` if the parcel was updated.
+ */
+public record ParcelStateResult(
+        ParcelStateChange change,
+        boolean superseded,
+        Parcel parcel,
+        Throwable error
+) {
+
+    /**
+     * Checks if the parcel was updated.
+     *
+     * @return `true` if the parcel was updated, `false` if the update failed.
+     */
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
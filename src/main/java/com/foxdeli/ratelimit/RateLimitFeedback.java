@@ -0,0 +1,28 @@
+package com.foxdeli.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Rate limit information taken from a Foxdeli API response.
+ *
+ * @param status     The HTTP status code of the response.
+ * @param retryAfter The delay requested by the `Retry-After` header, or `null` if not present.
+ * @param remaining  The number of requests remaining in the current window, or `null` if not reported.
+ * @param reset      The time until the current window resets, or `null` if not reported.
+ */
+public record RateLimitFeedback(
+        int status,
+        Duration retryAfter,
+        Long remaining,
+        Duration reset
+) {
+
+    /**
+     * Checks if the request was throttled by the API.
+     *
+     * @return `true` if the response status is 429 Too Many Requests, `false` otherwise.
+     */
+    public boolean isThrottled() {
+        return status == 429;
+    }
+}
@@ -0,0 +1,24 @@
+package com.foxdeli.ratelimit;
+
+/**
+ * The `RateLimiter` interface limits the rate of requests sent to the Foxdeli API by a single client.
+ * Every request acquires a permit before it is sent and releases it once its response (or failure) is known,
+ * passing along what the API said about its rate limits so the limiter can adapt.
+ * Implementations must be thread-safe.
+ */
+public interface RateLimiter {
+
+    /**
+     * Blocks until a request may be sent.
+     *
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    void acquire() throws InterruptedException;
+
+    /**
+     * Releases the permit of a request acquired by `acquire()`.
+     *
+     * @param feedback The rate limit information of the response, or `null` if no response was received.
+     */
+    void release(RateLimitFeedback feedback);
+}
@@ -0,0 +1,210 @@
+package com.foxdeli.ratelimit;
+
+import com.foxdeli.exception.FoxdeliException;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The `TokenBucketRateLimiter` class is a `RateLimiter` combining a token bucket with a cap on requests in flight.
+ * <p>
+ * The bucket refills at `permitsPerSecond` and holds up to `burst` permits. Callers reserve permits in arrival order,
+ * so waiting threads are served fairly without polling. The rate adapts to the API: it is halved when the API responds
+ * with 429 Too Many Requests and grows back by a small step with every successful response. Requests throttled together
+ * halve the rate only once, as it is halved at most once per second, or once per refill interval if that is longer.
+ * A `Retry-After` header, or a rate limit window reported as exhausted, pauses all requests until the given time, but
+ * for at most `maxPause`.
+ */
+@Slf4j
+public class TokenBucketRateLimiter implements RateLimiter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long DEFAULT_THROTTLE_PAUSE_NANOS = NANOS_PER_SECOND;
+    private static final Duration DEFAULT_MAX_PAUSE = Duration.ofMinutes(1);
+
+    private final double maxRate;
+    private final double minRate;
+    private final double burst;
+    private final long maxPauseNanos;
+    private final Semaphore inFlight;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The current rate in permits per second, between `minRate` and `maxRate`. Guarded by `lock`.
+     */
+    private double rate;
+
+    /**
+     * The permits available in the bucket. Negative when permits are reserved ahead. Guarded by `lock`.
+     */
+    private double permits;
+
+    /**
+     * Guarded by `lock`.
+     */
+    private long refilledAt;
+
+    /**
+     * No permit is handed out before this time. Guarded by `lock`.
+     */
+    private long pausedUntil;
+
+    /**
+     * When the rate was last halved. Guarded by `lock`.
+     */
+    private long decreasedAt;
+
+    /**
+     * Creates a new `TokenBucketRateLimiter`. Use `TokenBucketRateLimiter.builder()` to create instances.
+     *
+     * @param permitsPerSecond The maximum sustained rate of requests per second.
+     * @param burst            The maximum number of requests sent at once after an idle period. Defaults to 1.
+     * @param maxInFlight      The maximum number of requests in flight, or `null` for no limit.
+     * @param maxPause         The longest pause requested by the API that is honored. Defaults to 1 minute.
+     * @throws FoxdeliException If any of the limits is not positive.
+     */
+    @Builder
+    private TokenBucketRateLimiter(double permitsPerSecond, Integer burst, Integer maxInFlight, Duration maxPause) {
+        if (permitsPerSecond <= 0) {
+            throw new FoxdeliException("PermitsPerSecond must be positive");
+        }
+        if (burst != null && burst < 1) {
+            throw new FoxdeliException("Burst must be at least 1");
+        }
+        if (maxInFlight != null && maxInFlight < 1) {
+            throw new FoxdeliException("MaxInFlight must be at least 1");
+        }
+        if (maxPause != null && (maxPause.isNegative() || maxPause.isZero())) {
+            throw new FoxdeliException("MaxPause must be positive");
+        }
+        this.maxRate = permitsPerSecond;
+        this.minRate = permitsPerSecond / 16;
+        this.burst = burst == null ? 1 : burst;
+        this.maxPauseNanos = (maxPause == null ? DEFAULT_MAX_PAUSE : maxPause).toNanos();
+        this.inFlight = maxInFlight == null ? null : new Semaphore(maxInFlight, true);
+        this.rate = permitsPerSecond;
+        this.permits = this.burst;
+        this.refilledAt = System.nanoTime();
+        this.pausedUntil = refilledAt;
+        this.decreasedAt = refilledAt - DEFAULT_THROTTLE_PAUSE_NANOS;
+    }
+
+    @Override
+    public void acquire() throws InterruptedException {
+        if (inFlight != null) {
+            inFlight.acquire();
+        }
+        try {
+            long wait = reserve();
+            while (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+                wait = pausedFor();
+            }
+        } catch (InterruptedException e) {
+            if (inFlight != null) {
+                inFlight.release();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void release(RateLimitFeedback feedback) {
+        if (inFlight != null) {
+            inFlight.release();
+        }
+        if (feedback == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (feedback.isThrottled()) {
+                // Responses to requests sent before the last decrease do not decrease the rate again.
+                long window = Math.max(DEFAULT_THROTTLE_PAUSE_NANOS, (long) (NANOS_PER_SECOND / rate));
+                if (now - decreasedAt >= window) {
+                    rate = Math.max(minRate, rate / 2);
+                    decreasedAt = now;
+                    log.debug("Throttled by Foxdeli API, rate reduced to {} requests/s", rate);
+                }
+                permits = Math.min(permits, 0);
+                long pause = feedback.retryAfter() == null ? DEFAULT_THROTTLE_PAUSE_NANOS : feedback.retryAfter().toNanos();
+                pauseUntil(now, pause);
+            } else {
+                if (feedback.status() < 400) {
+                    rate = Math.min(maxRate, rate + maxRate / 64);
+                }
+                if (feedback.retryAfter() != null) {
+                    pauseUntil(now, feedback.retryAfter().toNanos());
+                } else if (feedback.remaining() != null && feedback.remaining() <= 0 && feedback.reset() != null) {
+                    pauseUntil(now, feedback.reset().toNanos());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current adaptive rate.
+     *
+     * @return The current rate in requests per second.
+     */
+    public double getRate() {
+        lock.lock();
+        try {
+            return rate;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves one permit and returns how long the caller has to wait before using it.
+     */
+    private long reserve() {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            permits = Math.min(burst, permits + (now - refilledAt) * rate / NANOS_PER_SECOND);
+            refilledAt = now;
+            permits -= 1;
+            long wait = permits >= 0 ? 0 : (long) (-permits * NANOS_PER_SECOND / rate);
+            return Math.max(wait, pausedUntil - now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long pausedFor() {
+        lock.lock();
+        try {
+            return pausedUntil - System.nanoTime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Pauses all requests for the given time, but at most for `maxPause`. Called with the lock held.
+     */
+    private void pauseUntil(long now, long pauseNanos) {
+        long time = now + Math.min(pauseNanos, maxPauseNanos);
+        if (time - pausedUntil > 0) {
+            pausedUntil = time;
+        }
+    }
+
+    /**
+     * Returns the pause requested by the API, if any, as a `Duration`. Mainly useful for diagnostics.
+     *
+     * @return The remaining pause, or `Duration.ZERO` if requests are not paused.
+     */
+    public Duration getRemainingPause() {
+        return Duration.ofNanos(Math.max(0, pausedFor()));
+    }
+}
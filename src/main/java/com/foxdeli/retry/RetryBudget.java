@@ -0,0 +1,44 @@
+package com.foxdeli.retry;
+
+/**
+ * The retry budget shared by all calls of a client. Every call deposits `budgetRatio` retries, every retry withdraws
+ * one. The balance is capped, so the budget only reflects recent traffic and a long healthy period does not allow
+ * a retry storm later.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double cap;
+    private double balance;
+
+    /**
+     * Creates a new full retry budget for the given policy.
+     *
+     * @param policy The retry policy of the client.
+     */
+    public RetryBudget(RetryPolicy policy) {
+        this.ratio = policy.budgetRatio();
+        this.cap = policy.minBudget() + policy.budgetRatio() * 100;
+        this.balance = policy.minBudget();
+    }
+
+    /**
+     * Deposits the share of a new call.
+     */
+    public synchronized void deposit() {
+        balance = Math.min(cap, balance + ratio);
+    }
+
+    /**
+     * Withdraws one retry from the budget.
+     *
+     * @return `true` if the retry is allowed, `false` if the budget is exhausted.
+     */
+    public synchronized boolean tryWithdraw() {
+        if (balance < 1) {
+            return false;
+        }
+        balance -= 1;
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+package com.foxdeli.retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the retries performed by a client.
+ */
+public class RetryMetrics {
+
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhaustedBudget = new LongAdder();
+    private final LongAdder backoffNanos = new LongAdder();
+
+    /**
+     * Returns the number of retried attempts.
+     *
+     * @return The number of retries.
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * Returns the number of retries skipped because the retry budget was exhausted.
+     *
+     * @return The number of calls that failed without a retry due to the retry budget.
+     */
+    public long getExhaustedBudget() {
+        return exhaustedBudget.sum();
+    }
+
+    /**
+     * Returns the total time spent waiting between attempts.
+     *
+     * @return The total backoff time.
+     */
+    public Duration getBackoffTime() {
+        return Duration.ofNanos(backoffNanos.sum());
+    }
+
+    /**
+     * Records a retry. Called by the `RetryInterceptor`.
+     *
+     * @param backoff The delay before the retry in nanoseconds.
+     */
+    public void recordRetry(long backoff) {
+        retries.increment();
+        backoffNanos.add(backoff);
+    }
+
+    /**
+     * Records a retry skipped due to the retry budget. Called by the `RetryInterceptor`.
+     */
+    public void recordExhaustedBudget() {
+        exhaustedBudget.increment();
+    }
+}
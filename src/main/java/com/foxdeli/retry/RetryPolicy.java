@@ -0,0 +1,58 @@
+package com.foxdeli.retry;
+
+import com.foxdeli.exception.FoxdeliException;
+import lombok.Builder;
+
+import java.time.Duration;
+
+/**
+ * Configuration of automatic retries of failed API calls.
+ * <p>
+ * GET, PUT and DELETE requests, and POST and PATCH requests carrying an `Idempotency-Key` header, are retried on I/O
+ * errors and on 429, 502, 503 and 504 responses. The SDK never sets `Idempotency-Key`, so its own POST and PATCH calls
+ * are not retried unless an interceptor of the `OkHttpClient` passed in `HttpClientConfig` adds the header.
+ * <p>
+ * Delays follow the decorrelated jitter strategy: every delay is drawn at random between `baseDelay` and three times
+ * the previous delay, capped at `maxDelay`. A longer `Retry-After` is honoured up to `maxDelay`.
+ * <p>
+ * Retries are limited by a budget shared by all calls of a client, so they cannot multiply the load during an outage:
+ * every call earns `budgetRatio` retries, and the budget never exceeds `minBudget` plus what recent calls earned.
+ *
+ * @param maxRetries  The maximum number of retries of a single call; 0 disables retries. Defaults to 3.
+ * @param baseDelay   The minimum delay between attempts. Defaults to 100 ms.
+ * @param maxDelay    The maximum delay between attempts. Defaults to 5 s.
+ * @param budgetRatio The number of retries every call adds to the retry budget. Defaults to 0.1.
+ * @param minBudget   The number of retries available regardless of the number of calls. Defaults to 10.
+ */
+@Builder
+public record RetryPolicy(
+        Integer maxRetries,
+        Duration baseDelay,
+        Duration maxDelay,
+        Double budgetRatio,
+        Integer minBudget
+) {
+
+    public RetryPolicy {
+        maxRetries = maxRetries == null ? 3 : maxRetries;
+        baseDelay = baseDelay == null ? Duration.ofMillis(100) : baseDelay;
+        maxDelay = maxDelay == null ? Duration.ofSeconds(5) : maxDelay;
+        budgetRatio = budgetRatio == null ? 0.1 : budgetRatio;
+        minBudget = minBudget == null ? 10 : minBudget;
+        if (maxRetries < 0 || budgetRatio < 0 || minBudget < 0) {
+            throw new FoxdeliException("Retry policy limits cannot be negative");
+        }
+        if (maxDelay.compareTo(baseDelay) < 0) {
+            throw new FoxdeliException("MaxDelay cannot be shorter than baseDelay");
+        }
+    }
+
+    /**
+     * Returns the retry policy with all defaults.
+     *
+     * @return The default retry policy.
+     */
+    public static RetryPolicy defaults() {
+        return RetryPolicy.builder().build();
+    }
+}
@@ -0,0 +1,320 @@
+package com.foxdeli.store;
+
+import com.foxdeli.exception.FoxdeliException;
+import com.foxdeli.model.response.Parcel;
+import com.foxdeli.orders.api.model.Carrier;
+import com.foxdeli.orders.api.model.DeliveryState;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * The `ParcelIndex` class keeps parcels indexed by delivery state, carrier, tracking number and reference ID of the
+ * active tracking. Pass it to `FoxdeliClient.builder().parcelIndex()`, and the client updates it with every parcel it
+ * maps from an API response, and removes parcels it deletes or whose state it changes without reading them back.
+ * <p>
+ * Lookups take O(1) to find the matching parcels and O(k) to return k of them. All indexes are concurrent maps, so
+ * readers never block writers or each other. Updates of one parcel are serialized; a lookup concurrent with an update
+ * returns the parcel either before or after the update, but never under a key it no longer has.
+ * <p>
+ * The index holds at most `maxParcels` parcels, regardless of the client's cache. Once it is full, adding a parcel
+ * evicts the least recently written ones. The parcels are spread over independently locked segments for that, as in
+ * `FoxdeliCache`, so the bound is kept per segment and a segment may evict while others still have room.
+ */
+public class ParcelIndex {
+
+    private static final int SEGMENTS = 16;
+    private static final int DEFAULT_MAX_PARCELS = 100_000;
+
+    private final ConcurrentHashMap<UUID, Parcel> parcels = new ConcurrentHashMap<>();
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final Index<DeliveryState> byDelivery = new Index<>(parcel ->
+            parcel.state() == null ? null : parcel.state().delivery());
+    private final Index<Carrier> byCarrier = new Index<>(parcel ->
+            parcel.activeTracking() == null ? null : parcel.activeTracking().carrier());
+    private final Index<String> byTrackingNumber = new Index<>(parcel ->
+            parcel.activeTracking() == null ? null : parcel.activeTracking().number());
+    private final Index<String> byReferenceId = new Index<>(parcel ->
+            parcel.activeTracking() == null ? null : parcel.activeTracking().referenceId());
+
+    /**
+     * Creates an empty index holding at most 100 000 parcels.
+     */
+    public ParcelIndex() {
+        this(DEFAULT_MAX_PARCELS);
+    }
+
+    /**
+     * Creates an empty index.
+     *
+     * @param maxParcels The maximum number of indexed parcels; must be positive.
+     */
+    public ParcelIndex(int maxParcels) {
+        if (maxParcels <= 0) {
+            throw new FoxdeliException("MaxParcels must be positive");
+        }
+        int segmentParcels = Math.max(1, maxParcels / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentParcels);
+        }
+    }
+
+    /**
+     * Adds a parcel, or replaces the indexed parcel with the same ID. If the index is full, the least recently written
+     * parcels are evicted.
+     *
+     * @param parcel The parcel, with a parcel ID.
+     */
+    public void put(Parcel parcel) {
+        UUID parcelId = Objects.requireNonNull(parcel.parcelId(), "parcelId");
+        List<UUID> evicted = new ArrayList<>(0);
+        parcels.compute(parcelId, (id, previous) -> {
+            update(id, previous, parcel);
+            segment(id).written(id, evicted);
+            return parcel;
+        });
+        for (UUID evictedId : evicted) {
+            evict(evictedId);
+        }
+    }
+
+    /**
+     * Removes a parcel.
+     *
+     * @param parcelId The ID of the parcel.
+     */
+    public void remove(UUID parcelId) {
+        parcels.computeIfPresent(parcelId, (id, previous) -> {
+            update(id, previous, null);
+            segment(id).remove(id);
+            return null;
+        });
+    }
+
+    /**
+     * Removes all parcels.
+     */
+    public void clear() {
+        for (UUID parcelId : parcels.keySet()) {
+            remove(parcelId);
+        }
+    }
+
+    /**
+     * @param parcelId The ID of the parcel.
+     * @return The indexed parcel, or `null`.
+     */
+    public Parcel get(UUID parcelId) {
+        return parcels.get(parcelId);
+    }
+
+    public int size() {
+        return parcels.size();
+    }
+
+    /**
+     * @param delivery The delivery state.
+     * @return The parcels in the delivery state.
+     */
+    public List<Parcel> findByDelivery(DeliveryState delivery) {
+        return byDelivery.find(delivery);
+    }
+
+    /**
+     * @param carrier The carrier.
+     * @return The parcels whose active tracking is with the carrier.
+     */
+    public List<Parcel> findByCarrier(Carrier carrier) {
+        return byCarrier.find(carrier);
+    }
+
+    /**
+     * Finds the parcels of a carrier in a delivery state, iterating the smaller of both indexes.
+     *
+     * @param carrier  The carrier.
+     * @param delivery The delivery state.
+     * @return The parcels whose active tracking is with the carrier and which are in the delivery state.
+     */
+    public List<Parcel> find(Carrier carrier, DeliveryState delivery) {
+        Set<UUID> withCarrier = byCarrier.ids(carrier);
+        Set<UUID> inDelivery = byDelivery.ids(delivery);
+        if (withCarrier == null || inDelivery == null) {
+            return List.of();
+        }
+        boolean carrierFirst = withCarrier.size() <= inDelivery.size();
+        List<Parcel> found = new ArrayList<>();
+        for (UUID parcelId : carrierFirst ? withCarrier : inDelivery) {
+            Parcel parcel = parcels.get(parcelId);
+            if (parcel != null && byCarrier.matches(parcel, carrier) && byDelivery.matches(parcel, delivery)) {
+                found.add(parcel);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @param number The tracking number.
+     * @return The parcels whose active tracking has the number, usually one.
+     */
+    public List<Parcel> findByTrackingNumber(String number) {
+        return byTrackingNumber.find(number);
+    }
+
+    /**
+     * @param referenceId The reference ID.
+     * @return The parcels whose active tracking has the reference ID, usually one.
+     */
+    public List<Parcel> findByReferenceId(String referenceId) {
+        return byReferenceId.find(referenceId);
+    }
+
+    /**
+     * Removes a parcel its segment evicted, unless it was written again since.
+     */
+    private void evict(UUID parcelId) {
+        parcels.computeIfPresent(parcelId, (id, previous) -> {
+            if (segment(id).contains(id)) {
+                return previous;
+            }
+            update(id, previous, null);
+            return null;
+        });
+    }
+
+    private Segment segment(UUID parcelId) {
+        int hash = parcelId.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Moves a parcel between the keys of every index. The parcel is added under its new keys before it is removed
+     * from the old ones, so lookups never miss it while it is updated.
+     */
+    private void update(UUID parcelId, Parcel previous, Parcel current) {
+        byDelivery.update(parcelId, previous, current);
+        byCarrier.update(parcelId, previous, current);
+        byTrackingNumber.update(parcelId, previous, current);
+        byReferenceId.update(parcelId, previous, current);
+    }
+
+    /**
+     * The IDs of a part of the indexed parcels in the order they were written, with its own lock. Segments are only
+     * changed while the parcel's entry in `parcels` is locked, so a parcel is in its segment if and only if it is
+     * indexed, except for evicted parcels about to be removed.
+     */
+    private static final class Segment {
+
+        private final int maxParcels;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashSet<UUID> parcelIds = new LinkedHashSet<>();
+
+        private Segment(int maxParcels) {
+            this.maxParcels = maxParcels;
+        }
+
+        /**
+         * Moves the parcel to the end of the write order, and takes the least recently written parcels out of the
+         * segment while it exceeds its limit.
+         */
+        private void written(UUID parcelId, List<UUID> evicted) {
+            lock.lock();
+            try {
+                parcelIds.remove(parcelId);
+                parcelIds.add(parcelId);
+                Iterator<UUID> eldest = parcelIds.iterator();
+                while (parcelIds.size() > maxParcels) {
+                    evicted.add(eldest.next());
+                    eldest.remove();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(UUID parcelId) {
+            lock.lock();
+            try {
+                parcelIds.remove(parcelId);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean contains(UUID parcelId) {
+            lock.lock();
+            try {
+                return parcelIds.contains(parcelId);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * An index of parcel IDs by a single key. Sets are removed once empty, so unique keys like tracking numbers do
+     * not accumulate.
+     */
+    private final class Index<K> {
+
+        private final ConcurrentHashMap<K, Set<UUID>> ids = new ConcurrentHashMap<>();
+        private final Function<Parcel, K> key;
+
+        private Index(Function<Parcel, K> key) {
+            this.key = key;
+        }
+
+        private void update(UUID parcelId, Parcel previous, Parcel current) {
+            K previousKey = previous == null ? null : key.apply(previous);
+            K currentKey = current == null ? null : key.apply(current);
+            if (Objects.equals(previousKey, currentKey)) {
+                return;
+            }
+            if (currentKey != null) {
+                ids.compute(currentKey, (k, set) -> {
+                    Set<UUID> updated = set == null ? ConcurrentHashMap.newKeySet() : set;
+                    updated.add(parcelId);
+                    return updated;
+                });
+            }
+            if (previousKey != null) {
+                ids.computeIfPresent(previousKey, (k, set) -> {
+                    set.remove(parcelId);
+                    return set.isEmpty() ? null : set;
+                });
+            }
+        }
+
+        private Set<UUID> ids(K value) {
+            return value == null ? null : ids.get(value);
+        }
+
+        private boolean matches(Parcel parcel, K value) {
+            return value.equals(key.apply(parcel));
+        }
+
+        private List<Parcel> find(K value) {
+            Collection<UUID> found = ids(value);
+            if (found == null) {
+                return List.of();
+            }
+            List<Parcel> result = new ArrayList<>(found.size());
+            for (UUID parcelId : found) {
+                Parcel parcel = parcels.get(parcelId);
+                // Skip parcels moved to another key since the set was read.
+                if (parcel != null && matches(parcel, value)) {
+                    result.add(parcel);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.foxdeli.store;
+
+import com.foxdeli.exception.FoxdeliException;
+import com.foxdeli.model.common.DeliveryWindow;
+import com.foxdeli.model.common.ParcelState;
+import com.foxdeli.model.common.ParcelTracking;
+import com.foxdeli.model.response.Parcel;
+import lombok.Builder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * The `ParcelStore` class holds a large working set of parcels in a compact, columnar form. Every field is held in a
+ * primitive array indexed by row: UUIDs as two longs, enums as ordinals in byte arrays, booleans as bits and instants
+ * as epoch milliseconds. Tracking URLs are interned, so parcels of the same carrier share them. Rows are indexed by
+ * parcel ID in an open-addressing hash map. A parcel takes 78 bytes in the columns and 35 to 70 bytes in the index,
+ * depending on how full its table is, plus its tracking number and reference ID; that is less than a quarter of a
+ * `Parcel` with its state, tracking and instants, before counting its timeline. Columns grow by half when full;
+ * creating the store with the expected `initialCapacity` avoids that slack.
+ * <p>
+ * The store holds the parcel and order IDs, the state, the tracking state, the maximum store date, the delivery
+ * window, the carrier, number, URL and reference ID of the active tracking, and the carrier tracking URL. Dimensions,
+ * timeline and products are not held, and instants are truncated to milliseconds.
+ * <p>
+ * Parcels are read into a reusable `ParcelView` without allocating. The store is thread-safe: writes are exclusive,
+ * reads are shared.
+ */
+public class ParcelStore {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+    private static final int DEFAULT_MAX_INTERNED_STRINGS = 4096;
+
+    private final StampedLock lock = new StampedLock();
+    private final UuidIndex index;
+    private final Map<String, String> interned = new HashMap<>();
+    private final int maxInternedStrings;
+    private int size;
+
+    private long[] parcelMost;
+    private long[] parcelLeast;
+    private long[] orderMost;
+    private long[] orderLeast;
+    private byte[] delivery;
+    private byte[] important;
+    private byte[] urgent;
+    private byte[] trackingState;
+    private byte[] carrier;
+    private byte[] flags;
+    private long[] maxStoreDate;
+    private long[] windowFrom;
+    private long[] windowTo;
+    private String[] trackingNumber;
+    private String[] trackingUrl;
+    private String[] referenceId;
+    private String[] carrierTrackingUrl;
+
+    /**
+     * Creates a new `ParcelStore`. Use `ParcelStore.builder()` to create instances.
+     *
+     * @param initialCapacity    The number of parcels the store holds before growing. Defaults to 1024; set it to the
+     *                           expected working set to avoid copying while the store fills.
+     * @param maxInternedStrings The maximum number of distinct URLs shared between parcels. URLs beyond the limit are
+     *                           held as is. Defaults to 4096.
+     * @throws FoxdeliException If a limit is negative.
+     */
+    @Builder
+    private ParcelStore(Integer initialCapacity, Integer maxInternedStrings) {
+        if ((initialCapacity != null && initialCapacity < 0) || (maxInternedStrings != null && maxInternedStrings < 0)) {
+            throw new FoxdeliException("InitialCapacity and maxInternedStrings must not be negative");
+        }
+        int capacity = Math.max(16, initialCapacity == null ? DEFAULT_INITIAL_CAPACITY : initialCapacity);
+        this.maxInternedStrings = maxInternedStrings == null ? DEFAULT_MAX_INTERNED_STRINGS : maxInternedStrings;
+        this.index = new UuidIndex(capacity);
+        resize(capacity);
+    }
+
+    /**
+     * Adds a parcel, or replaces the held parcel with the same ID.
+     *
+     * @param parcel The parcel, with a parcel ID.
+     */
+    public void put(Parcel parcel) {
+        UUID parcelId = Objects.requireNonNull(parcel.parcelId(), "parcelId");
+        long stamp = lock.writeLock();
+        try {
+            long most = parcelId.getMostSignificantBits();
+            long least = parcelId.getLeastSignificantBits();
+            int row = index.get(most, least);
+            if (row < 0) {
+                if (size == flags.length) {
+                    resize(size + (size >> 1));
+                }
+                row = size++;
+                index.put(most, least, row);
+            }
+            write(row, parcel);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes a parcel.
+     *
+     * @param parcelId The ID of the parcel.
+     * @return `true` if the parcel was held.
+     */
+    public boolean remove(UUID parcelId) {
+        long stamp = lock.writeLock();
+        try {
+            int row = index.remove(parcelId.getMostSignificantBits(), parcelId.getLeastSignificantBits());
+            if (row < 0) {
+                return false;
+            }
+            int last = --size;
+            if (row != last) {
+                // Keep the rows dense by moving the last row into the gap.
+                move(last, row);
+                index.put(parcelMost[row], parcelLeast[row], row);
+            }
+            trackingNumber[last] = null;
+            trackingUrl[last] = null;
+            referenceId[last] = null;
+            carrierTrackingUrl[last] = null;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Reads a parcel into a view.
+     *
+     * @param parcelId The ID of the parcel.
+     * @param view     The view to fill.
+     * @return `true` if the parcel is held and the view was filled, `false` if the view was left unchanged.
+     */
+    public boolean read(UUID parcelId, ParcelView view) {
+        return read(parcelId.getMostSignificantBits(), parcelId.getLeastSignificantBits(), view);
+    }
+
+    /**
+     * Reads a parcel into a view without a `UUID` instance.
+     *
+     * @param parcelIdMostBits  The most significant bits of the parcel ID.
+     * @param parcelIdLeastBits The least significant bits of the parcel ID.
+     * @param view              The view to fill.
+     * @return `true` if the parcel is held and the view was filled, `false` if the view was left unchanged.
+     */
+    public boolean read(long parcelIdMostBits, long parcelIdLeastBits, ParcelView view) {
+        long stamp = lock.readLock();
+        try {
+            int row = index.get(parcelIdMostBits, parcelIdLeastBits);
+            if (row < 0) {
+                return false;
+            }
+            fill(row, view);
+            return true;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns a parcel as a new `Parcel`. Prefer `read()` on hot paths, as this allocates the parcel and its parts.
+     *
+     * @param parcelId The ID of the parcel.
+     * @return The parcel with the fields held by the store, or `null` if it is not held.
+     * @see ParcelView#toParcel()
+     */
+    public Parcel get(UUID parcelId) {
+        ParcelView view = new ParcelView();
+        return read(parcelId, view) ? view.toParcel() : null;
+    }
+
+    public boolean contains(UUID parcelId) {
+        long stamp = lock.readLock();
+        try {
+            return index.get(parcelId.getMostSignificantBits(), parcelId.getLeastSignificantBits()) >= 0;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Reads every held parcel into the view and passes it to the action. Writers wait until the iteration completes,
+     * and the action must not modify the store.
+     *
+     * @param view   The view to fill.
+     * @param action The action, called with the view once per parcel.
+     */
+    public void forEach(ParcelView view, Consumer<? super ParcelView> action) {
+        long stamp = lock.readLock();
+        try {
+            for (int row = 0; row < size; row++) {
+                fill(row, view);
+                action.accept(view);
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Removes all parcels, keeping the allocated capacity.
+     */
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            index.clear();
+            Arrays.fill(trackingNumber, 0, size, null);
+            Arrays.fill(trackingUrl, 0, size, null);
+            Arrays.fill(referenceId, 0, size, null);
+            Arrays.fill(carrierTrackingUrl, 0, size, null);
+            interned.clear();
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void write(int row, Parcel parcel) {
+        int rowFlags = 0;
+        parcelMost[row] = parcel.parcelId().getMostSignificantBits();
+        parcelLeast[row] = parcel.parcelId().getLeastSignificantBits();
+        if (parcel.orderId() != null) {
+            orderMost[row] = parcel.orderId().getMostSignificantBits();
+            orderLeast[row] = parcel.orderId().getLeastSignificantBits();
+            rowFlags |= ParcelView.HAS_ORDER;
+        } else {
+            orderMost[row] = 0;
+            orderLeast[row] = 0;
+        }
+        ParcelState state = parcel.state();
+        if (state != null) {
+            delivery[row] = ParcelView.encode(state.delivery());
+            important[row] = ParcelView.encode(state.important());
+            urgent[row] = ParcelView.encode(state.urgent());
+            rowFlags |= ParcelView.HAS_STATE
+                    | ParcelView.encode(state.deliverToday()) << ParcelView.DELIVER_TODAY_SHIFT
+                    | ParcelView.encode(state.returning()) << ParcelView.RETURNING_SHIFT;
+        } else {
+            delivery[row] = 0;
+            important[row] = 0;
+            urgent[row] = 0;
+        }
+        trackingState[row] = ParcelView.encode(parcel.trackingState());
+        maxStoreDate[row] = ParcelView.encode(parcel.maxStoreDate());
+        DeliveryWindow window = parcel.deliveryWindow();
+        if (window != null) {
+            windowFrom[row] = ParcelView.encode(window.from());
+            windowTo[row] = ParcelView.encode(window.to());
+            rowFlags |= ParcelView.HAS_WINDOW;
+        } else {
+            windowFrom[row] = ParcelView.NO_INSTANT;
+            windowTo[row] = ParcelView.NO_INSTANT;
+        }
+        ParcelTracking tracking = parcel.activeTracking();
+        if (tracking != null) {
+            carrier[row] = ParcelView.encode(tracking.carrier());
+            trackingNumber[row] = tracking.number();
+            trackingUrl[row] = intern(tracking.url());
+            referenceId[row] = tracking.referenceId();
+            rowFlags |= ParcelView.HAS_TRACKING;
+        } else {
+            carrier[row] = 0;
+            trackingNumber[row] = null;
+            trackingUrl[row] = null;
+            referenceId[row] = null;
+        }
+        carrierTrackingUrl[row] = intern(parcel.carrierTrackingUrl());
+        flags[row] = (byte) rowFlags;
+    }
+
+    private void fill(int row, ParcelView view) {
+        view.parcelMost = parcelMost[row];
+        view.parcelLeast = parcelLeast[row];
+        view.orderMost = orderMost[row];
+        view.orderLeast = orderLeast[row];
+        view.delivery = delivery[row];
+        view.important = important[row];
+        view.urgent = urgent[row];
+        view.trackingState = trackingState[row];
+        view.carrier = carrier[row];
+        view.flags = flags[row];
+        view.maxStoreDate = maxStoreDate[row];
+        view.windowFrom = windowFrom[row];
+        view.windowTo = windowTo[row];
+        view.trackingNumber = trackingNumber[row];
+        view.trackingUrl = trackingUrl[row];
+        view.referenceId = referenceId[row];
+        view.carrierTrackingUrl = carrierTrackingUrl[row];
+    }
+
+    private void move(int from, int to) {
+        parcelMost[to] = parcelMost[from];
+        parcelLeast[to] = parcelLeast[from];
+        orderMost[to] = orderMost[from];
+        orderLeast[to] = orderLeast[from];
+        delivery[to] = delivery[from];
+        important[to] = important[from];
+        urgent[to] = urgent[from];
+        trackingState[to] = trackingState[from];
+        carrier[to] = carrier[from];
+        flags[to] = flags[from];
+        maxStoreDate[to] = maxStoreDate[from];
+        windowFrom[to] = windowFrom[from];
+        windowTo[to] = windowTo[from];
+        trackingNumber[to] = trackingNumber[from];
+        trackingUrl[to] = trackingUrl[from];
+        referenceId[to] = referenceId[from];
+        carrierTrackingUrl[to] = carrierTrackingUrl[from];
+    }
+
+    /**
+     * Returns the shared instance of a string, sharing it from now on while there is room in the pool.
+     */
+    private String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = interned.get(value);
+        if (shared != null) {
+            return shared;
+        }
+        if (interned.size() < maxInternedStrings) {
+            interned.put(value, value);
+        }
+        return value;
+    }
+
+    private void resize(int capacity) {
+        if (flags == null) {
+            parcelMost = new long[capacity];
+            parcelLeast = new long[capacity];
+            orderMost = new long[capacity];
+            orderLeast = new long[capacity];
+            delivery = new byte[capacity];
+            important = new byte[capacity];
+            urgent = new byte[capacity];
+            trackingState = new byte[capacity];
+            carrier = new byte[capacity];
+            flags = new byte[capacity];
+            maxStoreDate = new long[capacity];
+            windowFrom = new long[capacity];
+            windowTo = new long[capacity];
+            trackingNumber = new String[capacity];
+            trackingUrl = new String[capacity];
+            referenceId = new String[capacity];
+            carrierTrackingUrl = new String[capacity];
+            return;
+        }
+        parcelMost = Arrays.copyOf(parcelMost, capacity);
+        parcelLeast = Arrays.copyOf(parcelLeast, capacity);
+        orderMost = Arrays.copyOf(orderMost, capacity);
+        orderLeast = Arrays.copyOf(orderLeast, capacity);
+        delivery = Arrays.copyOf(delivery, capacity);
+        important = Arrays.copyOf(important, capacity);
+        urgent = Arrays.copyOf(urgent, capacity);
+        trackingState = Arrays.copyOf(trackingState, capacity);
+        carrier = Arrays.copyOf(carrier, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        maxStoreDate = Arrays.copyOf(maxStoreDate, capacity);
+        windowFrom = Arrays.copyOf(windowFrom, capacity);
+        windowTo = Arrays.copyOf(windowTo, capacity);
+        trackingNumber = Arrays.copyOf(trackingNumber, capacity);
+        trackingUrl = Arrays.copyOf(trackingUrl, capacity);
+        referenceId = Arrays.copyOf(referenceId, capacity);
+        carrierTrackingUrl = Arrays.copyOf(carrierTrackingUrl, capacity);
+    }
+}
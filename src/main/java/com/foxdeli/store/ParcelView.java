@@ -0,0 +1,252 @@
+package com.foxdeli.store;
+
+import com.foxdeli.exception.FoxdeliException;
+import com.foxdeli.model.common.DeliveryWindow;
+import com.foxdeli.model.common.ParcelState;
+import com.foxdeli.model.common.ParcelTracking;
+import com.foxdeli.model.response.Parcel;
+import com.foxdeli.orders.api.model.Carrier;
+import com.foxdeli.orders.api.model.DeliveryState;
+import com.foxdeli.orders.api.model.ImportantState;
+import com.foxdeli.orders.api.model.TrackingState;
+import com.foxdeli.orders.api.model.UrgentState;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The `ParcelView` class is a reusable, mutable view of a single parcel held by a `ParcelStore`. The store copies a
+ * parcel's primitive fields into the view, so reading a parcel allocates nothing and the view stays consistent after
+ * the store changes. Keep one view per thread and pass it to `ParcelStore.read()` or `ParcelStore.forEach()` again
+ * and again.
+ * <p>
+ * The accessors returning primitives, enums, booleans and strings do not allocate. Those returning `UUID`, `Instant`
+ * or `Parcel` create new objects. A view is not thread-safe.
+ */
+public final class ParcelView {
+
+    /**
+     * The epoch milliseconds reported for a missing instant.
+     */
+    public static final long NO_INSTANT = Long.MIN_VALUE;
+
+    static final byte DELIVER_TODAY_SHIFT = 0;
+    static final byte RETURNING_SHIFT = 2;
+    static final byte HAS_ORDER = 1 << 4;
+    static final byte HAS_STATE = 1 << 5;
+    static final byte HAS_TRACKING = 1 << 6;
+    static final byte HAS_WINDOW = (byte) (1 << 7);
+
+    private static final DeliveryState[] DELIVERY_STATES = DeliveryState.values();
+    private static final ImportantState[] IMPORTANT_STATES = ImportantState.values();
+    private static final UrgentState[] URGENT_STATES = UrgentState.values();
+    private static final TrackingState[] TRACKING_STATES = TrackingState.values();
+    private static final Carrier[] CARRIERS = Carrier.values();
+
+    long parcelMost;
+    long parcelLeast;
+    long orderMost;
+    long orderLeast;
+    byte delivery;
+    byte important;
+    byte urgent;
+    byte trackingState;
+    byte carrier;
+    byte flags;
+    long maxStoreDate;
+    long windowFrom;
+    long windowTo;
+    String trackingNumber;
+    String trackingUrl;
+    String referenceId;
+    String carrierTrackingUrl;
+
+    public long parcelIdMostBits() {
+        return parcelMost;
+    }
+
+    public long parcelIdLeastBits() {
+        return parcelLeast;
+    }
+
+    /**
+     * @return A new `UUID` of the parcel.
+     */
+    public UUID parcelId() {
+        return new UUID(parcelMost, parcelLeast);
+    }
+
+    public boolean hasOrderId() {
+        return (flags & HAS_ORDER) != 0;
+    }
+
+    public long orderIdMostBits() {
+        return orderMost;
+    }
+
+    public long orderIdLeastBits() {
+        return orderLeast;
+    }
+
+    /**
+     * @return A new `UUID` of the parcel's order, or `null` if the parcel has none.
+     */
+    public UUID orderId() {
+        return hasOrderId() ? new UUID(orderMost, orderLeast) : null;
+    }
+
+    public DeliveryState delivery() {
+        return decode(DELIVERY_STATES, delivery);
+    }
+
+    public ImportantState important() {
+        return decode(IMPORTANT_STATES, important);
+    }
+
+    public UrgentState urgent() {
+        return decode(URGENT_STATES, urgent);
+    }
+
+    public Boolean deliverToday() {
+        return decode(flags >> DELIVER_TODAY_SHIFT);
+    }
+
+    public Boolean returning() {
+        return decode(flags >> RETURNING_SHIFT);
+    }
+
+    public TrackingState trackingState() {
+        return decode(TRACKING_STATES, trackingState);
+    }
+
+    /**
+     * @return The carrier of the active tracking, or `null` if the parcel has none.
+     */
+    public Carrier carrier() {
+        return decode(CARRIERS, carrier);
+    }
+
+    /**
+     * @return The number of the active tracking, or `null` if the parcel has none.
+     */
+    public String trackingNumber() {
+        return trackingNumber;
+    }
+
+    /**
+     * @return The URL of the active tracking, or `null` if the parcel has none.
+     */
+    public String trackingUrl() {
+        return trackingUrl;
+    }
+
+    /**
+     * @return The reference ID of the active tracking, or `null` if the parcel has none.
+     */
+    public String referenceId() {
+        return referenceId;
+    }
+
+    public String carrierTrackingUrl() {
+        return carrierTrackingUrl;
+    }
+
+    /**
+     * @return The maximum store date in epoch milliseconds, or `NO_INSTANT`.
+     */
+    public long maxStoreDateMillis() {
+        return maxStoreDate;
+    }
+
+    /**
+     * @return The start of the delivery window in epoch milliseconds, or `NO_INSTANT`.
+     */
+    public long deliveryWindowFromMillis() {
+        return windowFrom;
+    }
+
+    /**
+     * @return The end of the delivery window in epoch milliseconds, or `NO_INSTANT`.
+     */
+    public long deliveryWindowToMillis() {
+        return windowTo;
+    }
+
+    /**
+     * @return A new `Instant` of the maximum store date, or `null`.
+     */
+    public Instant maxStoreDate() {
+        return instant(maxStoreDate);
+    }
+
+    /**
+     * Creates a `Parcel` with the fields held by the store. Dimensions, timeline, products and the tracking's ID,
+     * carrier configuration and courier phone are not held and stay `null`.
+     *
+     * @return A new `Parcel`.
+     */
+    public Parcel toParcel() {
+        return Parcel.builder()
+                .parcelId(parcelId())
+                .orderId(orderId())
+                .state((flags & HAS_STATE) == 0 ? null : ParcelState.builder()
+                        .delivery(delivery())
+                        .important(important())
+                        .urgent(urgent())
+                        .deliverToday(deliverToday())
+                        .returning(returning())
+                        .build())
+                .trackingState(trackingState())
+                .maxStoreDate(maxStoreDate())
+                .deliveryWindow((flags & HAS_WINDOW) == 0 ? null
+                        : new DeliveryWindow(instant(windowFrom), instant(windowTo)))
+                .activeTracking((flags & HAS_TRACKING) == 0 ? null : ParcelTracking.builder()
+                        .carrier(carrier())
+                        .number(trackingNumber)
+                        .url(trackingUrl)
+                        .referenceId(referenceId)
+                        .build())
+                .carrierTrackingUrl(carrierTrackingUrl)
+                .build();
+    }
+
+    /**
+     * Encodes an enum constant as its ordinal plus one, leaving 0 for `null`.
+     */
+    static byte encode(Enum<?> value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value.ordinal() >= 255) {
+            throw new FoxdeliException("Too many constants in " + value.getDeclaringClass().getSimpleName());
+        }
+        return (byte) (value.ordinal() + 1);
+    }
+
+    /**
+     * Encodes a `Boolean` as two bits: 0 for `null`, 1 for `false` and 2 for `true`.
+     */
+    static int encode(Boolean value) {
+        return value == null ? 0 : value ? 2 : 1;
+    }
+
+    static long encode(Instant value) {
+        return value == null ? NO_INSTANT : value.toEpochMilli();
+    }
+
+    private static <E extends Enum<E>> E decode(E[] values, byte code) {
+        return code == 0 ? null : values[(code & 0xFF) - 1];
+    }
+
+    private static Boolean decode(int bits) {
+        return switch (bits & 0b11) {
+            case 1 -> Boolean.FALSE;
+            case 2 -> Boolean.TRUE;
+            default -> null;
+        };
+    }
+
+    private static Instant instant(long millis) {
+        return millis == NO_INSTANT ? null : Instant.ofEpochMilli(millis);
+    }
+}
@@ -0,0 +1,135 @@
+package com.foxdeli.store;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from UUIDs, held as two longs, to non-negative ints. Collisions are resolved by linear
+ * probing, and removals shift the following entries back instead of leaving tombstones, so lookups never degrade.
+ * Nothing is allocated per entry. Not thread-safe.
+ */
+final class UuidIndex {
+
+    private static final int EMPTY = -1;
+    private static final double MAX_LOAD = 0.6;
+
+    private long[] mostBits;
+    private long[] leastBits;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    UuidIndex(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    /**
+     * Returns the value of the key, or -1 if the key is not present.
+     */
+    int get(long most, long least) {
+        for (int i = slot(most, least); ; i = (i + 1) & mask) {
+            int value = values[i];
+            if (value == EMPTY || (mostBits[i] == most && leastBits[i] == least)) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Sets the value of the key, adding the key if it is not present.
+     */
+    void put(long most, long least, int value) {
+        if (size + 1 > values.length * MAX_LOAD) {
+            rehash(values.length * 2);
+        }
+        int i = slot(most, least);
+        while (values[i] != EMPTY && (mostBits[i] != most || leastBits[i] != least)) {
+            i = (i + 1) & mask;
+        }
+        if (values[i] == EMPTY) {
+            size++;
+            mostBits[i] = most;
+            leastBits[i] = least;
+        }
+        values[i] = value;
+    }
+
+    /**
+     * Removes the key and returns its value, or -1 if the key was not present.
+     */
+    int remove(long most, long least) {
+        int i = slot(most, least);
+        while (values[i] != EMPTY) {
+            if (mostBits[i] == most && leastBits[i] == least) {
+                int value = values[i];
+                shiftBack(i);
+                size--;
+                return value;
+            }
+            i = (i + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(values, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Fills the freed slot with a following entry that probed past it, and repeats for that entry's slot.
+     */
+    private void shiftBack(int free) {
+        int i = free;
+        while (true) {
+            values[free] = EMPTY;
+            int ideal;
+            do {
+                i = (i + 1) & mask;
+                if (values[i] == EMPTY) {
+                    return;
+                }
+                ideal = slot(mostBits[i], leastBits[i]);
+                // Keep the entry in place if its ideal slot lies cyclically within (free, i].
+            } while (free <= i ? free < ideal && ideal <= i : free < ideal || ideal <= i);
+            mostBits[free] = mostBits[i];
+            leastBits[free] = leastBits[i];
+            values[free] = values[i];
+            free = i;
+        }
+    }
+
+    private void rehash(int tableSize) {
+        long[] oldMost = mostBits;
+        long[] oldLeast = leastBits;
+        int[] oldValues = values;
+        allocate(tableSize);
+        size = 0;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != EMPTY) {
+                put(oldMost[i], oldLeast[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int tableSize) {
+        mostBits = new long[tableSize];
+        leastBits = new long[tableSize];
+        values = new int[tableSize];
+        Arrays.fill(values, EMPTY);
+        mask = tableSize - 1;
+    }
+
+    private int slot(long most, long least) {
+        long hash = (most ^ least) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int tableSize(int expectedSize) {
+        int size = Integer.highestOneBit((int) Math.max(16, expectedSize / MAX_LOAD));
+        return size < expectedSize / MAX_LOAD ? size << 1 : size;
+    }
+}
@@ -0,0 +1,60 @@
+package com.foxdeli.tracing;
+
+import okhttp3.EventListener;
+import okhttp3.Interceptor;
+
+/**
+ * The `FoxdeliTracing` interface traces the work of a `FoxdeliClient`: a span for every SDK operation, with child
+ * spans for its HTTP attempts, retry backoffs and token renewals. Implementations bind it to a tracing library,
+ * e.g. `OpenTelemetryTracing`. All methods have defaults tracing nothing, and `NOOP` installs no instrumentation.
+ * <p>
+ * Asynchronous calls are executed on the HTTP client's threads. The parent of their spans is captured when the call is
+ * created, through the event listener factory, and restored by the call interceptor on the executing thread.
+ */
+public interface FoxdeliTracing {
+
+    /**
+     * Tracing recording nothing. Clients without tracing do not install any instrumentation.
+     */
+    FoxdeliTracing NOOP = new FoxdeliTracing() {
+    };
+
+    /**
+     * Starts a span as a child of the current span of the calling thread. The span is not made current.
+     *
+     * @param name The name of the span, e.g. `foxdeli.getOrder`.
+     * @return The started span, to be ended by the caller.
+     */
+    default TraceSpan startSpan(String name) {
+        return TraceSpan.NOOP;
+    }
+
+    /**
+     * Returns the event listener factory of the HTTP client, capturing the current span of the thread creating a call.
+     *
+     * @param delegate The event listener factory the client would use otherwise.
+     * @return The event listener factory to install.
+     */
+    default EventListener.Factory eventListenerFactory(EventListener.Factory delegate) {
+        return delegate;
+    }
+
+    /**
+     * Returns the application interceptor making the span captured when a call was created current while the call
+     * executes. It is installed before all other interceptors.
+     *
+     * @return The interceptor, or `null` if none is needed.
+     */
+    default Interceptor callInterceptor() {
+        return null;
+    }
+
+    /**
+     * Returns the network interceptor tracing every HTTP attempt and propagating the trace context to the API.
+     *
+     * @return The interceptor, or `null` if none is needed.
+     */
+    default Interceptor attemptInterceptor() {
+        return null;
+    }
+}
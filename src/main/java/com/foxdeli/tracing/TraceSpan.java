@@ -0,0 +1,73 @@
+package com.foxdeli.tracing;
+
+/**
+ * A span started by `FoxdeliTracing`. Every started span must be ended exactly once.
+ */
+public interface TraceSpan {
+
+    /**
+     * A span recording nothing.
+     */
+    TraceSpan NOOP = new TraceSpan() {
+    };
+
+    /**
+     * Sets a string attribute of the span.
+     *
+     * @param key   The attribute key.
+     * @param value The attribute value.
+     */
+    default void setAttribute(String key, String value) {
+    }
+
+    /**
+     * Sets a numeric attribute of the span.
+     *
+     * @param key   The attribute key.
+     * @param value The attribute value.
+     */
+    default void setAttribute(String key, long value) {
+    }
+
+    /**
+     * Records the exception the traced work failed with and marks the span as failed.
+     *
+     * @param error The exception.
+     */
+    default void recordError(Throwable error) {
+    }
+
+    /**
+     * Makes the span current on the calling thread until the returned scope is closed, so spans started meanwhile
+     * become its children. The scope must be closed on the same thread.
+     *
+     * @return The scope of the span.
+     */
+    default Scope makeCurrent() {
+        return Scope.NOOP;
+    }
+
+    /**
+     * Ends the span.
+     */
+    default void end() {
+    }
+
+    /**
+     * The scope in which a span is current.
+     */
+    interface Scope extends AutoCloseable {
+
+        /**
+         * A scope changing nothing.
+         */
+        Scope NOOP = () -> {
+        };
+
+        /**
+         * Restores the span that was current before the scope was opened.
+         */
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,151 @@
+package com.foxdeli.tracing.opentelemetry;
+
+import com.foxdeli.tracing.FoxdeliTracing;
+import com.foxdeli.tracing.TraceSpan;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The `OpenTelemetryTracing` class traces a `FoxdeliClient` with OpenTelemetry. OpenTelemetry is an optional
+ * dependency of the SDK; add `io.opentelemetry:opentelemetry-api` to use this class.
+ * <p>
+ * The following spans are created:
+ * <ul>
+ *     <li>`foxdeli.{operation}`, e.g. `foxdeli.getOrder`, for every SDK operation, as a child of the caller's span</li>
+ *     <li>`{method}`, e.g. `GET`, a client span for every HTTP attempt, including retries and repeated requests after
+ *     a token renewal</li>
+ *     <li>`foxdeli.retry` for every backoff before a retry</li>
+ *     <li>`foxdeli.token.renewal` for every token renewal triggered by a rejected request</li>
+ * </ul>
+ * Every HTTP attempt carries the W3C `traceparent` and `tracestate` headers of its span.
+ */
+public class OpenTelemetryTracing implements FoxdeliTracing {
+
+    private static final String INSTRUMENTATION_SCOPE = "com.foxdeli.api-java-sdk";
+    private static final TextMapSetter<Request.Builder> HEADER_SETTER = (request, key, value) -> request.header(key, value);
+
+    private final Tracer tracer;
+
+    /**
+     * The spans current on the threads that created calls not yet executed, keyed by call. Calls created but never
+     * executed are only weakly referenced, so their entries go away with them.
+     */
+    private final Map<Call, Context> parents = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Creates a new `OpenTelemetryTracing` creating spans with a tracer of the given OpenTelemetry instance.
+     *
+     * @param openTelemetry The OpenTelemetry instance, e.g. `GlobalOpenTelemetry.get()`.
+     */
+    public OpenTelemetryTracing(OpenTelemetry openTelemetry) {
+        this.tracer = openTelemetry.getTracer(INSTRUMENTATION_SCOPE);
+    }
+
+    @Override
+    public TraceSpan startSpan(String name) {
+        return new OpenTelemetrySpan(tracer.spanBuilder(name).startSpan());
+    }
+
+    @Override
+    public EventListener.Factory eventListenerFactory(EventListener.Factory delegate) {
+        return call -> {
+            Context parent = Context.current();
+            if (parent != Context.root()) {
+                parents.put(call, parent);
+            }
+            return delegate.create(call);
+        };
+    }
+
+    @Override
+    public Interceptor callInterceptor() {
+        return chain -> {
+            Context parent = parents.remove(chain.call());
+            if (parent == null) {
+                return chain.proceed(chain.request());
+            }
+            try (Scope ignored = parent.makeCurrent()) {
+                return chain.proceed(chain.request());
+            }
+        };
+    }
+
+    @Override
+    public Interceptor attemptInterceptor() {
+        return this::traceAttempt;
+    }
+
+    private Response traceAttempt(Interceptor.Chain chain) throws IOException {
+        Request request = chain.request();
+        Span span = tracer.spanBuilder(request.method())
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute("http.request.method", request.method())
+                .setAttribute("server.address", request.url().host())
+                .setAttribute("server.port", (long) request.url().port())
+                .setAttribute("url.full", request.url().toString())
+                .startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            Request.Builder traced = request.newBuilder();
+            W3CTraceContextPropagator.getInstance().inject(Context.current(), traced, HEADER_SETTER);
+            Response response = chain.proceed(traced.build());
+            span.setAttribute("http.response.status_code", (long) response.code());
+            if (response.code() >= 400) {
+                span.setStatus(StatusCode.ERROR);
+            }
+            return response;
+        } catch (IOException | RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private record OpenTelemetrySpan(Span span) implements TraceSpan {
+
+        @Override
+        public void setAttribute(String key, String value) {
+            span.setAttribute(key, value);
+        }
+
+        @Override
+        public void setAttribute(String key, long value) {
+            span.setAttribute(key, value);
+        }
+
+        @Override
+        public void recordError(Throwable error) {
+            span.recordException(error);
+            span.setStatus(StatusCode.ERROR);
+        }
+
+        @Override
+        public TraceSpan.Scope makeCurrent() {
+            Scope scope = span.makeCurrent();
+            return scope::close;
+        }
+
+        @Override
+        public void end() {
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.foxdeli.tracking;
+
+import com.foxdeli.model.common.ParcelTimeline;
+import com.foxdeli.model.response.Parcel;
+import com.foxdeli.orders.api.model.DeliveryState;
+import com.foxdeli.orders.api.model.TrackingState;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A change of a parcel detected by the `ParcelTracker`. Every change carries the parcel as it was retrieved.
+ */
+public sealed interface ParcelChange {
+
+    /**
+     * Returns the parcel after the change.
+     *
+     * @return The retrieved `Parcel`.
+     */
+    Parcel parcel();
+
+    /**
+     * Returns the unique identifier for the changed parcel.
+     *
+     * @return The parcelId.
+     */
+    default UUID parcelId() {
+        return parcel().parcelId();
+    }
+
+    /**
+     * The delivery state or the tracking state of the parcel changed.
+     *
+     * @param previousDelivery      The previous delivery state.
+     * @param delivery              The current delivery state.
+     * @param previousTrackingState The previous tracking state.
+     * @param trackingState         The current tracking state.
+     * @param parcel                The retrieved `Parcel`.
+     */
+    record StateChanged(
+            DeliveryState previousDelivery,
+            DeliveryState delivery,
+            TrackingState previousTrackingState,
+            TrackingState trackingState,
+            Parcel parcel
+    ) implements ParcelChange {
+    }
+
+    /**
+     * New entries were added to the timeline of the parcel.
+     *
+     * @param entries The new timeline entries, in the order of the timeline.
+     * @param parcel  The retrieved `Parcel`.
+     */
+    record TimelineAdded(
+            List<ParcelTimeline> entries,
+            Parcel parcel
+    ) implements ParcelChange {
+    }
+
+    /**
+     * The carrier tracking number of the active tracking of the parcel changed.
+     *
+     * @param previousNumber The previous tracking number.
+     * @param number         The current tracking number.
+     * @param parcel         The retrieved `Parcel`.
+     */
+    record TrackingNumberChanged(
+            String previousNumber,
+            String number,
+            Parcel parcel
+    ) implements ParcelChange {
+    }
+}
@@ -0,0 +1,17 @@
+package com.foxdeli.tracking;
+
+/**
+ * Receives the changes of parcels watched by a `ParcelTracker`.
+ * Listeners are called on the HTTP client's threads, possibly concurrently for different parcels, and should return
+ * quickly. Changes of one parcel are delivered in order.
+ */
+@FunctionalInterface
+public interface ParcelChangeListener {
+
+    /**
+     * Called for every detected change.
+     *
+     * @param change The change.
+     */
+    void onChange(ParcelChange change);
+}
@@ -0,0 +1,420 @@
+package com.foxdeli.tracking;
+
+import com.foxdeli.FoxdeliClient;
+import com.foxdeli.exception.FoxdeliException;
+import com.foxdeli.helper.ApiCallbackFuture;
+import com.foxdeli.model.common.ParcelState;
+import com.foxdeli.model.common.ParcelTimeline;
+import com.foxdeli.model.response.Parcel;
+import com.foxdeli.orders.api.model.DeliveryState;
+import com.foxdeli.orders.api.model.TrackingState;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The `ParcelTracker` class polls watched parcels and notifies listeners about their changes: state changes, new
+ * timeline entries and new tracking numbers.
+ * <p>
+ * Parcels are polled adaptively. Parcels in an important or urgent state, or delivered today, are polled every
+ * `urgentInterval`; parcels in one of the `terminalStates` every `terminalInterval`; all others every `defaultInterval`.
+ * Intervals are jittered by 10 % to spread the polls. At most `concurrency` polls are in flight.
+ * <p>
+ * The first poll of a parcel records its baseline and reports no change. Every further poll first compares a
+ * fingerprint of the tracked fields, so unchanged parcels are not diffed. Per parcel, only the tracked fields are kept
+ * rather than the parcel itself, and at most `maxParcels` parcels can be watched, which bounds the memory of the tracker.
+ * <p>
+ * Polls go through `FoxdeliClient.getParcelAsync`. With a client `cache`, a parcel is not polled more often than the
+ * cache TTL allows; with `revalidate(true)`, polls of unchanged parcels are answered with 304 Not Modified.
+ * <p>
+ * The tracker runs a daemon thread and should be closed when it is no longer needed.
+ */
+@Slf4j
+public class ParcelTracker implements AutoCloseable {
+
+    private static final Duration DEFAULT_URGENT_INTERVAL = Duration.ofMinutes(1);
+    private static final Duration DEFAULT_INTERVAL = Duration.ofMinutes(15);
+    private static final Duration DEFAULT_TERMINAL_INTERVAL = Duration.ofHours(6);
+    private static final int DEFAULT_CONCURRENCY = 16;
+    private static final int DEFAULT_MAX_PARCELS = 500_000;
+
+    private final FoxdeliClient client;
+    private final long urgentIntervalNanos;
+    private final long defaultIntervalNanos;
+    private final long terminalIntervalNanos;
+    private final Set<DeliveryState> terminalStates;
+    private final int maxParcels;
+
+    private final ConcurrentHashMap<UUID, Watch> watches = new ConcurrentHashMap<>();
+    private final List<ParcelChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final Semaphore inFlight;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition scheduleChanged = lock.newCondition();
+
+    /**
+     * The watches waiting for their next poll, ordered by its time. Guarded by `lock`.
+     */
+    private final PriorityQueue<Watch> schedule = new PriorityQueue<>((a, b) -> Long.compare(a.nextPoll - b.nextPoll, 0));
+
+    /**
+     * Written under `lock`; also read by the poller after waiting for a permit.
+     */
+    private volatile boolean closed;
+    private final Thread poller;
+
+    /**
+     * Creates and starts a new `ParcelTracker`. Use `ParcelTracker.builder()` to create instances.
+     *
+     * @param client           The client used to poll the parcels.
+     * @param urgentInterval   The poll interval of parcels in an important or urgent state, or delivered today.
+     *                         Defaults to 1 minute.
+     * @param defaultInterval  The poll interval of other parcels. Defaults to 15 minutes.
+     * @param terminalInterval The poll interval of parcels in one of the `terminalStates`. Defaults to 6 hours.
+     * @param terminalStates   The delivery states after which a parcel rarely changes, e.g. delivered or returned.
+     *                         Defaults to none.
+     * @param concurrency      The maximum number of polls in flight. Defaults to 16.
+     * @param maxParcels       The maximum number of watched parcels. Defaults to 500 000.
+     * @throws FoxdeliException If the client is missing, or an interval or a limit is not positive.
+     */
+    @Builder
+    private ParcelTracker(FoxdeliClient client, Duration urgentInterval, Duration defaultInterval,
+                          Duration terminalInterval, Set<DeliveryState> terminalStates, Integer concurrency,
+                          Integer maxParcels) {
+        if (client == null) {
+            throw new FoxdeliException("Client cannot be null");
+        }
+        if ((concurrency != null && concurrency < 1) || (maxParcels != null && maxParcels < 1)) {
+            throw new FoxdeliException("Concurrency and maxParcels must be at least 1");
+        }
+        this.client = client;
+        this.urgentIntervalNanos = positive(urgentInterval, DEFAULT_URGENT_INTERVAL);
+        this.defaultIntervalNanos = positive(defaultInterval, DEFAULT_INTERVAL);
+        this.terminalIntervalNanos = positive(terminalInterval, DEFAULT_TERMINAL_INTERVAL);
+        this.terminalStates = terminalStates == null ? Set.of() : Set.copyOf(terminalStates);
+        this.maxParcels = maxParcels == null ? DEFAULT_MAX_PARCELS : maxParcels;
+        this.inFlight = new Semaphore(concurrency == null ? DEFAULT_CONCURRENCY : concurrency);
+        this.poller = new Thread(this::run, "foxdeli-parcel-tracker");
+        this.poller.setDaemon(true);
+        this.poller.start();
+    }
+
+    /**
+     * Starts watching a parcel. Its first poll is scheduled immediately and records its baseline.
+     *
+     * @param orderId  The unique identifier for the order containing the parcel.
+     * @param parcelId The unique identifier for the parcel.
+     * @return `true` if the parcel was not watched yet, `false` otherwise.
+     * @throws FoxdeliException If the tracker is closed or already watches `maxParcels` parcels.
+     */
+    public boolean watch(UUID orderId, UUID parcelId) {
+        if (watches.size() >= maxParcels && !watches.containsKey(parcelId)) {
+            throw new FoxdeliException("Parcel tracker already watches " + maxParcels + " parcels");
+        }
+        Watch watch = new Watch(orderId, parcelId, defaultIntervalNanos);
+        if (watches.putIfAbsent(parcelId, watch) != null) {
+            return false;
+        }
+        watch.nextPoll = System.nanoTime();
+        // Not enqueued either if it was unwatched meanwhile, which is not a failure.
+        if (!enqueue(watch) && closed) {
+            watches.remove(parcelId, watch);
+            throw new FoxdeliException("Parcel tracker is closed");
+        }
+        return true;
+    }
+
+    /**
+     * Stops watching a parcel. A poll already in flight completes without notifying the listeners.
+     *
+     * @param parcelId The unique identifier for the parcel.
+     * @return `true` if the parcel was watched, `false` otherwise.
+     */
+    public boolean unwatch(UUID parcelId) {
+        Watch watch = watches.remove(parcelId);
+        if (watch == null) {
+            return false;
+        }
+        lock.lock();
+        try {
+            // A watch with a poll in flight is not scheduled; it is not enqueued again once marked as removed.
+            watch.removed = true;
+            schedule.remove(watch);
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of watched parcels.
+     *
+     * @return The number of watched parcels.
+     */
+    public int watched() {
+        return watches.size();
+    }
+
+    /**
+     * Registers a listener for the changes of all watched parcels.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(ParcelChangeListener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Removes a registered listener.
+     *
+     * @param listener The listener.
+     */
+    public void removeListener(ParcelChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Stops polling. Polls already in flight complete and notify the listeners.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            schedule.clear();
+            scheduleChanged.signal();
+        } finally {
+            lock.unlock();
+        }
+        // The poller may be waiting for a permit rather than for the schedule.
+        poller.interrupt();
+    }
+
+    /**
+     * The loop of the poller thread: starts the poll of every parcel once it comes due and a permit is available.
+     */
+    private void run() {
+        try {
+            Watch due;
+            while ((due = nextDue()) != null) {
+                inFlight.acquire();
+                if (closed) {
+                    inFlight.release();
+                    return;
+                }
+                poll(due);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Watch nextDue() throws InterruptedException {
+        lock.lock();
+        try {
+            while (!closed) {
+                Watch head = schedule.peek();
+                if (head == null) {
+                    scheduleChanged.await();
+                } else {
+                    long wait = head.nextPoll - System.nanoTime();
+                    if (wait <= 0) {
+                        return schedule.poll();
+                    }
+                    scheduleChanged.awaitNanos(wait);
+                }
+            }
+            schedule.clear();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void poll(Watch watch) {
+        CompletableFuture<Parcel> parcel;
+        try {
+            parcel = client.getParcelAsync(watch.orderId, watch.parcelId);
+        } catch (RuntimeException e) {
+            parcel = CompletableFuture.failedFuture(e);
+        }
+        parcel.whenComplete((polled, e) -> {
+            inFlight.release();
+            try {
+                if (e != null) {
+                    log.debug("Poll of parcel {} failed: {}", watch.parcelId, ApiCallbackFuture.unwrap(e).getMessage());
+                } else if (!watch.removed && polled != null) {
+                    observe(watch, polled);
+                }
+            } catch (RuntimeException observeError) {
+                log.error("Failed to observe polled parcel {}", watch.parcelId, observeError);
+            } finally {
+                // The parcel is polled again even if this poll could not be observed.
+                watch.nextPoll = System.nanoTime() + jitter(watch.intervalNanos);
+                enqueue(watch);
+            }
+        });
+    }
+
+    /**
+     * Compares the polled parcel with the tracked fields of the watch, updates them and notifies the listeners.
+     * Called by one thread at a time per watch, as a watch is not scheduled while its poll is in flight.
+     */
+    private void observe(Watch watch, Parcel parcel) {
+        long fingerprint = fingerprint(parcel);
+        if (watch.observed && fingerprint == watch.fingerprint) {
+            return;
+        }
+        ParcelState state = parcel.state();
+        DeliveryState delivery = state == null ? null : state.delivery();
+        String trackingNumber = parcel.activeTracking() == null ? null : parcel.activeTracking().number();
+        List<ParcelChange> changes = new ArrayList<>(1);
+        List<ParcelTimeline> added = new ArrayList<>(0);
+        long latestTimeline = watch.latestTimeline;
+        if (parcel.timeline() != null) {
+            for (ParcelTimeline entry : parcel.timeline()) {
+                long created = entry.created() == null ? Long.MIN_VALUE : entry.created().toEpochMilli();
+                if (created > watch.latestTimeline) {
+                    added.add(entry);
+                }
+                latestTimeline = Math.max(latestTimeline, created);
+            }
+        }
+        if (watch.observed) {
+            if (delivery != watch.delivery || parcel.trackingState() != watch.trackingState) {
+                changes.add(new ParcelChange.StateChanged(watch.delivery, delivery, watch.trackingState, parcel.trackingState(), parcel));
+            }
+            if (!added.isEmpty()) {
+                changes.add(new ParcelChange.TimelineAdded(List.copyOf(added), parcel));
+            }
+            if (!Objects.equals(trackingNumber, watch.trackingNumber)) {
+                changes.add(new ParcelChange.TrackingNumberChanged(watch.trackingNumber, trackingNumber, parcel));
+            }
+        }
+        watch.observed = true;
+        watch.fingerprint = fingerprint;
+        watch.delivery = delivery;
+        watch.trackingState = parcel.trackingState();
+        watch.trackingNumber = trackingNumber;
+        watch.latestTimeline = latestTimeline;
+        watch.intervalNanos = interval(state);
+        changes.forEach(this::publish);
+    }
+
+    private void publish(ParcelChange change) {
+        for (ParcelChangeListener listener : listeners) {
+            try {
+                listener.onChange(change);
+            } catch (RuntimeException e) {
+                log.error("Parcel change listener failed for parcel {}", change.parcelId(), e);
+            }
+        }
+    }
+
+    private boolean enqueue(Watch watch) {
+        lock.lock();
+        try {
+            if (closed || watch.removed) {
+                return false;
+            }
+            schedule.add(watch);
+            if (schedule.peek() == watch) {
+                scheduleChanged.signal();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long interval(ParcelState state) {
+        if (state == null) {
+            return defaultIntervalNanos;
+        }
+        if (state.delivery() != null && terminalStates.contains(state.delivery())) {
+            return terminalIntervalNanos;
+        }
+        if (state.important() != null || state.urgent() != null || Boolean.TRUE.equals(state.deliverToday())) {
+            return urgentIntervalNanos;
+        }
+        return defaultIntervalNanos;
+    }
+
+    private static long jitter(long intervalNanos) {
+        long spread = intervalNanos / 10;
+        return intervalNanos - spread + ThreadLocalRandom.current().nextLong(2 * spread + 1);
+    }
+
+    /**
+     * Returns a hash of the fields the tracker compares or schedules by.
+     */
+    private static long fingerprint(Parcel parcel) {
+        long hash = 1;
+        ParcelState state = parcel.state();
+        if (state != null) {
+            hash = mix(hash, Objects.hashCode(state.delivery()));
+            hash = mix(hash, Objects.hashCode(state.important()));
+            hash = mix(hash, Objects.hashCode(state.urgent()));
+            hash = mix(hash, Objects.hashCode(state.deliverToday()));
+        }
+        hash = mix(hash, Objects.hashCode(parcel.trackingState()));
+        hash = mix(hash, parcel.activeTracking() == null ? 0 : Objects.hashCode(parcel.activeTracking().number()));
+        List<ParcelTimeline> timeline = parcel.timeline();
+        if (timeline != null && !timeline.isEmpty()) {
+            hash = mix(hash, timeline.size());
+            Instant last = timeline.get(timeline.size() - 1).created();
+            hash = mix(hash, last == null ? 0 : last.toEpochMilli());
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * 0x9E3779B97F4A7C15L;
+    }
+
+    private static long positive(Duration interval, Duration defaultInterval) {
+        if (interval != null && (interval.isNegative() || interval.isZero())) {
+            throw new FoxdeliException("Poll intervals must be positive");
+        }
+        return (interval == null ? defaultInterval : interval).toNanos();
+    }
+
+    /**
+     * A watched parcel with the fields of its last poll.
+     */
+    private static final class Watch {
+
+        private final UUID orderId;
+        private final UUID parcelId;
+        private volatile boolean removed;
+        private long nextPoll;
+        private long intervalNanos;
+        private boolean observed;
+        private long fingerprint;
+        private DeliveryState delivery;
+        private TrackingState trackingState;
+        private String trackingNumber;
+        private long latestTimeline = Long.MIN_VALUE;
+
+        private Watch(UUID orderId, UUID parcelId, long intervalNanos) {
+            this.orderId = orderId;
+            this.parcelId = parcelId;
+            this.intervalNanos = intervalNanos;
+        }
+    }
+}
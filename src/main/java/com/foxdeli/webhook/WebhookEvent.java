@@ -0,0 +1,20 @@
+package com.foxdeli.webhook;
+
+import com.foxdeli.model.response.Order;
+import com.foxdeli.model.response.Parcel;
+
+/**
+ * A change notification received by the `WebhookReceiver`. Exactly one of `order` and `parcel` is set.
+ *
+ * @param id     The unique identifier of the event, or `null` if the notification had none.
+ * @param type   The type of the event as sent by Foxdeli, e.g. `parcel.updated`.
+ * @param order  The changed `Order`, or `null` if the event is about a parcel.
+ * @param parcel The changed `Parcel`, or `null` if the event is about an order.
+ */
+public record WebhookEvent(
+        String id,
+        String type,
+        Order order,
+        Parcel parcel
+) {
+}
@@ -0,0 +1,17 @@
+package com.foxdeli.webhook;
+
+/**
+ * Receives the change notifications accepted by a `WebhookReceiver`.
+ * Listeners are called on the receiver's worker threads, possibly concurrently, after the client's cache was updated.
+ * Duplicate deliveries of an event are not passed to listeners.
+ */
+@FunctionalInterface
+public interface WebhookListener {
+
+    /**
+     * Called for every accepted event.
+     *
+     * @param event The event.
+     */
+    void onEvent(WebhookEvent event);
+}
@@ -0,0 +1,332 @@
+package com.foxdeli.webhook;
+
+import com.foxdeli.FoxdeliClient;
+import com.foxdeli.cache.FoxdeliCache;
+import com.foxdeli.exception.FoxdeliException;
+import com.foxdeli.mapper.OrderMapper;
+import com.foxdeli.mapper.ParcelMapper;
+import com.foxdeli.model.response.Order;
+import com.foxdeli.model.response.Parcel;
+import com.foxdeli.store.ParcelIndex;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.mapstruct.factory.Mappers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The `WebhookReceiver` class is an embeddable HTTP endpoint for Foxdeli change notifications, built on the JDK
+ * `HttpServer`. Every accepted notification is mapped with the `OrderMapper` or `ParcelMapper` and passed to the
+ * registered listeners. The changed order or parcel is dropped from the client's cache and parcel index, so cached
+ * orders and parcels stay fresh without polling. Notifications carry no version of the order or parcel and may be
+ * delayed or arrive out of order, so their data is not written to the cache: it could replace a newer version. The
+ * next retrieval reads the current version from the API and caches and indexes it again.
+ * <p>
+ * Notifications are POSTed as JSON objects with the event `id`, its `type` and the changed order or parcel as `data`.
+ * Events whose type starts with `order` carry an order, events whose type starts with `parcel` carry a parcel.
+ * Events are de-duplicated by their ID for `deduplicationWindow`, so redeliveries are acknowledged but not applied
+ * again. An ID is remembered only once its event was applied: a redelivery arriving while the event is still being
+ * applied is answered with 409 Conflict, so the sender retries it, and a redelivery of an event that failed is
+ * applied again.
+ * <p>
+ * Requests are handled by at most `workers` threads. Once `queueCapacity` requests are waiting, the server's
+ * dispatcher thread handles the next request itself, which stops it from accepting new connections until the
+ * workers catch up.
+ * <p>
+ * With a `secret`, every request must carry it in the `X-Webhook-Secret` header. The receiver listens on the loopback
+ * interface by default; expose it through a reverse proxy terminating TLS.
+ */
+@Slf4j
+public class WebhookReceiver implements AutoCloseable {
+
+    /**
+     * The header carrying the shared secret.
+     */
+    public static final String SECRET_HEADER = "X-Webhook-Secret";
+
+    private static final String DEFAULT_PATH = "/foxdeli/events";
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_WORKERS = 4;
+    private static final int DEFAULT_QUEUE_CAPACITY = 256;
+    private static final int DEFAULT_MAX_EVENT_IDS = 100_000;
+    private static final Duration DEFAULT_DEDUPLICATION_WINDOW = Duration.ofHours(1);
+    private static final int DEFAULT_MAX_BODY_SIZE = 1024 * 1024;
+
+    private static final OrderMapper orderMapper = Mappers.getMapper(OrderMapper.class);
+    private static final ParcelMapper parcelMapper = Mappers.getMapper(ParcelMapper.class);
+
+    private final FoxdeliClient client;
+    private final byte[] secret;
+    private final int maxBodySize;
+    private final FoxdeliCache<String, Boolean> eventIds;
+
+    /**
+     * The IDs of the events being applied.
+     */
+    private final Set<String> applying = ConcurrentHashMap.newKeySet();
+    private final List<WebhookListener> listeners = new CopyOnWriteArrayList<>();
+    private final ThreadPoolExecutor executor;
+    private final HttpServer server;
+
+    /**
+     * Creates and starts a new `WebhookReceiver`. Use `WebhookReceiver.builder()` to create instances.
+     *
+     * @param client              The client whose cache is updated, or `null` to only notify listeners.
+     * @param address             The address to listen on. Defaults to port 8080 of the loopback interface. Port 0
+     *                            picks a free port, see `getAddress()`.
+     * @param path                The path of the endpoint. Defaults to `/foxdeli/events`.
+     * @param workers             The number of threads handling requests. Defaults to 4.
+     * @param queueCapacity       The number of requests waiting for a worker. Defaults to 256.
+     * @param maxEventIds         The maximum number of event IDs remembered for de-duplication. Defaults to 100 000.
+     * @param deduplicationWindow How long an event ID is remembered. Defaults to 1 hour.
+     * @param secret              If set, requests must carry this secret in the `X-Webhook-Secret` header.
+     * @param maxBodySize         The maximum size of a notification in bytes. Defaults to 1 MiB.
+     * @throws FoxdeliException If a limit is not positive or the server cannot be started.
+     */
+    @Builder
+    private WebhookReceiver(FoxdeliClient client, InetSocketAddress address, String path, Integer workers,
+                            Integer queueCapacity, Integer maxEventIds, Duration deduplicationWindow, String secret,
+                            Integer maxBodySize) {
+        if ((workers != null && workers < 1) || (queueCapacity != null && queueCapacity < 1)
+                || (maxEventIds != null && maxEventIds < 1) || (maxBodySize != null && maxBodySize < 1)) {
+            throw new FoxdeliException("Workers, queueCapacity, maxEventIds and maxBodySize must be at least 1");
+        }
+        this.client = client;
+        this.secret = secret == null ? null : secret.getBytes(StandardCharsets.UTF_8);
+        this.maxBodySize = maxBodySize == null ? DEFAULT_MAX_BODY_SIZE : maxBodySize;
+        this.eventIds = new FoxdeliCache<>(maxEventIds == null ? DEFAULT_MAX_EVENT_IDS : maxEventIds,
+                deduplicationWindow == null ? DEFAULT_DEDUPLICATION_WINDOW : deduplicationWindow, id -> 1);
+        int threads = workers == null ? DEFAULT_WORKERS : workers;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity == null ? DEFAULT_QUEUE_CAPACITY : queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "foxdeli-webhook-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            this.server = HttpServer.create(address == null
+                    ? new InetSocketAddress(InetAddress.getLoopbackAddress(), DEFAULT_PORT)
+                    : address, 0);
+        } catch (IOException e) {
+            executor.shutdown();
+            throw new FoxdeliException("Failed to start the webhook receiver: " + e.getMessage());
+        }
+        this.server.createContext(path == null ? DEFAULT_PATH : path, this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    /**
+     * Returns the address the receiver listens on.
+     *
+     * @return The bound address, with the actual port if port 0 was configured.
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Registers a listener for all accepted events.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(WebhookListener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Removes a registered listener.
+     *
+     * @param listener The listener.
+     */
+    public void removeListener(WebhookListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Stops accepting requests, waits up to a second for requests being handled and stops the workers.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Accepts a single notification. Responds 204 once the event is applied or recognized as a duplicate, 409 while the
+     * same event is being applied, and 4xx otherwise if the notification is rejected and should not be redelivered as
+     * is.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405);
+                return;
+            }
+            if (secret != null && !isAuthorized(exchange.getRequestHeaders().getFirst(SECRET_HEADER))) {
+                respond(exchange, 401);
+                return;
+            }
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                respond(exchange, 413);
+                return;
+            }
+            WebhookEvent event;
+            try {
+                event = parse(body);
+            } catch (JsonParseException | IOException | IllegalArgumentException | IllegalStateException e) {
+                log.warn("Rejected webhook notification: {}", e.getMessage());
+                respond(exchange, 400);
+                return;
+            }
+            if (event.id() == null) {
+                apply(event);
+            } else if (!applying.add(event.id())) {
+                log.debug("Webhook event {} is already being applied", event.id());
+                respond(exchange, 409);
+                return;
+            } else {
+                try {
+                    // Checked while holding the event, as the ID is remembered before its delivery lets go of it.
+                    if (eventIds.getIfPresent(event.id()) != null) {
+                        log.debug("Ignoring duplicate webhook event {}", event.id());
+                    } else {
+                        apply(event);
+                        eventIds.put(event.id(), Boolean.TRUE);
+                    }
+                } finally {
+                    applying.remove(event.id());
+                }
+            }
+            respond(exchange, 204);
+        } catch (RuntimeException e) {
+            log.error("Failed to handle webhook notification", e);
+            respond(exchange, 500);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private WebhookEvent parse(byte[] body) throws IOException {
+        JsonObject notification = JsonParser.parseString(new String(body, StandardCharsets.UTF_8)).getAsJsonObject();
+        String id = string(notification.get("id"));
+        String type = string(notification.get("type"));
+        JsonElement data = notification.get("data");
+        if (type == null || data == null || !data.isJsonObject()) {
+            throw new IllegalArgumentException("Notification must have a type and an object as data");
+        }
+        String kind = type.toLowerCase(Locale.ROOT);
+        if (kind.startsWith("parcel")) {
+            Parcel parcel = parcelMapper.map(com.foxdeli.orders.api.model.Parcel.fromJson(data.toString()));
+            return new WebhookEvent(id, type, null, parcel);
+        }
+        if (kind.startsWith("order")) {
+            Order order = orderMapper.map(com.foxdeli.orders.api.model.Order.fromJson(data.toString()));
+            return new WebhookEvent(id, type, order, null);
+        }
+        throw new IllegalArgumentException("Unknown notification type " + type);
+    }
+
+    /**
+     * Drops the changed order or parcel from the client's cache and parcel index and notifies the listeners.
+     */
+    private void apply(WebhookEvent event) {
+        if (client != null) {
+            if (event.order() != null && event.order().orderId() != null) {
+                invalidate(client.getOrderCache(), event.order().orderId());
+                if (event.order().parcels() != null) {
+                    event.order().parcels().forEach(this::invalidate);
+                }
+            }
+            if (event.parcel() != null) {
+                invalidate(event.parcel());
+                // The cached order containing the parcel is stale now.
+                if (event.parcel().orderId() != null) {
+                    invalidate(client.getOrderCache(), event.parcel().orderId());
+                }
+            }
+        }
+        for (WebhookListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                log.error("Webhook listener failed for event {}", event.id(), e);
+            }
+        }
+    }
+
+    private void invalidate(Parcel parcel) {
+        if (parcel.parcelId() == null) {
+            return;
+        }
+        invalidate(client.getParcelCache(), parcel.parcelId());
+        ParcelIndex index = client.getParcelIndex();
+        if (index != null) {
+            index.remove(parcel.parcelId());
+        }
+    }
+
+    private static void invalidate(FoxdeliCache<UUID, ?> cache, UUID id) {
+        if (cache != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    private boolean isAuthorized(String provided) {
+        return provided != null && MessageDigest.isEqual(secret, provided.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the request body.
+     *
+     * @return The body, or `null` if it exceeds `maxBodySize`.
+     */
+    private byte[] readBody(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(maxBodySize + 1);
+        return body.length > maxBodySize ? null : body;
+    }
+
+    private static String string(JsonElement element) {
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+
+    private static void respond(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+}
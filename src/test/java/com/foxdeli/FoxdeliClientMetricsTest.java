@@ -0,0 +1,100 @@
+package com.foxdeli;
+
+import com.foxdeli.config.HttpClientConfig;
+import com.foxdeli.exception.FoxdeliConnectionException;
+import com.foxdeli.metrics.FoxdeliMetrics;
+import com.foxdeli.support.MockApi;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FoxdeliClientMetricsTest {
+
+    @Test
+    void connectionFailureIsRecordedAsFailedCallAndConfiguredListenerKeepsEvents() throws Exception {
+        String accessToken = MockApi.jwt(Instant.now().plus(Duration.ofHours(1)));
+        String refreshToken = MockApi.jwt(Instant.now().plus(Duration.ofDays(1)));
+        List<HttpCall> calls = new CopyOnWriteArrayList<>();
+        List<String> started = new CopyOnWriteArrayList<>();
+        AtomicInteger finished = new AtomicInteger();
+
+        FoxdeliMetrics metrics = new FoxdeliMetrics() {
+            @Override
+            public void recordHttpCall(String method, int status, long durationNanos, Throwable error) {
+                calls.add(new HttpCall(method, status, error));
+            }
+        };
+        EventListener configured = new EventListener() {
+            @Override
+            public void callStart(@NotNull Call call) {
+                started.add(call.request().method());
+            }
+
+            @Override
+            public void callEnd(@NotNull Call call) {
+                finished.incrementAndGet();
+            }
+
+            @Override
+            public void callFailed(@NotNull Call call, @NotNull IOException ioe) {
+                finished.incrementAndGet();
+            }
+        };
+
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(new Dispatcher() {
+                @Override
+                public MockResponse dispatch(RecordedRequest request) {
+                    if (MockApi.isTokenRequest(request)) {
+                        return MockApi.tokenPair(accessToken, refreshToken);
+                    }
+                    return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START);
+                }
+            });
+            OkHttpClient httpClient = MockApi.redirectingClient(server).newBuilder()
+                    .eventListener(configured)
+                    .build();
+
+            try (FoxdeliClient client = FoxdeliClient.builder()
+                    .username("user")
+                    .password("password")
+                    .httpConfig(HttpClientConfig.builder().okHttpClient(httpClient).build())
+                    .metrics(metrics)
+                    .build()) {
+                assertThatThrownBy(() -> client.getOrder(UUID.randomUUID()))
+                        .isInstanceOf(FoxdeliConnectionException.class);
+            }
+        }
+
+        assertThat(calls).filteredOn(call -> call.method().equals("GET"))
+                .singleElement()
+                .satisfies(call -> {
+                    assertThat(call.status()).isZero();
+                    assertThat(call.error()).isInstanceOf(IOException.class);
+                });
+        // The listener configured on the HTTP client still sees every call, including those measured.
+        assertThat(started).contains("POST", "GET");
+        assertThat(finished.get()).isEqualTo(started.size());
+    }
+
+    private record HttpCall(String method, int status, Throwable error) {
+    }
+}
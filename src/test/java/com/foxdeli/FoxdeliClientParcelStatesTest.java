@@ -0,0 +1,150 @@
+package com.foxdeli;
+
+import com.foxdeli.model.request.ParcelStateChange;
+import com.foxdeli.model.response.ParcelStateResult;
+import com.foxdeli.orders.api.model.DeliveryState;
+import com.foxdeli.support.ApiJson;
+import com.foxdeli.support.MockApi;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Updates parcel states on a `MockWebServer` that answers with the updated parcel, or with 400 for a failing parcel.
+ */
+class FoxdeliClientParcelStatesTest {
+
+    private static final String PARCEL = ApiJson.parcel(List.of());
+    private static final String PARCEL_ID = "0b5c8f3e-8d7a-4c1e-9f2b-3a6d5e4c7b21";
+    private static final List<DeliveryState> STATES = Arrays.stream(DeliveryState.values())
+            .filter(state -> !state.name().equals("CREATED") && !state.name().equals("EXPIRED"))
+            .limit(2)
+            .toList();
+
+    private final UUID orderId = UUID.randomUUID();
+    private final UUID parcelA = UUID.randomUUID();
+    private final UUID parcelB = UUID.randomUUID();
+    private final List<RecordedRequest> updates = new CopyOnWriteArrayList<>();
+
+    /**
+     * The parcel whose update is answered with 400, or `null` to update every parcel.
+     */
+    private volatile UUID failingParcel;
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(MockApi.dispatcher(request -> {
+            updates.add(request);
+            UUID parcelId = request.getPath().contains(parcelA.toString()) ? parcelA : parcelB;
+            if (parcelId.equals(failingParcel)) {
+                return new MockResponse().setResponseCode(400).setBody("{}");
+            }
+            return MockApi.json(PARCEL.replace(PARCEL_ID, parcelId.toString()));
+        }));
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void sendsOnlyTheLastChangeOfEveryParcel() {
+        List<ParcelStateResult> results;
+        try (FoxdeliClient client = MockApi.client(server).build()) {
+            results = client.updateParcelStates(changes());
+        }
+
+        assertMerged(results);
+        assertThat(results).allMatch(ParcelStateResult::isSuccessful);
+        assertThat(results.get(0).parcel().parcelId()).isEqualTo(parcelA);
+        assertThat(results.get(1).parcel().parcelId()).isEqualTo(parcelB);
+        assertThat(results.get(0).parcel()).isSameAs(results.get(2).parcel());
+    }
+
+    @Test
+    void sendsOnlyTheLastChangeOfEveryParcelAsynchronously() throws Exception {
+        List<ParcelStateResult> results;
+        try (FoxdeliClient client = MockApi.client(server).build()) {
+            results = client.updateParcelStatesAsync(changes(), true).get(10, TimeUnit.SECONDS);
+        }
+
+        assertMerged(results);
+        assertThat(results).allMatch(ParcelStateResult::isSuccessful);
+        assertThat(results.get(0).parcel()).isSameAs(results.get(2).parcel());
+    }
+
+    @Test
+    void unmappedResultsHaveNoParcel() {
+        List<ParcelStateResult> results;
+        try (FoxdeliClient client = MockApi.client(server).build()) {
+            results = client.updateParcelStates(changes(), false);
+        }
+
+        assertMerged(results);
+        assertThat(results).allMatch(ParcelStateResult::isSuccessful);
+        assertThat(results).allMatch(result -> result.parcel() == null);
+    }
+
+    @Test
+    void failedUpdateIsReportedWithoutFailingTheOthers() {
+        failingParcel = parcelA;
+
+        List<ParcelStateResult> results;
+        try (FoxdeliClient client = MockApi.client(server).build()) {
+            results = client.updateParcelStates(changes());
+        }
+
+        assertMerged(results);
+        // The superseded change shares the outcome of the change sent instead of it.
+        assertThat(results.get(0).isSuccessful()).isFalse();
+        assertThat(results.get(0).parcel()).isNull();
+        assertThat(results.get(0).error()).isNotNull().isSameAs(results.get(2).error());
+        assertThat(results.get(1).isSuccessful()).isTrue();
+        assertThat(results.get(1).parcel().parcelId()).isEqualTo(parcelB);
+    }
+
+    /**
+     * Changes parcel A twice, with parcel B changed in between.
+     */
+    private List<ParcelStateChange> changes() {
+        return List.of(
+                new ParcelStateChange(orderId, parcelA, STATES.get(0)),
+                new ParcelStateChange(orderId, parcelB, STATES.get(0)),
+                new ParcelStateChange(orderId, parcelA, STATES.get(1)));
+    }
+
+    /**
+     * Checks that one update was sent for each parcel, with the last change of parcel A, and that the results follow
+     * the order of the changes with only the first change of parcel A superseded.
+     */
+    private void assertMerged(List<ParcelStateResult> results) {
+        List<ParcelStateChange> changes = changes();
+        assertThat(results).extracting(ParcelStateResult::change).containsExactlyElementsOf(changes);
+        assertThat(results).extracting(ParcelStateResult::superseded).containsExactly(true, false, false);
+
+        assertThat(updates).hasSize(2);
+        RecordedRequest updateOfA = updates.stream()
+                .filter(request -> request.getPath().contains(parcelA.toString()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(updateOfA.getBody().readUtf8()).contains(STATES.get(1).toString());
+        assertThat(updates).filteredOn(request -> request.getPath().contains(parcelB.toString())).hasSize(1);
+    }
+}
@@ -0,0 +1,159 @@
+package com.foxdeli;
+
+import com.foxdeli.cache.CacheConfig;
+import com.foxdeli.model.response.Order;
+import com.foxdeli.support.ApiJson;
+import com.foxdeli.support.MockApi;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Retrieves an order twice from a `MockWebServer` with a zero TTL, so the second retrieval is revalidated. Every
+ * case runs with the streaming reader and with the generated models, synchronously and asynchronously, as each
+ * combination reports the 304 response differently.
+ */
+class FoxdeliClientRevalidationTest {
+
+    private static final String ETAG = "\"v1\"";
+    private static final String ORDER = ApiJson.order(ApiJson.parcel(List.of()));
+
+    private final UUID orderId = UUID.fromString("1d2e3f40-5a6b-4c7d-8e9f-0a1b2c3d4e5f");
+    private final List<RecordedRequest> retrievals = new CopyOnWriteArrayList<>();
+    private final AtomicInteger versions = new AtomicInteger();
+
+    /**
+     * The `ETag` of 304 responses, or `null` to answer without one.
+     */
+    private volatile String notModifiedTag;
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(MockApi.dispatcher(request -> {
+            retrievals.add(request);
+            if (request.getHeader("If-None-Match") != null) {
+                MockResponse notModified = new MockResponse().setResponseCode(304);
+                return notModifiedTag == null ? notModified : notModified.setHeader("ETag", notModifiedTag);
+            }
+            String orderNumber = "\"orderNumber\":\"" + versions.incrementAndGet() + "\"";
+            return MockApi.json(ORDER.replace("\"orderNumber\":\"2024-0001\"", orderNumber)).setHeader("ETag", ETAG);
+        }));
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void notModifiedOrderIsServedFromTheKeptVersion() throws Exception {
+        // Without an ETag, the client must fall back to the tag it sent.
+        notModifiedTag = null;
+
+        assertKeptVersionIsServed(true, false);
+    }
+
+    @Test
+    void notModifiedOrderIsServedFromTheKeptVersionWithoutStreaming() throws Exception {
+        notModifiedTag = ETAG;
+
+        assertKeptVersionIsServed(false, false);
+    }
+
+    @Test
+    void notModifiedOrderIsServedFromTheKeptVersionAsynchronously() throws Exception {
+        notModifiedTag = null;
+
+        assertKeptVersionIsServed(true, true);
+    }
+
+    @Test
+    void notModifiedOrderIsServedFromTheKeptVersionAsynchronouslyWithoutStreaming() throws Exception {
+        notModifiedTag = ETAG;
+
+        assertKeptVersionIsServed(false, true);
+    }
+
+    @Test
+    void notModifiedWithAnotherTagRetrievesTheOrderAgain() throws Exception {
+        notModifiedTag = "\"v2\"";
+
+        assertOrderIsRetrievedAgain(false, false);
+    }
+
+    @Test
+    void notModifiedWithAnotherTagRetrievesTheOrderAgainAsynchronously() throws Exception {
+        notModifiedTag = "\"v2\"";
+
+        assertOrderIsRetrievedAgain(true, true);
+    }
+
+    @Test
+    void notModifiedWithAnotherTagRetrievesTheOrderAgainAsynchronouslyWithoutStreaming() throws Exception {
+        notModifiedTag = "\"v2\"";
+
+        assertOrderIsRetrievedAgain(false, true);
+    }
+
+    private void assertKeptVersionIsServed(boolean streaming, boolean async) throws Exception {
+        try (FoxdeliClient client = client(streaming)) {
+            Order retrieved = getOrder(client, async);
+            Order revalidated = getOrder(client, async);
+
+            assertThat(retrieved.orderId()).isEqualTo(orderId);
+            assertThat(retrieved.orderNumber()).isEqualTo("1");
+            assertThat(revalidated).isSameAs(retrieved);
+        }
+
+        assertThat(retrievals).hasSize(2);
+        assertThat(retrievals.get(0).getHeader("If-None-Match")).isNull();
+        assertThat(retrievals.get(1).getHeader("If-None-Match")).isEqualTo(ETAG);
+        assertThat(retrievals.get(1).getPath()).endsWith(orderId.toString());
+    }
+
+    /**
+     * A 304 response for a version other than the kept one drops the kept version, so the order is retrieved again
+     * without `If-None-Match`.
+     */
+    private void assertOrderIsRetrievedAgain(boolean streaming, boolean async) throws Exception {
+        try (FoxdeliClient client = client(streaming)) {
+            Order retrieved = getOrder(client, async);
+            Order retrievedAgain = getOrder(client, async);
+
+            assertThat(retrieved.orderNumber()).isEqualTo("1");
+            assertThat(retrievedAgain.orderNumber()).isEqualTo("2");
+        }
+
+        assertThat(retrievals).hasSize(3);
+        assertThat(retrievals).extracting(request -> request.getHeader("If-None-Match"))
+                .containsExactly(null, ETAG, null);
+    }
+
+    private FoxdeliClient client(boolean streaming) {
+        return MockApi.client(server)
+                .cache(CacheConfig.builder().ttl(Duration.ZERO).revalidate(true).build())
+                .streamingJson(streaming)
+                .build();
+    }
+
+    private Order getOrder(FoxdeliClient client, boolean async) throws Exception {
+        return async ? client.getOrderAsync(orderId).get(10, TimeUnit.SECONDS) : client.getOrder(orderId);
+    }
+}
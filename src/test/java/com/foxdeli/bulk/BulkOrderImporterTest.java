@@ -0,0 +1,168 @@
+package com.foxdeli.bulk;
+
+import com.foxdeli.FoxdeliClient;
+import com.foxdeli.model.request.OrderRequest;
+import com.foxdeli.support.ApiJson;
+import com.foxdeli.support.MockApi;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Imports orders into a `MockWebServer` answering every order creation after a short delay, so orders stay in flight
+ * long enough for the importer to fill its concurrency.
+ */
+class BulkOrderImporterTest {
+
+    private static final int ORDERS = 40;
+    private static final int CONCURRENCY = 3;
+
+    private final List<OrderImportResult> results = new CopyOnWriteArrayList<>();
+    private final AtomicInteger taken = new AtomicInteger();
+    private final AtomicInteger maxAhead = new AtomicInteger();
+
+    private MockWebServer server;
+    private FoxdeliClient client;
+    private BulkOrderImporter importer;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        String order = ApiJson.order(ApiJson.parcel(List.of()));
+        server = new MockWebServer();
+        server.setDispatcher(MockApi.dispatcher(request -> MockApi.json(order)
+                .setHeadersDelay(10, TimeUnit.MILLISECONDS)));
+        server.start();
+        client = MockApi.client(server)
+                .marketId(UUID.randomUUID())
+                .eshopId(UUID.randomUUID())
+                .build();
+        importer = BulkOrderImporter.builder().client(client).concurrency(CONCURRENCY).build();
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void iteratorIsNotReadAheadOfTheConcurrency() {
+        Iterator<OrderRequest> source = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return taken.get() < ORDERS;
+            }
+
+            @Override
+            public OrderRequest next() {
+                return take();
+            }
+        };
+
+        ImportSummary summary = importer.importOrders(source, results::add);
+
+        assertThat(summary.orders()).isEqualTo(ORDERS);
+        assertThat(summary.failedOrders()).isZero();
+        assertThat(results).hasSize(ORDERS);
+        assertThat(maxAhead.get()).isBetween(1, CONCURRENCY);
+        assertThat(results).extracting(OrderImportResult::index).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void publisherIsNotRequestedAheadOfTheConcurrency() throws Exception {
+        CompletableFuture<ImportSummary> summary = importer.importOrders(new OrderPublisher(ORDERS), results::add);
+
+        ImportSummary completed = summary.get(30, TimeUnit.SECONDS);
+        assertThat(completed.orders()).isEqualTo(ORDERS);
+        // The summary is completed only after the results of all orders in flight when the publisher completed.
+        assertThat(results).hasSize(ORDERS);
+        assertThat(maxAhead.get()).isBetween(1, CONCURRENCY);
+    }
+
+    @Test
+    void emptyPublisherCompletesTheSummary() throws Exception {
+        ImportSummary summary = importer.importOrders(new OrderPublisher(0), results::add).get(10, TimeUnit.SECONDS);
+
+        assertThat(summary.orders()).isZero();
+        assertThat(results).isEmpty();
+    }
+
+    @Test
+    void failedPublisherFailsTheSummary() {
+        Flow.Publisher<OrderRequest> publisher = subscriber -> {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("source failed"));
+        };
+
+        assertThat(importer.importOrders(publisher, results::add)).failsWithin(10, TimeUnit.SECONDS)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Takes the next order from the source and records how far the source is read ahead of the results.
+     */
+    private OrderRequest take() {
+        int ahead = taken.incrementAndGet() - results.size();
+        maxAhead.accumulateAndGet(ahead, Math::max);
+        return OrderRequest.builder().orderNumber("order-" + taken.get()).build();
+    }
+
+    /**
+     * Publishes a number of orders on the thread requesting them, then completes.
+     */
+    private class OrderPublisher implements Flow.Publisher<OrderRequest> {
+
+        private final int orders;
+
+        private OrderPublisher(int orders) {
+            this.orders = orders;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super OrderRequest> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                private int published;
+                private boolean completed;
+
+                @Override
+                public synchronized void request(long n) {
+                    for (long i = 0; i < n && published < orders; i++) {
+                        published++;
+                        subscriber.onNext(take());
+                    }
+                    if (published == orders && !completed) {
+                        completed = true;
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+        }
+    }
+}
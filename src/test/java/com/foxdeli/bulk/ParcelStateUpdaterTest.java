@@ -0,0 +1,152 @@
+package com.foxdeli.bulk;
+
+import com.foxdeli.FoxdeliClient;
+import com.foxdeli.config.HttpClientConfig;
+import com.foxdeli.model.response.ParcelStateResult;
+import com.foxdeli.orders.api.model.DeliveryState;
+import com.foxdeli.support.MockApi;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParcelStateUpdaterTest {
+
+    @Test
+    void laterChangeOfParcelWaitsUntilEarlierOneIsSent() throws Exception {
+        String accessToken = MockApi.jwt(Instant.now().plus(Duration.ofHours(1)));
+        String refreshToken = MockApi.jwt(Instant.now().plus(Duration.ofDays(1)));
+        List<DeliveryState> states = Arrays.stream(DeliveryState.values())
+                .filter(state -> !state.name().equals("CREATED") && !state.name().equals("EXPIRED"))
+                .limit(2)
+                .toList();
+        List<String> updates = new CopyOnWriteArrayList<>();
+        CountDownLatch firstUpdateReceived = new CountDownLatch(1);
+        CountDownLatch releaseFirstUpdate = new CountDownLatch(1);
+
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(new Dispatcher() {
+                @Override
+                public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                    if (MockApi.isTokenRequest(request)) {
+                        return MockApi.tokenPair(accessToken, refreshToken);
+                    }
+                    updates.add(request.getBody().readUtf8());
+                    if (updates.size() == 1) {
+                        firstUpdateReceived.countDown();
+                        releaseFirstUpdate.await(10, TimeUnit.SECONDS);
+                    }
+                    return MockApi.json("{}");
+                }
+            });
+
+            try (FoxdeliClient client = FoxdeliClient.builder()
+                    .username("user")
+                    .password("password")
+                    .httpConfig(HttpClientConfig.builder().okHttpClient(MockApi.redirectingClient(server)).build())
+                    .build();
+                 ParcelStateUpdater updater = ParcelStateUpdater.builder()
+                         .client(client)
+                         .batchSize(1)
+                         .workers(4)
+                         .build()) {
+                UUID orderId = UUID.randomUUID();
+                UUID parcelId = UUID.randomUUID();
+                CompletableFuture<ParcelStateResult> first = updater.submit(orderId, parcelId, states.get(0));
+                assertThat(firstUpdateReceived.await(10, TimeUnit.SECONDS)).isTrue();
+
+                CompletableFuture<ParcelStateResult> second = updater.submit(orderId, parcelId, states.get(1));
+                updater.flush();
+                // Free workers must not send the second change while the first one is still being sent.
+                Thread.sleep(300);
+                assertThat(updates).hasSize(1);
+                assertThat(updater.queued()).isEqualTo(1);
+
+                releaseFirstUpdate.countDown();
+                assertThat(first.get(10, TimeUnit.SECONDS).isSuccessful()).isTrue();
+                assertThat(second.get(10, TimeUnit.SECONDS).isSuccessful()).isTrue();
+            }
+        }
+
+        assertThat(updates).hasSize(2);
+        assertThat(updates.get(0)).contains(states.get(0).toString());
+        assertThat(updates.get(1)).contains(states.get(1).toString());
+    }
+
+    @Test
+    void blockedSubmittersOfSameParcelShareOneQueuedEntry() throws Exception {
+        DeliveryState state = Arrays.stream(DeliveryState.values())
+                .filter(value -> !value.name().equals("CREATED") && !value.name().equals("EXPIRED"))
+                .findFirst()
+                .orElseThrow();
+        List<String> updates = new CopyOnWriteArrayList<>();
+        UUID orderId = UUID.randomUUID();
+        UUID parcelId = UUID.randomUUID();
+
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(MockApi.dispatcher(request -> {
+                updates.add(request.getPath());
+                return MockApi.json("{}");
+            }));
+
+            try (FoxdeliClient client = MockApi.client(server).build();
+                 ParcelStateUpdater updater = ParcelStateUpdater.builder()
+                         .client(client)
+                         .capacity(1)
+                         .overflowPolicy(OverflowPolicy.BLOCK)
+                         .flushInterval(Duration.ofMinutes(1))
+                         .workers(1)
+                         .build()) {
+                CompletableFuture<ParcelStateResult> other = updater.submit(orderId, UUID.randomUUID(), state);
+
+                List<CompletableFuture<ParcelStateResult>> results = new CopyOnWriteArrayList<>();
+                List<Thread> submitters = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    Thread submitter = new Thread(() -> results.add(updater.submit(orderId, parcelId, state)));
+                    submitter.start();
+                    submitters.add(submitter);
+                }
+                // Both submitters wait for room, as the queue is full.
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (submitters.stream().anyMatch(submitter -> submitter.getState() != Thread.State.WAITING)
+                        && System.nanoTime() < deadline) {
+                    Thread.sleep(10);
+                }
+                assertThat(submitters).allMatch(submitter -> submitter.getState() == Thread.State.WAITING);
+
+                updater.flush();
+                for (Thread submitter : submitters) {
+                    submitter.join(10_000);
+                }
+                assertThat(updater.queued()).isEqualTo(1);
+                updater.flush();
+
+                assertThat(other.get(10, TimeUnit.SECONDS).isSuccessful()).isTrue();
+                assertThat(results).hasSize(2);
+                List<ParcelStateResult> outcomes = new ArrayList<>();
+                for (CompletableFuture<ParcelStateResult> result : results) {
+                    outcomes.add(result.get(10, TimeUnit.SECONDS));
+                }
+                assertThat(outcomes).allMatch(ParcelStateResult::isSuccessful);
+                assertThat(outcomes).filteredOn(ParcelStateResult::superseded).hasSize(1);
+            }
+        }
+
+        assertThat(updates).hasSize(2);
+        assertThat(updates).filteredOn(path -> path.contains(parcelId.toString())).hasSize(1);
+    }
+}
@@ -0,0 +1,40 @@
+package com.foxdeli.cache;
+
+import com.foxdeli.exception.FoxdeliException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheConfigTest {
+
+    @Test
+    void unsetLimitsTakeDefaults() {
+        CacheConfig config = CacheConfig.defaults();
+
+        assertThat(config.maxOrderWeight()).isEqualTo(100_000);
+        assertThat(config.maxParcelWeight()).isEqualTo(100_000);
+        assertThat(config.maxRevalidationWeight()).isEqualTo(100_000);
+        assertThat(config.ttl()).isEqualTo(Duration.ofMinutes(1));
+        assertThat(config.revalidate()).isFalse();
+    }
+
+    @Test
+    void rejectsNonPositiveWeights() {
+        assertThatThrownBy(() -> CacheConfig.builder().maxOrderWeight(0L).build())
+                .isInstanceOf(FoxdeliException.class);
+        assertThatThrownBy(() -> CacheConfig.builder().maxParcelWeight(-1L).build())
+                .isInstanceOf(FoxdeliException.class);
+        assertThatThrownBy(() -> CacheConfig.builder().maxRevalidationWeight(0L).build())
+                .isInstanceOf(FoxdeliException.class);
+    }
+
+    @Test
+    void acceptsZeroButNotNegativeTtl() {
+        assertThat(CacheConfig.builder().ttl(Duration.ZERO).build().ttl()).isZero();
+        assertThatThrownBy(() -> CacheConfig.builder().ttl(Duration.ofSeconds(-1)).build())
+                .isInstanceOf(FoxdeliException.class);
+    }
+}
@@ -0,0 +1,145 @@
+package com.foxdeli.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> results = new CopyOnWriteArrayList<>();
+        List<Thread> callers = new ArrayList<>();
+        callers.add(new Thread(() -> results.add(flight.execute("order", () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "result";
+        }))));
+        callers.get(0).start();
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 3; i++) {
+            Thread caller = new Thread(() -> results.add(flight.execute("order", () -> {
+                executions.incrementAndGet();
+                return "other result";
+            })));
+            caller.start();
+            callers.add(caller);
+        }
+        // All callers wait, the first one for the release and the others for its result.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (callers.stream().anyMatch(caller -> caller.getState() != Thread.State.WAITING
+                && caller.getState() != Thread.State.TIMED_WAITING) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        // A different key does not join the execution in flight.
+        assertThat(flight.execute("parcel", () -> "parcel")).isEqualTo("parcel");
+        assertThat(flight.inFlight()).isEqualTo(1);
+        release.countDown();
+        for (Thread caller : callers) {
+            caller.join(10_000);
+        }
+
+        assertThat(results).containsExactly("result", "result", "result", "result");
+        assertThat(executions).hasValue(1);
+        assertThat(flight.inFlight()).isZero();
+    }
+
+    @Test
+    void nextCallerAfterCompletionExecutesAgain() {
+        assertThat(flight.execute("order", () -> "first")).isEqualTo("first");
+        assertThat(flight.execute("order", () -> "second")).isEqualTo("second");
+    }
+
+    @Test
+    void failureIsRethrownAndNotKept() {
+        IllegalStateException failure = new IllegalStateException("failed");
+
+        assertThatThrownBy(() -> flight.execute("order", () -> {
+            throw failure;
+        })).isSameAs(failure);
+        assertThat(flight.inFlight()).isZero();
+        assertThat(flight.execute("order", () -> "retried")).isEqualTo("retried");
+    }
+
+    @Test
+    void asyncCallersGetTheirOwnFutures() throws Exception {
+        CompletableFuture<String> operation = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flight.executeAsync("order", () -> {
+            executions.incrementAndGet();
+            return operation;
+        });
+        CompletableFuture<String> second = flight.executeAsync("order", () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture("other result");
+        });
+        CompletableFuture<String> third = flight.executeAsync("order", () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture("other result");
+        });
+
+        assertThat(executions).hasValue(1);
+        assertThat(first).isNotSameAs(second).isNotSameAs(operation);
+        // Neither cancelling nor completing one caller's future affects the others or the operation.
+        first.cancel(true);
+        second.complete("completed by caller");
+        assertThat(operation).isNotDone();
+
+        operation.complete("result");
+        assertThat(third.get(10, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(second.get()).isEqualTo("completed by caller");
+        assertThat(flight.inFlight()).isZero();
+    }
+
+    @Test
+    void asyncFailureIsUnwrapped() {
+        IllegalStateException failure = new IllegalStateException("failed");
+        CompletableFuture<String> operation = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flight.executeAsync("order", () -> operation);
+        CompletableFuture<String> second = flight.executeAsync("order", () -> operation);
+        operation.completeExceptionally(new CompletionException(failure));
+
+        for (CompletableFuture<String> result : List.of(first, second)) {
+            assertThatThrownBy(result::get).isInstanceOf(ExecutionException.class).cause().isSameAs(failure);
+        }
+        assertThat(flight.inFlight()).isZero();
+    }
+
+    @Test
+    void asyncOperationThrowingFailsTheFuture() {
+        IllegalStateException failure = new IllegalStateException("failed");
+
+        CompletableFuture<String> result = flight.executeAsync("order", () -> {
+            throw failure;
+        });
+
+        assertThatThrownBy(result::get).isInstanceOf(ExecutionException.class).cause().isSameAs(failure);
+        assertThat(flight.inFlight()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.foxdeli.helper;
+
+import com.foxdeli.support.MockApi;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Renews tokens served by a `MockWebServer`. The token manager's clock runs almost an hour ahead, so the first access
+ * token, which expires in an hour, has two to three seconds left and is renewed a second or so after the start.
+ */
+class TokenRenewerTest {
+
+    private static final Duration SKEW = Duration.ofSeconds(2);
+
+    private final String accessToken = MockApi.jwt(Instant.now().plus(Duration.ofHours(1)));
+    private final String refreshToken = MockApi.jwt(Instant.now().plus(Duration.ofDays(1)));
+    private final String renewedAccessToken = MockApi.jwt(Instant.now().plus(Duration.ofHours(3)));
+
+    /**
+     * The times the refresh requests were received at, in `System.nanoTime()`.
+     */
+    private final List<Long> refreshes = new CopyOnWriteArrayList<>();
+
+    private volatile MockResponse refreshResponse = MockApi.tokenPair(renewedAccessToken, refreshToken);
+    private volatile boolean authorizationFails;
+
+    private MockWebServer tokenApi;
+    private TokenManager tokenManager;
+    private TokenRenewer renewer;
+
+    @BeforeEach
+    void authorize() throws IOException {
+        tokenApi = new MockWebServer();
+        tokenApi.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getBody().clone().readUtf8().contains("\"refreshToken\"")) {
+                    refreshes.add(System.nanoTime());
+                    return refreshResponse;
+                }
+                return authorizationFails
+                        ? new MockResponse().setResponseCode(500)
+                        : MockApi.tokenPair(accessToken, refreshToken);
+            }
+        });
+        tokenApi.start();
+        Clock clock = Clock.offset(Clock.systemUTC(), Duration.ofHours(1).minusSeconds(3));
+        tokenManager = new TokenManager("user", "password", false, clock, MockApi.redirectingClient(tokenApi));
+        tokenManager.authorize();
+        renewer = new TokenRenewer(tokenManager, SKEW);
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        renewer.close();
+        tokenApi.close();
+    }
+
+    @Test
+    void renewsBeforeTheAccessTokenExpires() throws Exception {
+        long start = System.nanoTime();
+        renewer.start();
+
+        awaitCondition(() -> !refreshes.isEmpty());
+        long renewedAfter = TimeUnit.NANOSECONDS.toMillis(refreshes.get(0) - start);
+        // Half of the two to three seconds left, as that is longer than the time left before the skew.
+        assertThat(renewedAfter).isBetween(800L, 2_000L);
+        awaitCondition(() -> tokenManager.getTokens().accessToken().equals(renewedAccessToken));
+
+        // The renewed token has hours left, so it is not renewed again soon.
+        Thread.sleep(1_000);
+        assertThat(refreshes).hasSize(1);
+    }
+
+    @Test
+    void backsOffWhileTheTokenEndpointFails() throws Exception {
+        refreshResponse = new MockResponse().setResponseCode(500);
+        authorizationFails = true;
+        renewer.start();
+
+        awaitCondition(() -> refreshes.size() >= 3);
+        // Jittered backoffs of 0.5 to 1 s after the first failure and 1 to 2 s after the second.
+        assertThat(gapMillis(0)).isBetween(450L, 1_500L);
+        assertThat(gapMillis(1)).isBetween(950L, 2_500L);
+        assertThat(tokenManager.getTokens().accessToken()).isEqualTo(accessToken);
+
+        refreshResponse = MockApi.tokenPair(renewedAccessToken, refreshToken);
+        awaitCondition(() -> tokenManager.getTokens().accessToken().equals(renewedAccessToken));
+        int attempts = refreshes.size();
+        Thread.sleep(1_000);
+        assertThat(refreshes).hasSize(attempts);
+    }
+
+    @Test
+    void backsOffWhenRenewalYieldsTheSameTokens() throws Exception {
+        refreshResponse = MockApi.tokenPair(accessToken, refreshToken);
+        renewer.start();
+
+        awaitCondition(() -> !refreshes.isEmpty());
+        // Renewing at half the remaining lifetime again would take well under a second.
+        Thread.sleep(2_000);
+        assertThat(refreshes).hasSize(1);
+    }
+
+    @Test
+    void stopsWhenTheAccessTokenExpiryIsUnknown() throws Exception {
+        tokenManager.restore(Tokens.of("not-a-jwt", refreshToken));
+        renewer.start();
+
+        Thread.sleep(500);
+        assertThat(refreshes).isEmpty();
+    }
+
+    private long gapMillis(int attempt) {
+        return TimeUnit.NANOSECONDS.toMillis(refreshes.get(attempt + 1) - refreshes.get(attempt));
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.foxdeli.helper;
+
+import com.foxdeli.support.MockApi;
+import com.sun.management.ThreadMXBean;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokensTest {
+
+    @Test
+    void decodesTheExpiryOfBothTokens() {
+        Instant accessExpiry = Instant.now().plus(Duration.ofHours(1)).truncatedTo(ChronoUnit.SECONDS);
+        Instant refreshExpiry = Instant.now().plus(Duration.ofDays(1)).truncatedTo(ChronoUnit.SECONDS);
+
+        Tokens tokens = Tokens.of(MockApi.jwt(accessExpiry), MockApi.jwt(refreshExpiry));
+
+        assertThat(tokens.accessTokenExpiresAt()).isEqualTo(accessExpiry.toEpochMilli());
+        assertThat(tokens.refreshTokenExpiresAt()).isEqualTo(refreshExpiry.toEpochMilli());
+        assertThat(tokens.isAccessTokenExpired(accessExpiry.toEpochMilli() - 1)).isFalse();
+        assertThat(tokens.isAccessTokenExpired(accessExpiry.toEpochMilli() + 1)).isTrue();
+        assertThat(tokens.isRefreshTokenExpired(accessExpiry.toEpochMilli() + 1)).isFalse();
+    }
+
+    @Test
+    void tokenWithoutDecodableExpiryIsAlwaysExpired() {
+        Tokens tokens = Tokens.of("not-a-jwt", MockApi.jwt(Instant.now().plus(Duration.ofDays(1))));
+
+        assertThat(tokens.accessTokenExpiresAt()).isEqualTo(Tokens.UNKNOWN_EXPIRY);
+        assertThat(tokens.isAccessTokenExpired(Long.MIN_VALUE + 1)).isTrue();
+        assertThat(tokens.isRefreshTokenExpired(System.currentTimeMillis())).isFalse();
+    }
+
+    @Test
+    void expiryChecksOfTheManagerDoNotDecodeTheTokensAgain() throws Exception {
+        String accessToken = MockApi.jwt(Instant.now().plus(Duration.ofHours(1)));
+        String refreshToken = MockApi.jwt(Instant.now().plus(Duration.ofDays(1)));
+
+        try (MockWebServer tokenApi = new MockWebServer()) {
+            tokenApi.enqueue(MockApi.tokenPair(accessToken, refreshToken));
+            TokenManager tokenManager = new TokenManager("user", "password", false, Clock.systemUTC(),
+                    MockApi.redirectingClient(tokenApi));
+            tokenManager.authorize();
+            Tokens tokens = tokenManager.getTokens();
+
+            // Decoding a JWT allocates its parts and claims; comparing the decoded expiry allocates nothing.
+            ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            int expired = 0;
+            for (int i = 0; i < 10_000; i++) {
+                if (tokenManager.isAccessTokenExpired() || tokenManager.isRefreshTokenExpired()) {
+                    expired++;
+                }
+            }
+            long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+            assertThat(expired).isZero();
+            assertThat(allocated).isLessThan(10_000);
+            assertThat(tokenManager.getTokens()).isSameAs(tokens);
+        }
+    }
+
+    @Test
+    void toStringRedactsTheTokens() {
+        String accessToken = MockApi.jwt(Instant.now().plus(Duration.ofHours(1)));
+        String refreshToken = MockApi.jwt(Instant.now().plus(Duration.ofDays(1)));
+
+        String description = Tokens.of(accessToken, refreshToken).toString();
+
+        assertThat(description).doesNotContain(accessToken).doesNotContain(refreshToken).contains("<redacted>");
+    }
+}
@@ -0,0 +1,91 @@
+package com.foxdeli.interceptor;
+
+import com.foxdeli.helper.TokenManager;
+import com.foxdeli.support.MockApi;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FoxdeliAuthenticatorTest {
+
+    private static final int THREADS = 16;
+
+    @Test
+    void concurrentlyRejectedRequestsRenewTokensOnce() throws Exception {
+        String expired = MockApi.jwt(Instant.now().minus(Duration.ofMinutes(1)));
+        String renewed = MockApi.jwt(Instant.now().plus(Duration.ofHours(1)));
+        String refresh = MockApi.jwt(Instant.now().plus(Duration.ofDays(1)));
+        AtomicInteger tokenCalls = new AtomicInteger();
+        CountDownLatch allRejected = new CountDownLatch(THREADS);
+
+        try (MockWebServer tokenApi = new MockWebServer(); MockWebServer api = new MockWebServer()) {
+            tokenApi.setDispatcher(new Dispatcher() {
+                @Override
+                public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                    if (tokenCalls.incrementAndGet() == 1) {
+                        return MockApi.tokenPair(expired, refresh);
+                    }
+                    // Keep the renewal in flight until every request has been rejected.
+                    allRejected.await();
+                    return MockApi.tokenPair(renewed, refresh);
+                }
+            });
+            api.setDispatcher(new Dispatcher() {
+                @Override
+                public MockResponse dispatch(RecordedRequest request) {
+                    if (renewed.equals(request.getHeader("Authorization"))) {
+                        return new MockResponse().setBody("ok");
+                    }
+                    allRejected.countDown();
+                    return new MockResponse().setResponseCode(401);
+                }
+            });
+
+            TokenManager tokenManager = new TokenManager("user", "password", false, Clock.systemUTC(),
+                    MockApi.redirectingClient(tokenApi));
+            tokenManager.authorize();
+            OkHttpClient client = new OkHttpClient.Builder()
+                    .addInterceptor(new AuthInterceptor(tokenManager))
+                    .authenticator(new FoxdeliAuthenticator(tokenManager))
+                    .build();
+
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<Integer>> codes = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    codes.add(executor.submit(() -> {
+                        try (Response response = client.newCall(new Request.Builder().url(api.url("/orders")).build()).execute()) {
+                            return response.code();
+                        }
+                    }));
+                }
+                for (Future<Integer> code : codes) {
+                    assertThat(code.get()).isEqualTo(200);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertThat(tokenCalls).hasValue(2);
+            assertThat(tokenManager.getAccessToken()).isEqualTo(renewed);
+        }
+    }
+}
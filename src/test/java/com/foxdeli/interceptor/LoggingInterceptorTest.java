@@ -0,0 +1,143 @@
+package com.foxdeli.interceptor;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.foxdeli.config.HttpLoggingConfig;
+import com.foxdeli.exception.FoxdeliException;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Sends calls through a `LoggingInterceptor` to a `MockWebServer` and captures what the interceptor logs.
+ */
+class LoggingInterceptorTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(LoggingInterceptor.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void captureLog() throws IOException {
+        appender.start();
+        logger.addAppender(appender);
+        logger.setLevel(Level.DEBUG);
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void releaseLog() throws IOException {
+        logger.detachAppender(appender);
+        logger.setLevel(null);
+        server.close();
+    }
+
+    @Test
+    void logsNothingWhenDisabled() throws IOException {
+        call(HttpLoggingConfig.defaults(), 1);
+
+        assertThat(messages()).isEmpty();
+    }
+
+    @Test
+    void logsNothingWhenDebugIsNotEnabled() throws IOException {
+        logger.setLevel(Level.INFO);
+
+        call(config(HttpLoggingConfig.Level.BODY).build(), 1);
+
+        assertThat(messages()).isEmpty();
+    }
+
+    @Test
+    void basicLogsOnlyRequestAndResponseLines() throws IOException {
+        call(config(HttpLoggingConfig.Level.BASIC).build(), 1);
+
+        assertThat(messages()).hasSize(2);
+        assertThat(messages().get(0)).isEqualTo("--> POST " + server.url("/orders"));
+        assertThat(messages().get(1)).startsWith("<-- 200 POST " + server.url("/orders"));
+    }
+
+    @Test
+    void redactsAuthorizationHeader() throws IOException {
+        call(config(HttpLoggingConfig.Level.HEADERS).build(), 1);
+
+        assertThat(messages())
+                .contains("--> Authorization: <redacted>", "--> X-Request-Id: request-1", "<-- X-Response: answer")
+                .noneMatch(message -> message.contains("secret-token"))
+                .noneMatch(message -> message.contains("body"));
+    }
+
+    @Test
+    void logsBodiesOfSampledCallsOnly() throws IOException {
+        call(config(HttpLoggingConfig.Level.BODY).bodySampleRate(3).build(), 7);
+
+        // Bodies of the first, fourth and seventh call.
+        assertThat(messages()).filteredOn(message -> message.startsWith("--> body: ")).hasSize(3);
+        assertThat(messages()).filteredOn(message -> message.startsWith("<-- body: ")).hasSize(3);
+        assertThat(messages()).filteredOn(message -> message.startsWith("--> POST ")).hasSize(7);
+        assertThat(messages()).filteredOn(message -> message.equals("--> Authorization: <redacted>")).hasSize(7);
+    }
+
+    @Test
+    void truncatesBodiesToMaxBodyBytes() throws IOException {
+        call(config(HttpLoggingConfig.Level.BODY).maxBodyBytes(8).build(), 1);
+
+        assertThat(messages()).contains("--> body: {\"order\"", "<-- body: {\"answer");
+    }
+
+    @Test
+    void configRejectsNonPositiveLimits() {
+        assertThatThrownBy(() -> config(HttpLoggingConfig.Level.BODY).bodySampleRate(0).build())
+                .isInstanceOf(FoxdeliException.class);
+        assertThatThrownBy(() -> config(HttpLoggingConfig.Level.BODY).maxBodyBytes(-1).build())
+                .isInstanceOf(FoxdeliException.class);
+        assertThat(HttpLoggingConfig.defaults().bodySampleRate()).isEqualTo(1);
+        assertThat(HttpLoggingConfig.defaults().maxBodyBytes()).isEqualTo(4096);
+    }
+
+    private static HttpLoggingConfig.HttpLoggingConfigBuilder config(HttpLoggingConfig.Level level) {
+        return HttpLoggingConfig.builder().level(level);
+    }
+
+    private void call(HttpLoggingConfig config, int calls) throws IOException {
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new LoggingInterceptor(config))
+                .build();
+        for (int i = 1; i <= calls; i++) {
+            server.enqueue(new MockResponse()
+                    .setHeader("X-Response", "answer")
+                    .setBody("{\"answer\":" + i + "}"));
+            Request request = new Request.Builder()
+                    .url(server.url("/orders"))
+                    .header("Authorization", "Bearer secret-token")
+                    .header("X-Request-Id", "request-" + i)
+                    .post(RequestBody.create("{\"order\":" + i + "}", MediaType.get("application/json")))
+                    .build();
+            try (Response response = client.newCall(request).execute()) {
+                assertThat(response.body().string()).isEqualTo("{\"answer\":" + i + "}");
+            }
+        }
+    }
+
+    private List<String> messages() {
+        return appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+    }
+}
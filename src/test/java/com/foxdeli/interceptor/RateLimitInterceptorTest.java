@@ -0,0 +1,88 @@
+package com.foxdeli.interceptor;
+
+import com.foxdeli.ratelimit.RateLimitFeedback;
+import com.foxdeli.ratelimit.RateLimiter;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitInterceptorTest {
+
+    private final List<RateLimitFeedback> feedbacks = new CopyOnWriteArrayList<>();
+
+    private final RateLimiter recording = new RateLimiter() {
+        @Override
+        public void acquire() {
+        }
+
+        @Override
+        public void release(RateLimitFeedback feedback) {
+            feedbacks.add(feedback);
+        }
+    };
+
+    @Test
+    void readsResetInSeconds() throws IOException {
+        RateLimitFeedback feedback = feedback(new MockResponse()
+                .setHeader("X-RateLimit-Remaining", "0")
+                .setHeader("X-RateLimit-Reset", "30"));
+
+        assertThat(feedback.remaining()).isZero();
+        assertThat(feedback.reset()).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void readsResetAsEpochSecond() throws IOException {
+        long reset = Instant.now().getEpochSecond() + 30;
+
+        RateLimitFeedback feedback = feedback(new MockResponse()
+                .setHeader("X-RateLimit-Remaining", "0")
+                .setHeader("X-RateLimit-Reset", Long.toString(reset)));
+
+        assertThat(feedback.reset()).isBetween(Duration.ofSeconds(28), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void readsPastEpochSecondAsImmediateReset() throws IOException {
+        long reset = Instant.now().getEpochSecond() - 5;
+
+        RateLimitFeedback feedback = feedback(new MockResponse()
+                .setHeader("RateLimit-Remaining", "0")
+                .setHeader("RateLimit-Reset", Long.toString(reset)));
+
+        assertThat(feedback.reset()).isZero();
+    }
+
+    @Test
+    void readsRetryAfterOfThrottledResponse() throws IOException {
+        RateLimitFeedback feedback = feedback(new MockResponse().setResponseCode(429).setHeader("Retry-After", "7"));
+
+        assertThat(feedback.isThrottled()).isTrue();
+        assertThat(feedback.retryAfter()).isEqualTo(Duration.ofSeconds(7));
+        assertThat(feedback.reset()).isNull();
+    }
+
+    private RateLimitFeedback feedback(MockResponse response) throws IOException {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(response);
+            OkHttpClient client = new OkHttpClient.Builder()
+                    .addInterceptor(new RateLimitInterceptor(recording))
+                    .build();
+            try (Response ignored = client.newCall(new Request.Builder().url(server.url("/")).build()).execute()) {
+                assertThat(feedbacks).singleElement();
+                return feedbacks.get(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.foxdeli.interceptor;
+
+import com.foxdeli.retry.RetryPolicy;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryInterceptorTest {
+
+    private static final RequestBody BODY = RequestBody.create("{}", MediaType.get("application/json"));
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void retriesGetUntilItSucceeds() throws IOException {
+        RetryInterceptor interceptor = new RetryInterceptor(policy().build());
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(429));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        assertThat(call(interceptor, request().get())).isEqualTo(200);
+        assertThat(server.getRequestCount()).isEqualTo(3);
+        assertThat(interceptor.getMetrics().getRetries()).isEqualTo(2);
+    }
+
+    @Test
+    void retriesGetFailingWithConnectionError() throws IOException {
+        RetryInterceptor interceptor = new RetryInterceptor(policy().build());
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        assertThat(call(interceptor, request().get())).isEqualTo(200);
+        assertThat(server.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void doesNotRetryOtherErrors() throws IOException {
+        RetryInterceptor interceptor = new RetryInterceptor(policy().build());
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        assertThat(call(interceptor, request().get())).isEqualTo(500);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void retriesPostAndPatchOnlyWithIdempotencyKey() throws IOException {
+        RetryInterceptor interceptor = new RetryInterceptor(policy().build());
+        for (int i = 0; i < 2; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+        for (int i = 0; i < 2; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+            server.enqueue(new MockResponse().setBody("ok"));
+        }
+
+        assertThat(call(interceptor, request().post(BODY))).isEqualTo(503);
+        assertThat(call(interceptor, request().patch(BODY))).isEqualTo(503);
+        assertThat(server.getRequestCount()).isEqualTo(2);
+
+        String key = RetryInterceptor.IDEMPOTENCY_KEY_HEADER;
+        assertThat(call(interceptor, request().header(key, "order-1").post(BODY))).isEqualTo(200);
+        assertThat(call(interceptor, request().header(key, "parcel-1").patch(BODY))).isEqualTo(200);
+        assertThat(server.getRequestCount()).isEqualTo(6);
+    }
+
+    @Test
+    void waitsForRetryAfterUpToMaxDelay() throws IOException {
+        RetryInterceptor interceptor = new RetryInterceptor(policy().maxDelay(Duration.ofMillis(300)).build());
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "60"));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        long start = System.nanoTime();
+        assertThat(call(interceptor, request().get())).isEqualTo(200);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(elapsed).isBetween(300L, 5_000L);
+        assertThat(interceptor.getMetrics().getBackoffTime()).isEqualTo(Duration.ofMillis(300));
+    }
+
+    @Test
+    void stopsRetryingOnceTheBudgetIsExhausted() throws IOException {
+        RetryInterceptor interceptor = new RetryInterceptor(policy()
+                .maxRetries(5)
+                .minBudget(1)
+                .budgetRatio(0.0)
+                .build());
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+
+        // The single retry of the budget is spent by the first call.
+        assertThat(call(interceptor, request().get())).isEqualTo(503);
+        assertThat(server.getRequestCount()).isEqualTo(2);
+        assertThat(call(interceptor, request().get())).isEqualTo(503);
+        assertThat(server.getRequestCount()).isEqualTo(3);
+
+        assertThat(interceptor.getMetrics().getRetries()).isEqualTo(1);
+        assertThat(interceptor.getMetrics().getExhaustedBudget()).isEqualTo(2);
+    }
+
+    @Test
+    void stopsAfterMaxRetries() throws IOException {
+        RetryInterceptor interceptor = new RetryInterceptor(policy().maxRetries(2).build());
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setResponseCode(502));
+        }
+
+        assertThat(call(interceptor, request().get())).isEqualTo(502);
+        assertThat(server.getRequestCount()).isEqualTo(3);
+        assertThat(interceptor.getMetrics().getExhaustedBudget()).isZero();
+    }
+
+    private static RetryPolicy.RetryPolicyBuilder policy() {
+        return RetryPolicy.builder().baseDelay(Duration.ofMillis(1)).maxDelay(Duration.ofMillis(10));
+    }
+
+    private Request.Builder request() {
+        return new Request.Builder().url(server.url("/orders"));
+    }
+
+    private static int call(RetryInterceptor interceptor, Request.Builder request) throws IOException {
+        OkHttpClient client = new OkHttpClient.Builder()
+                .retryOnConnectionFailure(false)
+                .addInterceptor(interceptor)
+                .build();
+        try (Response response = client.newCall(request.build()).execute()) {
+            return response.code();
+        }
+    }
+}
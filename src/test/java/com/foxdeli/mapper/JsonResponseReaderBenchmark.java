@@ -0,0 +1,97 @@
+package com.foxdeli.mapper;
+
+import com.foxdeli.model.common.ParcelTimeline;
+import com.foxdeli.model.response.Order;
+import com.foxdeli.model.response.Parcel;
+import com.foxdeli.orders.api.model.TimelineType;
+import com.foxdeli.support.ApiJson;
+import com.google.gson.stream.JsonReader;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading an order response with `JsonResponseReader` against parsing it into the generated model and
+ * mapping it with `OrderMapper`, which is what `FoxdeliClient` does without `streamingJson`. Run `main` from the test
+ * classpath; the GC profiler reports the bytes allocated per read as `gc.alloc.rate.norm`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonResponseReaderBenchmark {
+
+    private static final OrderMapper orderMapper = Mappers.getMapper(OrderMapper.class);
+
+    private static final String TIMELINE_ENTRY = """
+            {"timelineId":"6f1c1b9e-2f51-4d47-9a0e-7d3b1c2a4e5f","type":"%s","text":"Parcel picked up",\
+            "created":"2024-01-02T10:15:30Z","author":"carrier","additionalParams":{"depot":"Praha","attempt":2}}"""
+            .formatted(TimelineType.values()[0].toString());
+
+    /**
+     * The number of timeline entries of each of the three parcels of the order.
+     */
+    @Param({"0", "10", "50"})
+    public int timelineEntries;
+
+    private String json;
+
+    @Setup
+    public void createResponse() {
+        String parcel = ApiJson.parcel(Collections.nCopies(timelineEntries, TIMELINE_ENTRY));
+        json = ApiJson.order(String.join(",", parcel, parcel, parcel));
+    }
+
+    @Benchmark
+    public Order generatedModel() {
+        return orderMapper.map(com.foxdeli.orders.api.model.Order.fromJson(json));
+    }
+
+    @Benchmark
+    public Order streaming() throws IOException {
+        return JsonResponseReader.readOrder(new JsonReader(new StringReader(json)));
+    }
+
+    /**
+     * Reads the order and every timeline entry, so the lazily read timelines are materialized too.
+     */
+    @Benchmark
+    public void streamingWithTimelines(Blackhole blackhole) throws IOException {
+        Order order = JsonResponseReader.readOrder(new JsonReader(new StringReader(json)));
+        for (Parcel parcel : order.parcels()) {
+            for (ParcelTimeline entry : parcel.timeline()) {
+                blackhole.consume(entry.additionalParams().get("depot"));
+            }
+        }
+        blackhole.consume(order);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JsonResponseReaderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,154 @@
+package com.foxdeli.mapper;
+
+import com.foxdeli.exception.FoxdeliException;
+import com.foxdeli.model.common.ParcelTimeline;
+import com.foxdeli.model.response.Order;
+import com.foxdeli.model.response.Parcel;
+import com.foxdeli.orders.api.model.TimelineType;
+import com.google.gson.stream.JsonReader;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import static com.foxdeli.support.ApiJson.order;
+import static com.foxdeli.support.ApiJson.parcel;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that `JsonResponseReader` produces the same records as the generated model mapped by `OrderMapper` and
+ * `ParcelMapper`.
+ */
+class JsonResponseReaderTest {
+
+    private static final OrderMapper orderMapper = Mappers.getMapper(OrderMapper.class);
+    private static final ParcelMapper parcelMapper = Mappers.getMapper(ParcelMapper.class);
+
+    private static final String TIMELINE_ENTRY = """
+            {"timelineId":"6f1c1b9e-2f51-4d47-9a0e-7d3b1c2a4e5f","type":"%s","text":"Parcel picked up",\
+            "created":"2024-01-02T10:15:30Z","author":"carrier","additionalParams":%s}"""
+            .formatted(TimelineType.values()[0].toString(), "%s");
+
+    @Test
+    void readsParcelLikeMapper() throws IOException {
+        String json = parcel(List.of(
+                TIMELINE_ENTRY.formatted("{\"depot\":\"Praha\",\"attempt\":2,\"signed\":true}"),
+                TIMELINE_ENTRY.formatted("{}")));
+
+        Parcel streamed = readParcel(json);
+        Parcel mapped = parcelMapper.map(com.foxdeli.orders.api.model.Parcel.fromJson(json));
+
+        assertThat(streamed).isEqualTo(mapped);
+        assertThat(streamed.timeline()).hasSize(2);
+        assertThat(streamed.timeline().get(1).additionalParams()).isNull();
+        assertThat(mapped.timeline().get(1).additionalParams()).isNull();
+    }
+
+    @Test
+    void readsOrderLikeMapper() throws IOException {
+        String json = order(parcel(List.of(TIMELINE_ENTRY.formatted("{\"depot\":\"Brno\"}"))));
+
+        Order streamed = readOrder(json);
+        Order mapped = orderMapper.map(com.foxdeli.orders.api.model.Order.fromJson(json));
+
+        assertThat(streamed).isEqualTo(mapped);
+    }
+
+    @Test
+    void readsEmptyTimelineLikeMapper() throws IOException {
+        String json = parcel(List.of());
+
+        Parcel streamed = readParcel(json);
+        Parcel mapped = parcelMapper.map(com.foxdeli.orders.api.model.Parcel.fromJson(json));
+
+        assertThat(streamed.timeline()).isEmpty();
+        assertThat(streamed).isEqualTo(mapped);
+    }
+
+    @Test
+    void sizesTimelineWithoutReadingIt() throws IOException {
+        Parcel parcel = readParcel(parcel(List.of(TIMELINE_ENTRY.formatted("{}"), TIMELINE_ENTRY.formatted("{}"))));
+        List<ParcelTimeline> timeline = parcel.timeline();
+        LazyJsonList<?> lazy = (LazyJsonList<?>) timeline;
+
+        assertThat(timeline.size()).isEqualTo(2);
+        assertThat(timeline.isEmpty()).isFalse();
+        assertThat(lazy.pendingJson()).isNotNull();
+
+        assertThat(timeline.get(1).author()).isEqualTo("carrier");
+        assertThat(lazy.pendingJson()).isNull();
+        assertThat(timeline.size()).isEqualTo(2);
+    }
+
+    @Test
+    void lazyCollectionsAreModifiableLikeMapped() throws IOException {
+        String json = parcel(List.of(TIMELINE_ENTRY.formatted("{\"depot\":\"Praha\"}")));
+
+        Parcel streamed = readParcel(json);
+        Parcel mapped = parcelMapper.map(com.foxdeli.orders.api.model.Parcel.fromJson(json));
+        for (Parcel parcel : List.of(streamed, mapped)) {
+            ParcelTimeline entry = parcel.timeline().get(0);
+            entry.additionalParams().put("note", "left at the door");
+            parcel.timeline().add(entry);
+        }
+
+        assertThat(streamed).isEqualTo(mapped);
+        assertThat(streamed.timeline()).hasSize(2);
+
+        List<ParcelTimeline> empty = readParcel(parcel(List.of())).timeline();
+        empty.add(streamed.timeline().get(0));
+        assertThat(empty).hasSize(1);
+    }
+
+    @Test
+    void malformedTimelineFailsWhileStreaming() {
+        String entry = parcel(List.of(TIMELINE_ENTRY.formatted("{}")));
+        String type = TimelineType.values()[0].toString();
+
+        assertThatThrownBy(() -> readParcel(entry.replace("\"type\":\"" + type + "\"", "\"type\":\"NO_SUCH_TYPE\"")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> readParcel(entry.replace("2024-01-02T10:15:30Z", "yesterday")))
+                .isInstanceOf(DateTimeParseException.class);
+        assertThatThrownBy(() -> readParcel(entry.replace("6f1c1b9e-2f51-4d47-9a0e-7d3b1c2a4e5f", "not-a-uuid")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> readParcel(entry.replace("\"additionalParams\":{}", "\"additionalParams\":[]")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void pendingTimelineKeepsOnlyKnownFields() throws IOException {
+        String entry = TIMELINE_ENTRY.formatted("{\"depot\":\"Praha\"}");
+        String json = parcel(List.of(entry.replace("\"author\"", "\"unknown\":{\"nested\":[1,2]},\"author\"")));
+
+        Parcel parcel = readParcel(json);
+        String pending = ((LazyJsonList<?>) parcel.timeline()).pendingJson();
+
+        assertThat(pending).doesNotContain("unknown").contains("depot");
+        String known = parcel(List.of(entry));
+        assertThat(parcel).isEqualTo(parcelMapper.map(com.foxdeli.orders.api.model.Parcel.fromJson(known)));
+    }
+
+    @Test
+    void lazyReadFailureKeepsItsCause() {
+        List<String> list = new LazyJsonList<>("[\"a\"]", 1, in -> {
+            throw new IllegalStateException("broken");
+        });
+
+        assertThatThrownBy(() -> list.get(0))
+                .isInstanceOf(FoxdeliException.class)
+                .hasMessageContaining("broken")
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    private static Parcel readParcel(String json) throws IOException {
+        return JsonResponseReader.readParcel(new JsonReader(new StringReader(json)));
+    }
+
+    private static Order readOrder(String json) throws IOException {
+        return JsonResponseReader.readOrder(new JsonReader(new StringReader(json)));
+    }
+}
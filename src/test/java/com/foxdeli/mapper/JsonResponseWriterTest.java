@@ -0,0 +1,86 @@
+package com.foxdeli.mapper;
+
+import com.foxdeli.model.response.Order;
+import com.foxdeli.model.response.Parcel;
+import com.foxdeli.orders.api.model.TimelineType;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static com.foxdeli.support.ApiJson.order;
+import static com.foxdeli.support.ApiJson.parcel;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that records written by `JsonResponseWriter` are read back by `JsonResponseReader` into equal records.
+ */
+class JsonResponseWriterTest {
+
+    private static final ParcelMapper parcelMapper = Mappers.getMapper(ParcelMapper.class);
+
+    private static final String TIMELINE_ENTRY = """
+            {"timelineId":"6f1c1b9e-2f51-4d47-9a0e-7d3b1c2a4e5f","type":"%s","text":"Parcel picked up",\
+            "created":"2024-01-02T10:15:30Z","author":"carrier",\
+            "additionalParams":{"depot":"Praha","attempt":2,"weight":1.50,"signed":true,"tags":["a","b"]}}"""
+            .formatted(TimelineType.values()[0].toString());
+
+    @Test
+    void roundTripsOrderWithPendingTimelines() throws IOException {
+        Order order = readOrder(order(parcel(List.of(TIMELINE_ENTRY, TIMELINE_ENTRY))));
+
+        String written = writeOrder(order);
+
+        assertThat(readOrder(written)).isEqualTo(order);
+        assertThat(writeOrder(readOrder(written))).isEqualTo(written);
+    }
+
+    @Test
+    void roundTripsParcelWithMaterializedTimeline() throws IOException {
+        Parcel parcel = readParcel(parcel(List.of(TIMELINE_ENTRY)));
+        assertThat(parcel.timeline().get(0).additionalParams()).containsKey("depot");
+
+        assertThat(readParcel(writeParcel(parcel))).isEqualTo(parcel);
+    }
+
+    @Test
+    void roundTripsMappedParcel() throws IOException {
+        String json = parcel(List.of(TIMELINE_ENTRY));
+        Parcel mapped = parcelMapper.map(com.foxdeli.orders.api.model.Parcel.fromJson(json));
+
+        assertThat(readParcel(writeParcel(mapped))).isEqualTo(mapped);
+    }
+
+    @Test
+    void roundTripsEmptyParcel() throws IOException {
+        Parcel parcel = Parcel.builder().build();
+
+        assertThat(writeParcel(parcel)).isEqualTo("{}");
+        assertThat(readParcel(writeParcel(parcel))).isEqualTo(parcel);
+    }
+
+    private static String writeOrder(Order order) throws IOException {
+        StringWriter buffer = new StringWriter();
+        JsonResponseWriter.writeOrder(new JsonWriter(buffer), order);
+        return buffer.toString();
+    }
+
+    private static String writeParcel(Parcel parcel) throws IOException {
+        StringWriter buffer = new StringWriter();
+        JsonResponseWriter.writeParcel(new JsonWriter(buffer), parcel);
+        return buffer.toString();
+    }
+
+    private static Order readOrder(String json) throws IOException {
+        return JsonResponseReader.readOrder(new JsonReader(new StringReader(json)));
+    }
+
+    private static Parcel readParcel(String json) throws IOException {
+        return JsonResponseReader.readParcel(new JsonReader(new StringReader(json)));
+    }
+}
@@ -0,0 +1,88 @@
+package com.foxdeli.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private static final RateLimitFeedback THROTTLED = new RateLimitFeedback(429, null, null, null);
+    private static final RateLimitFeedback OK = new RateLimitFeedback(200, null, null, null);
+
+    @Test
+    void requestsThrottledTogetherHalveTheRateOnce() {
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder().permitsPerSecond(64).build();
+
+        for (int i = 0; i < 8; i++) {
+            limiter.release(THROTTLED);
+        }
+
+        assertThat(limiter.getRate()).isEqualTo(32);
+    }
+
+    @Test
+    void rateGrowsBackWithSuccessfulResponses() {
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder().permitsPerSecond(64).build();
+        limiter.release(THROTTLED);
+
+        for (int i = 0; i < 16; i++) {
+            limiter.release(OK);
+        }
+        assertThat(limiter.getRate()).isEqualTo(48);
+
+        for (int i = 0; i < 32; i++) {
+            limiter.release(OK);
+        }
+        assertThat(limiter.getRate()).isEqualTo(64);
+    }
+
+    @Test
+    void throttledResponsePausesRequestsForRetryAfter() {
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder().permitsPerSecond(64).build();
+
+        limiter.release(new RateLimitFeedback(429, Duration.ofSeconds(5), null, null));
+
+        assertThat(limiter.getRemainingPause()).isBetween(Duration.ofSeconds(4), Duration.ofSeconds(5));
+    }
+
+    @Test
+    void exhaustedWindowPausesRequestsUntilItsReset() {
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder().permitsPerSecond(64).build();
+
+        limiter.release(new RateLimitFeedback(200, null, 1L, Duration.ofSeconds(30)));
+        assertThat(limiter.getRemainingPause()).isZero();
+
+        limiter.release(new RateLimitFeedback(200, null, 0L, Duration.ofSeconds(30)));
+        assertThat(limiter.getRemainingPause()).isBetween(Duration.ofSeconds(29), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void pausesAreCappedAtMaxPause() {
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder()
+                .permitsPerSecond(64)
+                .maxPause(Duration.ofSeconds(2))
+                .build();
+
+        limiter.release(new RateLimitFeedback(200, null, 0L, Duration.ofDays(365 * 50)));
+        assertThat(limiter.getRemainingPause()).isBetween(Duration.ofSeconds(1), Duration.ofSeconds(2));
+
+        limiter.release(new RateLimitFeedback(429, Duration.ofHours(1), null, null));
+        assertThat(limiter.getRemainingPause()).isBetween(Duration.ofSeconds(1), Duration.ofSeconds(2));
+    }
+
+    @Test
+    void acquireWaitsForThePause() throws InterruptedException {
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder()
+                .permitsPerSecond(1000)
+                .maxPause(Duration.ofMillis(200))
+                .build();
+        limiter.release(new RateLimitFeedback(429, Duration.ofMinutes(1), null, null));
+
+        long start = System.nanoTime();
+        limiter.acquire();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isBetween(Duration.ofMillis(150), Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,178 @@
+package com.foxdeli.store;
+
+import com.foxdeli.exception.FoxdeliException;
+import com.foxdeli.model.common.ParcelState;
+import com.foxdeli.model.common.ParcelTracking;
+import com.foxdeli.model.response.Parcel;
+import com.foxdeli.orders.api.model.Carrier;
+import com.foxdeli.orders.api.model.DeliveryState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParcelIndexTest {
+
+    private static final Carrier CARRIER = Carrier.values()[0];
+    private static final Carrier OTHER_CARRIER = Carrier.values()[1];
+    private static final DeliveryState DELIVERY = DeliveryState.values()[0];
+    private static final DeliveryState OTHER_DELIVERY = DeliveryState.values()[1];
+
+    @Test
+    void findsParcelsOfCarrierInDeliveryState() {
+        ParcelIndex index = new ParcelIndex();
+        List<Parcel> matching = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            matching.add(parcel(UUID.randomUUID(), CARRIER, DELIVERY));
+            index.put(matching.get(i));
+            index.put(parcel(UUID.randomUUID(), CARRIER, OTHER_DELIVERY));
+            index.put(parcel(UUID.randomUUID(), OTHER_CARRIER, DELIVERY));
+        }
+        index.put(parcel(UUID.randomUUID(), null, DELIVERY));
+
+        assertThat(index.find(CARRIER, DELIVERY)).containsExactlyInAnyOrderElementsOf(matching);
+        assertThat(index.find(OTHER_CARRIER, OTHER_DELIVERY)).isEmpty();
+        assertThat(index.find(null, DELIVERY)).isEmpty();
+        assertThat(index.findByCarrier(CARRIER)).hasSize(20);
+        assertThat(index.findByDelivery(DELIVERY)).hasSize(21);
+    }
+
+    @Test
+    void updatedParcelIsFoundOnlyUnderItsNewKeys() {
+        ParcelIndex index = new ParcelIndex();
+        UUID parcelId = UUID.randomUUID();
+        index.put(parcel(parcelId, CARRIER, DELIVERY));
+
+        Parcel moved = parcel(parcelId, OTHER_CARRIER, OTHER_DELIVERY);
+        index.put(moved);
+
+        assertThat(index.find(CARRIER, DELIVERY)).isEmpty();
+        assertThat(index.find(OTHER_CARRIER, OTHER_DELIVERY)).containsExactly(moved);
+        assertThat(index.findByTrackingNumber(parcelId.toString())).containsExactly(moved);
+        assertThat(index.size()).isEqualTo(1);
+
+        index.remove(parcelId);
+
+        assertThat(index.find(OTHER_CARRIER, OTHER_DELIVERY)).isEmpty();
+        assertThat(index.findByTrackingNumber(parcelId.toString())).isEmpty();
+        assertThat(index.get(parcelId)).isNull();
+    }
+
+    @Test
+    void evictsLeastRecentlyWrittenParcels() {
+        ParcelIndex index = new ParcelIndex(64);
+        Parcel kept = parcel(UUID.randomUUID(), CARRIER, DELIVERY);
+        Parcel last = null;
+        for (int i = 0; i < 1_000; i++) {
+            last = parcel(UUID.randomUUID(), i % 2 == 0 ? CARRIER : OTHER_CARRIER, DELIVERY);
+            index.put(last);
+            // Rewritten after every write, so it is never the least recently written parcel of its segment.
+            index.put(kept);
+        }
+
+        assertThat(index.size()).isLessThanOrEqualTo(64);
+        assertThat(index.get(kept.parcelId())).isSameAs(kept);
+        assertThat(index.get(last.parcelId())).isSameAs(last);
+        assertThat(index.findByCarrier(CARRIER).size() + index.findByCarrier(OTHER_CARRIER).size())
+                .isEqualTo(index.size());
+        assertThat(index.findByDelivery(DELIVERY)).hasSize(index.size());
+    }
+
+    @Test
+    void rejectsNonPositiveMaxParcels() {
+        assertThatThrownBy(() -> new ParcelIndex(0)).isInstanceOf(FoxdeliException.class);
+    }
+
+    @Test
+    void concurrentUpdatesKeepIndexesConsistent() throws Exception {
+        ParcelIndex index = new ParcelIndex(128);
+        List<UUID> parcelIds = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            parcelIds.add(UUID.randomUUID());
+        }
+        Carrier[] carriers = {CARRIER, OTHER_CARRIER};
+        DeliveryState[] states = {DELIVERY, OTHER_DELIVERY};
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch writersDone = new CountDownLatch(4);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    UUID parcelId = parcelIds.get(random.nextInt(parcelIds.size()));
+                    if (random.nextInt(10) == 0) {
+                        index.remove(parcelId);
+                    } else {
+                        index.put(parcel(parcelId, carriers[random.nextInt(2)], states[random.nextInt(2)]));
+                    }
+                }
+                writersDone.countDown();
+            }));
+        }
+        for (int t = 0; t < 2; t++) {
+            threads.add(new Thread(() -> {
+                while (writing.get()) {
+                    for (Carrier carrier : carriers) {
+                        for (DeliveryState delivery : states) {
+                            for (Parcel parcel : index.find(carrier, delivery)) {
+                                if (parcel.activeTracking().carrier() != carrier
+                                        || parcel.state().delivery() != delivery) {
+                                    failures.add(new AssertionError("Found under a key it does not have: " + parcel));
+                                }
+                            }
+                        }
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        assertThat(writersDone.await(30, TimeUnit.SECONDS)).isTrue();
+        writing.set(false);
+        for (Thread thread : threads) {
+            thread.join(10_000);
+        }
+
+        assertThat(failures).isEmpty();
+        assertThat(index.size()).isLessThanOrEqualTo(128);
+        int found = 0;
+        for (Carrier carrier : carriers) {
+            for (DeliveryState delivery : states) {
+                for (Parcel parcel : index.find(carrier, delivery)) {
+                    assertThat(index.get(parcel.parcelId())).isSameAs(parcel);
+                    found++;
+                }
+            }
+        }
+        assertThat(found).isEqualTo(index.size());
+        for (UUID parcelId : parcelIds) {
+            Parcel parcel = index.get(parcelId);
+            assertThat(index.findByTrackingNumber(parcelId.toString()))
+                    .containsExactlyElementsOf(parcel == null ? List.of() : List.of(parcel));
+        }
+    }
+
+    /**
+     * Creates a parcel tracked with the carrier, using the parcel ID as the tracking number.
+     */
+    private static Parcel parcel(UUID parcelId, Carrier carrier, DeliveryState delivery) {
+        return Parcel.builder()
+                .parcelId(parcelId)
+                .state(ParcelState.builder().delivery(delivery).build())
+                .activeTracking(carrier == null ? null : ParcelTracking.builder()
+                        .carrier(carrier)
+                        .number(parcelId.toString())
+                        .build())
+                .build();
+    }
+}
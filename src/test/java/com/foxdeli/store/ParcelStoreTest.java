@@ -0,0 +1,187 @@
+package com.foxdeli.store;
+
+import com.foxdeli.mapper.JsonResponseReader;
+import com.foxdeli.model.common.DeliveryWindow;
+import com.foxdeli.model.common.ParcelState;
+import com.foxdeli.model.common.ParcelTracking;
+import com.foxdeli.model.response.Parcel;
+import com.foxdeli.orders.api.model.Carrier;
+import com.foxdeli.orders.api.model.DeliveryState;
+import com.foxdeli.orders.api.model.TrackingState;
+import com.foxdeli.support.ApiJson;
+import com.google.gson.stream.JsonReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParcelStoreTest {
+
+    private static final String CARRIER_TRACKING_URL = "https://carrier.example.com/track";
+
+    @Test
+    void readsBackTheHeldFields() {
+        ParcelStore store = ParcelStore.builder().build();
+        Parcel parcel = parcel(UUID.randomUUID(), "DR1");
+        Parcel bare = Parcel.builder().parcelId(UUID.randomUUID()).build();
+
+        store.put(parcel);
+        store.put(bare);
+
+        assertThat(store.get(parcel.parcelId())).isEqualTo(parcel);
+        assertThat(store.get(bare.parcelId())).isEqualTo(bare);
+        ParcelView view = new ParcelView();
+        assertThat(store.read(parcel.parcelId(), view)).isTrue();
+        assertThat(view.trackingNumber()).isEqualTo("DR1");
+        assertThat(view.maxStoreDateMillis()).isEqualTo(parcel.maxStoreDate().toEpochMilli());
+        assertThat(store.read(UUID.randomUUID(), view)).isFalse();
+        assertThat(view.parcelId()).isEqualTo(parcel.parcelId());
+    }
+
+    @Test
+    void putReplacesParcelWithSameId() {
+        ParcelStore store = ParcelStore.builder().build();
+        UUID parcelId = UUID.randomUUID();
+        Parcel replacement = Parcel.builder().parcelId(parcelId).trackingState(TrackingState.values()[1]).build();
+
+        store.put(parcel(parcelId, "DR1"));
+        store.put(replacement);
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.get(parcelId)).isEqualTo(replacement);
+    }
+
+    @Test
+    void removeMovesTheLastRowIntoTheGap() {
+        ParcelStore store = ParcelStore.builder().build();
+        List<Parcel> parcels = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            parcels.add(parcel(UUID.randomUUID(), "DR" + i));
+            store.put(parcels.get(i));
+        }
+
+        assertThat(store.remove(parcels.get(1).parcelId())).isTrue();
+        assertThat(store.remove(parcels.get(1).parcelId())).isFalse();
+        // The last parcel now takes the removed row and is still found by its ID.
+        assertThat(store.get(parcels.get(4).parcelId())).isEqualTo(parcels.get(4));
+        assertThat(store.remove(parcels.get(4).parcelId())).isTrue();
+        assertThat(store.remove(parcels.get(0).parcelId())).isTrue();
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.contains(parcels.get(0).parcelId())).isFalse();
+        Set<Parcel> held = new HashSet<>();
+        store.forEach(new ParcelView(), view -> held.add(view.toParcel()));
+        assertThat(held).containsExactlyInAnyOrder(parcels.get(2), parcels.get(3));
+
+        store.put(parcels.get(1));
+        assertThat(store.get(parcels.get(1).parcelId())).isEqualTo(parcels.get(1));
+        assertThat(store.size()).isEqualTo(3);
+    }
+
+    @Test
+    void growsBeyondItsInitialCapacity() {
+        ParcelStore store = ParcelStore.builder().initialCapacity(16).build();
+        List<Parcel> parcels = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            parcels.add(parcel(UUID.randomUUID(), "DR" + i));
+            store.put(parcels.get(i));
+        }
+
+        assertThat(store.size()).isEqualTo(1000);
+        for (Parcel parcel : parcels) {
+            assertThat(store.get(parcel.parcelId())).isEqualTo(parcel);
+        }
+
+        store.clear();
+        assertThat(store.size()).isZero();
+        assertThat(store.get(parcels.get(0).parcelId())).isNull();
+    }
+
+    @Test
+    void heldParcelTakesAboutOneHundredThirtyBytes() {
+        int count = 100_000;
+        List<Parcel> parcels = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            parcels.add(parcel(UUID.randomUUID(), null));
+        }
+
+        long before = usedHeap();
+        ParcelStore store = ParcelStore.builder().initialCapacity(count).build();
+        parcels.forEach(store::put);
+        long perParcel = (usedHeap() - before) / count;
+        Reference.reachabilityFence(parcels);
+
+        assertThat(store.size()).isEqualTo(count);
+        // 78 bytes in the columns and 52 bytes in the index, whose table is 38 % full at this count.
+        assertThat(perParcel).isBetween(90L, 160L);
+    }
+
+    @Test
+    void storeTakesAFractionOfTheHeapOfParcels() throws IOException {
+        int count = 20_000;
+        String json = ApiJson.parcel(List.of());
+
+        long before = usedHeap();
+        List<Parcel> parcels = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String parcelJson = json.replace("0b5c8f3e-8d7a-4c1e-9f2b-3a6d5e4c7b21", UUID.randomUUID().toString());
+            parcels.add(JsonResponseReader.readParcel(new JsonReader(new StringReader(parcelJson))));
+        }
+        long parcelBytes = usedHeap() - before;
+
+        before = usedHeap();
+        ParcelStore store = ParcelStore.builder().initialCapacity(count).build();
+        parcels.forEach(store::put);
+        long storeBytes = usedHeap() - before;
+
+        assertThat(store.size()).isEqualTo(parcels.size());
+        assertThat(storeBytes * 4).isLessThan(parcelBytes);
+    }
+
+    private static Parcel parcel(UUID parcelId, String trackingNumber) {
+        Instant now = Instant.ofEpochMilli(System.currentTimeMillis());
+        return Parcel.builder()
+                .parcelId(parcelId)
+                .orderId(UUID.randomUUID())
+                .state(ParcelState.builder()
+                        .delivery(DeliveryState.values()[0])
+                        .deliverToday(true)
+                        .returning(false)
+                        .build())
+                .trackingState(TrackingState.values()[0])
+                .maxStoreDate(now)
+                .deliveryWindow(new DeliveryWindow(now, now.plusSeconds(3600)))
+                .activeTracking(trackingNumber == null ? null : ParcelTracking.builder()
+                        .carrier(Carrier.values()[0])
+                        .number(trackingNumber)
+                        .url("https://tracking.example.com")
+                        .referenceId("REF-" + trackingNumber)
+                        .build())
+                .carrierTrackingUrl(CARRIER_TRACKING_URL)
+                .build();
+    }
+
+    /**
+     * Returns the heap in use after collecting garbage.
+     */
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,101 @@
+package com.foxdeli.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keys `(i, i ^ group)` all hash to the same slot, which is how the tests build clusters of colliding entries.
+ */
+class UuidIndexTest {
+
+    @Test
+    void putsReplacesAndRemoves() {
+        UuidIndex index = new UuidIndex(16);
+        UUID key = UUID.randomUUID();
+        long most = key.getMostSignificantBits();
+        long least = key.getLeastSignificantBits();
+
+        assertThat(index.get(most, least)).isEqualTo(-1);
+        index.put(most, least, 7);
+        index.put(most, least, 8);
+        assertThat(index.get(most, least)).isEqualTo(8);
+        assertThat(index.size()).isEqualTo(1);
+
+        assertThat(index.remove(most, least)).isEqualTo(8);
+        assertThat(index.remove(most, least)).isEqualTo(-1);
+        assertThat(index.get(most, least)).isEqualTo(-1);
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void rehashKeepsAllEntries() {
+        UuidIndex index = new UuidIndex(16);
+        UUID[] keys = new UUID[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = UUID.randomUUID();
+            index.put(keys[i].getMostSignificantBits(), keys[i].getLeastSignificantBits(), i);
+        }
+
+        assertThat(index.size()).isEqualTo(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            assertThat(index.get(keys[i].getMostSignificantBits(), keys[i].getLeastSignificantBits())).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void removalShiftsBackCollidingEntriesAcrossTheEndOfTheTable() {
+        // Nine entries fill more than half of the 16 slots, so the clusters of the groups whose slot lies in the upper
+        // half wrap around the end of the table.
+        for (long group = 0; group < 16; group++) {
+            for (int removed = 0; removed < 9; removed++) {
+                UuidIndex index = new UuidIndex(9);
+                for (int i = 0; i < 9; i++) {
+                    index.put(i, i ^ group, i);
+                }
+
+                assertThat(index.remove(removed, removed ^ group)).isEqualTo(removed);
+
+                for (int i = 0; i < 9; i++) {
+                    assertThat(index.get(i, i ^ group)).isEqualTo(i == removed ? -1 : i);
+                }
+                index.put(removed, removed ^ group, removed);
+                assertThat(index.get(removed, removed ^ group)).isEqualTo(removed);
+                assertThat(index.size()).isEqualTo(9);
+            }
+        }
+    }
+
+    @Test
+    void behavesLikeHashMapUnderRandomOperations() {
+        Random random = new Random(42);
+        long[][] keys = new long[64][];
+        for (int i = 0; i < keys.length; i++) {
+            // A few groups of colliding keys, and some keys of their own.
+            long most = random.nextLong();
+            keys[i] = i < 48 ? new long[]{most, most ^ (i % 4)} : new long[]{most, random.nextLong()};
+        }
+        UuidIndex index = new UuidIndex(16);
+        Map<Integer, Integer> expected = new HashMap<>();
+
+        for (int operation = 0; operation < 5_000; operation++) {
+            int key = random.nextInt(keys.length);
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertThat(index.remove(keys[key][0], keys[key][1])).isEqualTo(removed == null ? -1 : removed);
+            } else {
+                expected.put(key, operation);
+                index.put(keys[key][0], keys[key][1], operation);
+            }
+            for (int i = 0; i < keys.length; i++) {
+                assertThat(index.get(keys[i][0], keys[i][1])).isEqualTo(expected.getOrDefault(i, -1));
+            }
+            assertThat(index.size()).isEqualTo(expected.size());
+        }
+    }
+}
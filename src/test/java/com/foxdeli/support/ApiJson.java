@@ -0,0 +1,76 @@
+package com.foxdeli.support;
+
+import com.foxdeli.orders.api.model.AdditionalCostType;
+import com.foxdeli.orders.api.model.Carrier;
+import com.foxdeli.orders.api.model.CountryCode;
+import com.foxdeli.orders.api.model.DeliveryState;
+import com.foxdeli.orders.api.model.DestinationType;
+import com.foxdeli.orders.api.model.ImportantState;
+import com.foxdeli.orders.api.model.OrderState;
+import com.foxdeli.orders.api.model.PaymentMethod;
+import com.foxdeli.orders.api.model.PaymentService;
+import com.foxdeli.orders.api.model.ProductType;
+import com.foxdeli.orders.api.model.TrackingState;
+import com.foxdeli.orders.api.model.UrgentState;
+
+import java.util.List;
+
+/**
+ * Orders and parcels as the Foxdeli API returns them, for tests. Enum fields take the first value of their enum.
+ */
+public final class ApiJson {
+
+    private ApiJson() {
+    }
+
+    /**
+     * Returns a parcel with every field set and the given timeline entries.
+     */
+    public static String parcel(List<String> timeline) {
+        return """
+                {"id":"0b5c8f3e-8d7a-4c1e-9f2b-3a6d5e4c7b21","orderId":"1d2e3f40-5a6b-4c7d-8e9f-0a1b2c3d4e5f",\
+                "dimensions":{"weight":1.25,"height":10,"length":20,"width":30},\
+                "state":{"delivery":"%s","important":"%s","urgent":"%s","deliverToday":false,"returning":false},\
+                "trackingState":"%s","maxStoreDate":"2024-01-09T18:00:00Z",\
+                "deliveryWindow":{"from":"2024-01-03T08:00:00Z","to":"2024-01-03T16:00:00Z"},\
+                "activeTracking":{"trackingId":"9a8b7c6d-5e4f-4a3b-8c2d-1e0f9a8b7c6d","carrier":"%s",\
+                "number":"DR123456789CZ","url":"https://tracking.example.com/DR123456789CZ","referenceId":"REF-1",\
+                "carrierConfigurationId":"2c3d4e5f-6a7b-4c8d-9e0f-1a2b3c4d5e6f","courierPhone":"+420123456789"},\
+                "timeline":[%s],"products":["SKU-1","SKU-2"],\
+                "carrierTrackingUrl":"https://carrier.example.com/DR123456789CZ"}"""
+                .formatted(value(DeliveryState.values()), value(ImportantState.values()), value(UrgentState.values()),
+                        value(TrackingState.values()), value(Carrier.values()), String.join(",", timeline));
+    }
+
+    /**
+     * Returns an order with every field set and the given parcel.
+     */
+    public static String order(String parcel) {
+        return """
+                {"id":"1d2e3f40-5a6b-4c7d-8e9f-0a1b2c3d4e5f","platform":"shoptet","orderNumber":"2024-0001",\
+                "orderState":"%s","marketId":"3e4f5a6b-7c8d-4e9f-8a0b-1c2d3e4f5a6b",\
+                "eshopId":"4f5a6b7c-8d9e-4f0a-9b1c-2d3e4f5a6b7c","externalIdentifier":"EXT-1",\
+                "destination":{"type":"%s","address":{"line1":"Vodičkova 1","line2":"Floor 2","city":"Praha",\
+                "postalCode":"11000","countryCode":"%s","state":"Praha","region":"Praha","longitude":14.42,\
+                "latitude":50.08},"parcelShop":{"carrier":"%s","countryCode":"%s","parcelShopId":"PS-1"}},\
+                "price":{"amount":1234.50,"currency":"CZK"},\
+                "additionalCosts":[{"type":"%s","price":{"amount":99,"currency":"CZK"},"name":"Shipping"}],\
+                "cashOnDelivery":{"amount":1333.50,"currency":"CZK"},"payment":{"method":"%s","service":"%s"},\
+                "customer":{"name":"Jan Novák","email":"jan@example.com","phone":"+420123456789"},\
+                "parcels":[%s],\
+                "products":[{"type":"%s","sku":"SKU-1","name":"Mug","description":"A mug",\
+                "url":"https://shop.example.com/mug","image":"https://shop.example.com/mug.png",\
+                "price":{"amount":199.90,"currency":"CZK"},"vat":21,"quantity":2,"referencedSku":"SKU-0"}],\
+                "cancelled":"2024-01-05T12:00:00Z","inImportantState":false,"inUrgentState":true,\
+                "snooze":{"until":"2024-01-06T12:00:00Z","author":"support","note":"Waiting for the customer",\
+                "snoozed":true}}"""
+                .formatted(value(OrderState.values()), value(DestinationType.values()), value(CountryCode.values()),
+                        value(Carrier.values()), value(CountryCode.values()), value(AdditionalCostType.values()),
+                        value(PaymentMethod.values()), value(PaymentService.values()), parcel,
+                        value(ProductType.values()));
+    }
+
+    private static String value(Enum<?>[] values) {
+        return values[0].toString();
+    }
+}
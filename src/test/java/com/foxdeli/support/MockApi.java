@@ -0,0 +1,104 @@
+package com.foxdeli.support;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.foxdeli.FoxdeliClient;
+import com.foxdeli.config.HttpClientConfig;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * Helpers for tests running the SDK against a `MockWebServer` instead of the Foxdeli API.
+ */
+public final class MockApi {
+
+    private MockApi() {
+    }
+
+    /**
+     * Creates a client sending every request to the server, keeping its path and query.
+     */
+    public static OkHttpClient redirectingClient(MockWebServer server) {
+        return new OkHttpClient.Builder()
+                .addInterceptor(redirectTo(server))
+                .build();
+    }
+
+    /**
+     * Creates a client builder authenticating against and sending every request to the server.
+     * Use it with a `dispatcher` that answers the token requests.
+     */
+    public static FoxdeliClient.FoxdeliClientBuilder client(MockWebServer server) {
+        return FoxdeliClient.builder()
+                .username("user")
+                .password("password")
+                .httpConfig(HttpClientConfig.builder().okHttpClient(redirectingClient(server)).build());
+    }
+
+    /**
+     * Creates a dispatcher answering token requests with valid tokens and all other requests with the given handler.
+     */
+    public static Dispatcher dispatcher(Function<RecordedRequest, MockResponse> handler) {
+        String accessToken = jwt(Instant.now().plus(Duration.ofHours(1)));
+        String refreshToken = jwt(Instant.now().plus(Duration.ofDays(1)));
+        return new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return isTokenRequest(request) ? tokenPair(accessToken, refreshToken) : handler.apply(request);
+            }
+        };
+    }
+
+    public static Interceptor redirectTo(MockWebServer server) {
+        return chain -> {
+            HttpUrl original = chain.request().url();
+            HttpUrl target = server.url("/").newBuilder()
+                    .encodedPath(original.encodedPath())
+                    .encodedQuery(original.encodedQuery())
+                    .build();
+            return chain.proceed(chain.request().newBuilder().url(target).build());
+        };
+    }
+
+    /**
+     * Creates a signed JWT expiring at the given instant.
+     */
+    public static String jwt(Instant expiresAt) {
+        return JWT.create()
+                .withSubject("test")
+                .withIssuedAt(new Date())
+                .withExpiresAt(Date.from(expiresAt))
+                .sign(Algorithm.HMAC256("test"));
+    }
+
+    /**
+     * Creates a response of the token API.
+     */
+    public static MockResponse tokenPair(String accessToken, String refreshToken) {
+        return json("{\"token\":\"" + accessToken + "\",\"refreshToken\":\"" + refreshToken + "\"}");
+    }
+
+    /**
+     * Checks if the request authorizes or refreshes tokens, as only those carry credentials or a refresh token.
+     */
+    public static boolean isTokenRequest(RecordedRequest request) {
+        String body = request.getBody().clone().readUtf8();
+        return body.contains("\"password\"") || body.contains("\"refreshToken\"");
+    }
+
+    public static MockResponse json(String body) {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(body);
+    }
+}
@@ -0,0 +1,98 @@
+package com.foxdeli.tracing.opentelemetry;
+
+import com.foxdeli.FoxdeliClient;
+import com.foxdeli.config.HttpClientConfig;
+import com.foxdeli.support.MockApi;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenTelemetryTracingTest {
+
+    @Test
+    void httpAttemptsAreChildrenOfTheOperationSpans() throws Exception {
+        String accessToken = MockApi.jwt(Instant.now().plus(Duration.ofHours(1)));
+        String refreshToken = MockApi.jwt(Instant.now().plus(Duration.ofDays(1)));
+        List<RecordedRequest> retrievals = new CopyOnWriteArrayList<>();
+        InMemorySpanExporter exporter = InMemorySpanExporter.create();
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder().setTracerProvider(tracerProvider).build();
+        Span test = openTelemetry.getTracer("test").spanBuilder("test").startSpan();
+
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(new Dispatcher() {
+                @Override
+                public MockResponse dispatch(RecordedRequest request) {
+                    if (MockApi.isTokenRequest(request)) {
+                        return MockApi.tokenPair(accessToken, refreshToken);
+                    }
+                    retrievals.add(request);
+                    String path = request.getPath();
+                    String orderId = path.substring(path.lastIndexOf('/') + 1);
+                    return MockApi.json("{\"id\":\"" + orderId + "\",\"orderNumber\":\"1001\"}");
+                }
+            });
+
+            try (FoxdeliClient client = FoxdeliClient.builder()
+                    .username("user")
+                    .password("password")
+                    .httpConfig(HttpClientConfig.builder().okHttpClient(MockApi.redirectingClient(server)).build())
+                    .tracing(new OpenTelemetryTracing(openTelemetry))
+                    .streamingJson(true)
+                    .build();
+                 Scope ignored = test.makeCurrent()) {
+                client.getOrder(UUID.randomUUID());
+                client.getOrderAsync(UUID.randomUUID()).get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            test.end();
+            tracerProvider.close();
+        }
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        List<SpanData> operations = named(spans, "foxdeli.getOrder");
+        List<SpanData> attempts = named(spans, "GET");
+        assertThat(operations).hasSize(2).allSatisfy(operation -> {
+            assertThat(operation.getTraceId()).isEqualTo(test.getSpanContext().getTraceId());
+            assertThat(operation.getParentSpanId()).isEqualTo(test.getSpanContext().getSpanId());
+        });
+        // The synchronous and the asynchronous attempt each belong to their own operation.
+        Set<String> operationIds = operations.stream().map(SpanData::getSpanId).collect(Collectors.toSet());
+        assertThat(attempts).hasSize(2);
+        assertThat(attempts.stream().map(SpanData::getParentSpanId).collect(Collectors.toSet()))
+                .isEqualTo(operationIds);
+
+        Set<String> traceparents = attempts.stream()
+                .map(attempt -> "00-" + attempt.getTraceId() + "-" + attempt.getSpanId() + "-01")
+                .collect(Collectors.toSet());
+        assertThat(retrievals).hasSize(2);
+        assertThat(retrievals.stream().map(request -> request.getHeader("traceparent")).collect(Collectors.toSet()))
+                .isEqualTo(traceparents);
+    }
+
+    private static List<SpanData> named(List<SpanData> spans, String name) {
+        return spans.stream().filter(span -> span.getName().equals(name)).toList();
+    }
+}
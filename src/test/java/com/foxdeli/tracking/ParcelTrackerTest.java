@@ -0,0 +1,201 @@
+package com.foxdeli.tracking;
+
+import com.foxdeli.FoxdeliClient;
+import com.foxdeli.orders.api.model.DeliveryState;
+import com.foxdeli.orders.api.model.TimelineType;
+import com.foxdeli.support.ApiJson;
+import com.foxdeli.support.MockApi;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Polls a parcel served by a `MockWebServer`. The served parcel is in an urgent state, so it is polled every
+ * `urgentInterval`.
+ */
+class ParcelTrackerTest {
+
+    private static final String TIMELINE_ENTRY = """
+            {"timelineId":"%s","type":"%s","text":"Parcel picked up","created":"%s","author":"carrier",\
+            "additionalParams":{}}""";
+
+    private static final String FIRST_ENTRY = timelineEntry("2024-01-02T10:15:30Z");
+    private static final String SECOND_ENTRY = timelineEntry("2024-01-03T08:00:00Z");
+
+    private final AtomicReference<String> served = new AtomicReference<>(ApiJson.parcel(List.of(FIRST_ENTRY)));
+    private final AtomicInteger polls = new AtomicInteger();
+    private final List<ParcelChange> changes = new CopyOnWriteArrayList<>();
+    private final UUID orderId = UUID.randomUUID();
+    private final UUID parcelId = UUID.randomUUID();
+
+    private final CountDownLatch blockedPollReceived = new CountDownLatch(1);
+    private final CountDownLatch releaseBlockedPoll = new CountDownLatch(1);
+
+    /**
+     * Polls serving a parcel containing this text wait for `releaseBlockedPoll`.
+     */
+    private volatile String blockedWhenServing;
+
+    private MockWebServer server;
+    private FoxdeliClient client;
+    private ParcelTracker tracker;
+
+    @BeforeEach
+    void startTracker() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(MockApi.dispatcher(request -> {
+            String parcel = served.get();
+            polls.incrementAndGet();
+            String blocked = blockedWhenServing;
+            if (blocked != null && parcel.contains(blocked)) {
+                blockedPollReceived.countDown();
+                await(releaseBlockedPoll);
+            }
+            return MockApi.json(parcel);
+        }));
+        server.start();
+        client = MockApi.client(server).build();
+        tracker = ParcelTracker.builder()
+                .client(client)
+                .urgentInterval(Duration.ofMillis(50))
+                .build();
+        tracker.addListener(changes::add);
+    }
+
+    @AfterEach
+    void stopTracker() throws IOException {
+        releaseBlockedPoll.countDown();
+        tracker.close();
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void firstPollRecordsBaselineWithoutChanges() {
+        tracker.watch(orderId, parcelId);
+
+        awaitCondition(() -> polls.get() >= 3);
+        assertThat(changes).isEmpty();
+        assertThat(tracker.watched()).isEqualTo(1);
+    }
+
+    @Test
+    void changesOfUntrackedFieldsAreNotReported() {
+        tracker.watch(orderId, parcelId);
+        awaitCondition(() -> polls.get() >= 1);
+
+        served.set(served.get().replace("\"products\":[\"SKU-1\",\"SKU-2\"]", "\"products\":[\"SKU-3\"]"));
+        int pollsBefore = polls.get();
+        awaitCondition(() -> polls.get() >= pollsBefore + 3);
+
+        assertThat(changes).isEmpty();
+    }
+
+    @Test
+    void reportsStateChange() {
+        DeliveryState initial = DeliveryState.values()[0];
+        DeliveryState changed = DeliveryState.values()[1];
+        tracker.watch(orderId, parcelId);
+        awaitCondition(() -> polls.get() >= 1);
+
+        served.set(served.get().replace("\"delivery\":\"" + initial + "\"", "\"delivery\":\"" + changed + "\""));
+        awaitCondition(() -> !changes.isEmpty());
+
+        assertThat(changes).singleElement().isInstanceOfSatisfying(ParcelChange.StateChanged.class, change -> {
+            assertThat(change.previousDelivery()).isEqualTo(initial);
+            assertThat(change.delivery()).isEqualTo(changed);
+            assertThat(change.previousTrackingState()).isEqualTo(change.trackingState());
+            assertThat(change.parcel().state().delivery()).isEqualTo(changed);
+        });
+    }
+
+    @Test
+    void reportsOnlyNewTimelineEntries() {
+        tracker.watch(orderId, parcelId);
+        awaitCondition(() -> polls.get() >= 1);
+
+        served.set(ApiJson.parcel(List.of(FIRST_ENTRY, SECOND_ENTRY)));
+        awaitCondition(() -> !changes.isEmpty());
+
+        assertThat(changes).singleElement().isInstanceOfSatisfying(ParcelChange.TimelineAdded.class, change -> {
+            assertThat(change.entries()).singleElement()
+                    .satisfies(entry -> assertThat(entry.created()).isEqualTo(Instant.parse("2024-01-03T08:00:00Z")));
+            assertThat(change.parcel().timeline()).hasSize(2);
+        });
+    }
+
+    @Test
+    void reportsTrackingNumberChange() {
+        tracker.watch(orderId, parcelId);
+        awaitCondition(() -> polls.get() >= 1);
+
+        served.set(served.get().replace("\"number\":\"DR123456789CZ\"", "\"number\":\"DR987654321CZ\""));
+        awaitCondition(() -> !changes.isEmpty());
+
+        assertThat(changes).singleElement().isInstanceOfSatisfying(ParcelChange.TrackingNumberChanged.class,
+                change -> {
+                    assertThat(change.previousNumber()).isEqualTo("DR123456789CZ");
+                    assertThat(change.number()).isEqualTo("DR987654321CZ");
+                });
+    }
+
+    @Test
+    void parcelUnwatchedDuringPollIsNeitherReportedNorPolledAgain() throws Exception {
+        tracker.watch(orderId, parcelId);
+        awaitCondition(() -> polls.get() >= 1);
+
+        blockedWhenServing = "DR987654321CZ";
+        served.set(served.get().replace("\"number\":\"DR123456789CZ\"", "\"number\":\"DR987654321CZ\""));
+        assertThat(blockedPollReceived.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(tracker.unwatch(parcelId)).isTrue();
+        int pollsBefore = polls.get();
+        releaseBlockedPoll.countDown();
+        Thread.sleep(300);
+
+        assertThat(changes).isEmpty();
+        assertThat(polls.get()).isEqualTo(pollsBefore);
+        assertThat(tracker.watched()).isZero();
+        assertThat(tracker.unwatch(parcelId)).isFalse();
+    }
+
+    private static String timelineEntry(String created) {
+        return TIMELINE_ENTRY.formatted(UUID.randomUUID(), TimelineType.values()[0].toString(), created);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
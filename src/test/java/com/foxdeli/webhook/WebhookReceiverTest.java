@@ -0,0 +1,175 @@
+package com.foxdeli.webhook;
+
+import com.foxdeli.FoxdeliClient;
+import com.foxdeli.cache.CacheConfig;
+import com.foxdeli.store.ParcelIndex;
+import com.foxdeli.support.ApiJson;
+import com.foxdeli.support.MockApi;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Posts synthetic notifications to a receiver listening on a free local port.
+ */
+class WebhookReceiverTest {
+
+    private static final String PARCEL = ApiJson.parcel(List.of());
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final List<WebhookEvent> received = new CopyOnWriteArrayList<>();
+    private WebhookReceiver receiver;
+
+    @BeforeEach
+    void startReceiver() {
+        receiver = WebhookReceiver.builder()
+                .address(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+                .secret("secret")
+                .build();
+    }
+
+    @AfterEach
+    void stopReceiver() {
+        receiver.close();
+    }
+
+    @Test
+    void duplicateEventIsAcknowledgedButAppliedOnce() throws Exception {
+        receiver.addListener(received::add);
+
+        assertThat(post(event("evt-1")).statusCode()).isEqualTo(204);
+        assertThat(post(event("evt-1")).statusCode()).isEqualTo(204);
+        assertThat(post(event("evt-2")).statusCode()).isEqualTo(204);
+
+        assertThat(received).extracting(WebhookEvent::id).containsExactly("evt-1", "evt-2");
+        assertThat(received.get(0).parcel().carrierTrackingUrl())
+                .isEqualTo("https://carrier.example.com/DR123456789CZ");
+    }
+
+    @Test
+    void duplicateOfEventBeingAppliedIsRejectedForRetry() throws Exception {
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        receiver.addListener(event -> {
+            received.add(event);
+            applying.countDown();
+            await(release);
+        });
+
+        CompletableFuture<HttpResponse<Void>> first = http.sendAsync(request(event("evt-1")),
+                HttpResponse.BodyHandlers.discarding());
+        assertThat(applying.await(10, TimeUnit.SECONDS)).isTrue();
+        int concurrent = post(event("evt-1")).statusCode();
+        release.countDown();
+
+        assertThat(concurrent).isEqualTo(409);
+        assertThat(first.get(10, TimeUnit.SECONDS).statusCode()).isEqualTo(204);
+        assertThat(post(event("evt-1")).statusCode()).isEqualTo(204);
+        assertThat(received).hasSize(1);
+    }
+
+    @Test
+    void delayedNotificationDoesNotReplaceNewerParcel() throws Exception {
+        UUID orderId = UUID.fromString("1d2e3f40-5a6b-4c7d-8e9f-0a1b2c3d4e5f");
+        UUID parcelId = UUID.fromString("0b5c8f3e-8d7a-4c1e-9f2b-3a6d5e4c7b21");
+        String newer = PARCEL.replace("DR123456789CZ", "DR987654321CZ");
+        ParcelIndex index = new ParcelIndex();
+
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(MockApi.dispatcher(request -> MockApi.json(newer)));
+            try (FoxdeliClient client = MockApi.client(server)
+                    .cache(CacheConfig.defaults())
+                    .parcelIndex(index)
+                    .build()) {
+                receiver.close();
+                receiver = WebhookReceiver.builder()
+                        .client(client)
+                        .address(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+                        .secret("secret")
+                        .build();
+                assertThat(client.getParcel(orderId, parcelId).activeTracking().number()).isEqualTo("DR987654321CZ");
+                assertThat(index.get(parcelId)).isNotNull();
+
+                // The notification of the older version arrives after the newer version was retrieved.
+                assertThat(post(event("evt-1")).statusCode()).isEqualTo(204);
+
+                assertThat(client.getParcelCache().getIfPresent(parcelId)).isNull();
+                assertThat(index.get(parcelId)).isNull();
+                assertThat(client.getParcel(orderId, parcelId).activeTracking().number()).isEqualTo("DR987654321CZ");
+                assertThat(index.findByTrackingNumber("DR987654321CZ")).hasSize(1);
+                assertThat(index.findByTrackingNumber("DR123456789CZ")).isEmpty();
+            }
+        }
+    }
+
+    @Test
+    void eventsWithoutIdAreAlwaysApplied() throws Exception {
+        receiver.addListener(received::add);
+
+        assertThat(post(event(null)).statusCode()).isEqualTo(204);
+        assertThat(post(event(null)).statusCode()).isEqualTo(204);
+
+        assertThat(received).hasSize(2);
+    }
+
+    @Test
+    void rejectsInvalidNotifications() throws Exception {
+        receiver.addListener(received::add);
+
+        assertThat(post("{\"id\":\"evt-1\",\"type\":\"parcel.updated\"}").statusCode()).isEqualTo(400);
+        assertThat(post("{\"id\":\"evt-1\",\"type\":\"invoice.paid\",\"data\":{}}").statusCode()).isEqualTo(400);
+        assertThat(http.send(HttpRequest.newBuilder(uri())
+                        .POST(HttpRequest.BodyPublishers.ofString(event("evt-1")))
+                        .build(), HttpResponse.BodyHandlers.discarding()).statusCode())
+                .isEqualTo(401);
+        // Rejected notifications do not consume the ID of the event.
+        assertThat(post(event("evt-1")).statusCode()).isEqualTo(204);
+        assertThat(received).hasSize(1);
+    }
+
+    private static String event(String id) {
+        String idField = id == null ? "" : "\"id\":\"" + id + "\",";
+        return "{" + idField + "\"type\":\"parcel.updated\",\"data\":" + PARCEL + "}";
+    }
+
+    private HttpResponse<Void> post(String body) throws IOException, InterruptedException {
+        return http.send(request(body), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private HttpRequest request(String body) {
+        return HttpRequest.newBuilder(uri())
+                .header(WebhookReceiver.SECRET_HEADER, "secret")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private URI uri() {
+        InetSocketAddress address = receiver.getAddress();
+        return URI.create("http://" + address.getHostString() + ":" + address.getPort() + "/foxdeli/events");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}